@@ -1,5 +1,6 @@
 package com.astroframe.galactic.core;
 
+import com.astroframe.galactic.core.api.machine.MachineRecipeManager;
 import com.astroframe.galactic.core.items.CoreItems;
 import com.astroframe.galactic.core.registry.CoreRegistry;
 import net.minecraft.network.chat.Component;
@@ -10,6 +11,7 @@ import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.ModList;
+import net.neoforged.fml.event.lifecycle.FMLLoadCompleteEvent;
 import net.neoforged.neoforge.event.BuildCreativeModeTabContentsEvent;
 import net.neoforged.neoforge.registries.DeferredHolder;
 import org.slf4j.Logger;
@@ -117,6 +119,15 @@ public class GalacticCore {
         }
     }
     
+    /**
+     * Event handler for the end of mod loading.
+     * Publishes the machine recipes registered during loading as one snapshot.
+     */
+    @SubscribeEvent
+    public void onLoadComplete(FMLLoadCompleteEvent event) {
+        MachineRecipeManager.freeze();
+    }
+    
     /**
      * Gets the mod event bus for registering events.
      * 
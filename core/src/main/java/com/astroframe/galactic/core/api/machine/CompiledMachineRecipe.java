@@ -0,0 +1,275 @@
+package com.astroframe.galactic.core.api.machine;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A machine recipe as checked and prepared when it is registered or loaded.
+ * <p>
+ * Compiling reads everything the recipe declares exactly once: its input keys are normalised
+ * into canonical matchers, its timing and energy are validated and its total energy is worked
+ * out, and its results are copied into output templates with their chances. Recipes that
+ * declare impossible values are rejected at this point instead of being found out on the tick
+ * thread. A compiled recipe never changes, so it can be shared by every thread.
+ * <p>
+ * Input keys are canonical when null entries are {@link RecipeInputKey#ANY} and trailing
+ * {@code ANY} keys are dropped, so two recipes that accept the same slots have equal key lists.
+ */
+public final class CompiledMachineRecipe {
+    
+    private final IMachineRecipe recipe;
+    private final List<RecipeInputKey> inputKeys;
+    private final int processingTime;
+    private final int energyPerTick;
+    private final int totalEnergy;
+    private final List<ItemStack> outputTemplates;
+    private final float[] outputChances;
+    
+    private CompiledMachineRecipe(IMachineRecipe recipe, List<RecipeInputKey> inputKeys, int processingTime,
+                                  int energyPerTick, int totalEnergy, List<ItemStack> outputTemplates,
+                                  float[] outputChances) {
+        this.recipe = recipe;
+        this.inputKeys = inputKeys;
+        this.processingTime = processingTime;
+        this.energyPerTick = energyPerTick;
+        this.totalEnergy = totalEnergy;
+        this.outputTemplates = outputTemplates;
+        this.outputChances = outputChances;
+    }
+    
+    /**
+     * Compiles a recipe.
+     *
+     * @param recipe The recipe
+     * @return The compiled recipe
+     * @throws IllegalArgumentException If the recipe has no ID or type, a non-positive processing time,
+     *         negative or overflowing energy, a total energy other than processing time times energy per tick,
+     *         no results, or output chances outside 0.0 to 1.0
+     */
+    public static CompiledMachineRecipe compile(IMachineRecipe recipe) {
+        if (recipe.getId() == null) {
+            throw new IllegalArgumentException("Recipe has no ID");
+        }
+        if (recipe.getType() == null) {
+            throw new IllegalArgumentException("Recipe has no type");
+        }
+        
+        int processingTime = recipe.getProcessingTime();
+        if (processingTime <= 0) {
+            throw new IllegalArgumentException("Processing time must be positive, got " + processingTime);
+        }
+        int energyPerTick = recipe.getEnergyPerTick();
+        if (energyPerTick < 0) {
+            throw new IllegalArgumentException("Energy per tick cannot be negative, got " + energyPerTick);
+        }
+        long expectedEnergy = Math.multiplyExact((long) processingTime, energyPerTick);
+        if (expectedEnergy > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Total energy overflows an int: " + processingTime + " ticks at "
+                    + energyPerTick + " per tick");
+        }
+        int totalEnergy = recipe.getTotalEnergyRequired();
+        if (totalEnergy != expectedEnergy) {
+            throw new IllegalArgumentException("Total energy " + totalEnergy + " does not match " + processingTime
+                    + " ticks at " + energyPerTick + " per tick");
+        }
+        
+        List<ItemStack> results = recipe.getResultItems();
+        if (results == null) {
+            throw new IllegalArgumentException("Recipe has no result list");
+        }
+        List<ItemStack> templates = new ArrayList<>(results.size());
+        float[] chances = new float[results.size()];
+        boolean producesSomething = false;
+        for (int i = 0; i < results.size(); i++) {
+            ItemStack result = results.get(i);
+            if (result == null || result.isEmpty()) {
+                templates.add(ItemStack.EMPTY);
+                continue;
+            }
+            float chance = recipe.getSecondaryOutputChance(i);
+            if (!(chance >= 0.0F && chance <= 1.0F)) {
+                throw new IllegalArgumentException("Chance of output " + i + " must be between 0.0 and 1.0, got " + chance);
+            }
+            templates.add(result.copy());
+            chances[i] = chance;
+            producesSomething = true;
+        }
+        if (!producesSomething) {
+            throw new IllegalArgumentException("Recipe produces nothing");
+        }
+        
+        return new CompiledMachineRecipe(recipe, normalise(recipe.getInputKeys()), processingTime, energyPerTick,
+                totalEnergy, Collections.unmodifiableList(templates), chances);
+    }
+    
+    /**
+     * Brings input keys into canonical form.
+     *
+     * @param keys The keys as declared, possibly null
+     * @return An unmodifiable list of the canonical keys
+     */
+    static List<RecipeInputKey> normalise(List<RecipeInputKey> keys) {
+        if (keys == null) {
+            return List.of();
+        }
+        int length = keys.size();
+        while (length > 0 && (keys.get(length - 1) == null || keys.get(length - 1).isAny())) {
+            length--;
+        }
+        RecipeInputKey[] canonical = new RecipeInputKey[length];
+        for (int i = 0; i < length; i++) {
+            RecipeInputKey key = keys.get(i);
+            canonical[i] = key != null ? key : RecipeInputKey.ANY;
+        }
+        return List.of(canonical);
+    }
+    
+    /**
+     * Gets the recipe this was compiled from.
+     *
+     * @return The recipe
+     */
+    public IMachineRecipe getRecipe() {
+        return recipe;
+    }
+    
+    /**
+     * Gets the ID of the recipe.
+     *
+     * @return The recipe ID
+     */
+    public ResourceLocation getId() {
+        return recipe.getId();
+    }
+    
+    /**
+     * Gets the canonical input keys, in container slot order starting at slot 0.
+     *
+     * @return An unmodifiable list of the keys, empty if the recipe declares none
+     */
+    public List<RecipeInputKey> getInputKeys() {
+        return inputKeys;
+    }
+    
+    /**
+     * Gets the processing time in ticks.
+     *
+     * @return The processing time
+     */
+    public int getProcessingTime() {
+        return processingTime;
+    }
+    
+    /**
+     * Gets the energy consumption per tick.
+     *
+     * @return The energy per tick
+     */
+    public int getEnergyPerTick() {
+        return energyPerTick;
+    }
+    
+    /**
+     * Gets the total energy required, as worked out when the recipe was compiled.
+     *
+     * @return The total energy
+     */
+    public int getTotalEnergyRequired() {
+        return totalEnergy;
+    }
+    
+    /**
+     * Gets the output templates, one per result of the recipe. They must not be modified;
+     * use {@link #createOutputs()} for stacks that can be inserted into an inventory.
+     *
+     * @return An unmodifiable list of the templates, with empty stacks for empty results
+     */
+    public List<ItemStack> getOutputTemplates() {
+        return outputTemplates;
+    }
+    
+    /**
+     * Gets the chance for an output to be produced.
+     *
+     * @param index The index of the output
+     * @return A value between 0.0 and 1.0, or 0.0 for an index without an output
+     */
+    public float getOutputChance(int index) {
+        return index >= 0 && index < outputChances.length ? outputChances[index] : 0.0F;
+    }
+    
+    /**
+     * Creates fresh copies of the output templates.
+     *
+     * @return A new list of the outputs
+     */
+    public List<ItemStack> createOutputs() {
+        List<ItemStack> outputs = new ArrayList<>(outputTemplates.size());
+        for (ItemStack template : outputTemplates) {
+            outputs.add(template.copy());
+        }
+        return outputs;
+    }
+    
+    /**
+     * Checks the container's input slots against the input keys, without calling the recipe.
+     *
+     * @param container The container
+     * @return False if the recipe cannot match the container
+     */
+    public boolean accepts(Container container) {
+        return accepts(inputKeys, container);
+    }
+    
+    static boolean accepts(List<RecipeInputKey> keys, Container container) {
+        int keyCount = keys.size();
+        if (keyCount > container.getContainerSize()) {
+            return false;
+        }
+        for (int slot = 0; slot < keyCount; slot++) {
+            if (!keys.get(slot).test(container.getItem(slot))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Checks if the recipe can be processed by the given container. The input keys are checked
+     * first, so {@link IMachineRecipe#matches} only runs for containers that can match.
+     *
+     * @param container The container to check
+     * @param level The world level
+     * @return Whether the recipe can be processed
+     */
+    public boolean matches(Container container, Level level) {
+        return accepts(container) && recipe.matches(container, level);
+    }
+    
+    /**
+     * Checks whether this recipe accepts every input the other recipe accepts, judging by input
+     * keys alone. Tags are only known to cover themselves, as their contents can change on reload.
+     *
+     * @param other A recipe of the same type
+     * @return True if this recipe's keys cover the other's
+     */
+    boolean covers(CompiledMachineRecipe other) {
+        if (inputKeys.isEmpty()) {
+            return false; // Declares nothing, so only matches() knows what it accepts
+        }
+        List<RecipeInputKey> otherKeys = other.inputKeys;
+        for (int slot = 0; slot < inputKeys.size(); slot++) {
+            RecipeInputKey key = inputKeys.get(slot);
+            if (!key.isAny() && (slot >= otherKeys.size() || !key.equals(otherKeys.get(slot)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
@@ -67,6 +67,18 @@ public interface IMachineRecipe {
         return index == 0 ? 1.0F : 0.0F;
     }
     
+    /**
+     * Gets what this recipe accepts in each input slot, in container slot order starting at slot 0.
+     * Used by {@link MachineRecipeManager} to index recipes so that a lookup only calls
+     * {@link #matches} on recipes whose inputs can be present. A recipe that returns keys must not
+     * match a container whose input slots do not satisfy them.
+     * 
+     * @return The input keys, or an empty list if this recipe should be checked against every container
+     */
+    default List<RecipeInputKey> getInputKeys() {
+        return List.of();
+    }
+    
     /**
      * Checks if this recipe can be processed by the given container.
      * 
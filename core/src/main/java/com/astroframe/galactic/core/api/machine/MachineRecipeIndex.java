@@ -0,0 +1,247 @@
+package com.astroframe.galactic.core.api.machine;
+
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Index over the recipes of one machine recipe type, keyed by their {@link RecipeInputKey}s.
+ * <p>
+ * Each recipe is filed in exactly one bucket:
+ * <ul>
+ *   <li>by its full input signature, if every input slot is a single item;</li>
+ *   <li>by the item in its first input slot, if only that slot is a single item;</li>
+ *   <li>by the tag in its first input slot;</li>
+ *   <li>or as unindexed, if it declares no keys or accepts anything in its first slot.</li>
+ * </ul>
+ * A lookup reads the container's input slots once and only visits the buckets those contents
+ * can hit, and checks each candidate's remaining keys before calling {@link IMachineRecipe#matches}.
+ * Candidates are returned in registration order, so the first match is the same recipe a linear
+ * scan would find. Keys are filed in their canonical form (see {@link CompiledMachineRecipe}), so
+ * trailing {@link RecipeInputKey#ANY} slots do not keep a recipe out of the signature buckets.
+ * <p>
+ * An index is only filled while it is being built. Once {@link MachineRecipeManager} has
+ * published it in a {@link MachineRecipeSnapshot} it is never modified again, so any thread
+ * may read it without locking.
+ * 
+ * @param <T> The specific type of machine recipe
+ */
+public class MachineRecipeIndex<T extends IMachineRecipe> {
+    
+    private final List<T> recipes = new ArrayList<>();
+    private final Map<List<Item>, List<Entry<T>>> bySignature = new HashMap<>();
+    private final Map<Integer, Integer> signatureLengths = new TreeMap<>();
+    private final Map<Item, List<Entry<T>>> byFirstItem = new HashMap<>();
+    private final Map<TagKey<Item>, List<Entry<T>>> byFirstTag = new HashMap<>();
+    private final List<Entry<T>> unindexed = new ArrayList<>();
+    
+    /**
+     * Creates an empty index.
+     */
+    public MachineRecipeIndex() {
+    }
+    
+    /**
+     * Creates an index over the given recipes, in iteration order.
+     * 
+     * @param recipes The recipes
+     */
+    public MachineRecipeIndex(Collection<? extends T> recipes) {
+        for (T recipe : recipes) {
+            add(recipe);
+        }
+    }
+    
+    /**
+     * Creates an index over compiled recipes, filed by the keys they were compiled with.
+     * 
+     * @param recipes The compiled recipes, in registration order
+     * @return The index
+     */
+    static MachineRecipeIndex<IMachineRecipe> of(List<CompiledMachineRecipe> recipes) {
+        MachineRecipeIndex<IMachineRecipe> index = new MachineRecipeIndex<>();
+        for (CompiledMachineRecipe recipe : recipes) {
+            index.add(recipe.getRecipe(), recipe.getInputKeys());
+        }
+        return index;
+    }
+    
+    /**
+     * Adds a recipe to the index, after every recipe added before it.
+     * Only called while the index is being built, before it is published.
+     * 
+     * @param recipe The recipe
+     */
+    void add(T recipe) {
+        add(recipe, CompiledMachineRecipe.normalise(recipe.getInputKeys()));
+    }
+    
+    private void add(T recipe, List<RecipeInputKey> keys) {
+        Entry<T> entry = new Entry<>(recipes.size(), recipe, keys);
+        recipes.add(recipe);
+        
+        if (keys.isEmpty() || keys.get(0).isAny()) {
+            unindexed.add(entry);
+            return;
+        }
+        
+        RecipeInputKey first = keys.get(0);
+        if (first.getTag() != null) {
+            byFirstTag.computeIfAbsent(first.getTag(), key -> new ArrayList<>()).add(entry);
+            return;
+        }
+        
+        Item[] signature = new Item[keys.size()];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = keys.get(i).getItem();
+            if (signature[i] == null) {
+                byFirstItem.computeIfAbsent(first.getItem(), key -> new ArrayList<>()).add(entry);
+                return;
+            }
+        }
+        bySignature.computeIfAbsent(List.of(signature), key -> new ArrayList<>()).add(entry);
+        signatureLengths.merge(signature.length, 1, Integer::sum);
+    }
+    
+    /**
+     * Gets every indexed recipe in registration order.
+     * 
+     * @return An unmodifiable view of the recipes
+     */
+    public List<T> getRecipes() {
+        return Collections.unmodifiableList(recipes);
+    }
+    
+    /**
+     * Gets the number of indexed recipes.
+     * 
+     * @return The recipe count
+     */
+    public int size() {
+        return recipes.size();
+    }
+    
+    /**
+     * Gets the recipes that could match the container, in registration order.
+     * The candidates still have to be checked with {@link IMachineRecipe#matches}.
+     * 
+     * @param container The container
+     * @return The candidate recipes
+     */
+    public List<T> getCandidates(Container container) {
+        List<List<Entry<T>>> buckets = collectBuckets(container);
+        if (buckets.isEmpty()) {
+            return Collections.emptyList();
+        }
+        
+        List<Entry<T>> entries = merge(buckets);
+        List<T> candidates = new ArrayList<>(entries.size());
+        for (Entry<T> entry : entries) {
+            if (CompiledMachineRecipe.accepts(entry.keys, container)) {
+                candidates.add(entry.recipe);
+            }
+        }
+        return candidates;
+    }
+    
+    /**
+     * Finds the first recipe, in registration order, that matches the container.
+     * 
+     * @param container The container
+     * @param level The world level
+     * @return The matching recipe, or null
+     */
+    public T findFirst(Container container, Level level) {
+        List<List<Entry<T>>> buckets = collectBuckets(container);
+        if (buckets.isEmpty()) {
+            return null;
+        }
+        
+        List<Entry<T>> entries = buckets.size() == 1 ? buckets.get(0) : merge(buckets);
+        for (Entry<T> entry : entries) {
+            if (CompiledMachineRecipe.accepts(entry.keys, container) && entry.recipe.matches(container, level)) {
+                return entry.recipe;
+            }
+        }
+        return null;
+    }
+    
+    private List<List<Entry<T>>> collectBuckets(Container container) {
+        List<List<Entry<T>>> buckets = new ArrayList<>(4);
+        if (!unindexed.isEmpty()) {
+            buckets.add(unindexed);
+        }
+        
+        int size = container.getContainerSize();
+        ItemStack first = size > 0 ? container.getItem(0) : ItemStack.EMPTY;
+        if (first.isEmpty()) {
+            return buckets; // Indexed recipes all need something in the first slot
+        }
+        
+        List<Entry<T>> byItem = byFirstItem.get(first.getItem());
+        if (byItem != null) {
+            buckets.add(byItem);
+        }
+        for (Map.Entry<TagKey<Item>, List<Entry<T>>> tagged : byFirstTag.entrySet()) {
+            if (first.is(tagged.getKey())) {
+                buckets.add(tagged.getValue());
+            }
+        }
+        
+        for (int length : signatureLengths.keySet()) {
+            if (length > size) {
+                break;
+            }
+            Item[] signature = new Item[length];
+            for (int i = 0; i < length; i++) {
+                signature[i] = container.getItem(i).getItem();
+            }
+            List<Entry<T>> bySlots = bySignature.get(Arrays.asList(signature));
+            if (bySlots != null) {
+                buckets.add(bySlots);
+            }
+        }
+        return buckets;
+    }
+    
+    private static <T extends IMachineRecipe> List<Entry<T>> merge(List<List<Entry<T>>> buckets) {
+        if (buckets.size() == 1) {
+            return buckets.get(0);
+        }
+        
+        // Buckets are disjoint, so restoring registration order is a sort by ordinal
+        List<Entry<T>> merged = new ArrayList<>();
+        for (List<Entry<T>> bucket : buckets) {
+            merged.addAll(bucket);
+        }
+        merged.sort(Comparator.comparingInt(entry -> entry.ordinal));
+        return merged;
+    }
+    
+    /**
+     * A recipe, its canonical input keys and its position in registration order.
+     */
+    private static final class Entry<T> {
+        private final int ordinal;
+        private final T recipe;
+        private final List<RecipeInputKey> keys;
+        
+        private Entry(int ordinal, T recipe, List<RecipeInputKey> keys) {
+            this.ordinal = ordinal;
+            this.recipe = recipe;
+            this.keys = keys;
+        }
+    }
+}
\ No newline at end of file
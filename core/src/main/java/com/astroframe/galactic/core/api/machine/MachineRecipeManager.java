@@ -3,6 +3,7 @@ package com.astroframe.galactic.core.api.machine;
 import com.astroframe.galactic.core.GalacticCore;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.Container;
+import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 
 import java.util.*;
@@ -11,11 +12,33 @@ import java.util.stream.Collectors;
 /**
  * Manager for machine recipes.
  * Provides methods to register and retrieve machine recipes.
+ * Recipes of each type are kept in a {@link MachineRecipeIndex}, so a lookup only checks the
+ * recipes whose {@link IMachineRecipe#getInputKeys() input keys} fit the container.
+ * <p>
+ * Registered types and recipes live in an immutable {@link MachineRecipeSnapshot}, published
+ * through a volatile reference. {@link #reload(Collection)} builds a new snapshot and swaps it in
+ * with a single write, so lookups from any thread never see a half-built state and never take a
+ * lock. Registrations are collected in a {@link MachineRecipeSnapshot.Builder} and published
+ * together by {@link #publish()}, so registering a batch of recipes builds each index once instead
+ * of once per recipe. Core publishes them when mod loading completes and, from then on, publishes
+ * each later registration as it is made.
+ * <p>
+ * Recipes are compiled into {@link CompiledMachineRecipe}s as they are registered or reloaded,
+ * so invalid recipes and reused IDs are rejected with an error here rather than failing on the
+ * tick thread, and shadowed recipes are reported with a warning.
  */
 public class MachineRecipeManager {
     
-    private static final Map<ResourceLocation, IMachineRecipeType<?>> RECIPE_TYPES = new HashMap<>();
-    private static final Map<ResourceLocation, List<IMachineRecipe>> RECIPES = new HashMap<>();
+    private static final Object WRITE_LOCK = new Object();
+    
+    // Replaced as a whole under WRITE_LOCK, read without locking
+    private static volatile MachineRecipeSnapshot snapshot = MachineRecipeSnapshot.EMPTY;
+    
+    // Registrations made since the last publish, or null; guarded by WRITE_LOCK
+    private static MachineRecipeSnapshot.Builder pending;
+    
+    // Set once loading completes, after which every registration is published at once; guarded by WRITE_LOCK
+    private static boolean frozen;
     
     /**
      * Registers a new machine recipe type.
@@ -29,13 +52,15 @@ public class MachineRecipeManager {
         }
         
         ResourceLocation id = recipeType.getId();
-        if (RECIPE_TYPES.containsKey(id)) {
-            GalacticCore.LOGGER.warn("Recipe type {} is already registered, skipping", id);
-            return;
+        synchronized (WRITE_LOCK) {
+            if (!builder().addType(recipeType)) {
+                GalacticCore.LOGGER.warn("Recipe type {} is already registered, skipping", id);
+                return;
+            }
+            if (frozen) {
+                publishPending();
+            }
         }
-        
-        RECIPE_TYPES.put(id, recipeType);
-        RECIPES.put(id, new ArrayList<>());
         GalacticCore.LOGGER.info("Registered machine recipe type: {}", id);
     }
     
@@ -57,16 +82,131 @@ public class MachineRecipeManager {
         }
         
         ResourceLocation typeId = type.getId();
-        if (!RECIPE_TYPES.containsKey(typeId)) {
-            GalacticCore.LOGGER.error("Recipe type {} is not registered", typeId);
-            return;
+        synchronized (WRITE_LOCK) {
+            MachineRecipeSnapshot.Builder builder = builder();
+            if (!builder.hasType(typeId)) {
+                GalacticCore.LOGGER.error("Recipe type {} is not registered", typeId);
+                return;
+            }
+            try {
+                builder.addRecipe(recipe);
+            } catch (IllegalArgumentException e) {
+                GalacticCore.LOGGER.error("Rejected machine recipe {}: {}", recipe.getId(), e.getMessage());
+                return;
+            }
+            if (frozen) {
+                publishPending();
+            }
         }
-        
-        List<IMachineRecipe> recipes = RECIPES.get(typeId);
-        recipes.add(recipe);
         GalacticCore.LOGGER.info("Registered machine recipe: {}", recipe.getId());
     }
     
+    /**
+     * Replaces every registered recipe, e.g. after a datapack reload.
+     * The recipes are compiled and the indexes of all types rebuilt from scratch off to the side,
+     * then published in one swap; lookups running meanwhile keep using the previous snapshot.
+     * Recipes that fail to compile are logged and left out. Recipe types are kept, and recipes
+     * registered but not yet published are replaced along with the rest.
+     * 
+     * @param recipes The new recipes, in registration order
+     * @return The published snapshot
+     */
+    public static MachineRecipeSnapshot reload(Collection<? extends IMachineRecipe> recipes) {
+        List<IMachineRecipe> accepted = new ArrayList<>(recipes.size());
+        MachineRecipeSnapshot reloaded;
+        synchronized (WRITE_LOCK) {
+            MachineRecipeSnapshot current = publishPending();
+            for (IMachineRecipe recipe : recipes) {
+                if (recipe == null || recipe.getType() == null) {
+                    GalacticCore.LOGGER.error("Skipping machine recipe without a type: {}", recipe != null ? recipe.getId() : null);
+                } else if (current.getRecipeType(recipe.getType().getId()) == null) {
+                    GalacticCore.LOGGER.error("Recipe type {} is not registered", recipe.getType().getId());
+                } else {
+                    accepted.add(recipe);
+                }
+            }
+            reloaded = MachineRecipeSnapshot.build(current.getVersion() + 1, current.getRecipeTypes(), accepted);
+            snapshot = reloaded;
+        }
+        GalacticCore.LOGGER.info("Reloaded {} machine recipes (snapshot {})", reloaded.getRecipeCount(), reloaded.getVersion());
+        return reloaded;
+    }
+    
+    /**
+     * Publishes the recipe types and recipes registered since the last publish as one new snapshot.
+     * Lookups do not see registrations until they are published.
+     * 
+     * @return The published snapshot
+     */
+    public static MachineRecipeSnapshot publish() {
+        synchronized (WRITE_LOCK) {
+            return publishPending();
+        }
+    }
+    
+    /**
+     * Publishes pending registrations and makes every later registration publish as soon as it is made.
+     * Called by core once mod loading completes; registering after that rebuilds the indexes each time.
+     */
+    public static void freeze() {
+        synchronized (WRITE_LOCK) {
+            frozen = true;
+            MachineRecipeSnapshot published = publishPending();
+            GalacticCore.LOGGER.info("Published {} machine recipes (snapshot {})", published.getRecipeCount(), published.getVersion());
+        }
+    }
+    
+    // Called under WRITE_LOCK; starts collecting registrations on top of the published snapshot
+    private static MachineRecipeSnapshot.Builder builder() {
+        if (pending == null) {
+            pending = new MachineRecipeSnapshot.Builder(snapshot);
+        }
+        return pending;
+    }
+    
+    // Called under WRITE_LOCK
+    private static MachineRecipeSnapshot publishPending() {
+        if (pending != null) {
+            snapshot = pending.build(snapshot.getVersion() + 1);
+            pending = null;
+        }
+        return snapshot;
+    }
+    
+    // The published snapshot; never locks
+    private static MachineRecipeSnapshot current() {
+        return snapshot;
+    }
+    
+    /**
+     * Gets the current recipe snapshot. Query it directly when several lookups must agree.
+     * 
+     * @return The published snapshot
+     */
+    public static MachineRecipeSnapshot getSnapshot() {
+        return current();
+    }
+    
+    /**
+     * Gets the version of the current recipe snapshot. Changes whenever recipes or types change,
+     * so callers can use it to drop anything they cached from earlier lookups.
+     * 
+     * @return The snapshot version
+     */
+    public static long getVersion() {
+        return current().getVersion();
+    }
+    
+    /**
+     * Gets the compiled form of a registered recipe, with its validated timing, total energy and output templates.
+     * 
+     * @param recipeId The recipe ID
+     * @return The compiled recipe, or null if no recipe has that ID
+     */
+    public static CompiledMachineRecipe getCompiledRecipe(ResourceLocation recipeId) {
+        return current().getCompiledRecipe(recipeId);
+    }
+    
     /**
      * Gets a registered recipe type by its ID.
      * 
@@ -74,7 +214,7 @@ public class MachineRecipeManager {
      * @return The recipe type, or null if not found
      */
     public static IMachineRecipeType<?> getRecipeType(ResourceLocation id) {
-        return RECIPE_TYPES.get(id);
+        return current().getRecipeType(id);
     }
     
     /**
@@ -83,7 +223,7 @@ public class MachineRecipeManager {
      * @return A collection of all registered recipe types
      */
     public static Collection<IMachineRecipeType<?>> getAllRecipeTypes() {
-        return Collections.unmodifiableCollection(RECIPE_TYPES.values());
+        return current().getRecipeTypes();
     }
     
     /**
@@ -100,12 +240,34 @@ public class MachineRecipeManager {
             return Collections.emptyList();
         }
         
-        List<IMachineRecipe> recipes = RECIPES.get(recipeType.getId());
-        if (recipes == null) {
+        MachineRecipeIndex<IMachineRecipe> index = current().getIndex(recipeType.getId());
+        if (index == null) {
             return Collections.emptyList();
         }
         
-        return (List<T>) Collections.unmodifiableList(recipes);
+        return (List<T>) index.getRecipes();
+    }
+    
+    /**
+     * Gets the recipes of a type that could match the container, without checking them.
+     * 
+     * @param <T> The recipe type
+     * @param container The container to look up
+     * @param recipeType The recipe type
+     * @return The candidate recipes, in registration order
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends IMachineRecipe> List<T> getCandidateRecipes(Container container, IMachineRecipeType<T> recipeType) {
+        if (container == null || recipeType == null) {
+            return Collections.emptyList();
+        }
+        
+        MachineRecipeIndex<IMachineRecipe> index = current().getIndex(recipeType.getId());
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        
+        return (List<T>) index.getCandidates(container);
     }
     
     /**
@@ -117,6 +279,7 @@ public class MachineRecipeManager {
      * @param recipeType The recipe type to match
      * @return The matching recipe, or null if no match found
      */
+    @SuppressWarnings("unchecked")
     public static <T extends IMachineRecipe> Optional<T> getMatchingRecipe(Container container, Level level, IMachineRecipeType<T> recipeType) {
         if (container == null || level == null || recipeType == null) {
             return Optional.empty();
@@ -126,10 +289,33 @@ public class MachineRecipeManager {
             return Optional.empty();
         }
         
-        List<T> recipes = getRecipesForType(level, recipeType);
-        return recipes.stream()
-                .filter(recipe -> recipe.matches(container, level))
-                .findFirst();
+        MachineRecipeIndex<IMachineRecipe> index = current().getIndex(recipeType.getId());
+        if (index == null) {
+            return Optional.empty();
+        }
+        
+        return Optional.ofNullable((T) index.findFirst(container, level));
+    }
+    
+    /**
+     * Computes a fingerprint of a range of container slots: item, components and count of each stack.
+     * Machines use it to tell whether their inputs changed since the last recipe lookup.
+     * Equal contents always give equal fingerprints; different contents almost always differ.
+     * 
+     * @param container The container
+     * @param firstSlot The first slot to include
+     * @param slotCount The number of slots to include
+     * @return The fingerprint
+     */
+    public static long fingerprint(Container container, int firstSlot, int slotCount) {
+        long hash = 1125899906842597L;
+        int end = Math.min(container.getContainerSize(), firstSlot + slotCount);
+        for (int slot = firstSlot; slot < end; slot++) {
+            ItemStack stack = container.getItem(slot);
+            hash = 31 * hash + (stack.isEmpty() ? 0 : ItemStack.hashItemAndComponents(stack));
+            hash = 31 * hash + stack.getCount();
+        }
+        return hash;
     }
     
     /**
@@ -139,7 +325,7 @@ public class MachineRecipeManager {
      * @return A list of valid recipe types
      */
     public static List<IMachineRecipeType<?>> getValidRecipeTypesForContainer(Container container) {
-        return RECIPE_TYPES.values().stream()
+        return current().getRecipeTypes().stream()
                 .filter(type -> type.isValidContainer(container))
                 .collect(Collectors.toList());
     }
@@ -0,0 +1,314 @@
+package com.astroframe.galactic.core.api.machine;
+
+import com.astroframe.galactic.core.GalacticCore;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable, versioned view of every registered machine recipe type and recipe.
+ * <p>
+ * {@link MachineRecipeManager} publishes a new snapshot through a volatile reference whenever
+ * registrations change or recipes are reloaded. A snapshot is never modified after it is
+ * published, so readers on any thread see either the old or the new state in full, and never
+ * need a lock. Callers that do several lookups which must agree with each other should get
+ * the snapshot once with {@link MachineRecipeManager#getSnapshot()} and query it directly.
+ * <p>
+ * Every recipe is compiled into a {@link CompiledMachineRecipe} on its way in, and the indexes
+ * are filed by the compiled input keys, so lookups never go back to the recipe's declarations.
+ * Recipes that fail to compile or reuse an ID are left out. A recipe whose inputs are all
+ * accepted by an earlier recipe of its type is kept, as {@link IMachineRecipe#matches} may still
+ * tell them apart, but is reported as shadowed.
+ */
+public final class MachineRecipeSnapshot {
+
+    /** The snapshot published before anything is registered */
+    static final MachineRecipeSnapshot EMPTY = new MachineRecipeSnapshot(0, Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap());
+
+    private final long version;
+    private final Map<ResourceLocation, IMachineRecipeType<?>> types;
+    private final Map<ResourceLocation, MachineRecipeIndex<IMachineRecipe>> indices;
+    // Per type, compiled recipes by recipe ID in registration order; each inner map is unmodifiable
+    private final Map<ResourceLocation, Map<ResourceLocation, CompiledMachineRecipe>> compiled;
+    private final int recipeCount;
+
+    private MachineRecipeSnapshot(long version, Map<ResourceLocation, IMachineRecipeType<?>> types,
+                                  Map<ResourceLocation, MachineRecipeIndex<IMachineRecipe>> indices,
+                                  Map<ResourceLocation, Map<ResourceLocation, CompiledMachineRecipe>> compiled) {
+        this.version = version;
+        this.types = Collections.unmodifiableMap(types);
+        this.indices = Collections.unmodifiableMap(indices);
+        this.compiled = Collections.unmodifiableMap(compiled);
+        int count = 0;
+        for (MachineRecipeIndex<IMachineRecipe> index : indices.values()) {
+            count += index.size();
+        }
+        this.recipeCount = count;
+    }
+
+    /**
+     * Builds a snapshot from scratch, compiling every recipe. Recipes whose type is not among the
+     * given types, that fail to compile or that reuse an ID are logged and skipped.
+     *
+     * @param version The version of the new snapshot
+     * @param types The recipe types, in registration order
+     * @param recipes The recipes, in registration order
+     * @return The new snapshot
+     */
+    static MachineRecipeSnapshot build(long version, Collection<IMachineRecipeType<?>> types,
+                                       Collection<? extends IMachineRecipe> recipes) {
+        Builder builder = new Builder();
+        for (IMachineRecipeType<?> type : types) {
+            builder.addType(type);
+        }
+        for (IMachineRecipe recipe : recipes) {
+            if (!builder.hasType(recipe.getType().getId())) {
+                continue;
+            }
+            try {
+                builder.addRecipe(recipe);
+            } catch (IllegalArgumentException e) {
+                GalacticCore.LOGGER.error("Rejected machine recipe {}: {}", recipe.getId(), e.getMessage());
+            }
+        }
+        return builder.build(version);
+    }
+
+    /**
+     * Gets the version of this snapshot. Every published snapshot has a higher version than the one before it.
+     *
+     * @return The version
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets a recipe type by its ID.
+     *
+     * @param id The recipe type ID
+     * @return The recipe type, or null if not registered
+     */
+    public IMachineRecipeType<?> getRecipeType(ResourceLocation id) {
+        return types.get(id);
+    }
+
+    /**
+     * Gets every recipe type, in registration order.
+     *
+     * @return An unmodifiable collection of the recipe types
+     */
+    public Collection<IMachineRecipeType<?>> getRecipeTypes() {
+        return types.values();
+    }
+
+    /**
+     * Gets the recipe index of a type.
+     *
+     * @param typeId The recipe type ID
+     * @return The index, or null if the type is not registered
+     */
+    public MachineRecipeIndex<IMachineRecipe> getIndex(ResourceLocation typeId) {
+        return indices.get(typeId);
+    }
+
+    /**
+     * Gets the recipes of a type, in registration order.
+     *
+     * @param typeId The recipe type ID
+     * @return An unmodifiable list of the recipes, empty if the type is not registered
+     */
+    public List<IMachineRecipe> getRecipes(ResourceLocation typeId) {
+        MachineRecipeIndex<IMachineRecipe> index = indices.get(typeId);
+        return index != null ? index.getRecipes() : Collections.emptyList();
+    }
+
+    /**
+     * Gets a compiled recipe by its ID.
+     *
+     * @param recipeId The recipe ID
+     * @return The compiled recipe, or null if no recipe has that ID
+     */
+    public CompiledMachineRecipe getCompiledRecipe(ResourceLocation recipeId) {
+        for (Map<ResourceLocation, CompiledMachineRecipe> ofType : compiled.values()) {
+            CompiledMachineRecipe recipe = ofType.get(recipeId);
+            if (recipe != null) {
+                return recipe;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the compiled recipes of a type, in registration order.
+     *
+     * @param typeId The recipe type ID
+     * @return An unmodifiable collection of the compiled recipes, empty if the type is not registered
+     */
+    public Collection<CompiledMachineRecipe> getCompiledRecipes(ResourceLocation typeId) {
+        Map<ResourceLocation, CompiledMachineRecipe> ofType = compiled.get(typeId);
+        return ofType != null ? ofType.values() : Collections.emptyList();
+    }
+
+    /**
+     * Gets the number of recipes across every type.
+     *
+     * @return The recipe count
+     */
+    public int getRecipeCount() {
+        return recipeCount;
+    }
+
+    /**
+     * Collects recipe types and recipes for a new snapshot. Each recipe is compiled, checked for a
+     * reused ID and for shadowing as it is added, but the indexes are only built by {@link #build(long)},
+     * so adding any number of recipes before publishing costs time linear in their count.
+     * <p>
+     * The shadow check only looks at earlier recipes that can cover the new one: those whose first
+     * input key is the new recipe's first key, and those that accept anything in their first slot.
+     */
+    static final class Builder {
+
+        private final Map<ResourceLocation, IMachineRecipeType<?>> types = new LinkedHashMap<>();
+        private final Map<ResourceLocation, Map<ResourceLocation, CompiledMachineRecipe>> compiled = new LinkedHashMap<>();
+        // Position of each recipe among the recipes of its type, across every type
+        private final Map<ResourceLocation, Integer> ordinals = new HashMap<>();
+        // Per type, recipes that can shadow later ones by their first input key; ANY for recipes accepting anything first
+        private final Map<ResourceLocation, Map<RecipeInputKey, List<CompiledMachineRecipe>>> byFirstKey = new HashMap<>();
+
+        /**
+         * Creates an empty builder.
+         */
+        Builder() {
+        }
+
+        /**
+         * Creates a builder holding every type and recipe of a snapshot. Their shadowing was
+         * reported when they were first added, so it is not reported again.
+         *
+         * @param base The snapshot to start from
+         */
+        Builder(MachineRecipeSnapshot base) {
+            for (IMachineRecipeType<?> type : base.getRecipeTypes()) {
+                addType(type);
+            }
+            for (Map<ResourceLocation, CompiledMachineRecipe> ofType : base.compiled.values()) {
+                for (CompiledMachineRecipe entry : ofType.values()) {
+                    file(entry);
+                }
+            }
+        }
+
+        /**
+         * Checks whether a recipe type has been added.
+         *
+         * @param typeId The recipe type ID
+         * @return True if the type is in this builder
+         */
+        boolean hasType(ResourceLocation typeId) {
+            return types.containsKey(typeId);
+        }
+
+        /**
+         * Adds a recipe type, which starts without recipes.
+         *
+         * @param type The recipe type
+         * @return False if a type with the same ID was already added
+         */
+        boolean addType(IMachineRecipeType<?> type) {
+            if (types.putIfAbsent(type.getId(), type) != null) {
+                return false;
+            }
+            compiled.put(type.getId(), new LinkedHashMap<>());
+            byFirstKey.put(type.getId(), new HashMap<>());
+            return true;
+        }
+
+        /**
+         * Compiles a recipe and places it after the recipes of its type, reporting the first
+         * earlier recipe of its type that shadows it.
+         *
+         * @param recipe The recipe, whose type must have been added
+         * @return The first earlier recipe that shadows it, or null
+         * @throws IllegalArgumentException If the recipe fails to compile, its type was not added
+         *         or its ID is already in use
+         */
+        CompiledMachineRecipe addRecipe(IMachineRecipe recipe) {
+            CompiledMachineRecipe entry = CompiledMachineRecipe.compile(recipe);
+            if (!hasType(recipe.getType().getId())) {
+                throw new IllegalArgumentException("Recipe type " + recipe.getType().getId() + " is not registered");
+            }
+            if (ordinals.containsKey(entry.getId())) {
+                throw new IllegalArgumentException("Recipe ID is already registered");
+            }
+            CompiledMachineRecipe shadow = findShadow(entry);
+            if (shadow != null) {
+                GalacticCore.LOGGER.warn("Machine recipe {} is shadowed by {}, which accepts the same inputs and is checked first",
+                        entry.getId(), shadow.getId());
+            }
+            file(entry);
+            return shadow;
+        }
+
+        private CompiledMachineRecipe findShadow(CompiledMachineRecipe entry) {
+            List<RecipeInputKey> keys = entry.getInputKeys();
+            if (keys.isEmpty()) {
+                return null; // Only recipes declaring nothing accept anything, and those never cover
+            }
+            Map<RecipeInputKey, List<CompiledMachineRecipe>> ofType = byFirstKey.get(entry.getRecipe().getType().getId());
+            CompiledMachineRecipe shadow = firstCovering(ofType.get(keys.get(0)), entry);
+            CompiledMachineRecipe anyFirst = firstCovering(ofType.get(RecipeInputKey.ANY), entry);
+            if (shadow == null || (anyFirst != null && ordinals.get(anyFirst.getId()) < ordinals.get(shadow.getId()))) {
+                shadow = anyFirst;
+            }
+            return shadow;
+        }
+
+        private static CompiledMachineRecipe firstCovering(List<CompiledMachineRecipe> earlier, CompiledMachineRecipe entry) {
+            if (earlier != null) {
+                for (CompiledMachineRecipe candidate : earlier) {
+                    if (candidate.covers(entry)) {
+                        return candidate;
+                    }
+                }
+            }
+            return null;
+        }
+
+        private void file(CompiledMachineRecipe entry) {
+            ResourceLocation typeId = entry.getRecipe().getType().getId();
+            Map<ResourceLocation, CompiledMachineRecipe> ofType = compiled.get(typeId);
+            ordinals.put(entry.getId(), ofType.size());
+            ofType.put(entry.getId(), entry);
+            List<RecipeInputKey> keys = entry.getInputKeys();
+            if (!keys.isEmpty()) {
+                byFirstKey.get(typeId).computeIfAbsent(keys.get(0), key -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        /**
+         * Builds a snapshot of everything added so far, with one index per type.
+         * The builder can keep being used; the snapshot does not change with it.
+         *
+         * @param version The version of the new snapshot
+         * @return The new snapshot
+         */
+        MachineRecipeSnapshot build(long version) {
+            Map<ResourceLocation, MachineRecipeIndex<IMachineRecipe>> newIndices = new LinkedHashMap<>();
+            Map<ResourceLocation, Map<ResourceLocation, CompiledMachineRecipe>> newCompiled = new LinkedHashMap<>();
+            for (Map.Entry<ResourceLocation, Map<ResourceLocation, CompiledMachineRecipe>> ofType : compiled.entrySet()) {
+                Map<ResourceLocation, CompiledMachineRecipe> recipes = new LinkedHashMap<>(ofType.getValue());
+                newCompiled.put(ofType.getKey(), Collections.unmodifiableMap(recipes));
+                newIndices.put(ofType.getKey(), MachineRecipeIndex.of(new ArrayList<>(recipes.values())));
+            }
+            return new MachineRecipeSnapshot(version, new LinkedHashMap<>(types), newIndices, newCompiled);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.astroframe.galactic.core.api.machine;
+
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.Objects;
+
+/**
+ * Describes what a machine recipe accepts in one input slot, so recipes can be indexed by their inputs.
+ * A key is either a single item, an item tag, or {@link #ANY} for slots that cannot be indexed
+ * (empty slots, NBT-dependent inputs and the like).
+ */
+public final class RecipeInputKey {
+    
+    /**
+     * A slot that accepts anything, or whose contents cannot be described by an item or tag.
+     */
+    public static final RecipeInputKey ANY = new RecipeInputKey(null, null);
+    
+    private final Item item;
+    private final TagKey<Item> tag;
+    
+    private RecipeInputKey(Item item, TagKey<Item> tag) {
+        this.item = item;
+        this.tag = tag;
+    }
+    
+    /**
+     * Creates a key for a single item.
+     * 
+     * @param item The item
+     * @return The key
+     */
+    public static RecipeInputKey of(Item item) {
+        return new RecipeInputKey(Objects.requireNonNull(item, "item"), null);
+    }
+    
+    /**
+     * Creates a key for an item tag.
+     * 
+     * @param tag The tag
+     * @return The key
+     */
+    public static RecipeInputKey of(TagKey<Item> tag) {
+        return new RecipeInputKey(null, Objects.requireNonNull(tag, "tag"));
+    }
+    
+    /**
+     * Gets the item of this key.
+     * 
+     * @return The item, or null if this is not an item key
+     */
+    public Item getItem() {
+        return item;
+    }
+    
+    /**
+     * Gets the tag of this key.
+     * 
+     * @return The tag, or null if this is not a tag key
+     */
+    public TagKey<Item> getTag() {
+        return tag;
+    }
+    
+    /**
+     * Checks whether this key accepts anything.
+     * 
+     * @return True for {@link #ANY}
+     */
+    public boolean isAny() {
+        return item == null && tag == null;
+    }
+    
+    /**
+     * Checks whether a stack satisfies this key.
+     * 
+     * @param stack The stack
+     * @return Whether the stack is accepted
+     */
+    public boolean test(ItemStack stack) {
+        if (item != null) {
+            return stack.is(item);
+        }
+        if (tag != null) {
+            return stack.is(tag);
+        }
+        return true;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RecipeInputKey other = (RecipeInputKey) o;
+        return Objects.equals(item, other.item) && Objects.equals(tag, other.tag);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(item, tag);
+    }
+    
+    @Override
+    public String toString() {
+        if (item != null) {
+            return "item:" + item;
+        }
+        return tag != null ? "tag:" + tag.location() : "any";
+    }
+}
\ No newline at end of file
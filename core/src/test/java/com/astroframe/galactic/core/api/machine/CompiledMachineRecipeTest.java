@@ -0,0 +1,100 @@
+package com.astroframe.galactic.core.api.machine;
+
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static com.astroframe.galactic.core.api.machine.TestRecipes.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for key normalisation, shadow detection and validation in {@link CompiledMachineRecipe}.
+ */
+public class CompiledMachineRecipeTest {
+    
+    private final Item iron = item();
+    private final Item coal = item();
+    private final TagKey<Item> ingots = tag("c:ingots");
+    
+    /**
+     * Null keys become ANY and trailing ANY keys are dropped.
+     */
+    @Test
+    void testNormalise() {
+        RecipeInputKey ironKey = RecipeInputKey.of(iron);
+        RecipeInputKey coalKey = RecipeInputKey.of(coal);
+        
+        assertEquals(List.of(), CompiledMachineRecipe.normalise(null));
+        assertEquals(List.of(), CompiledMachineRecipe.normalise(Arrays.asList(null, RecipeInputKey.ANY)));
+        assertEquals(List.of(ironKey), CompiledMachineRecipe.normalise(Arrays.asList(ironKey, null, RecipeInputKey.ANY)));
+        assertEquals(List.of(RecipeInputKey.ANY, coalKey), CompiledMachineRecipe.normalise(Arrays.asList(null, coalKey)));
+    }
+    
+    /**
+     * A recipe covers another only if every slot it constrains holds the same key in the other.
+     */
+    @Test
+    void testCovers() {
+        CompiledMachineRecipe ironOnly = compile("test:iron", RecipeInputKey.of(iron));
+        CompiledMachineRecipe ironCoal = compile("test:iron_coal", RecipeInputKey.of(iron), RecipeInputKey.of(coal));
+        CompiledMachineRecipe anyCoal = compile("test:any_coal", RecipeInputKey.ANY, RecipeInputKey.of(coal));
+        CompiledMachineRecipe byTag = compile("test:by_tag", RecipeInputKey.of(ingots));
+        CompiledMachineRecipe undeclared = compile("test:undeclared");
+        
+        assertTrue(ironOnly.covers(ironCoal));
+        assertFalse(ironCoal.covers(ironOnly));
+        assertTrue(anyCoal.covers(ironCoal));
+        assertFalse(anyCoal.covers(ironOnly));
+        assertTrue(byTag.covers(compile("test:by_tag_again", RecipeInputKey.of(ingots))));
+        assertFalse(byTag.covers(ironOnly));
+        assertFalse(undeclared.covers(ironOnly));
+        assertFalse(undeclared.covers(compile("test:undeclared_again")));
+    }
+    
+    /**
+     * Recipes with impossible timing, results or chances are rejected when compiled.
+     */
+    @Test
+    void testCompileRejectsInvalidRecipes() {
+        Recipe instant = recipe("test:instant");
+        instant.processingTime = 0;
+        Recipe draining = recipe("test:draining");
+        draining.energyPerTick = -1;
+        Recipe overflowing = recipe("test:overflowing");
+        overflowing.energyPerTick = Integer.MAX_VALUE;
+        Recipe wrapping = recipe("test:wrapping");
+        wrapping.processingTime = 100000;
+        wrapping.energyPerTick = 50000; // 5,000,000,000 wraps to a positive int
+        Recipe fruitless = recipe("test:fruitless");
+        fruitless.results = List.of(empty());
+        Recipe lucky = recipe("test:lucky");
+        lucky.outputChance = 1.5F;
+        
+        for (Recipe invalid : List.of(instant, draining, overflowing, wrapping, fruitless, lucky)) {
+            assertThrows(IllegalArgumentException.class, () -> CompiledMachineRecipe.compile(invalid), invalid.getId().toString());
+        }
+    }
+    
+    /**
+     * A compiled recipe copies its outputs and works out its total energy once.
+     */
+    @Test
+    void testCompileCopiesOutputs() {
+        Recipe recipe = recipe("test:recipe", RecipeInputKey.of(iron));
+        CompiledMachineRecipe compiled = CompiledMachineRecipe.compile(recipe);
+        
+        assertEquals(1000, compiled.getTotalEnergyRequired());
+        assertEquals(1, compiled.getOutputTemplates().size());
+        assertEquals(1.0F, compiled.getOutputChance(0));
+        assertEquals(0.0F, compiled.getOutputChance(1));
+        assertTrue(compiled.accepts(container(stack(iron))));
+        assertFalse(compiled.accepts(container(stack(coal))));
+    }
+    
+    private static CompiledMachineRecipe compile(String id, RecipeInputKey... keys) {
+        return CompiledMachineRecipe.compile(recipe(id, keys));
+    }
+}
\ No newline at end of file
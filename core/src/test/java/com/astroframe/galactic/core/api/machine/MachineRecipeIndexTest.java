@@ -0,0 +1,105 @@
+package com.astroframe.galactic.core.api.machine;
+
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.astroframe.galactic.core.api.machine.TestRecipes.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the bucket selection and candidate order of {@link MachineRecipeIndex}.
+ */
+public class MachineRecipeIndexTest {
+    
+    private final Item iron = item();
+    private final Item coal = item();
+    private final Item gold = item();
+    private final TagKey<Item> ingots = tag("c:ingots");
+    
+    /**
+     * A recipe of single items is only a candidate for containers holding exactly those items.
+     */
+    @Test
+    void testSignatureBucket() {
+        Recipe alloy = recipe("test:alloy", RecipeInputKey.of(iron), RecipeInputKey.of(coal));
+        MachineRecipeIndex<IMachineRecipe> index = new MachineRecipeIndex<>(List.of(alloy));
+        
+        assertEquals(List.of(alloy), index.getCandidates(container(stack(iron), stack(coal))));
+        assertEquals(List.of(alloy), index.getCandidates(container(stack(iron), stack(coal), stack(gold))));
+        assertTrue(index.getCandidates(container(stack(iron), stack(gold))).isEmpty());
+        assertTrue(index.getCandidates(container(stack(iron))).isEmpty());
+        assertNull(index.findFirst(container(stack(coal), stack(iron)), level()));
+        assertEquals(0, alloy.matchCalls);
+    }
+    
+    /**
+     * Recipes are filed by their first item or tag when later slots are not single items.
+     */
+    @Test
+    void testFirstItemAndTagBuckets() {
+        Recipe byItem = recipe("test:by_item", RecipeInputKey.of(iron), RecipeInputKey.of(ingots));
+        Recipe byTag = recipe("test:by_tag", RecipeInputKey.of(ingots));
+        MachineRecipeIndex<IMachineRecipe> index = new MachineRecipeIndex<>(List.of(byItem, byTag));
+        
+        assertEquals(List.of(byItem, byTag), index.getCandidates(container(stack(iron, ingots), stack(gold, ingots))));
+        assertEquals(List.of(byTag), index.getCandidates(container(stack(gold, ingots), stack(iron, ingots))));
+        assertEquals(List.of(byTag), index.getCandidates(container(stack(iron, ingots), stack(coal))));
+        assertTrue(index.getCandidates(container(stack(coal), stack(iron, ingots))).isEmpty());
+    }
+    
+    /**
+     * Recipes without keys, or that accept anything first, are candidates for every container.
+     */
+    @Test
+    void testUnindexedRecipes() {
+        Recipe undeclared = recipe("test:undeclared");
+        Recipe anyFirst = recipe("test:any_first", RecipeInputKey.ANY, RecipeInputKey.of(coal));
+        Recipe byItem = recipe("test:by_item", RecipeInputKey.of(iron));
+        MachineRecipeIndex<IMachineRecipe> index = new MachineRecipeIndex<>(List.of(undeclared, anyFirst, byItem));
+        
+        assertEquals(List.of(undeclared, anyFirst), index.getCandidates(container(empty(), stack(coal))));
+        assertEquals(List.of(undeclared), index.getCandidates(container(empty(), stack(gold))));
+        assertEquals(List.of(undeclared, anyFirst, byItem), index.getCandidates(container(stack(iron), stack(coal))));
+    }
+    
+    /**
+     * Trailing ANY keys are dropped, so such a recipe still lands in a signature bucket.
+     */
+    @Test
+    void testTrailingAnyKeysAreIgnored() {
+        Recipe smelt = recipe("test:smelt", RecipeInputKey.of(iron), null, RecipeInputKey.ANY);
+        MachineRecipeIndex<IMachineRecipe> index = new MachineRecipeIndex<>(List.of(smelt));
+        
+        assertEquals(List.of(smelt), index.getCandidates(container(stack(iron))));
+        assertEquals(List.of(smelt), index.getCandidates(container(stack(iron), stack(gold), empty())));
+    }
+    
+    /**
+     * Candidates from several buckets come back in registration order, and the first match wins.
+     */
+    @Test
+    void testBucketsMergeInRegistrationOrder() {
+        Recipe undeclared = recipe("test:undeclared");
+        Recipe bySignature = recipe("test:by_signature", RecipeInputKey.of(iron));
+        Recipe byTag = recipe("test:by_tag", RecipeInputKey.of(ingots));
+        Recipe byItem = recipe("test:by_item", RecipeInputKey.of(iron), RecipeInputKey.of(ingots));
+        Recipe anyFirst = recipe("test:any_first", RecipeInputKey.ANY, RecipeInputKey.of(ingots));
+        Recipe longSignature = recipe("test:long_signature", RecipeInputKey.of(iron), RecipeInputKey.of(gold));
+        MachineRecipeIndex<IMachineRecipe> index = new MachineRecipeIndex<>(
+                List.of(undeclared, bySignature, byTag, byItem, anyFirst, longSignature));
+        Container container = container(stack(iron, ingots), stack(gold, ingots));
+        
+        assertEquals(List.of(undeclared, bySignature, byTag, byItem, anyFirst, longSignature), index.getCandidates(container));
+        
+        undeclared.matches = false;
+        bySignature.matches = false;
+        assertSame(byTag, index.findFirst(container, level()));
+        assertEquals(1, undeclared.matchCalls);
+        assertEquals(1, bySignature.matchCalls);
+        assertEquals(0, byItem.matchCalls);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.astroframe.galactic.core.api.machine;
+
+import net.minecraft.world.item.Item;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.astroframe.galactic.core.api.machine.TestRecipes.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for building and publishing {@link MachineRecipeSnapshot}s.
+ */
+public class MachineRecipeSnapshotTest {
+    
+    private final Item iron = item();
+    private final Item coal = item();
+    private final Item gold = item();
+    
+    /**
+     * A recipe ID can only be used once, even by recipes of different types.
+     */
+    @Test
+    void testReusedIdsAreRejected() {
+        IMachineRecipeType<IMachineRecipe> other = type("test:other");
+        MachineRecipeSnapshot.Builder builder = new MachineRecipeSnapshot.Builder();
+        builder.addType(TYPE);
+        builder.addType(other);
+        builder.addRecipe(recipe("test:first", RecipeInputKey.of(iron)));
+        
+        assertThrows(IllegalArgumentException.class, () -> builder.addRecipe(recipe("test:first", RecipeInputKey.of(coal))));
+        assertThrows(IllegalArgumentException.class, () -> builder.addRecipe(new Recipe(id("test:first"), other)));
+        assertThrows(IllegalArgumentException.class, () -> builder.addRecipe(new Recipe(id("test:unknown"), type("test:unknown"))));
+        
+        MachineRecipeSnapshot snapshot = builder.build(1);
+        assertEquals(1, snapshot.getRecipeCount());
+        assertTrue(snapshot.getRecipes(other.getId()).isEmpty());
+    }
+    
+    /**
+     * Adding a recipe reports the first earlier recipe whose keys cover it.
+     */
+    @Test
+    void testShadowingRecipeIsReported() {
+        MachineRecipeSnapshot.Builder builder = new MachineRecipeSnapshot.Builder();
+        builder.addType(TYPE);
+        Recipe ironOnly = recipe("test:iron", RecipeInputKey.of(iron));
+        Recipe anyCoal = recipe("test:any_coal", RecipeInputKey.ANY, RecipeInputKey.of(coal));
+        
+        assertNull(builder.addRecipe(ironOnly));
+        assertNull(builder.addRecipe(anyCoal));
+        assertSame(ironOnly, builder.addRecipe(recipe("test:iron_coal", RecipeInputKey.of(iron), RecipeInputKey.of(coal))).getRecipe());
+        assertSame(anyCoal, builder.addRecipe(recipe("test:gold_coal", RecipeInputKey.of(gold), RecipeInputKey.of(coal))).getRecipe());
+        assertNull(builder.addRecipe(recipe("test:gold", RecipeInputKey.of(gold))));
+        assertNull(builder.addRecipe(recipe("test:undeclared")));
+        
+        MachineRecipeSnapshot.Builder reversed = new MachineRecipeSnapshot.Builder();
+        reversed.addType(TYPE);
+        reversed.addRecipe(anyCoal);
+        reversed.addRecipe(ironOnly);
+        assertSame(anyCoal, reversed.addRecipe(recipe("test:iron_coal", RecipeInputKey.of(iron), RecipeInputKey.of(coal))).getRecipe());
+    }
+    
+    /**
+     * Building from scratch leaves out invalid, duplicate and untyped recipes and keeps the rest in order.
+     */
+    @Test
+    void testBuildSkipsRejectedRecipes() {
+        Recipe first = recipe("test:first", RecipeInputKey.of(iron));
+        Recipe invalid = recipe("test:invalid");
+        invalid.processingTime = -1;
+        Recipe second = recipe("test:second", RecipeInputKey.of(coal));
+        Recipe untyped = new Recipe(id("test:untyped"), type("test:unknown"));
+        
+        MachineRecipeSnapshot snapshot = MachineRecipeSnapshot.build(3, List.of(TYPE),
+                List.of(first, invalid, recipe("test:first"), second, untyped));
+        
+        assertEquals(3, snapshot.getVersion());
+        assertEquals(List.of(first, second), snapshot.getRecipes(TYPE.getId()));
+        assertNotNull(snapshot.getCompiledRecipe(id("test:second")));
+        assertNull(snapshot.getCompiledRecipe(id("test:invalid")));
+        assertNull(snapshot.getCompiledRecipe(id("test:untyped")));
+    }
+    
+    /**
+     * A builder started from a snapshot keeps its recipes, and later additions do not leak into built snapshots.
+     */
+    @Test
+    void testBuilderFromSnapshot() {
+        Recipe first = recipe("test:first", RecipeInputKey.of(iron));
+        MachineRecipeSnapshot base = MachineRecipeSnapshot.build(1, List.of(TYPE), List.of(first));
+        
+        MachineRecipeSnapshot.Builder builder = new MachineRecipeSnapshot.Builder(base);
+        Recipe second = recipe("test:second", RecipeInputKey.of(iron), RecipeInputKey.of(coal));
+        assertSame(first, builder.addRecipe(second).getRecipe());
+        assertThrows(IllegalArgumentException.class, () -> builder.addRecipe(recipe("test:first")));
+        MachineRecipeSnapshot next = builder.build(2);
+        builder.addRecipe(recipe("test:third"));
+        
+        assertEquals(1, base.getRecipeCount());
+        assertEquals(List.of(first, second), next.getRecipes(TYPE.getId()));
+        assertEquals(List.of(first, second), next.getIndex(TYPE.getId()).getCandidates(container(stack(iron), stack(coal))));
+    }
+    
+    /**
+     * Registrations are published together, as one new snapshot, and lookups do not see them before.
+     */
+    @Test
+    void testManagerPublishesRegistrationsTogether() {
+        IMachineRecipeType<IMachineRecipe> batched = type("test:batched");
+        long version = MachineRecipeManager.getVersion();
+        
+        MachineRecipeManager.registerRecipeType(batched);
+        List<Recipe> recipes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Recipe recipe = new Recipe(id("test:batched_" + i), batched, RecipeInputKey.of(i % 2 == 0 ? iron : coal));
+            recipes.add(recipe);
+            MachineRecipeManager.registerRecipe(recipe);
+        }
+        MachineRecipeManager.registerRecipe(new Recipe(id("test:batched_0"), batched));
+        
+        assertEquals(version, MachineRecipeManager.getVersion());
+        assertNull(MachineRecipeManager.getRecipeType(batched.getId()));
+        
+        MachineRecipeManager.publish();
+        assertEquals(version + 1, MachineRecipeManager.getVersion());
+        assertEquals(recipes, MachineRecipeManager.getRecipesForType(level(), batched));
+        assertEquals(50, MachineRecipeManager.getCandidateRecipes(container(stack(coal)), batched).size());
+        assertSame(recipes.get(0), MachineRecipeManager.getMatchingRecipe(container(stack(iron)), level(), batched).orElse(null));
+        assertEquals(version + 1, MachineRecipeManager.getVersion());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,151 @@
+package com.astroframe.galactic.core.api.machine;
+
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.Container;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Recipes, items and containers for the machine recipe tests, made from mocks so the tests
+ * run without bootstrapping Minecraft.
+ */
+final class TestRecipes {
+    
+    static final IMachineRecipeType<IMachineRecipe> TYPE = type("test:processing");
+    
+    private TestRecipes() {
+    }
+    
+    static ResourceLocation id(String id) {
+        return ResourceLocation.parse(id);
+    }
+    
+    @SuppressWarnings("unchecked")
+    static IMachineRecipeType<IMachineRecipe> type(String id) {
+        IMachineRecipeType<IMachineRecipe> type = mock(IMachineRecipeType.class);
+        when(type.getId()).thenReturn(id(id));
+        when(type.isValidContainer(any())).thenReturn(true);
+        return type;
+    }
+    
+    static Item item() {
+        return mock(Item.class);
+    }
+    
+    static TagKey<Item> tag(String id) {
+        return TagKey.create(Registries.ITEM, id(id));
+    }
+    
+    @SafeVarargs
+    static ItemStack stack(Item item, TagKey<Item>... tags) {
+        ItemStack stack = mock(ItemStack.class);
+        when(stack.getItem()).thenReturn(item);
+        when(stack.getCount()).thenReturn(1);
+        when(stack.is(item)).thenReturn(true);
+        for (TagKey<Item> tag : tags) {
+            when(stack.is(tag)).thenReturn(true);
+        }
+        when(stack.copy()).thenReturn(stack);
+        return stack;
+    }
+    
+    static ItemStack empty() {
+        ItemStack stack = mock(ItemStack.class);
+        when(stack.isEmpty()).thenReturn(true);
+        return stack;
+    }
+    
+    static Container container(ItemStack... slots) {
+        Container container = mock(Container.class);
+        when(container.getContainerSize()).thenReturn(slots.length);
+        for (int slot = 0; slot < slots.length; slot++) {
+            when(container.getItem(slot)).thenReturn(slots[slot]);
+        }
+        return container;
+    }
+    
+    static Level level() {
+        return mock(Level.class);
+    }
+    
+    static Recipe recipe(String id, RecipeInputKey... keys) {
+        return new Recipe(id(id), TYPE, keys);
+    }
+    
+    /**
+     * A recipe that accepts whatever its keys accept, unless told otherwise, and counts its matches() calls.
+     */
+    static final class Recipe implements IMachineRecipe {
+        private final ResourceLocation id;
+        private final IMachineRecipeType<?> type;
+        private final List<RecipeInputKey> keys;
+        int processingTime = 100;
+        int energyPerTick = 10;
+        List<ItemStack> results = List.of(stack(item()));
+        float outputChance = 1.0F;
+        boolean matches = true;
+        int matchCalls;
+        
+        Recipe(ResourceLocation id, IMachineRecipeType<?> type, RecipeInputKey... keys) {
+            this.id = id;
+            this.type = type;
+            this.keys = Arrays.asList(keys);
+        }
+        
+        @Override
+        public ResourceLocation getId() {
+            return id;
+        }
+        
+        @Override
+        public IMachineRecipeType<?> getType() {
+            return type;
+        }
+        
+        @Override
+        public int getProcessingTime() {
+            return processingTime;
+        }
+        
+        @Override
+        public int getEnergyPerTick() {
+            return energyPerTick;
+        }
+        
+        @Override
+        public List<ItemStack> getResultItems() {
+            return results;
+        }
+        
+        @Override
+        public float getSecondaryOutputChance(int index) {
+            return outputChance;
+        }
+        
+        @Override
+        public List<RecipeInputKey> getInputKeys() {
+            return keys;
+        }
+        
+        @Override
+        public boolean matches(Container container, Level level) {
+            matchCalls++;
+            return matches;
+        }
+        
+        @Override
+        public float getExperience() {
+            return 0.0F;
+        }
+    }
+}
\ No newline at end of file
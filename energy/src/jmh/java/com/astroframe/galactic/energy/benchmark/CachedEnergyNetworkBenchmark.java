@@ -0,0 +1,81 @@
+package com.astroframe.galactic.energy.benchmark;
+
+import com.astroframe.galactic.energy.api.EnergyDistributionMode;
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import com.astroframe.galactic.energy.implementation.CachedEnergyNetwork;
+import com.astroframe.galactic.energy.implementation.FlowEnergyDistributor;
+import com.astroframe.galactic.energy.implementation.SimpleEnergyStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one {@link CachedEnergyNetwork#tick()} for networks of different sizes and mixes.
+ * Sleeping is disabled so every invocation does the full gather, settle and apply work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachedEnergyNetworkBenchmark {
+
+    private static final Level LEVEL = new Level("minecraft:overworld");
+
+    @Param({"10", "100", "1000", "10000"})
+    public int nodes;
+
+    /** Share of nodes that are providers; the rest are consumers */
+    @Param({"0.1", "0.5", "0.9"})
+    public double providerRatio;
+
+    @Param({"PROPORTIONAL", "PRIORITY"})
+    public EnergyDistributionMode mode;
+
+    /** Packed nodes live in the network's arrays; external nodes are SimpleEnergyStorage instances */
+    @Param({"packed", "external"})
+    public String storage;
+
+    private CachedEnergyNetwork network;
+
+    @Setup(org.openjdk.jmh.annotations.Level.Iteration)
+    public void setUp() {
+        network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL, new FlowEnergyDistributor(mode));
+        network.setIdleTicksBeforeSleep(0);
+
+        int providers = Math.max(1, (int) Math.round(nodes * providerRatio));
+        for (int i = 0; i < nodes; i++) {
+            boolean provider = i < providers;
+            // Large enough that providers never run dry and consumers never fill up within an iteration
+            int capacity = 1_000_000_000;
+            int maxReceive = provider ? 0 : 80;
+            int maxExtract = provider ? 100 : 0;
+            int energy = provider ? capacity : 0;
+
+            WorldPosition position = new WorldPosition(i % 128, 64 + i / 16384, (i / 128) % 128, LEVEL);
+            if (storage.equals("packed")) {
+                network.createStorage(position, capacity, maxReceive, maxExtract, energy);
+            } else {
+                network.addStorage(position, new SimpleEnergyStorage(capacity, maxReceive, maxExtract, energy, EnergyType.ELECTRICAL));
+            }
+        }
+    }
+
+    @Benchmark
+    public void tick() {
+        network.tick();
+    }
+}
\ No newline at end of file
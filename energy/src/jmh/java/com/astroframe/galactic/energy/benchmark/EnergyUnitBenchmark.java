@@ -0,0 +1,68 @@
+package com.astroframe.galactic.energy.benchmark;
+
+import com.astroframe.galactic.energy.api.EnergyUnit;
+import com.astroframe.galactic.energy.api.EnergyUnitConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link EnergyUnit#convertTo} and the bulk {@link EnergyUnitConverter#convertAll} path
+ * over a batch of amounts for each pair of units.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnergyUnitBenchmark {
+
+    private static final int BATCH = 1024;
+
+    @Param({"GALACTIC_ENERGY_UNIT", "THERMAL_UNIT", "STEAM_UNIT"})
+    public EnergyUnit from;
+
+    @Param({"FORGE_ENERGY", "KINETIC_UNIT"})
+    public EnergyUnit to;
+
+    private int[] amounts;
+    private int[] converted;
+    private EnergyUnitConverter converter;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        amounts = new int[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            amounts[i] = random.nextInt(100_000);
+        }
+        converted = new int[BATCH];
+        converter = from.converterTo(to);
+    }
+
+    @Benchmark
+    public void convertTo(Blackhole blackhole) {
+        for (int amount : amounts) {
+            blackhole.consume(from.convertTo(amount, to));
+        }
+    }
+
+    @Benchmark
+    public int[] convertAll() {
+        converter.convertAll(amounts, converted);
+        return converted;
+    }
+}
\ No newline at end of file
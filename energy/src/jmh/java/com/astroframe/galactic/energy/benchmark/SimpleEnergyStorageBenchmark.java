@@ -0,0 +1,54 @@
+package com.astroframe.galactic.energy.benchmark;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.implementation.SimpleEnergyStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the receive and extract paths of {@link SimpleEnergyStorage}, simulated and real.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimpleEnergyStorageBenchmark {
+
+    private SimpleEnergyStorage storage;
+
+    @Setup
+    public void setUp() {
+        storage = new SimpleEnergyStorage(1_000_000, 1000, 1000, 500_000, EnergyType.ELECTRICAL);
+    }
+
+    @Benchmark
+    public int receiveSimulated() {
+        return storage.receiveEnergy(Integer.MAX_VALUE, true);
+    }
+
+    @Benchmark
+    public int extractSimulated() {
+        return storage.extractEnergy(Integer.MAX_VALUE, true);
+    }
+
+    /**
+     * A real receive followed by a real extract of the same amount, so the stored energy stays put.
+     */
+    @Benchmark
+    public int receiveThenExtract() {
+        int received = storage.receiveEnergy(250, false);
+        return storage.extractEnergy(received, false);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.astroframe.galactic.energy.benchmark;
+
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import com.astroframe.galactic.energy.implementation.PositionIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures hashing {@link WorldPosition}s and looking them up, comparing a HashMap keyed by
+ * WorldPosition with the packed-long {@link PositionIndex} the networks use.
+ * Each invocation looks up every position once.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldPositionBenchmark {
+
+    private static final Level LEVEL = new Level("minecraft:overworld");
+
+    @Param({"10", "100", "1000", "10000"})
+    public int nodes;
+
+    private WorldPosition[] positions;
+    private long[] packed;
+    private Map<WorldPosition, Integer> hashMap;
+    private PositionIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42L);
+        positions = new WorldPosition[nodes];
+        packed = new long[nodes];
+        hashMap = new HashMap<>();
+        index = new PositionIndex();
+
+        for (int i = 0; i < nodes; i++) {
+            WorldPosition position = new WorldPosition(random.nextInt(4096) - 2048, random.nextInt(320) - 64,
+                    random.nextInt(4096) - 2048, LEVEL);
+            positions[i] = position;
+            packed[i] = position.asLong();
+            hashMap.put(position, i);
+            index.put(position, i);
+        }
+    }
+
+    @Benchmark
+    public void hashCodes(Blackhole blackhole) {
+        for (WorldPosition position : positions) {
+            blackhole.consume(position.hashCode());
+        }
+    }
+
+    @Benchmark
+    public void pack(Blackhole blackhole) {
+        for (WorldPosition position : positions) {
+            blackhole.consume(position.asLong());
+        }
+    }
+
+    @Benchmark
+    public void hashMapLookup(Blackhole blackhole) {
+        for (WorldPosition position : positions) {
+            blackhole.consume(hashMap.get(position));
+        }
+    }
+
+    @Benchmark
+    public void positionIndexLookup(Blackhole blackhole) {
+        for (long position : packed) {
+            blackhole.consume(index.get(LEVEL, position));
+        }
+    }
+}
\ No newline at end of file
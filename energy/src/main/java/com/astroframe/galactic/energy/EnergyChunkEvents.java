@@ -0,0 +1,51 @@
+package com.astroframe.galactic.energy;
+
+import com.astroframe.galactic.energy.api.energynetwork.ChunkTracker;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+
+/**
+ * Forwards server-side chunk and level events to the {@link ChunkTracker}, so energy networks
+ * know which of their nodes sit in loaded chunks.
+ */
+public final class EnergyChunkEvents {
+
+    private EnergyChunkEvents() {
+    }
+
+    /**
+     * Register the chunk event listeners on the NeoForge event bus.
+     */
+    public static void register() {
+        NeoForge.EVENT_BUS.addListener(EnergyChunkEvents::onChunkLoad);
+        NeoForge.EVENT_BUS.addListener(EnergyChunkEvents::onChunkUnload);
+        NeoForge.EVENT_BUS.addListener(EnergyChunkEvents::onLevelUnload);
+    }
+
+    private static void onChunkLoad(ChunkEvent.Load event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            ChunkPos pos = event.getChunk().getPos();
+            ChunkTracker.chunkLoaded(toEnergyLevel(level), pos.x, pos.z, level.getGameTime());
+        }
+    }
+
+    private static void onChunkUnload(ChunkEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            ChunkPos pos = event.getChunk().getPos();
+            ChunkTracker.chunkUnloaded(toEnergyLevel(level), pos.x, pos.z, level.getGameTime());
+        }
+    }
+
+    private static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            ChunkTracker.clear(toEnergyLevel(level));
+        }
+    }
+
+    private static com.astroframe.galactic.energy.api.energynetwork.Level toEnergyLevel(ServerLevel level) {
+        return new com.astroframe.galactic.energy.api.energynetwork.Level(level.dimension().location().toString());
+    }
+}
\ No newline at end of file
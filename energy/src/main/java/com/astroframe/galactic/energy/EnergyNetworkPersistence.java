@@ -0,0 +1,180 @@
+package com.astroframe.galactic.energy;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import com.astroframe.galactic.energy.implementation.EnergyGridTopology;
+import com.astroframe.galactic.energy.implementation.EnergyNetworkSavedData;
+import com.astroframe.galactic.energy.implementation.EnergyNetworkScheduler;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.storage.LevelResource;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Loads and saves the energy networks of each server dimension with {@link EnergyNetworkSavedData},
+ * in the dimension's data folder, and checks loaded nodes against the world a few per tick.
+ * Saved topologies are rebuilt with the configured network settings; code that adds cables and
+ * nodes should do so through {@link #getTopology}, so its networks are saved with their cables.
+ */
+public final class EnergyNetworkPersistence {
+
+    private static final String FILE_NAME = "galacticenergy_networks.dat";
+
+    private static final Map<com.astroframe.galactic.energy.api.energynetwork.Level, EnergyNetworkSavedData> DATA = new HashMap<>();
+
+    private EnergyNetworkPersistence() {
+    }
+
+    /**
+     * Register the level event listeners on the NeoForge event bus.
+     */
+    public static void register() {
+        NeoForge.EVENT_BUS.addListener(EnergyNetworkPersistence::onLevelLoad);
+        NeoForge.EVENT_BUS.addListener(EnergyNetworkPersistence::onLevelSave);
+        NeoForge.EVENT_BUS.addListener(EnergyNetworkPersistence::onLevelUnload);
+        NeoForge.EVENT_BUS.addListener(EnergyNetworkPersistence::onLevelTickPost);
+    }
+
+    /**
+     * Get the topology of an energy type in a dimension, creating it if the dimension has none yet.
+     * Its networks are saved with the dimension.
+     *
+     * @param level The dimension
+     * @param energyType The energy type
+     * @param routed Whether a new topology routes energy along its cables
+     * @return The topology
+     */
+    public static EnergyGridTopology getTopology(ServerLevel level, EnergyType energyType, boolean routed) {
+        EnergyNetworkSavedData data = DATA.computeIfAbsent(toEnergyLevel(level), EnergyNetworkPersistence::createData);
+        EnergyGridTopology topology = data.getTopology(energyType);
+        if (topology == null) {
+            topology = createTopology(data.getLevel(), energyType, routed, GalacticEnergy.getNetworkScheduler());
+            data.addTopology(topology);
+        }
+        return topology;
+    }
+
+    private static void onLevelLoad(LevelEvent.Load event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) {
+            return;
+        }
+
+        com.astroframe.galactic.energy.api.energynetwork.Level key = toEnergyLevel(level);
+        EnergyNetworkSavedData data = createData(key);
+        DATA.put(key, data);
+
+        Path file = dataFile(level);
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (InputStream stream = Files.newInputStream(file);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(stream)))) {
+            int networks = data.read(in, GalacticEnergy.getNetworkScheduler()).size();
+            GalacticEnergy.LOGGER.info("Loaded {} energy networks with {} nodes for {}",
+                    networks, data.getPendingCount(), key.getDimensionId());
+        } catch (IOException e) {
+            GalacticEnergy.LOGGER.error("Failed to load energy networks for {}; they will be rebuilt", key.getDimensionId(), e);
+            GalacticEnergy.getNetworkScheduler().unregisterAll(key);
+        }
+    }
+
+    private static void onLevelSave(LevelEvent.Save event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) {
+            return;
+        }
+
+        com.astroframe.galactic.energy.api.energynetwork.Level key = toEnergyLevel(level);
+        EnergyNetworkSavedData data = DATA.computeIfAbsent(key, EnergyNetworkPersistence::createData);
+        EnergyNetworkScheduler scheduler = GalacticEnergy.getNetworkScheduler();
+        Path file = dataFile(level);
+        Path temp = file.resolveSibling(FILE_NAME + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream stream = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(stream)))) {
+                data.write(out, scheduler.getNetworks(key), scheduler.getConverters());
+            }
+            // Replace the old file only once the new one is complete
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            GalacticEnergy.LOGGER.error("Failed to save energy networks for {}", key.getDimensionId(), e);
+        }
+    }
+
+    private static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            com.astroframe.galactic.energy.api.energynetwork.Level key = toEnergyLevel(level);
+            DATA.remove(key);
+            GalacticEnergy.getNetworkScheduler().unregisterAll(key);
+        }
+    }
+
+    private static void onLevelTickPost(LevelTickEvent.Post event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) {
+            return;
+        }
+
+        EnergyNetworkSavedData data = DATA.get(toEnergyLevel(level));
+        if (data == null) {
+            return;
+        }
+        for (EnergyGridTopology topology : data.getTopologies()) {
+            topology.resolvePendingSplits();
+        }
+        if (data.getPendingCount() == 0) {
+            return;
+        }
+        data.verify(position -> {
+            BlockPos pos = new BlockPos(WorldPosition.getX(position), WorldPosition.getY(position), WorldPosition.getZ(position));
+            if (!level.isLoaded(pos)) {
+                return EnergyNetworkSavedData.Presence.UNKNOWN;
+            }
+            return level.getBlockEntity(pos) != null ? EnergyNetworkSavedData.Presence.PRESENT : EnergyNetworkSavedData.Presence.MISSING;
+        }, EnergyNetworkSavedData.DEFAULT_VERIFY_BUDGET);
+    }
+
+    private static EnergyNetworkSavedData createData(com.astroframe.galactic.energy.api.energynetwork.Level level) {
+        return new EnergyNetworkSavedData(level,
+                (energyType, routed, scheduler) -> createTopology(level, energyType, routed, scheduler));
+    }
+
+    private static EnergyGridTopology createTopology(com.astroframe.galactic.energy.api.energynetwork.Level level,
+                                                     EnergyType energyType, boolean routed,
+                                                     EnergyNetworkScheduler scheduler) {
+        return routed
+                ? EnergyGridTopology.routed(energyType, level, GalacticEnergy.getConfig().getNetworkSettings(), scheduler)
+                : new EnergyGridTopology(energyType, level, scheduler);
+    }
+
+    private static Path dataFile(ServerLevel level) {
+        Path root = level.getServer().getWorldPath(LevelResource.ROOT);
+        return DimensionType.getStorageFolder(level.dimension(), root).resolve("data").resolve(FILE_NAME);
+    }
+
+    private static com.astroframe.galactic.energy.api.energynetwork.Level toEnergyLevel(ServerLevel level) {
+        return new com.astroframe.galactic.energy.api.energynetwork.Level(level.dimension().location().toString());
+    }
+}
\ No newline at end of file
@@ -1,14 +1,22 @@
 package com.astroframe.galactic.energy;
 
+import com.astroframe.galactic.energy.api.energynetwork.ChunkTracker;
+import com.astroframe.galactic.energy.command.EnergyNetworkCommands;
+import com.astroframe.galactic.energy.config.EnergyConfig;
+import com.astroframe.galactic.energy.implementation.EnergyNetworkScheduler;
 import net.neoforged.bus.api.IEventBus;
 import net.neoforged.fml.common.Mod;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Main class for the Energy module of Galactic Expansion.
  * This module handles advanced energy manipulation and special energy types beyond standard power.
- * Currently disabled for compatibility.
+ * It registers no content of its own; it tracks chunks, saves and ticks the energy networks,
+ * and provides the network commands.
  */
 @Mod(GalacticEnergy.MOD_ID)
 public class GalacticEnergy {
@@ -16,6 +24,10 @@ public class GalacticEnergy {
     public static final String MOD_ID = "galacticenergy";
     // Logger for this module
     public static final Logger LOGGER = LoggerFactory.getLogger(MOD_ID);
+    // Settings of the module
+    private static final EnergyConfig CONFIG = new EnergyConfig();
+    // Ticks every energy network registered with it
+    private static final EnergyNetworkScheduler NETWORK_SCHEDULER = new EnergyNetworkScheduler();
 
     /**
      * Constructor for GalacticEnergy module
@@ -23,8 +35,55 @@ public class GalacticEnergy {
      * @param eventBus The NeoForge event bus
      */
     public GalacticEnergy(IEventBus eventBus) {
-        LOGGER.info("Initializing Galactic Energy Module (Currently Disabled)");
+        LOGGER.info("Initializing Galactic Energy Module");
         
-        // Registration disabled to fix compatibility issues
+        // Apply the network settings before any network is registered
+        EnergyConfig.NetworkSettings settings = CONFIG.getNetworkSettings();
+        NETWORK_SCHEDULER.setIdleTicksBeforeSleep(settings.getIdleTicksBeforeSleep());
+        NETWORK_SCHEDULER.setParallel(settings.isParallelNetworkTicking());
+        NETWORK_SCHEDULER.setOptimizeForUnloadedChunks(settings.isOptimizeForUnloadedChunks());
+        
+        // Chunk tracking, persistence, network ticking and commands only listen to game events
+        EnergyChunkEvents.register();
+        EnergyNetworkPersistence.register();
+        ChunkTracker.addListener(NETWORK_SCHEDULER);
+        NeoForge.EVENT_BUS.addListener(this::onServerTickPost);
+        NeoForge.EVENT_BUS.addListener(this::registerCommands);
+    }
+    
+    /**
+     * Gets the settings of the module.
+     * 
+     * @return The configuration
+     */
+    public static EnergyConfig getConfig() {
+        return CONFIG;
+    }
+    
+    /**
+     * Gets the scheduler that ticks the energy networks.
+     * 
+     * @return The network scheduler
+     */
+    public static EnergyNetworkScheduler getNetworkScheduler() {
+        return NETWORK_SCHEDULER;
+    }
+    
+    /**
+     * Ticks the energy networks after every server tick.
+     * 
+     * @param event The server tick event - post phase
+     */
+    private void onServerTickPost(ServerTickEvent.Post event) {
+        NETWORK_SCHEDULER.tick();
+    }
+    
+    /**
+     * Register commands for the module.
+     * 
+     * @param event The register commands event
+     */
+    private void registerCommands(RegisterCommandsEvent event) {
+        EnergyNetworkCommands.register(event.getDispatcher());
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.astroframe.galactic.energy.api;
+
+/**
+ * Strategies an {@link EnergyDistributor} can use to settle a tick.
+ * Both modes move exactly {@code min(total supply, total demand)}; they only differ in
+ * how that flow is shared out between the individual providers and consumers.
+ */
+public enum EnergyDistributionMode {
+    /**
+     * Every provider gives, and every consumer receives, a share proportional to what it
+     * offered or requested this tick. Rounding remainders go to the earliest nodes.
+     */
+    PROPORTIONAL,
+    
+    /**
+     * Nodes are served greedily in network order, which networks keep sorted by
+     * {@link EnergyStorage#getPriority()} (highest first).
+     */
+    PRIORITY
+}
\ No newline at end of file
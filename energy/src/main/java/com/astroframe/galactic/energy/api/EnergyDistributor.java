@@ -0,0 +1,34 @@
+package com.astroframe.galactic.energy.api;
+
+/**
+ * Engine that decides how energy flows between the providers and consumers of a network.
+ * <p>
+ * Networks gather what every provider can supply and every consumer can accept once per tick,
+ * hand those figures to the distributor, and then apply the settled amounts. The distributor
+ * itself never touches storages, so it can be swapped without changing how networks track
+ * their members.
+ */
+public interface EnergyDistributor {
+    
+    /**
+     * Gets the mode this distributor settles transfers with.
+     * 
+     * @return The distribution mode
+     */
+    EnergyDistributionMode getMode();
+    
+    /**
+     * Settle the transfers for one tick.
+     * Provider and consumer entries are expected in the order the network wants them served.
+     * 
+     * @param supply The energy each provider can give this tick
+     * @param providerCount The number of valid entries in {@code supply}
+     * @param demand The energy each consumer can accept this tick
+     * @param consumerCount The number of valid entries in {@code demand}
+     * @param extracted Output: the energy to extract from each provider
+     * @param received Output: the energy to insert into each consumer
+     * @return The total energy moved
+     */
+    long settle(int[] supply, int providerCount, int[] demand, int consumerCount,
+                int[] extracted, int[] received);
+}
\ No newline at end of file
@@ -1,10 +1,12 @@
 package com.astroframe.galactic.energy.api;
 
+import com.astroframe.galactic.energy.api.energynetwork.Level;
 import com.astroframe.galactic.energy.api.energynetwork.WorldChunk;
 import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.IntSupplier;
 
 /**
  * Interface for energy networks.
@@ -50,6 +52,99 @@ public interface EnergyNetwork {
      */
     boolean hasStorage(WorldPosition position);
     
+    /**
+     * Get the energy storage at the given packed position.
+     * Implementations should override this to look the key up without allocating.
+     * 
+     * @param level The level (dimension)
+     * @param packedPosition The position packed with {@link WorldPosition#asLong()}
+     * @return The energy storage, or null if none exists
+     */
+    default EnergyStorage getStorage(Level level, long packedPosition) {
+        return getStorage(WorldPosition.fromLong(packedPosition, level));
+    }
+    
+    /**
+     * Check if an energy storage exists at the given packed position.
+     * Implementations should override this to look the key up without allocating.
+     * 
+     * @param level The level (dimension)
+     * @param packedPosition The position packed with {@link WorldPosition#asLong()}
+     * @return True if an energy storage exists
+     */
+    default boolean hasStorage(Level level, long packedPosition) {
+        return hasStorage(WorldPosition.fromLong(packedPosition, level));
+    }
+    
+    /**
+     * Register what the storage at a position will draw on the next tick. While a source is
+     * registered, the network offers the storage exactly that much each tick, capped by what it
+     * can accept, instead of everything it has room for. The source is asked once per tick.
+     * The registration ends when the storage is removed or replaced.
+     * Networks that do not support demand registration keep filling by capacity.
+     * 
+     * @param position The position of a member storage
+     * @param demand The source of the next-tick demand, or null to go back to filling by capacity
+     * @return True if the registration is honoured
+     */
+    default boolean registerDemand(WorldPosition position, IntSupplier demand) {
+        return false;
+    }
+    
+    /**
+     * Run a batch of direct transfers between members of this network in one pass.
+     * Transfer {@code i} moves up to {@code amounts[i]} from {@code sources[i]} to
+     * {@code destinations[i]}; its outcome is written to index {@code i} of the result buffer.
+     * 
+     * @param level The level (dimension) the positions belong to
+     * @param sources The packed positions to extract from
+     * @param destinations The packed positions to insert into
+     * @param amounts The maximum energy to move per transfer
+     * @param count The number of transfers to run
+     * @param results The buffer to fill; cleared first
+     * @return The total energy moved
+     */
+    default long transferBatch(Level level, long[] sources, long[] destinations, int[] amounts, int count,
+                               EnergyTransferBatch results) {
+        results.reset(count);
+        for (int i = 0; i < count; i++) {
+            EnergyStorage source = getStorage(level, sources[i]);
+            EnergyStorage destination = getStorage(level, destinations[i]);
+            int amount = amounts[i];
+            
+            if (source == null) {
+                results.set(i, 0, EnergyTransferResult.Status.INVALID_SOURCE);
+            } else if (destination == null) {
+                results.set(i, 0, EnergyTransferResult.Status.INVALID_DESTINATION);
+            } else if (source.getEnergyType() != destination.getEnergyType()) {
+                results.set(i, 0, EnergyTransferResult.Status.INCOMPATIBLE_ENERGY_TYPES);
+            } else if (!source.canExtract()) {
+                results.set(i, 0, EnergyTransferResult.Status.SOURCE_CANNOT_EXTRACT);
+            } else if (!destination.canReceive()) {
+                results.set(i, 0, EnergyTransferResult.Status.DESTINATION_CANNOT_RECEIVE);
+            } else if (amount <= 0) {
+                results.set(i, 0, EnergyTransferResult.Status.SUCCESS);
+            } else {
+                int offered = source.extractEnergy(amount, true);
+                int accepted = offered > 0 ? destination.receiveEnergy(offered, true) : 0;
+                if (offered <= 0) {
+                    results.set(i, 0, EnergyTransferResult.Status.SOURCE_EMPTY);
+                } else if (accepted <= 0) {
+                    results.set(i, 0, EnergyTransferResult.Status.DESTINATION_FULL);
+                } else {
+                    // Take only what the destination really took, so nothing has to be handed back to a
+                    // source that may not accept energy at all
+                    int received = destination.receiveEnergy(accepted, false);
+                    source.extractEnergy(received, false);
+                    results.set(i, received, received == amount
+                            ? EnergyTransferResult.Status.SUCCESS
+                            : EnergyTransferResult.Status.WARNING);
+                }
+            }
+        }
+        return results.getTotalTransferred();
+    }
+    
     /**
      * Process energy transfers for one tick.
      * This should be called once per game tick.
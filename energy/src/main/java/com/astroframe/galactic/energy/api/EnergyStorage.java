@@ -58,4 +58,14 @@ public interface EnergyStorage {
      * @return The energy type
      */
     EnergyType getEnergyType();
+    
+    /**
+     * Gets the priority of this storage within a network.
+     * Higher priority storages are served first when a network distributes by priority.
+     * 
+     * @return The priority, 0 by default
+     */
+    default int getPriority() {
+        return 0;
+    }
 }
\ No newline at end of file
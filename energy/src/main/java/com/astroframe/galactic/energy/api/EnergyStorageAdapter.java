@@ -11,6 +11,10 @@ import com.astroframe.galactic.core.api.energy.IEnergyHandler.EnergyUnit;
 public class EnergyStorageAdapter implements EnergyStorage {
     private final IEnergyHandler original;
     
+    // Null when the handler and the network count energy in the same unit
+    private final EnergyUnitConverter toHandler;
+    private final EnergyUnitConverter fromHandler;
+    
     /**
      * Creates a new adapter for the given energy handler.
      * 
@@ -18,6 +22,25 @@ public class EnergyStorageAdapter implements EnergyStorage {
      */
     public EnergyStorageAdapter(IEnergyHandler original) {
         this.original = original;
+        this.toHandler = null;
+        this.fromHandler = null;
+    }
+    
+    /**
+     * Creates a new adapter for an energy handler that counts energy in a different unit.
+     * Amounts passed to and returned from this adapter are in the network unit; the fractions
+     * lost to unit conversion are carried over to the next transfer instead of being dropped.
+     * 
+     * @param original The original energy handler from the core API
+     * @param networkUnit The unit the network side uses
+     * @param handlerUnit The unit the handler uses
+     */
+    public EnergyStorageAdapter(IEnergyHandler original, com.astroframe.galactic.energy.api.EnergyUnit networkUnit,
+                                com.astroframe.galactic.energy.api.EnergyUnit handlerUnit) {
+        this.original = original;
+        EnergyUnitConverter to = networkUnit.converterTo(handlerUnit);
+        this.toHandler = to.isIdentity() ? null : to;
+        this.fromHandler = to.isIdentity() ? null : handlerUnit.converterTo(networkUnit);
     }
     
     /**
@@ -31,22 +54,46 @@ public class EnergyStorageAdapter implements EnergyStorage {
     
     @Override
     public int receiveEnergy(int maxReceive, boolean simulate) {
-        return original.receiveEnergy(maxReceive, simulate);
+        if (toHandler == null) {
+            return original.receiveEnergy(maxReceive, simulate);
+        }
+        
+        // Ask what the handler would take, then only consume the network energy that converts into it
+        int accepted = original.receiveEnergy(toHandler.preview(maxReceive), true);
+        int consumed = Math.min(maxReceive, toHandler.maxInputFor(accepted));
+        if (!simulate && consumed > 0) {
+            original.receiveEnergy(toHandler.convert(consumed), false);
+        }
+        return consumed;
     }
     
     @Override
     public int extractEnergy(int maxExtract, boolean simulate) {
-        return original.extractEnergy(maxExtract, simulate);
+        if (fromHandler == null) {
+            return original.extractEnergy(maxExtract, simulate);
+        }
+        
+        int available = original.extractEnergy(fromHandler.maxInputFor(maxExtract), true);
+        if (simulate || available <= 0) {
+            return fromHandler.preview(available);
+        }
+        return fromHandler.convert(original.extractEnergy(available, false));
     }
     
     @Override
     public int getEnergy() {
-        return original.getEnergy();
+        if (fromHandler == null) {
+            return original.getEnergy();
+        }
+        return fromHandler.getFrom().convertTo(original.getEnergy(), fromHandler.getTo());
     }
     
     @Override
     public int getMaxEnergy() {
-        return original.getMaxEnergy();
+        if (fromHandler == null) {
+            return original.getMaxEnergy();
+        }
+        return fromHandler.getFrom().convertTo(original.getMaxEnergy(), fromHandler.getTo());
     }
     
     @Override
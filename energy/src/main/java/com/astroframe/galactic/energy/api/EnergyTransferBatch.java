@@ -0,0 +1,120 @@
+package com.astroframe.galactic.energy.api;
+
+import java.util.Arrays;
+
+/**
+ * Reusable result buffer for {@link EnergyNetwork#transferBatch}.
+ * Holds one transferred amount and one {@link EnergyTransferResult.Status} per transfer, so a
+ * caller can keep a single buffer and reuse it every tick instead of allocating results.
+ */
+public class EnergyTransferBatch {
+
+    private int[] transferred;
+    private EnergyTransferResult.Status[] statuses;
+    private int size;
+    private long totalTransferred;
+
+    /**
+     * Create an empty result buffer.
+     */
+    public EnergyTransferBatch() {
+        this(8);
+    }
+
+    /**
+     * Create an empty result buffer sized for the given number of transfers.
+     *
+     * @param initialCapacity The number of transfers to allocate room for
+     */
+    public EnergyTransferBatch(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        transferred = new int[capacity];
+        statuses = new EnergyTransferResult.Status[capacity];
+    }
+
+    /**
+     * Clear the buffer and make room for the given number of transfers.
+     *
+     * @param count The number of transfers about to be recorded
+     */
+    public void reset(int count) {
+        if (transferred.length < count) {
+            int capacity = Math.max(count, transferred.length * 2);
+            transferred = Arrays.copyOf(transferred, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+        size = count;
+        totalTransferred = 0;
+    }
+
+    /**
+     * Record the outcome of one transfer.
+     *
+     * @param index The transfer index
+     * @param amount The energy transferred
+     * @param status The status
+     */
+    public void set(int index, int amount, EnergyTransferResult.Status status) {
+        transferred[index] = amount;
+        statuses[index] = status;
+        totalTransferred += amount;
+    }
+
+    /**
+     * Get the number of transfers recorded by the last batch.
+     *
+     * @return The transfer count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the energy moved by one transfer.
+     *
+     * @param index The transfer index
+     * @return The energy transferred
+     */
+    public int getTransferred(int index) {
+        return transferred[index];
+    }
+
+    /**
+     * Get the status of one transfer.
+     *
+     * @param index The transfer index
+     * @return The status
+     */
+    public EnergyTransferResult.Status getStatus(int index) {
+        return statuses[index];
+    }
+
+    /**
+     * Check whether one transfer moved its full amount.
+     *
+     * @param index The transfer index
+     * @return True if the status is {@link EnergyTransferResult.Status#SUCCESS}
+     */
+    public boolean isSuccess(int index) {
+        return statuses[index] == EnergyTransferResult.Status.SUCCESS;
+    }
+
+    /**
+     * Get the energy moved by the whole batch.
+     *
+     * @return The total energy transferred
+     */
+    public long getTotalTransferred() {
+        return totalTransferred;
+    }
+
+    /**
+     * Create a standalone result for one transfer. Allocates; meant for logging and commands.
+     *
+     * @param index The transfer index
+     * @return The result
+     */
+    public EnergyTransferResult toResult(int index) {
+        return new EnergyTransferResult(transferred[index], statuses[index].name(), statuses[index]);
+    }
+}
\ No newline at end of file
@@ -8,32 +8,34 @@ public enum EnergyType {
     /**
      * Standard electrical energy, compatible with most machines.
      */
-    ELECTRICAL("electrical"),
+    ELECTRICAL("electrical", EnergyUnit.GALACTIC_ENERGY_UNIT),
     
     /**
      * Thermal energy, generated by heat sources.
      */
-    THERMAL("thermal"),
+    THERMAL("thermal", EnergyUnit.THERMAL_UNIT),
     
     /**
      * Kinetic energy, generated by movement.
      */
-    KINETIC("kinetic"),
+    KINETIC("kinetic", EnergyUnit.KINETIC_UNIT),
     
     /**
      * Steam energy, generated by steam producers.
      */
-    STEAM("steam"),
+    STEAM("steam", EnergyUnit.STEAM_UNIT),
     
     /**
      * Quantum energy, rare and powerful.
      */
-    QUANTUM("quantum");
+    QUANTUM("quantum", EnergyUnit.GALACTIC_ENERGY_UNIT);
     
     private final String id;
+    private final EnergyUnit unit;
     
-    EnergyType(String id) {
+    EnergyType(String id, EnergyUnit unit) {
         this.id = id;
+        this.unit = unit;
     }
     
     /**
@@ -45,6 +47,16 @@ public enum EnergyType {
         return id;
     }
     
+    /**
+     * Gets the unit amounts of this energy type are counted in.
+     * Converter nodes use it to translate amounts between networks of different types.
+     * 
+     * @return The energy unit
+     */
+    public EnergyUnit getUnit() {
+        return unit;
+    }
+    
     /**
      * Gets the full identifier for this energy type.
      * 
@@ -3,47 +3,155 @@ package com.astroframe.galactic.energy.api;
 /**
  * Enumeration of energy units used in the mod.
  * This allows for conversion between different energy systems.
+ * <p>
+ * Each unit's value is an exact fraction of a Galactic Energy Unit. The factor between every
+ * pair of units is reduced once into a conversion matrix, so converting is an integer multiply
+ * and divide with no floating point rounding. Stateless conversions truncate; use an
+ * {@link EnergyUnitConverter} per connection to carry the remainder between calls instead.
  */
 public enum EnergyUnit {
     /**
      * The standard energy unit used in the Galactic Expansion mod.
      */
-    GALACTIC_ENERGY_UNIT(1.0),
+    GALACTIC_ENERGY_UNIT(1, 1),
     
     /**
      * Forge Energy unit (compatible with other mods).
      */
-    FORGE_ENERGY(1.0),
+    FORGE_ENERGY(1, 1),
     
     /**
      * Thermal unit (used for heat-based machines).
      */
-    THERMAL_UNIT(0.5),
+    THERMAL_UNIT(1, 2),
     
     /**
      * Kinetic unit (used for machines that generate energy from movement).
      */
-    KINETIC_UNIT(2.0),
+    KINETIC_UNIT(2, 1),
     
     /**
      * Steam unit (used for steam-based generators).
      */
-    STEAM_UNIT(0.2);
+    STEAM_UNIT(1, 5);
     
-    private final double conversionRate;
+    // Reduced factors indexed by [from][to]: to = from * NUMERATORS / DENOMINATORS
+    private static final long[][] NUMERATORS;
+    private static final long[][] DENOMINATORS;
     
-    EnergyUnit(double conversionRate) {
-        this.conversionRate = conversionRate;
+    static {
+        EnergyUnit[] units = values();
+        NUMERATORS = new long[units.length][units.length];
+        DENOMINATORS = new long[units.length][units.length];
+        for (EnergyUnit from : units) {
+            for (EnergyUnit to : units) {
+                long numerator = (long) from.rateNumerator * to.rateDenominator;
+                long denominator = (long) from.rateDenominator * to.rateNumerator;
+                long gcd = gcd(numerator, denominator);
+                NUMERATORS[from.ordinal()][to.ordinal()] = numerator / gcd;
+                DENOMINATORS[from.ordinal()][to.ordinal()] = denominator / gcd;
+            }
+        }
+    }
+    
+    private final int rateNumerator;
+    private final int rateDenominator;
+    
+    EnergyUnit(int rateNumerator, int rateDenominator) {
+        this.rateNumerator = rateNumerator;
+        this.rateDenominator = rateDenominator;
+    }
+    
+    /**
+     * Gets the value of one of this unit in Galactic Energy Units.
+     * 
+     * @return The conversion rate
+     */
+    public double getConversionRate() {
+        return (double) rateNumerator / rateDenominator;
+    }
+    
+    /**
+     * Gets the numerator of the reduced factor from this unit to another.
+     * 
+     * @param targetUnit The target unit
+     * @return The numerator
+     */
+    public long getNumerator(EnergyUnit targetUnit) {
+        return NUMERATORS[ordinal()][targetUnit.ordinal()];
+    }
+    
+    /**
+     * Gets the denominator of the reduced factor from this unit to another.
+     * 
+     * @param targetUnit The target unit
+     * @return The denominator
+     */
+    public long getDenominator(EnergyUnit targetUnit) {
+        return DENOMINATORS[ordinal()][targetUnit.ordinal()];
     }
     
     /**
      * Convert an amount of energy from this unit to another unit.
+     * The result is truncated towards zero and clamped to the int range.
      * 
      * @param amount The amount of energy in this unit
      * @param targetUnit The target unit to convert to
      * @return The equivalent amount in the target unit
      */
     public int convertTo(int amount, EnergyUnit targetUnit) {
-        return (int) (amount * (this.conversionRate / targetUnit.conversionRate));
+        long numerator = NUMERATORS[ordinal()][targetUnit.ordinal()];
+        long denominator = DENOMINATORS[ordinal()][targetUnit.ordinal()];
+        if (numerator == denominator) {
+            return amount;
+        }
+        return clamp(amount * numerator / denominator);
+    }
+    
+    /**
+     * Convert a batch of amounts from this unit to another unit.
+     * Each amount is converted independently, as by {@link #convertTo(int, EnergyUnit)}.
+     * 
+     * @param in The amounts in this unit
+     * @param out The array to write the converted amounts to, at least as long as {@code in}
+     * @param targetUnit The target unit to convert to
+     */
+    public void convertAll(int[] in, int[] out, EnergyUnit targetUnit) {
+        if (out.length < in.length) {
+            throw new IllegalArgumentException("Output array is shorter than the input array");
+        }
+        
+        long numerator = NUMERATORS[ordinal()][targetUnit.ordinal()];
+        long denominator = DENOMINATORS[ordinal()][targetUnit.ordinal()];
+        if (numerator == denominator) {
+            System.arraycopy(in, 0, out, 0, in.length);
+            return;
+        }
+        for (int i = 0; i < in.length; i++) {
+            out[i] = clamp(in[i] * numerator / denominator);
+        }
+    }
+    
+    /**
+     * Create a converter from this unit to another that carries remainders between calls.
+     * 
+     * @param targetUnit The target unit to convert to
+     * @return A new converter
+     */
+    public EnergyUnitConverter converterTo(EnergyUnit targetUnit) {
+        return new EnergyUnitConverter(this, targetUnit);
+    }
+    
+    static int clamp(long amount) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, amount));
+    }
+    
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
     }
 }
\ No newline at end of file
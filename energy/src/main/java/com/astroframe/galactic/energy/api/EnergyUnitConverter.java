@@ -0,0 +1,192 @@
+package com.astroframe.galactic.energy.api;
+
+/**
+ * Converts energy from one {@link EnergyUnit} to another for a single connection, without losing
+ * energy to truncation.
+ * <p>
+ * The part of an amount too small to make a whole target unit is kept as a remainder and added
+ * to the next conversion. Converting 1 steam unit to thermal units five times yields 2 in total
+ * rather than 0, so over any sequence of calls the energy delivered is the exact converted
+ * total, rounded down only once.
+ * <p>
+ * Keep one converter per connection (machine face, cable boundary, adapter) and persist
+ * {@link #getRemainder()} with it if the carry should survive a reload.
+ */
+public class EnergyUnitConverter {
+
+    private final EnergyUnit from;
+    private final EnergyUnit to;
+    private final long numerator;
+    private final long denominator;
+    private long remainder;
+
+    /**
+     * Create a converter between two units.
+     *
+     * @param from The unit amounts are given in
+     * @param to The unit amounts are converted to
+     */
+    public EnergyUnitConverter(EnergyUnit from, EnergyUnit to) {
+        this.from = from;
+        this.to = to;
+        this.numerator = from.getNumerator(to);
+        this.denominator = from.getDenominator(to);
+    }
+
+    /**
+     * Gets the unit amounts are given in.
+     *
+     * @return The source unit
+     */
+    public EnergyUnit getFrom() {
+        return from;
+    }
+
+    /**
+     * Gets the unit amounts are converted to.
+     *
+     * @return The target unit
+     */
+    public EnergyUnit getTo() {
+        return to;
+    }
+
+    /**
+     * Check whether this converter passes amounts through unchanged.
+     *
+     * @return True if both units are worth the same
+     */
+    public boolean isIdentity() {
+        return numerator == denominator;
+    }
+
+    /**
+     * Convert an amount and keep the fraction that did not make a whole target unit.
+     *
+     * @param amount The amount in the source unit; non-positive amounts convert to 0
+     * @return The amount in the target unit
+     */
+    public int convert(int amount) {
+        if (amount <= 0) {
+            return 0;
+        }
+        long scaled = amount * numerator + remainder;
+        remainder = scaled % denominator;
+        return EnergyUnit.clamp(scaled / denominator);
+    }
+
+    /**
+     * Get what {@link #convert(int)} would return, without changing the remainder.
+     *
+     * @param amount The amount in the source unit
+     * @return The amount in the target unit
+     */
+    public int preview(int amount) {
+        if (amount <= 0) {
+            return 0;
+        }
+        return EnergyUnit.clamp((amount * numerator + remainder) / denominator);
+    }
+
+    /**
+     * Get the largest source amount that converts to no more than the given target amount,
+     * taking the current remainder into account.
+     *
+     * @param output The target amount
+     * @return The source amount
+     */
+    public int maxInputFor(int output) {
+        if (output < 0) {
+            return 0;
+        }
+        long input = ((output + 1L) * denominator - remainder - 1) / numerator;
+        return EnergyUnit.clamp(Math.max(0, input));
+    }
+
+    /**
+     * Convert a batch of amounts, carrying the remainder from each entry into the next.
+     *
+     * @param in The amounts in the source unit
+     * @param out The array to write the converted amounts to, at least as long as {@code in}
+     */
+    public void convertAll(int[] in, int[] out) {
+        convertAll(in, out, in.length);
+    }
+
+    /**
+     * Convert the first {@code count} amounts of a batch, carrying the remainder from each
+     * entry into the next.
+     *
+     * @param in The amounts in the source unit
+     * @param out The array to write the converted amounts to
+     * @param count The number of amounts to convert
+     */
+    public void convertAll(int[] in, int[] out, int count) {
+        if (count > in.length || count > out.length) {
+            throw new IllegalArgumentException("Count exceeds the array length");
+        }
+
+        if (isIdentity()) {
+            System.arraycopy(in, 0, out, 0, count);
+            return;
+        }
+        long carry = remainder;
+        for (int i = 0; i < count; i++) {
+            int amount = in[i];
+            if (amount <= 0) {
+                out[i] = 0;
+                continue;
+            }
+            long scaled = amount * numerator + carry;
+            carry = scaled % denominator;
+            out[i] = EnergyUnit.clamp(scaled / denominator);
+        }
+        remainder = carry;
+    }
+
+    /**
+     * Gets the carried fraction, in units of 1/{@link #getDenominator()} of a target unit.
+     *
+     * @return The remainder
+     */
+    public long getRemainder() {
+        return remainder;
+    }
+
+    /**
+     * Sets the carried fraction, e.g. when loading a saved connection.
+     *
+     * @param remainder The remainder, between 0 and {@link #getDenominator()} exclusive
+     */
+    public void setRemainder(long remainder) {
+        if (remainder < 0 || remainder >= denominator) {
+            throw new IllegalArgumentException("Remainder out of range: " + remainder);
+        }
+        this.remainder = remainder;
+    }
+
+    /**
+     * Drop the carried fraction.
+     */
+    public void reset() {
+        remainder = 0;
+    }
+
+    /**
+     * Gets the denominator of the reduced conversion factor.
+     *
+     * @return The denominator
+     */
+    public long getDenominator() {
+        return denominator;
+    }
+
+    /**
+     * Gets the numerator of the reduced conversion factor.
+     *
+     * @return The numerator
+     */
+    public long getNumerator() {
+        return numerator;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.astroframe.galactic.energy.api;
+
+/**
+ * Energy storage whose energy, capacity and transfers are 64-bit.
+ * <p>
+ * The int methods of {@link EnergyStorage} are implemented on top of the long ones and saturate
+ * at {@link Integer#MAX_VALUE}, so a large bank can be handed to any code written against the
+ * int API. Code that knows about this interface can move amounts beyond the int range in one call.
+ */
+public interface LongEnergyStorage extends EnergyStorage {
+
+    /**
+     * Adds energy to storage.
+     *
+     * @param amount The maximum amount of energy to receive
+     * @param simulate If true, the transfer will only be simulated
+     * @return The amount of energy that was (or would have been, if simulated) received
+     */
+    long receiveEnergyLong(long amount, boolean simulate);
+
+    /**
+     * Removes energy from storage.
+     *
+     * @param amount The maximum amount of energy to extract
+     * @param simulate If true, the extraction will only be simulated
+     * @return The amount of energy that was (or would have been, if simulated) extracted
+     */
+    long extractEnergyLong(long amount, boolean simulate);
+
+    /**
+     * Gets the amount of energy stored.
+     *
+     * @return The amount of energy stored
+     */
+    long getEnergyLong();
+
+    /**
+     * Gets the maximum amount of energy that can be stored.
+     *
+     * @return The maximum amount of energy that can be stored
+     */
+    long getMaxEnergyLong();
+
+    @Override
+    default int receiveEnergy(int amount, boolean simulate) {
+        return (int) receiveEnergyLong(amount, simulate);
+    }
+
+    @Override
+    default int extractEnergy(int amount, boolean simulate) {
+        return (int) extractEnergyLong(amount, simulate);
+    }
+
+    @Override
+    default int getEnergy() {
+        return saturate(getEnergyLong());
+    }
+
+    @Override
+    default int getMaxEnergy() {
+        return saturate(getMaxEnergyLong());
+    }
+
+    /**
+     * Narrow a long amount to an int, clamping instead of wrapping.
+     *
+     * @param amount The amount
+     * @return The amount clamped to the int range
+     */
+    static int saturate(long amount) {
+        if (amount > Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        if (amount < Integer.MIN_VALUE) {
+            return Integer.MIN_VALUE;
+        }
+        return (int) amount;
+    }
+
+    /**
+     * Get a 64-bit view of any storage. Int storages are wrapped; their limits stay int-sized.
+     *
+     * @param storage The storage
+     * @return The storage itself if it is already 64-bit, otherwise an adapter
+     */
+    static LongEnergyStorage of(EnergyStorage storage) {
+        if (storage instanceof LongEnergyStorage longStorage) {
+            return longStorage;
+        }
+        return new LongEnergyStorage() {
+            @Override
+            public long receiveEnergyLong(long amount, boolean simulate) {
+                return storage.receiveEnergy(saturate(amount), simulate);
+            }
+
+            @Override
+            public long extractEnergyLong(long amount, boolean simulate) {
+                return storage.extractEnergy(saturate(amount), simulate);
+            }
+
+            @Override
+            public long getEnergyLong() {
+                return storage.getEnergy();
+            }
+
+            @Override
+            public long getMaxEnergyLong() {
+                return storage.getMaxEnergy();
+            }
+
+            @Override
+            public boolean canExtract() {
+                return storage.canExtract();
+            }
+
+            @Override
+            public boolean canReceive() {
+                return storage.canReceive();
+            }
+
+            @Override
+            public EnergyType getEnergyType() {
+                return storage.getEnergyType();
+            }
+
+            @Override
+            public int getPriority() {
+                return storage.getPriority();
+            }
+        };
+    }
+
+    /**
+     * Move energy between two storages in a single simulated-then-real exchange.
+     * Amounts beyond the int range are only possible when both sides are 64-bit.
+     *
+     * @param from The storage to extract from
+     * @param to The storage to insert into
+     * @param amount The maximum amount to move
+     * @return The amount moved
+     */
+    static long transfer(EnergyStorage from, EnergyStorage to, long amount) {
+        LongEnergyStorage source = of(from);
+        LongEnergyStorage target = of(to);
+
+        long offered = source.extractEnergyLong(amount, true);
+        long accepted = target.receiveEnergyLong(offered, true);
+        if (accepted <= 0) {
+            return 0;
+        }
+
+        long extracted = source.extractEnergyLong(accepted, false);
+        long received = target.receiveEnergyLong(extracted, false);
+        if (received < extracted) {
+            // Hand back what the target refused after all
+            source.receiveEnergyLong(extracted - received, false);
+        }
+        return received;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.astroframe.galactic.energy.api;
+
+/**
+ * An energy storage that reports changes to its state.
+ * Networks use this to go to sleep while idle and wake up as soon as a member changes.
+ */
+public interface ObservableEnergyStorage extends EnergyStorage {
+    
+    /**
+     * Set the listener notified whenever the stored energy, capacity, rates or type change.
+     * A storage has at most one listener, normally the network it belongs to.
+     * 
+     * @param listener The listener, or null to clear it
+     */
+    void setChangeListener(Runnable listener);
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package com.astroframe.galactic.energy.api.energynetwork;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Keeps track of which chunks are loaded, as reported by the platform's chunk events.
+ * This keeps the energy API independent of Minecraft while still letting
+ * {@link WorldChunk#isLoaded()} give a real answer.
+ * <p>
+ * A level that has never reported a chunk event is treated as fully loaded, so code that runs
+ * without the platform (tests, tools) behaves as before.
+ */
+public final class ChunkTracker {
+
+    /**
+     * Receives chunk load and unload notifications.
+     */
+    public interface Listener {
+
+        /**
+         * Called after a chunk was loaded.
+         *
+         * @param level The level (dimension)
+         * @param chunkKey The chunk packed with {@link WorldChunk#asLong()}
+         * @param gameTime The game time in ticks
+         */
+        void onChunkLoaded(Level level, long chunkKey, long gameTime);
+
+        /**
+         * Called after a chunk was unloaded.
+         *
+         * @param level The level (dimension)
+         * @param chunkKey The chunk packed with {@link WorldChunk#asLong()}
+         * @param gameTime The game time in ticks
+         */
+        void onChunkUnloaded(Level level, long chunkKey, long gameTime);
+    }
+
+    private static final Map<Level, Set<Long>> LOADED = new HashMap<>();
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private ChunkTracker() {
+    }
+
+    /**
+     * Record that a chunk was loaded and notify the listeners.
+     *
+     * @param level The level (dimension)
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @param gameTime The game time in ticks
+     */
+    public static void chunkLoaded(Level level, int chunkX, int chunkZ, long gameTime) {
+        long chunkKey = WorldChunk.asLong(chunkX, chunkZ);
+        synchronized (LOADED) {
+            LOADED.computeIfAbsent(level, key -> new HashSet<>()).add(chunkKey);
+        }
+        for (Listener listener : LISTENERS) {
+            listener.onChunkLoaded(level, chunkKey, gameTime);
+        }
+    }
+
+    /**
+     * Record that a chunk was unloaded and notify the listeners.
+     *
+     * @param level The level (dimension)
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @param gameTime The game time in ticks
+     */
+    public static void chunkUnloaded(Level level, int chunkX, int chunkZ, long gameTime) {
+        long chunkKey = WorldChunk.asLong(chunkX, chunkZ);
+        synchronized (LOADED) {
+            LOADED.computeIfAbsent(level, key -> new HashSet<>()).remove(chunkKey);
+        }
+        for (Listener listener : LISTENERS) {
+            listener.onChunkUnloaded(level, chunkKey, gameTime);
+        }
+    }
+
+    /**
+     * Forget every chunk of a level, e.g. when the level unloads.
+     *
+     * @param level The level (dimension)
+     */
+    public static void clear(Level level) {
+        synchronized (LOADED) {
+            LOADED.remove(level);
+        }
+    }
+
+    /**
+     * Check whether a chunk is loaded.
+     *
+     * @param level The level (dimension)
+     * @param chunkKey The chunk packed with {@link WorldChunk#asLong()}
+     * @return True if the chunk is loaded, or if the level has not reported any chunk events
+     */
+    public static boolean isLoaded(Level level, long chunkKey) {
+        synchronized (LOADED) {
+            Set<Long> loaded = LOADED.get(level);
+            return loaded == null || loaded.contains(chunkKey);
+        }
+    }
+
+    /**
+     * Register a listener for chunk events.
+     *
+     * @param listener The listener
+     */
+    public static void addListener(Listener listener) {
+        LISTENERS.add(listener);
+    }
+
+    /**
+     * Unregister a listener for chunk events.
+     *
+     * @param listener The listener
+     */
+    public static void removeListener(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+}
\ No newline at end of file
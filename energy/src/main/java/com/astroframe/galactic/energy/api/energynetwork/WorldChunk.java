@@ -62,14 +62,43 @@ public class WorldChunk {
     }
     
     /**
-     * Checks if this chunk is loaded.
-     * In this implementation, we always assume chunks are loaded
-     * to avoid dependencies on Minecraft.
+     * Gets the chunk coordinates packed into a single long, matching Minecraft's ChunkPos#asLong.
      * 
-     * @return True (always loaded in this implementation)
+     * @return The packed chunk coordinates
+     */
+    public long asLong() {
+        return asLong(chunkX, chunkZ);
+    }
+    
+    /**
+     * Packs chunk coordinates into a single long, matching Minecraft's ChunkPos#asLong.
+     * 
+     * @param chunkX The chunk X coordinate
+     * @param chunkZ The chunk Z coordinate
+     * @return The packed chunk coordinates
+     */
+    public static long asLong(int chunkX, int chunkZ) {
+        return (chunkX & 0xFFFFFFFFL) | ((chunkZ & 0xFFFFFFFFL) << 32);
+    }
+    
+    /**
+     * Gets the packed coordinates of the chunk containing a packed block position.
+     * 
+     * @param packedPosition The block position packed with {@link WorldPosition#asLong()}
+     * @return The packed chunk coordinates
+     */
+    public static long fromPosition(long packedPosition) {
+        return asLong(WorldPosition.getX(packedPosition) >> 4, WorldPosition.getZ(packedPosition) >> 4);
+    }
+    
+    /**
+     * Checks if this chunk is loaded, as reported to the {@link ChunkTracker}.
+     * Chunks of levels that never reported chunk events are considered loaded.
+     * 
+     * @return True if the chunk is loaded
      */
     public boolean isLoaded() {
-        return true;
+        return ChunkTracker.isLoaded(level, asLong());
     }
     
     @Override
@@ -7,6 +7,16 @@ import com.astroframe.galactic.energy.api.energynetwork.Level;
  * This is a Minecraft-independent implementation that can be adapted to different block position systems.
  */
 public class WorldPosition {
+    // Packed layout matches Minecraft's BlockPos#asLong: 26 bits X, 26 bits Z, 12 bits Y
+    private static final int PACKED_X_BITS = 26;
+    private static final int PACKED_Z_BITS = 26;
+    private static final int PACKED_Y_BITS = 12;
+    private static final long PACKED_X_MASK = (1L << PACKED_X_BITS) - 1L;
+    private static final long PACKED_Z_MASK = (1L << PACKED_Z_BITS) - 1L;
+    private static final long PACKED_Y_MASK = (1L << PACKED_Y_BITS) - 1L;
+    private static final int Z_SHIFT = PACKED_Y_BITS;
+    private static final int X_SHIFT = PACKED_Y_BITS + PACKED_Z_BITS;
+    
     private final int x;
     private final int y;
     private final int z;
@@ -75,6 +85,84 @@ public class WorldPosition {
         return new WorldPosition(x + dx, y + dy, z + dz, level);
     }
     
+    /**
+     * Gets the packed 64-bit form of this position's coordinates.
+     * The level is not part of the key; shard by level where positions from several dimensions mix.
+     * 
+     * @return The packed coordinates
+     */
+    public long asLong() {
+        return asLong(x, y, z);
+    }
+    
+    /**
+     * Packs block coordinates into a single long.
+     * 
+     * @param x The X coordinate
+     * @param y The Y coordinate
+     * @param z The Z coordinate
+     * @return The packed coordinates
+     */
+    public static long asLong(int x, int y, int z) {
+        return ((long) x & PACKED_X_MASK) << X_SHIFT
+                | ((long) z & PACKED_Z_MASK) << Z_SHIFT
+                | ((long) y & PACKED_Y_MASK);
+    }
+    
+    /**
+     * Gets the X coordinate of a packed position.
+     * 
+     * @param packed The packed coordinates
+     * @return The X coordinate
+     */
+    public static int getX(long packed) {
+        return (int) (packed >> X_SHIFT);
+    }
+    
+    /**
+     * Gets the Y coordinate of a packed position.
+     * 
+     * @param packed The packed coordinates
+     * @return The Y coordinate
+     */
+    public static int getY(long packed) {
+        return (int) (packed << (64 - PACKED_Y_BITS) >> (64 - PACKED_Y_BITS));
+    }
+    
+    /**
+     * Gets the Z coordinate of a packed position.
+     * 
+     * @param packed The packed coordinates
+     * @return The Z coordinate
+     */
+    public static int getZ(long packed) {
+        return (int) (packed << (64 - X_SHIFT) >> (64 - PACKED_Z_BITS));
+    }
+    
+    /**
+     * Offsets a packed position without allocating.
+     * 
+     * @param packed The packed coordinates
+     * @param dx The x offset
+     * @param dy The y offset
+     * @param dz The z offset
+     * @return The packed offset coordinates
+     */
+    public static long offset(long packed, int dx, int dy, int dz) {
+        return asLong(getX(packed) + dx, getY(packed) + dy, getZ(packed) + dz);
+    }
+    
+    /**
+     * Creates a position from packed coordinates.
+     * 
+     * @param packed The packed coordinates
+     * @param level The level (dimension)
+     * @return The position
+     */
+    public static WorldPosition fromLong(long packed, Level level) {
+        return new WorldPosition(getX(packed), getY(packed), getZ(packed), level);
+    }
+    
     /**
      * Gets the position above this position.
      * 
@@ -0,0 +1,126 @@
+package com.astroframe.galactic.energy.command;
+
+import com.astroframe.galactic.energy.GalacticEnergy;
+import com.astroframe.galactic.energy.implementation.CachedEnergyNetwork;
+import com.astroframe.galactic.energy.implementation.EnergyNetworkScheduler;
+import com.astroframe.galactic.energy.implementation.EnergyNetworkTelemetry;
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+import java.util.List;
+
+/**
+ * Admin commands for inspecting energy network telemetry.
+ */
+public class EnergyNetworkCommands {
+
+    private static final int DEFAULT_TOP_COUNT = 10;
+
+    /**
+     * Register all energy network commands.
+     *
+     * @param dispatcher The command dispatcher
+     */
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        GalacticEnergy.LOGGER.info("Registering energy network commands");
+
+        dispatcher.register(
+            Commands.literal("energynetworks")
+                .requires(source -> source.hasPermission(2)) // Require permission level 2 (op)
+                .then(Commands.literal("summary")
+                    .executes(EnergyNetworkCommands::showSummary))
+                .then(Commands.literal("top")
+                    .executes(context -> showTop(context, DEFAULT_TOP_COUNT))
+                    .then(Commands.argument("count", IntegerArgumentType.integer(1, 100))
+                        .executes(context -> showTop(context, IntegerArgumentType.getInteger(context, "count")))))
+                .then(Commands.literal("telemetry")
+                    .then(Commands.argument("enabled", BoolArgumentType.bool())
+                        .executes(EnergyNetworkCommands::setTelemetry)))
+        );
+    }
+
+    /**
+     * Shows totals across every scheduled network.
+     *
+     * @param context The command context
+     * @return Command result code
+     */
+    private static int showSummary(CommandContext<CommandSourceStack> context) {
+        EnergyNetworkScheduler scheduler = GalacticEnergy.getNetworkScheduler();
+        List<CachedEnergyNetwork> networks = scheduler.getMostExpensiveNetworks(Integer.MAX_VALUE);
+
+        long nanos = 0;
+        long moved = 0;
+        long ticks = 0;
+        int nodes = 0;
+        int sleeping = 0;
+        for (CachedEnergyNetwork network : networks) {
+            EnergyNetworkTelemetry telemetry = network.getTelemetry();
+            nanos += telemetry.getTotalNanos();
+            moved += telemetry.getTotalEnergyMoved();
+            ticks = Math.max(ticks, telemetry.getSampleCount());
+            nodes += network.getNodeCount();
+            if (network.isSleeping()) {
+                sleeping++;
+            }
+        }
+
+        long perTick = ticks > 0 ? nanos / ticks : 0;
+        String message = String.format("%d networks (%d asleep), %d nodes, %.1f us/tick, %d energy/tick, %s",
+                networks.size(), sleeping, nodes, perTick / 1000.0, ticks > 0 ? moved / ticks : 0,
+                scheduler.isParallel() ? "parallel" : "single-threaded");
+        context.getSource().sendSuccess(() -> Component.literal(message), false);
+        return networks.size();
+    }
+
+    /**
+     * Lists the networks that spend the most time ticking.
+     *
+     * @param context The command context
+     * @param count The number of networks to list
+     * @return Command result code
+     */
+    private static int showTop(CommandContext<CommandSourceStack> context, int count) {
+        List<CachedEnergyNetwork> networks = GalacticEnergy.getNetworkScheduler().getMostExpensiveNetworks(count);
+        if (networks.isEmpty()) {
+            context.getSource().sendSuccess(() -> Component.literal("No energy networks are scheduled"), false);
+            return 0;
+        }
+
+        for (int i = 0; i < networks.size(); i++) {
+            CachedEnergyNetwork network = networks.get(i);
+            EnergyNetworkTelemetry telemetry = network.getTelemetry();
+            int samples = Math.max(1, telemetry.getSampleCount());
+            String message = String.format("#%d %s %s: %d nodes, avg %.1f us, max %.1f us, %d energy/tick, %d/%d satisfied%s",
+                    i + 1, network.getLevel().getDimensionId(), network.getEnergyType().getId(),
+                    network.getNodeCount(), telemetry.getAverageNanos() / 1000.0, telemetry.getMaxNanos() / 1000.0,
+                    telemetry.getTotalEnergyMoved() / samples, telemetry.getTotalSatisfied(), telemetry.getTotalAttempted(),
+                    network.isSleeping() ? " (asleep)" : "");
+            context.getSource().sendSuccess(() -> Component.literal(message), false);
+        }
+        return networks.size();
+    }
+
+    /**
+     * Enables or disables telemetry on every scheduled network.
+     *
+     * @param context The command context
+     * @return Command result code
+     */
+    private static int setTelemetry(CommandContext<CommandSourceStack> context) {
+        boolean enabled = BoolArgumentType.getBool(context, "enabled");
+        List<CachedEnergyNetwork> networks = GalacticEnergy.getNetworkScheduler().getMostExpensiveNetworks(Integer.MAX_VALUE);
+        for (CachedEnergyNetwork network : networks) {
+            network.getTelemetry().setEnabled(enabled);
+        }
+
+        context.getSource().sendSuccess(() -> Component.literal(
+                "Telemetry " + (enabled ? "enabled" : "disabled") + " on " + networks.size() + " networks"), true);
+        return networks.size();
+    }
+}
\ No newline at end of file
@@ -64,6 +64,12 @@ public class EnergyConfig {
         // Path cache expiry time in seconds
         private int pathCacheExpirySeconds = 300;
         
+        // Idle ticks before a network stops ticking until one of its nodes changes (0 disables)
+        private int idleTicksBeforeSleep = 20;
+        
+        // Whether independent networks are ticked on a fork-join pool (false ticks them one by one)
+        private boolean parallelNetworkTicking = true;
+        
         /**
          * Get the maximum transport distance.
          * 
@@ -171,6 +177,42 @@ public class EnergyConfig {
         public void setPathCacheExpirySeconds(int pathCacheExpirySeconds) {
             this.pathCacheExpirySeconds = pathCacheExpirySeconds;
         }
+        
+        /**
+         * Get the number of idle ticks before a network goes to sleep.
+         * 
+         * @return The idle ticks before sleep, or 0 if networks never sleep
+         */
+        public int getIdleTicksBeforeSleep() {
+            return idleTicksBeforeSleep;
+        }
+        
+        /**
+         * Set the number of idle ticks before a network goes to sleep.
+         * 
+         * @param idleTicksBeforeSleep The new idle ticks before sleep, or 0 to disable sleeping
+         */
+        public void setIdleTicksBeforeSleep(int idleTicksBeforeSleep) {
+            this.idleTicksBeforeSleep = idleTicksBeforeSleep;
+        }
+        
+        /**
+         * Check if networks are ticked in parallel.
+         * 
+         * @return true if parallel network ticking is enabled, false otherwise
+         */
+        public boolean isParallelNetworkTicking() {
+            return parallelNetworkTicking;
+        }
+        
+        /**
+         * Set whether networks are ticked in parallel.
+         * 
+         * @param parallelNetworkTicking Whether to tick networks in parallel
+         */
+        public void setParallelNetworkTicking(boolean parallelNetworkTicking) {
+            this.parallelNetworkTicking = parallelNetworkTicking;
+        }
     }
     
     /**
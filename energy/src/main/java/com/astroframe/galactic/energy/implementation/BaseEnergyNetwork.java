@@ -3,6 +3,7 @@ package com.astroframe.galactic.energy.implementation;
 import com.astroframe.galactic.energy.api.EnergyNetwork;
 import com.astroframe.galactic.energy.api.EnergyStorage;
 import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
 import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
 import java.util.*;
 
@@ -13,6 +14,11 @@ import java.util.*;
 public abstract class BaseEnergyNetwork implements EnergyNetwork {
     
     protected final Map<WorldPosition, EnergyStorage> storages = new HashMap<>();
+    
+    /** The same storages, densely packed for iteration; the order changes when members are removed */
+    protected final List<EnergyStorage> storageList = new ArrayList<>();
+    private final List<WorldPosition> positions = new ArrayList<>();
+    private final PositionIndex index = new PositionIndex();
     protected final EnergyType energyType;
     
     /**
@@ -36,21 +42,56 @@ public abstract class BaseEnergyNetwork implements EnergyNetwork {
         }
         
         storages.put(position, storage);
+        int slot = index.get(position);
+        if (slot != PositionIndex.MISSING) {
+            storageList.set(slot, storage);
+            return;
+        }
+        
+        index.put(position, storageList.size());
+        storageList.add(storage);
+        positions.add(position);
     }
     
     @Override
     public void removeStorage(WorldPosition position) {
         storages.remove(position);
+        int slot = index.remove(position);
+        if (slot == PositionIndex.MISSING) {
+            return;
+        }
+        
+        // Swap the last member into the freed slot so the list stays dense
+        int last = storageList.size() - 1;
+        if (slot != last) {
+            WorldPosition moved = positions.get(last);
+            storageList.set(slot, storageList.get(last));
+            positions.set(slot, moved);
+            index.put(moved, slot);
+        }
+        storageList.remove(last);
+        positions.remove(last);
     }
     
     @Override
     public EnergyStorage getStorage(WorldPosition position) {
-        return storages.get(position);
+        return getStorage(position.getLevel(), position.asLong());
+    }
+    
+    @Override
+    public EnergyStorage getStorage(Level level, long packedPosition) {
+        int slot = index.get(level, packedPosition);
+        return slot != PositionIndex.MISSING ? storageList.get(slot) : null;
     }
     
     @Override
     public boolean hasStorage(WorldPosition position) {
-        return storages.containsKey(position);
+        return index.contains(position.getLevel(), position.asLong());
+    }
+    
+    @Override
+    public boolean hasStorage(Level level, long packedPosition) {
+        return index.contains(level, packedPosition);
     }
     
     /**
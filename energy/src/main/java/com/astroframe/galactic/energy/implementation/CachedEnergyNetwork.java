@@ -1,5 +1,7 @@
 package com.astroframe.galactic.energy.implementation;
 
+import com.astroframe.galactic.energy.api.EnergyDistributionMode;
+import com.astroframe.galactic.energy.api.EnergyDistributor;
 import com.astroframe.galactic.energy.api.EnergyNetwork;
 import com.astroframe.galactic.energy.api.EnergyStorage;
 import com.astroframe.galactic.energy.api.EnergyType;
@@ -7,22 +9,82 @@ import com.astroframe.galactic.energy.api.energynetwork.WorldChunk;
 import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.IntSupplier;
 
 /**
  * Implementation of EnergyNetwork that caches the energy handlers in the network.
  * It allows for efficient energy distribution and transfer.
+ * <p>
+ * A network that changes no member's energy for {@link #getIdleTicksBeforeSleep()} ticks goes to sleep
+ * and skips its ticks entirely. It wakes as soon as a member reports a change to its energy,
+ * capacity or rates, or when a member is added or removed. Networks containing storages that
+ * cannot report their changes never sleep.
+ * <p>
+ * Nodes in a chunk that unloads are suspended and take no part in ticks. When the chunk loads
+ * again its packed nodes catch up in a single tick, with their rates scaled by the number of
+ * ticks they missed (capped at {@link #MAX_CATCH_UP_TICKS}); external storages simply resume.
+ * <p>
+ * Storages must match the network's energy type. Networks of different types are linked with
+ * {@link EnergyConverterNode}s, which join the solver of both networks as virtual members.
  */
 public class CachedEnergyNetwork implements EnergyNetwork {
     
+    /** Default number of idle ticks before a network goes to sleep */
+    public static final int DEFAULT_IDLE_TICKS_BEFORE_SLEEP = 20;
+    
+    /** Longest stretch of unloaded time that is replayed when a chunk reloads (one minute) */
+    public static final int MAX_CATCH_UP_TICKS = 1200;
+    
     private final EnergyType energyType;
     private final com.astroframe.galactic.energy.api.energynetwork.Level level;
-    private final Map<WorldPosition, EnergyStorage> storages = new HashMap<>();
-    private final List<EnergyStorage> providers = new ArrayList<>();
-    private final List<EnergyStorage> consumers = new ArrayList<>();
+    private final EnergyNodeStore store = new EnergyNodeStore();
+    private final PositionIndex slots = new PositionIndex();
+    private final EnergyDistributor distributor;
+    
+    // Per-tick scratch buffers, indexed in tick order and reused between ticks
+    private int[] supply = new int[0];
+    private int[] demand = new int[0];
+    private int[] extracted = new int[0];
+    private int[] received = new int[0];
+    
+    // Dormancy state
+    private int idleTicksBeforeSleep = DEFAULT_IDLE_TICKS_BEFORE_SLEEP;
+    private int idleTicks;
+    private boolean sleeping;
+    
+    // True between prepareTick() and commitTick() when the settled buffers hold transfers to apply
+    private boolean prepared;
+    
+    // True once commitTick() has applied this tick's transfers
+    private boolean committed;
+    
+    // Converters linked to this network; each takes the slot after the nodes, in list order
+    private final List<EnergyConverterNode> converters = new ArrayList<>();
+    
+    // Set by gatherTick(): totals over the nodes plus what converters have reserved so far,
+    // what converters fed by this network and not yet balanced could take on to their own networks,
+    // and what converters feeding this network have planned to deliver
+    private boolean gathered;
+    private long gatheredSupply;
+    private long gatheredDemand;
+    private long pull;
+    private long claimed;
+    
+    // Nodes per chunk, and when each chunk holding nodes was unloaded
+    private final LongIntHashMap chunkNodes = new LongIntHashMap(0);
+    private final Map<Long, Long> unloadedSince = new HashMap<>();
+    private int suspendedCount;
+    
+    // Tick statistics; the counters carry values from prepareTick() to commitTick()
+    private final EnergyNetworkTelemetry telemetry = new EnergyNetworkTelemetry();
+    private long prepareNanos;
+    private int attempted;
+    private int satisfied;
     
     /**
      * Create a new cached energy network.
@@ -31,8 +93,121 @@ public class CachedEnergyNetwork implements EnergyNetwork {
      * @param level The level (dimension) this network exists in
      */
     public CachedEnergyNetwork(EnergyType energyType, com.astroframe.galactic.energy.api.energynetwork.Level level) {
+        this(energyType, level, new FlowEnergyDistributor(EnergyDistributionMode.PROPORTIONAL));
+    }
+    
+    /**
+     * Create a new cached energy network with a specific distribution engine.
+     * 
+     * @param energyType The type of energy this network handles
+     * @param level The level (dimension) this network exists in
+     * @param distributor The engine used to settle transfers each tick
+     */
+    public CachedEnergyNetwork(EnergyType energyType, com.astroframe.galactic.energy.api.energynetwork.Level level,
+                               EnergyDistributor distributor) {
         this.energyType = energyType;
         this.level = level;
+        this.distributor = Objects.requireNonNull(distributor, "distributor");
+        this.store.setChangeListener(this::wake);
+    }
+    
+    /**
+     * Get the engine this network settles transfers with.
+     * 
+     * @return The distributor
+     */
+    public EnergyDistributor getDistributor() {
+        return distributor;
+    }
+    
+    /**
+     * Get the number of idle ticks after which this network goes to sleep.
+     * 
+     * @return The idle ticks before sleep, or 0 if the network never sleeps
+     */
+    public int getIdleTicksBeforeSleep() {
+        return idleTicksBeforeSleep;
+    }
+    
+    /**
+     * Set the number of idle ticks after which this network goes to sleep.
+     * 
+     * @param idleTicksBeforeSleep The idle ticks before sleep, or 0 to never sleep
+     */
+    public void setIdleTicksBeforeSleep(int idleTicksBeforeSleep) {
+        this.idleTicksBeforeSleep = Math.max(0, idleTicksBeforeSleep);
+        wake();
+    }
+    
+    /**
+     * Check whether this network is currently skipping its ticks.
+     * 
+     * @return True if the network is asleep
+     */
+    public boolean isSleeping() {
+        return sleeping;
+    }
+    
+    /**
+     * Resume ticking and restart the idle count.
+     * Called automatically when a member changes; callers only need it for changes the
+     * network cannot observe.
+     */
+    public void wake() {
+        sleeping = false;
+        idleTicks = 0;
+    }
+    
+    /**
+     * Suspend every node in a chunk that has just unloaded.
+     * 
+     * @param chunkKey The chunk packed with {@link WorldChunk#asLong()}
+     * @param gameTime The game time in ticks
+     */
+    public void onChunkUnloaded(long chunkKey, long gameTime) {
+        if (!chunkNodes.containsKey(chunkKey)) {
+            return;
+        }
+        
+        suspendedCount += store.setChunkSuspended(chunkKey, true, 0);
+        unloadedSince.putIfAbsent(chunkKey, gameTime);
+        membershipChanged();
+    }
+    
+    /**
+     * Resume every node in a chunk that has just loaded, replaying the ticks it missed in one go.
+     * 
+     * @param chunkKey The chunk packed with {@link WorldChunk#asLong()}
+     * @param gameTime The game time in ticks
+     */
+    public void onChunkLoaded(long chunkKey, long gameTime) {
+        Long since = unloadedSince.remove(chunkKey);
+        if (since == null) {
+            return;
+        }
+        
+        int catchUpTicks = (int) Math.max(1, Math.min(MAX_CATCH_UP_TICKS, gameTime - since));
+        suspendedCount -= store.setChunkSuspended(chunkKey, false, catchUpTicks);
+        membershipChanged();
+    }
+    
+    /**
+     * Resume every suspended node without catching up, e.g. when chunk optimisation is switched off.
+     */
+    public void resumeAllChunks() {
+        store.resumeAll();
+        suspendedCount = 0;
+        unloadedSince.clear();
+        membershipChanged();
+    }
+    
+    /**
+     * Get the number of nodes suspended because their chunk is unloaded.
+     * 
+     * @return The suspended node count
+     */
+    public int getSuspendedCount() {
+        return suspendedCount;
     }
     
     @Override
@@ -46,84 +221,458 @@ public class CachedEnergyNetwork implements EnergyNetwork {
             throw new IllegalArgumentException("Storage energy type does not match network energy type");
         }
         
-        storages.put(position, storage);
-        
-        // Categorize the storage as provider or consumer
-        if (storage.canExtract()) {
-            providers.add(storage);
+        if (storage instanceof PackedEnergyStorage packed && packed.isOwnedBy(store)) {
+            if (slots.get(position) == packed.getSlot()) {
+                return; // Already registered here
+            }
+            throw new IllegalArgumentException("Storage is already part of this network at another position");
         }
         
-        if (storage.canReceive()) {
-            consumers.add(storage);
+        removeStorage(position);
+        membershipChanged();
+        
+        if (storage instanceof PackedEnergyStorage packed && !packed.isAttached()) {
+            // A packed node that left another network goes straight back into the arrays
+            track(position, store.adoptPacked(packed));
+            return;
         }
+        
+        track(position, store.allocateExternal(storage));
+    }
+    
+    /**
+     * Create a storage whose state lives in this network's packed arrays and add it at the given position.
+     * The returned view behaves like any other SimpleEnergyStorage; once it is removed from the
+     * network it keeps its last values and works standalone.
+     * 
+     * @param position The position
+     * @param capacity The maximum capacity
+     * @param maxReceive The maximum receive rate
+     * @param maxExtract The maximum extract rate
+     * @param energy The initial energy
+     * @return The new storage
+     */
+    public PackedEnergyStorage createStorage(WorldPosition position, int capacity, int maxReceive, int maxExtract, int energy) {
+        return createStorage(position, capacity, maxReceive, maxExtract, energy, 0);
+    }
+    
+    /**
+     * Create a packed storage that is served in the order of the given priority, e.g. a placeholder
+     * for a loaded external storage.
+     */
+    PackedEnergyStorage createStorage(WorldPosition position, int capacity, int maxReceive, int maxExtract, int energy,
+                                      int priority) {
+        removeStorage(position);
+        membershipChanged();
+        PackedEnergyStorage storage = store.allocatePacked(capacity, maxReceive, maxExtract, energy, energyType, priority);
+        track(position, storage.getSlot());
+        return storage;
     }
     
     @Override
     public void removeStorage(WorldPosition position) {
-        EnergyStorage removed = storages.remove(position);
+        int slot = slots.remove(position);
         
-        if (removed != null) {
-            if (removed.canExtract()) {
-                providers.remove(removed);
+        if (slot != PositionIndex.MISSING) {
+            long chunkKey = WorldChunk.fromPosition(store.positions[slot]);
+            if (chunkNodes.put(chunkKey, chunkNodes.get(chunkKey) - 1) == 1) {
+                chunkNodes.remove(chunkKey);
+                unloadedSince.remove(chunkKey);
             }
-            
-            if (removed.canReceive()) {
-                consumers.remove(removed);
+            if ((store.io[slot] & EnergyNodeStore.SUSPENDED) != 0) {
+                suspendedCount--;
             }
+            store.release(slot);
+            membershipChanged();
+        }
+    }
+    
+    @Override
+    public boolean registerDemand(WorldPosition position, IntSupplier demand) {
+        int slot = slots.get(position);
+        if (slot == PositionIndex.MISSING) {
+            return false;
         }
+        store.setDemandSource(slot, demand);
+        wake();
+        return true;
     }
     
     @Override
     public EnergyStorage getStorage(WorldPosition position) {
-        return storages.get(position);
+        return getStorage(position.getLevel(), position.asLong());
+    }
+    
+    @Override
+    public EnergyStorage getStorage(com.astroframe.galactic.energy.api.energynetwork.Level level, long packedPosition) {
+        int slot = slots.get(level, packedPosition);
+        return slot != PositionIndex.MISSING ? store.getHandle(slot) : null;
     }
     
     @Override
     public boolean hasStorage(WorldPosition position) {
-        return storages.containsKey(position);
+        return slots.contains(position.getLevel(), position.asLong());
+    }
+    
+    @Override
+    public boolean hasStorage(com.astroframe.galactic.energy.api.energynetwork.Level level, long packedPosition) {
+        return slots.contains(level, packedPosition);
     }
     
     /**
      * Process a single tick of energy transfers within the network.
-     * This handles energy distribution from providers to consumers.
+     * Supply and demand are gathered once per node, settled by the distributor,
+     * and then applied with a single real extract or receive per node.
+     * Does nothing while the network is asleep.
      */
     public void tick() {
-        if (providers.isEmpty() || consumers.isEmpty()) {
-            return; // Nothing to do
+        if (prepareTick()) {
+            commitTick();
+        }
+    }
+    
+    /**
+     * First half of a tick: gather supply and demand and settle the transfers into the scratch buffers.
+     * Only simulates against member storages, so independent networks may prepare concurrently.
+     * 
+     * @return True if there are transfers for {@link #commitTick()} to apply
+     */
+    boolean prepareTick() {
+        return gatherTick() && settleTick();
+    }
+    
+    /**
+     * Gather the supply and demand of every node, without settling yet.
+     * Converters linked to this network may reserve amounts before {@link #settleTick()} runs.
+     * 
+     * @return True if the network has something to settle
+     */
+    boolean gatherTick() {
+        prepared = false;
+        committed = false;
+        gathered = false;
+        int nodeCount = store.size();
+        if (sleeping) {
+            telemetry.record(0, 0, 0, 0, nodeCount);
+            return false;
         }
         
-        // For each provider, try to distribute energy to consumers
-        for (EnergyStorage provider : providers) {
-            // Calculate how much energy can be extracted from this provider
-            int available = provider.extractEnergy(Integer.MAX_VALUE, true);
-            
-            if (available <= 0) {
-                continue; // Skip if no energy available
-            }
-            
-            // Distribute energy evenly among consumers (simple algorithm)
-            int totalDistributed = 0;
-            int consumersCount = consumers.size();
-            
-            if (consumersCount > 0) {
-                int perConsumer = Math.max(1, available / consumersCount);
-                
-                for (EnergyStorage consumer : consumers) {
-                    if (totalDistributed >= available) {
-                        break;
-                    }
-                    
-                    int toTransfer = Math.min(perConsumer, available - totalDistributed);
-                    int accepted = consumer.receiveEnergy(toTransfer, true);
-                    
-                    if (accepted > 0) {
-                        // Actually perform the transfer
-                        int extracted = provider.extractEnergy(accepted, false);
-                        consumer.receiveEnergy(extracted, false);
-                        totalDistributed += extracted;
-                    }
+        boolean timed = telemetry.isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+        int slotCount = nodeCount + converters.size();
+        if (slotCount < 2) {
+            idle();
+            telemetry.record(0, 0, 0, timed ? System.nanoTime() - start : 0, nodeCount);
+            return false; // Nothing to do
+        }
+        
+        ensureCapacity(slotCount);
+        store.gather(supply, demand);
+        
+        long totalSupply = 0;
+        long totalDemand = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            totalSupply += supply[i];
+            totalDemand += demand[i];
+        }
+        gatheredSupply = totalSupply;
+        gatheredDemand = totalDemand;
+        pull = 0;
+        claimed = 0;
+        gathered = true;
+        prepareNanos = timed ? System.nanoTime() - start : 0;
+        return true;
+    }
+    
+    /**
+     * Settle the gathered supply and demand, including the amounts reserved by converters.
+     * 
+     * @return True if there are transfers for {@link #commitTick()} to apply
+     */
+    boolean settleTick() {
+        if (!gathered) {
+            return false;
+        }
+        gathered = false;
+        
+        boolean timed = telemetry.isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+        int nodeCount = store.size();
+        int slotCount = nodeCount + converters.size();
+        for (int i = nodeCount; i < slotCount; i++) {
+            EnergyConverterNode converter = converters.get(i - nodeCount);
+            supply[i] = converter.getOutput() == this ? converter.getOutputFlow() : 0;
+            demand[i] = converter.getInput() == this ? converter.getInputFlow() : 0;
+        }
+        
+        if (distributor instanceof EnergyPathCache routes) {
+            routes.bind(store);
+        }
+        long flow = distributor.settle(supply, slotCount, demand, slotCount, extracted, received);
+        if (timed) {
+            countDemand(nodeCount);
+            prepareNanos += System.nanoTime() - start;
+        }
+        if (flow > 0) {
+            flow = netOwnTrades(nodeCount, slotCount);
+        }
+        if (flow <= 0) {
+            idle();
+            telemetry.record(0, attempted, satisfied, prepareNanos, nodeCount);
+            return false;
+        }
+        idleTicks = 0;
+        prepared = true;
+        return true;
+    }
+    
+    /**
+     * Check whether gathering calls into code outside the network: external storages and demand
+     * sources belong to block entities, so they may only be asked on the thread that owns them.
+     * 
+     * @return True if the network must gather on the server thread
+     */
+    boolean gathersOutside() {
+        return store.externalCount() > 0 || store.demandSourceCount() > 0;
+    }
+    
+    /**
+     * Check whether this tick's transfers were applied. A tick is dropped if membership
+     * changed between settling and committing.
+     * 
+     * @return True between {@link #commitTick()} applying transfers and the next gather
+     */
+    boolean isCommitted() {
+        return committed;
+    }
+    
+    /**
+     * Check whether the network has gathered this tick and is waiting to settle.
+     * 
+     * @return True between {@link #gatherTick()} and {@link #settleTick()}
+     */
+    boolean isGathered() {
+        return gathered;
+    }
+    
+    long getGatheredSupply() {
+        return gatheredSupply;
+    }
+    
+    long getGatheredDemand() {
+        return gatheredDemand;
+    }
+    
+    long getPull() {
+        return pull;
+    }
+    
+    /**
+     * Record what a converter fed by this network could take on to its output network.
+     * 
+     * @param amount The energy the converter could take
+     */
+    void addPull(int amount) {
+        pull += amount;
+    }
+    
+    /**
+     * Withdraw a converter's pull once it has balanced and reserved what it actually takes.
+     * 
+     * @param amount The energy the converter had announced
+     */
+    void releasePull(int amount) {
+        pull -= amount;
+    }
+    
+    long getClaimed() {
+        return claimed;
+    }
+    
+    /**
+     * Record what a converter feeding this network plans to deliver, so converters planned
+     * after it only plan for the rest of the shortfall.
+     * 
+     * @param amount The energy the converter plans to deliver
+     */
+    void claim(int amount) {
+        claimed += amount;
+    }
+    
+    /**
+     * Add a converter's share of this tick to the gathered totals.
+     * 
+     * @param supply The energy the converter provides
+     * @param demand The energy the converter consumes
+     */
+    void reserve(int supply, int demand) {
+        gatheredSupply += supply;
+        gatheredDemand += demand;
+    }
+    
+    /**
+     * Get the converters linked to this network.
+     * 
+     * @return An unmodifiable view of the converters
+     */
+    public List<EnergyConverterNode> getConverters() {
+        return Collections.unmodifiableList(converters);
+    }
+    
+    void attachConverter(EnergyConverterNode converter) {
+        if (!converters.contains(converter)) {
+            converters.add(converter);
+            membershipChanged();
+        }
+    }
+    
+    void detachConverter(EnergyConverterNode converter) {
+        if (converters.remove(converter)) {
+            membershipChanged();
+        }
+    }
+    
+    /**
+     * Second half of a tick: apply the transfers settled by {@link #prepareTick()}.
+     * Must run on the thread that owns the member storages. Skipped if membership changed in between.
+     */
+    void commitTick() {
+        if (!prepared) {
+            return;
+        }
+        prepared = false;
+        committed = true;
+        
+        boolean timed = telemetry.isEnabled();
+        long start = timed ? System.nanoTime() : 0;
+        
+        // Converter slots sit after the nodes: what they provide joins the pool, what they take leaves it
+        int nodeCount = store.size();
+        long converterIn = 0;
+        long converterOut = 0;
+        for (int i = nodeCount; i < nodeCount + converters.size(); i++) {
+            converterIn += extracted[i];
+            converterOut += received[i];
+        }
+        
+        long extractedTotal = store.extract(extracted) + converterIn;
+        long pool = store.insert(received, Math.max(0, extractedTotal - converterOut));
+        long moved = extractedTotal - pool;
+        
+        // Only reachable if a storage reported more in simulation than it honoured; hand it back
+        if (pool > 0) {
+            store.insert(extracted, pool);
+        }
+        
+        if (timed) {
+            telemetry.record(moved, attempted, satisfied, prepareNanos + System.nanoTime() - start, store.size());
+        }
+    }
+    
+    /**
+     * Get the tick statistics of this network.
+     * 
+     * @return The telemetry
+     */
+    public EnergyNetworkTelemetry getTelemetry() {
+        return telemetry;
+    }
+    
+    /**
+     * Get the level (dimension) this network exists in.
+     * 
+     * @return The level
+     */
+    public com.astroframe.galactic.energy.api.energynetwork.Level getLevel() {
+        return level;
+    }
+    
+    /**
+     * Get the chunks whose nodes are suspended, for saving.
+     * 
+     * @return An unmodifiable view of the game time each chunk was unloaded at, by chunk key
+     */
+    Map<Long, Long> getUnloadedSince() {
+        return Collections.unmodifiableMap(unloadedSince);
+    }
+    
+    /**
+     * Get the packed node arrays, for saving.
+     * 
+     * @return The node store
+     */
+    EnergyNodeStore getStore() {
+        return store;
+    }
+    
+    /**
+     * Get the number of nodes in this network.
+     * 
+     * @return The node count
+     */
+    public int getNodeCount() {
+        return store.size();
+    }
+    
+    private void countDemand(int nodeCount) {
+        int asked = 0;
+        int served = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            if (demand[i] > 0) {
+                asked++;
+                if (received[i] >= demand[i]) {
+                    served++;
                 }
             }
         }
+        attempted = asked;
+        satisfied = served;
+    }
+    
+    private void track(WorldPosition position, int slot) {
+        slots.put(position, slot);
+        store.setPosition(slot, position.asLong());
+        long chunkKey = WorldChunk.fromPosition(position.asLong());
+        chunkNodes.put(chunkKey, chunkNodes.get(chunkKey) + 1);
+    }
+    
+    private void membershipChanged() {
+        prepared = false;
+        wake();
+    }
+    
+    /**
+     * Cancel out what each node would both give and take this tick, so storages that only pass
+     * energy between themselves change nothing and the network counts as idle.
+     * 
+     * @return The energy that still moves
+     */
+    private long netOwnTrades(int nodeCount, int slotCount) {
+        long flow = 0;
+        for (int i = 0; i < slotCount; i++) {
+            if (i < nodeCount) {
+                int own = Math.min(extracted[i], received[i]);
+                extracted[i] -= own;
+                received[i] -= own;
+            }
+            flow += extracted[i];
+        }
+        return flow;
+    }
+    
+    private void idle() {
+        if (idleTicksBeforeSleep > 0 && ++idleTicks >= idleTicksBeforeSleep && store.unobservableCount() == 0
+                && converters.isEmpty()) {
+            sleeping = true;
+        }
+    }
+    
+    private void ensureCapacity(int nodeCount) {
+        if (supply.length < nodeCount) {
+            supply = new int[nodeCount];
+            demand = new int[nodeCount];
+            extracted = new int[nodeCount];
+            received = new int[nodeCount];
+        }
     }
 }
\ No newline at end of file
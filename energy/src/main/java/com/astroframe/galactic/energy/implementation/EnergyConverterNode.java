@@ -0,0 +1,304 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyUnitConverter;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+
+import java.util.Objects;
+
+/**
+ * Links two networks of different {@link com.astroframe.galactic.energy.api.EnergyType}s so that
+ * energy crosses between them inside the distribution solver, in the same tick.
+ * <p>
+ * The node takes part in both networks as a virtual member: a consumer in the input network and
+ * a provider in the output network. Once both networks have gathered their supply and demand,
+ * the {@link EnergyNetworkScheduler} balances every converter: it moves the input network's
+ * surplus, up to {@link #getMaxInput()} and no more than the output network is short, converted
+ * with the ratio between the two types' {@link com.astroframe.galactic.energy.api.EnergyUnit}s.
+ * Both networks then settle with the converter's amounts included, so no energy is buffered in
+ * the node. Fractions lost to the unit ratio are carried to the next tick, but only once the
+ * networks it changed have committed; a tick that is dropped because membership changed carries
+ * nothing.
+ * <p>
+ * For chains of converters the scheduler orders the converters so that every converter feeding a
+ * network is balanced before the converters fed by it, whatever order they were added in. It first
+ * plans them in reverse of that order: each converter announces to its input network what its
+ * output network is still short of, after what converters planned before it will deliver, so a
+ * downstream converter's share counts as demand of the network feeding it. It then balances them
+ * in order, each moving at most what it planned and what its output network can still take once
+ * the converters already balanced are counted. Energy delivered into a network is therefore
+ * always taken off it in the same tick, and a chain moves energy from source to sink in one tick.
+ * A converter that closes a loop does not announce its share upstream, and only moves surplus
+ * that is left once the rest of the loop has balanced. Only surplus that was actually gathered is
+ * ever moved, so planning never creates energy. Networks with converters never sleep.
+ * <p>
+ * When cables merge a linked network into another, an {@link EnergyGridTopology} moves the
+ * converter over to the surviving network. When cables split a linked network, the converter
+ * follows the node it is attached to on that side, if it was given one, and otherwise stays
+ * with the piece that keeps the network.
+ */
+public class EnergyConverterNode {
+
+    // Re-pointed by the scheduler when cables merge or split the linked networks
+    private CachedEnergyNetwork input;
+    private CachedEnergyNetwork output;
+    private final WorldPosition inputPosition;
+    private final WorldPosition outputPosition;
+    private final EnergyUnitConverter converter;
+    private int maxInput;
+
+    // Set by the scheduler: false when this converter closes a loop of converters
+    private boolean forward = true;
+
+    // What plan() announced for the current tick, in the input network's unit
+    private int planned;
+
+    // Amounts for the current tick, set by balance() and reset once the tick is committed
+    private int inputFlow;
+    private int outputFlow;
+
+    // Amounts moved by the last committed tick
+    private int lastInput;
+    private int lastOutput;
+
+    /**
+     * Create a converter between two networks, attached to no node in either.
+     *
+     * @param input The network energy is taken from
+     * @param output The network energy is delivered to
+     * @param maxInput The most energy taken from the input network per tick, in its unit
+     */
+    public EnergyConverterNode(CachedEnergyNetwork input, CachedEnergyNetwork output, int maxInput) {
+        this(input, null, output, null, maxInput);
+    }
+
+    /**
+     * Create a converter between two networks, attached to a node in each.
+     *
+     * @param input The network energy is taken from
+     * @param inputPosition The node of the input network the converter is attached to, or null
+     * @param output The network energy is delivered to
+     * @param outputPosition The node of the output network the converter is attached to, or null
+     * @param maxInput The most energy taken from the input network per tick, in its unit
+     */
+    public EnergyConverterNode(CachedEnergyNetwork input, WorldPosition inputPosition, CachedEnergyNetwork output,
+                               WorldPosition outputPosition, int maxInput) {
+        this.input = Objects.requireNonNull(input, "input");
+        this.output = Objects.requireNonNull(output, "output");
+        if (input == output) {
+            throw new IllegalArgumentException("A converter must link two different networks");
+        }
+        this.inputPosition = inputPosition;
+        this.outputPosition = outputPosition;
+        this.converter = input.getEnergyType().getUnit().converterTo(output.getEnergyType().getUnit());
+        setMaxInput(maxInput);
+    }
+
+    /**
+     * Gets the network energy is taken from.
+     *
+     * @return The input network
+     */
+    public CachedEnergyNetwork getInput() {
+        return input;
+    }
+
+    /**
+     * Gets the network energy is delivered to.
+     *
+     * @return The output network
+     */
+    public CachedEnergyNetwork getOutput() {
+        return output;
+    }
+
+    /**
+     * Gets the node of the input network the converter is attached to.
+     *
+     * @return The position, or null if the converter is attached to no node
+     */
+    public WorldPosition getInputPosition() {
+        return inputPosition;
+    }
+
+    /**
+     * Gets the node of the output network the converter is attached to.
+     *
+     * @return The position, or null if the converter is attached to no node
+     */
+    public WorldPosition getOutputPosition() {
+        return outputPosition;
+    }
+
+    /**
+     * Gets the unit converter, e.g. to save or restore its carried remainder.
+     *
+     * @return The unit converter
+     */
+    public EnergyUnitConverter getConverter() {
+        return converter;
+    }
+
+    /**
+     * Gets the most energy taken from the input network per tick.
+     *
+     * @return The maximum input, in the input network's unit
+     */
+    public int getMaxInput() {
+        return maxInput;
+    }
+
+    /**
+     * Sets the most energy taken from the input network per tick.
+     *
+     * @param maxInput The maximum input, in the input network's unit
+     */
+    public void setMaxInput(int maxInput) {
+        if (maxInput < 0) {
+            throw new IllegalArgumentException("Max input cannot be negative");
+        }
+        this.maxInput = maxInput;
+    }
+
+    /**
+     * Gets the energy taken from the input network by the last tick.
+     *
+     * @return The energy, in the input network's unit
+     */
+    public int getLastInput() {
+        return lastInput;
+    }
+
+    /**
+     * Gets the energy delivered to the output network by the last tick.
+     *
+     * @return The energy, in the output network's unit
+     */
+    public int getLastOutput() {
+        return lastOutput;
+    }
+
+    int getInputFlow() {
+        return inputFlow;
+    }
+
+    int getOutputFlow() {
+        return outputFlow;
+    }
+
+    /**
+     * Get the node this converter is attached to in one of its networks.
+     *
+     * @param network The input or output network
+     * @return The position, or null if the converter is attached to no node there or does not link the network
+     */
+    WorldPosition getPositionIn(CachedEnergyNetwork network) {
+        if (network == input) {
+            return inputPosition;
+        }
+        return network == output ? outputPosition : null;
+    }
+
+    /**
+     * Re-point this converter from a network to another of the same energy type.
+     * Runs on the scheduler thread between ticks.
+     *
+     * @param from The network the converter links now
+     * @param to The network to link instead
+     */
+    void rebind(CachedEnergyNetwork from, CachedEnergyNetwork to) {
+        if (input == from) {
+            input = to;
+        }
+        if (output == from) {
+            output = to;
+        }
+    }
+
+    void setForward(boolean forward) {
+        this.forward = forward;
+    }
+
+    boolean isForward() {
+        return forward;
+    }
+
+    /**
+     * Plan what this converter could pass on to the output network, claim it there and, unless
+     * this converter closes a loop, announce it to the input network.
+     * Runs on the scheduler thread after the gather phase, in reverse balance order.
+     */
+    void plan() {
+        planned = 0;
+        if (maxInput == 0 || !input.isGathered() || !output.isGathered()) {
+            return;
+        }
+
+        int deficit = clamp(outputDeficit() - output.getClaimed());
+        if (deficit == 0) {
+            return;
+        }
+        planned = Math.min(maxInput, converter.maxInputFor(deficit));
+        if (planned > 0) {
+            output.claim(converter.preview(planned));
+            if (forward) {
+                input.addPull(planned);
+            }
+        }
+    }
+
+    /**
+     * Decide this tick's transfer from the gathered totals of both networks and reserve it in them.
+     * Runs on the scheduler thread after {@link #plan()}, in balance order.
+     */
+    void balance() {
+        inputFlow = 0;
+        outputFlow = 0;
+        int wanted = planned;
+        planned = 0;
+        if (wanted == 0) {
+            return;
+        }
+        if (forward) {
+            input.releasePull(wanted);
+        }
+
+        long surplus = input.getGatheredSupply() - input.getGatheredDemand();
+        int amount = (int) Math.max(0, Math.min(surplus, wanted));
+        amount = Math.min(amount, converter.maxInputFor(clamp(outputDeficit())));
+        if (amount <= 0) {
+            return;
+        }
+
+        inputFlow = amount;
+        outputFlow = converter.preview(amount);
+        input.reserve(0, inputFlow);
+        output.reserve(outputFlow, 0);
+    }
+
+    // What the output network lacks, counting what unbalanced converters fed by it could take
+    private long outputDeficit() {
+        return output.getGatheredDemand() + output.getPull() - output.getGatheredSupply();
+    }
+
+    private static int clamp(long amount) {
+        return (int) Math.max(0, Math.min(amount, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Record the committed transfer, carry its remainder and clear this tick's amounts.
+     * Runs on the scheduler thread after every network has committed.
+     */
+    void finish() {
+        // A transfer too small to deliver anything leaves the output network nothing to commit
+        if (inputFlow > 0 && input.isCommitted() && (outputFlow == 0 || output.isCommitted())) {
+            converter.convert(inputFlow);
+            lastInput = inputFlow;
+            lastOutput = outputFlow;
+        } else {
+            lastInput = 0;
+            lastOutput = 0;
+        }
+        inputFlow = 0;
+        outputFlow = 0;
+    }
+}
\ No newline at end of file
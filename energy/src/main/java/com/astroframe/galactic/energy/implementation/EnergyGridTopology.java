@@ -0,0 +1,808 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyStorage;
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import com.astroframe.galactic.energy.config.EnergyConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Incremental connectivity tracking for the energy networks of one energy type in one level.
+ * <p>
+ * Nodes are cables (no storage) or storages. Every node carries the id of the connected
+ * component it belongs to, and every component owns one {@link CachedEnergyNetwork}.
+ * Placing a node unions the components of its neighbours using weighted union-find: the
+ * smaller components are relabelled into the largest, so each node is relabelled at most
+ * O(log n) times over its lifetime. Since merging has to move the smaller network's storages
+ * anyway, labels are stored explicitly and a lookup is a single array read.
+ * <p>
+ * Removing a node only searches for a split when two or more of its neighbours remain. The
+ * search runs one breadth-first frontier per neighbour in lock step and stops as soon as all
+ * frontiers meet, or once a frontier closes off on its own, in which case only that (smaller)
+ * side is relabelled. Searches that exceed {@link #getSplitSearchLimit()} nodes are deferred
+ * to {@link #resolvePendingSplits()}, which the owner should call once per tick.
+ * <p>
+ * Given an {@link EnergyNetworkScheduler}, the topology keeps it in step with the components:
+ * every network it creates for a new or split-off component is registered, and every network it
+ * retires, because its component was merged into another or lost its last node, is unregistered.
+ * Converters linked to a merged network move to the network that absorbed it, and converters
+ * attached to a node that splits off move with that node.
+ * <p>
+ * A {@link #routed routed} topology gives each network an {@link EnergyPathCache} as its
+ * distributor, so energy follows the cables between storages instead of reaching every member.
+ */
+public class EnergyGridTopology {
+
+    /** Default number of nodes a split search may visit during a block update */
+    public static final int DEFAULT_SPLIT_SEARCH_LIMIT = 512;
+
+    private static final int NONE = -1;
+    private static final int[][] NEIGHBOURS = {
+            {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}
+    };
+
+    private final EnergyType energyType;
+    private final Level level;
+    private final Function<EnergyGridTopology, CachedEnergyNetwork> networkFactory;
+    private final int splitSearchLimit;
+    private final EnergyNetworkScheduler scheduler;
+    private final boolean routed;
+
+    private final LongIntHashMap nodeIds = new LongIntHashMap(NONE);
+
+    // Node table, indexed by node id
+    private long[] positions = new long[16];
+    private WorldPosition[] worldPositions = new WorldPosition[16];
+    private EnergyStorage[] storages = new EnergyStorage[16];
+    private int[] component = new int[16];
+    private int[] nextMember = new int[16];
+    private int[] prevMember = new int[16];
+    private int[] visitStamp = new int[16];
+    private int[] visitOwner = new int[16];
+    private int[] freeNodes = new int[16];
+    private int freeNodeCount;
+    private int nodeHighWater;
+
+    // Component table, indexed by component id
+    private CachedEnergyNetwork[] networks = new CachedEnergyNetwork[8];
+    private int[] componentSize = new int[8];
+    private int[] componentHead = new int[8];
+    private int[] freeComponents = new int[8];
+    private int freeComponentCount;
+    private int componentHighWater;
+
+    // Split search scratch space, reused between searches
+    private final int[][] frontiers = new int[NEIGHBOURS.length][16];
+    private final int[] frontierHead = new int[NEIGHBOURS.length];
+    private final int[] frontierTail = new int[NEIGHBOURS.length];
+    private final int[] seedGroup = new int[NEIGHBOURS.length];
+    private int stamp;
+
+    private final List<Integer> pendingSplits = new ArrayList<>();
+    private int version;
+
+    /**
+     * Create a topology that creates default cached networks.
+     *
+     * @param energyType The energy type of every network in this topology
+     * @param level The level (dimension) this topology covers
+     */
+    public EnergyGridTopology(EnergyType energyType, Level level) {
+        this(energyType, level, (EnergyNetworkScheduler) null);
+    }
+
+    /**
+     * Create a topology that creates default cached networks and schedules them.
+     *
+     * @param energyType The energy type of every network in this topology
+     * @param level The level (dimension) this topology covers
+     * @param scheduler The scheduler to register networks with, or null to tick them elsewhere
+     */
+    public EnergyGridTopology(EnergyType energyType, Level level, EnergyNetworkScheduler scheduler) {
+        this(energyType, level, () -> new CachedEnergyNetwork(energyType, level), DEFAULT_SPLIT_SEARCH_LIMIT, scheduler);
+    }
+
+    /**
+     * Create a topology.
+     *
+     * @param energyType The energy type of every network in this topology
+     * @param level The level (dimension) this topology covers
+     * @param networkFactory Creates an empty network for each new component
+     * @param splitSearchLimit The number of nodes a split search may visit before it is deferred
+     */
+    public EnergyGridTopology(EnergyType energyType, Level level, Supplier<CachedEnergyNetwork> networkFactory,
+                              int splitSearchLimit) {
+        this(energyType, level, networkFactory, splitSearchLimit, null);
+    }
+
+    /**
+     * Create a topology.
+     *
+     * @param energyType The energy type of every network in this topology
+     * @param level The level (dimension) this topology covers
+     * @param networkFactory Creates an empty network for each new component
+     * @param splitSearchLimit The number of nodes a split search may visit before it is deferred
+     * @param scheduler The scheduler to register networks with, or null to tick them elsewhere
+     */
+    public EnergyGridTopology(EnergyType energyType, Level level, Supplier<CachedEnergyNetwork> networkFactory,
+                              int splitSearchLimit, EnergyNetworkScheduler scheduler) {
+        this(energyType, level, splitSearchLimit, scheduler, false, topology -> networkFactory.get());
+    }
+
+    private EnergyGridTopology(EnergyType energyType, Level level, int splitSearchLimit,
+                               EnergyNetworkScheduler scheduler, boolean routed,
+                               Function<EnergyGridTopology, CachedEnergyNetwork> networkFactory) {
+        this.energyType = energyType;
+        this.level = level;
+        this.networkFactory = networkFactory;
+        this.splitSearchLimit = Math.max(1, splitSearchLimit);
+        this.scheduler = scheduler;
+        this.routed = routed;
+    }
+
+    /**
+     * Create a topology whose networks route energy along its cables with an {@link EnergyPathCache}.
+     *
+     * @param energyType The energy type of every network in this topology
+     * @param level The level (dimension) this topology covers
+     * @param settings The transport distance, cable rate and path caching settings
+     * @param scheduler The scheduler to register networks with, or null to tick them elsewhere
+     * @return The topology
+     */
+    public static EnergyGridTopology routed(EnergyType energyType, Level level, EnergyConfig.NetworkSettings settings,
+                                            EnergyNetworkScheduler scheduler) {
+        return new EnergyGridTopology(energyType, level, DEFAULT_SPLIT_SEARCH_LIMIT, scheduler, true,
+                topology -> new CachedEnergyNetwork(energyType, level, new EnergyPathCache(topology, settings)));
+    }
+
+    /**
+     * Get the energy type of the networks in this topology.
+     *
+     * @return The energy type
+     */
+    public EnergyType getEnergyType() {
+        return energyType;
+    }
+
+    /**
+     * Get the level this topology covers.
+     *
+     * @return The level
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Check whether the networks of this topology route energy along its cables.
+     *
+     * @return True if this topology was created with {@link #routed}
+     */
+    public boolean isRouted() {
+        return routed;
+    }
+
+    /**
+     * Get the number of nodes a split search may visit during a block update.
+     *
+     * @return The split search limit
+     */
+    public int getSplitSearchLimit() {
+        return splitSearchLimit;
+    }
+
+    /**
+     * Get a counter that changes whenever nodes are added, removed, merged or split.
+     *
+     * @return The topology version
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Add a cable node, which conducts energy but holds none.
+     *
+     * @param position The position
+     * @return The network the cable joined
+     */
+    public CachedEnergyNetwork addCable(WorldPosition position) {
+        return addNode(position, null);
+    }
+
+    /**
+     * Add a node, merging every network it touches.
+     * Adding a node where one already exists replaces its storage.
+     *
+     * @param position The position
+     * @param storage The storage, or null for a cable
+     * @return The network the node belongs to
+     */
+    public CachedEnergyNetwork addNode(WorldPosition position, EnergyStorage storage) {
+        checkLevel(position);
+        long key = position.asLong();
+        int existing = nodeIds.get(key);
+        if (existing != NONE) {
+            CachedEnergyNetwork network = networks[component[existing]];
+            if (storages[existing] != null) {
+                network.removeStorage(position);
+            }
+            storages[existing] = storage;
+            if (storage != null) {
+                network.addStorage(position, storage);
+            }
+            version++;
+            return network;
+        }
+
+        int node = allocateNode(key, position, storage);
+
+        // Find the largest neighbouring component; it absorbs the others
+        int target = NONE;
+        for (int[] offset : NEIGHBOURS) {
+            int neighbour = nodeIds.get(WorldPosition.offset(key, offset[0], offset[1], offset[2]));
+            if (neighbour != NONE && neighbour != node) {
+                int neighbourComponent = component[neighbour];
+                if (target == NONE || componentSize[neighbourComponent] > componentSize[target]) {
+                    target = neighbourComponent;
+                }
+            }
+        }
+
+        if (target == NONE) {
+            target = allocateComponent();
+        }
+        link(node, target);
+        if (storage != null) {
+            networks[target].addStorage(position, storage);
+        }
+
+        for (int[] offset : NEIGHBOURS) {
+            int neighbour = nodeIds.get(WorldPosition.offset(key, offset[0], offset[1], offset[2]));
+            if (neighbour != NONE && component[neighbour] != target) {
+                merge(component[neighbour], target);
+            }
+        }
+
+        version++;
+        return networks[target];
+    }
+
+    /**
+     * Add a node whose storage is packed into its network's arrays, e.g. when loading saved networks.
+     *
+     * @param position The position
+     * @param capacity The capacity
+     * @param maxReceive The maximum energy received per tick
+     * @param maxExtract The maximum energy extracted per tick
+     * @param energy The stored energy
+     * @param priority The priority
+     * @return The packed storage
+     */
+    PackedEnergyStorage addPackedNode(WorldPosition position, int capacity, int maxReceive, int maxExtract, int energy,
+                                      int priority) {
+        CachedEnergyNetwork network = addCable(position);
+        PackedEnergyStorage storage = network.createStorage(position, capacity, maxReceive, maxExtract, energy, priority);
+        storages[nodeIds.get(position.asLong())] = storage;
+        return storage;
+    }
+
+    /**
+     * Remove a node, splitting its network if the node was a bridge.
+     *
+     * @param position The position
+     */
+    public void removeNode(WorldPosition position) {
+        checkLevel(position);
+        long key = position.asLong();
+        int node = nodeIds.remove(key);
+        if (node == NONE) {
+            return;
+        }
+
+        int owner = component[node];
+        if (storages[node] != null) {
+            networks[owner].removeStorage(worldPositions[node]);
+        }
+        unlink(node);
+        freeNode(node);
+        version++;
+
+        if (componentSize[owner] == 0) {
+            freeComponent(owner);
+            return;
+        }
+
+        int seeds = 0;
+        for (int[] offset : NEIGHBOURS) {
+            int neighbour = nodeIds.get(WorldPosition.offset(key, offset[0], offset[1], offset[2]));
+            if (neighbour != NONE) {
+                startFrontier(seeds++, neighbour);
+            }
+        }
+
+        if (seeds > 1 && !searchSplit(owner, seeds) && !pendingSplits.contains(owner)) {
+            pendingSplits.add(owner);
+        }
+    }
+
+    /**
+     * Get the network a node belongs to.
+     *
+     * @param position The position
+     * @return The network, or null if there is no node at that position
+     */
+    public CachedEnergyNetwork getNetwork(WorldPosition position) {
+        return position.getLevel().equals(level) ? getNetwork(position.asLong()) : null;
+    }
+
+    /**
+     * Get the network a node belongs to, without allocating.
+     *
+     * @param packedPosition The position packed with {@link WorldPosition#asLong()}
+     * @return The network, or null if there is no node at that position
+     */
+    public CachedEnergyNetwork getNetwork(long packedPosition) {
+        int node = nodeIds.get(packedPosition);
+        return node != NONE ? networks[component[node]] : null;
+    }
+
+    /**
+     * Check whether two positions are connected.
+     *
+     * @param first The first packed position
+     * @param second The second packed position
+     * @return True if both are nodes of the same network
+     */
+    public boolean isConnected(long first, long second) {
+        int a = nodeIds.get(first);
+        int b = nodeIds.get(second);
+        return a != NONE && b != NONE && component[a] == component[b];
+    }
+
+    /**
+     * Check whether a position holds a node.
+     *
+     * @param packedPosition The packed position
+     * @return True if there is a cable or storage at that position
+     */
+    public boolean hasNode(long packedPosition) {
+        return nodeIds.containsKey(packedPosition);
+    }
+
+    /**
+     * Get the number of nodes in the network containing a position.
+     *
+     * @param packedPosition The packed position
+     * @return The node count, or 0 if there is no node at that position
+     */
+    public int getNetworkSize(long packedPosition) {
+        int node = nodeIds.get(packedPosition);
+        return node != NONE ? componentSize[component[node]] : 0;
+    }
+
+    /**
+     * Get the storage at a node.
+     *
+     * @param packedPosition The packed position
+     * @return The storage, or null for a cable or if there is no node at that position
+     */
+    public EnergyStorage getStorage(long packedPosition) {
+        int node = nodeIds.get(packedPosition);
+        return node != NONE ? storages[node] : null;
+    }
+
+    /**
+     * Get the positions of every storage node, across all networks.
+     *
+     * @return A new array of packed positions
+     */
+    public long[] getStoragePositions() {
+        long[] result = new long[nodeIds.size()];
+        int count = 0;
+        for (int node = 0; node < nodeHighWater; node++) {
+            if (worldPositions[node] != null && storages[node] != null) {
+                result[count++] = positions[node];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Get the positions of every cable node, across all networks.
+     *
+     * @return A new array of packed positions
+     */
+    public long[] getCablePositions() {
+        long[] result = new long[nodeIds.size()];
+        int count = 0;
+        for (int node = 0; node < nodeHighWater; node++) {
+            if (worldPositions[node] != null && storages[node] == null) {
+                result[count++] = positions[node];
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Get the position of any one node of a network, which finds the network again with
+     * {@link #getNetwork(long)} for as long as its nodes stay connected.
+     *
+     * @param network A network of this topology
+     * @return The packed position of one of its nodes
+     * @throws IllegalArgumentException If the network is not tracked by this topology
+     */
+    long getMemberPosition(CachedEnergyNetwork network) {
+        for (int id = 0; id < componentHighWater; id++) {
+            if (networks[id] == network && componentHead[id] != NONE) {
+                return positions[componentHead[id]];
+            }
+        }
+        throw new IllegalArgumentException("Network is not part of this topology");
+    }
+
+    /**
+     * Get every network currently tracked.
+     *
+     * @return A new list of the live networks
+     */
+    public List<CachedEnergyNetwork> getNetworks() {
+        List<CachedEnergyNetwork> result = new ArrayList<>();
+        for (int id = 0; id < componentHighWater; id++) {
+            if (networks[id] != null) {
+                result.add(networks[id]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finish split searches that were too large to run during a block update.
+     * Until then the affected network may still bridge the gap for energy purposes.
+     */
+    public void resolvePendingSplits() {
+        while (!pendingSplits.isEmpty()) {
+            int owner = pendingSplits.remove(pendingSplits.size() - 1);
+            if (networks[owner] != null) {
+                rebuildComponent(owner);
+            }
+        }
+    }
+
+    private void checkLevel(WorldPosition position) {
+        if (!position.getLevel().equals(level)) {
+            throw new IllegalArgumentException("Position " + position + " is not in " + level.getDimensionId());
+        }
+    }
+
+    /**
+     * Run the lock-step split search from the seeds set up by {@link #startFrontier}.
+     *
+     * @return False if the search hit the limit before it could decide
+     */
+    private boolean searchSplit(int owner, int seeds) {
+        int groups = seeds;
+        int visited = seeds;
+
+        while (groups > 1) {
+            boolean progressed = false;
+            for (int seed = 0; seed < seeds && groups > 1; seed++) {
+                if (frontierHead[seed] == frontierTail[seed]) {
+                    continue;
+                }
+                progressed = true;
+
+                int node = frontiers[seed][frontierHead[seed]++];
+                long key = positions[node];
+                for (int[] offset : NEIGHBOURS) {
+                    int neighbour = nodeIds.get(WorldPosition.offset(key, offset[0], offset[1], offset[2]));
+                    if (neighbour == NONE) {
+                        continue;
+                    }
+
+                    if (visitStamp[neighbour] != stamp) {
+                        visitStamp[neighbour] = stamp;
+                        visitOwner[neighbour] = seed;
+                        push(seed, neighbour);
+                        visited++;
+                    } else {
+                        int a = findGroup(seed);
+                        int b = findGroup(visitOwner[neighbour]);
+                        if (a != b) {
+                            seedGroup[b] = a;
+                            groups--;
+                        }
+                    }
+                }
+
+                // A group whose frontiers have all run dry is a separate component
+                int group = findGroup(seed);
+                if (groups > 1 && isGroupClosed(group, seeds)) {
+                    splitOff(owner, group, seeds);
+                    groups--;
+                }
+            }
+
+            if (!progressed) {
+                break;
+            }
+            if (visited > splitSearchLimit && groups > 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isGroupClosed(int group, int seeds) {
+        for (int seed = 0; seed < seeds; seed++) {
+            if (findGroup(seed) == group && frontierHead[seed] != frontierTail[seed]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Move every node found by a closed seed group into a new component.
+     */
+    private void splitOff(int owner, int group, int seeds) {
+        int target = allocateComponent();
+        for (int seed = 0; seed < seeds; seed++) {
+            if (findGroup(seed) != group) {
+                continue;
+            }
+
+            int[] found = frontiers[seed];
+            for (int i = 0; i < frontierTail[seed]; i++) {
+                moveNode(found[i], owner, target);
+            }
+            // Empty the frontier so the group is never considered again
+            frontierHead[seed] = 0;
+            frontierTail[seed] = 0;
+        }
+        followSplit(owner, target);
+        version++;
+    }
+
+    /**
+     * Relabel a whole component from scratch with a plain flood fill.
+     */
+    private void rebuildComponent(int owner) {
+        int size = componentSize[owner];
+        int[] members = new int[size];
+        int node = componentHead[owner];
+        for (int i = 0; i < size; i++) {
+            members[i] = node;
+            node = nextMember[node];
+        }
+
+        stamp++;
+        int[] queue = new int[size];
+        boolean first = true;
+        for (int start : members) {
+            if (visitStamp[start] == stamp) {
+                continue;
+            }
+
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            visitStamp[start] = stamp;
+            while (head < tail) {
+                long key = positions[queue[head++]];
+                for (int[] offset : NEIGHBOURS) {
+                    int neighbour = nodeIds.get(WorldPosition.offset(key, offset[0], offset[1], offset[2]));
+                    if (neighbour != NONE && visitStamp[neighbour] != stamp) {
+                        visitStamp[neighbour] = stamp;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+
+            // The first region keeps the existing network; every other region gets its own
+            if (!first) {
+                int target = allocateComponent();
+                for (int i = 0; i < tail; i++) {
+                    moveNode(queue[i], owner, target);
+                }
+                followSplit(owner, target);
+            }
+            first = false;
+        }
+        version++;
+    }
+
+    /**
+     * Relabel every member of {@code source} into {@code target} and move their storages.
+     */
+    private void merge(int source, int target) {
+        int size = componentSize[source];
+        int node = componentHead[source];
+        CachedEnergyNetwork from = networks[source];
+        CachedEnergyNetwork to = networks[target];
+        for (int i = 0; i < size; i++) {
+            component[node] = target;
+            if (storages[node] != null) {
+                from.removeStorage(worldPositions[node]);
+                to.addStorage(worldPositions[node], storages[node]);
+            }
+            node = nextMember[node];
+        }
+
+        // Splice the two circular member lists together
+        int a = componentHead[target];
+        int b = componentHead[source];
+        int afterA = nextMember[a];
+        int afterB = nextMember[b];
+        nextMember[a] = afterB;
+        prevMember[afterB] = a;
+        nextMember[b] = afterA;
+        prevMember[afterA] = b;
+        componentSize[target] += size;
+
+        componentSize[source] = 0;
+        if (scheduler != null) {
+            scheduler.rebindConverters(from, to, converter -> true);
+        }
+        freeComponent(source);
+    }
+
+    /**
+     * Move the converters attached to a node that was split off into {@code target} along with it.
+     */
+    private void followSplit(int owner, int target) {
+        if (scheduler == null) {
+            return;
+        }
+        CachedEnergyNetwork from = networks[owner];
+        CachedEnergyNetwork to = networks[target];
+        scheduler.rebindConverters(from, to, converter -> {
+            WorldPosition position = converter.getPositionIn(from);
+            return position != null && getNetwork(position) == to;
+        });
+    }
+
+    private void moveNode(int node, int from, int to) {
+        unlink(node);
+        link(node, to);
+        if (storages[node] != null) {
+            networks[from].removeStorage(worldPositions[node]);
+            networks[to].addStorage(worldPositions[node], storages[node]);
+        }
+    }
+
+    private void link(int node, int target) {
+        component[node] = target;
+        int head = componentHead[target];
+        if (head == NONE) {
+            nextMember[node] = node;
+            prevMember[node] = node;
+            componentHead[target] = node;
+        } else {
+            int tail = prevMember[head];
+            nextMember[tail] = node;
+            prevMember[node] = tail;
+            nextMember[node] = head;
+            prevMember[head] = node;
+        }
+        componentSize[target]++;
+    }
+
+    private void unlink(int node) {
+        int owner = component[node];
+        if (nextMember[node] == node) {
+            componentHead[owner] = NONE;
+        } else {
+            nextMember[prevMember[node]] = nextMember[node];
+            prevMember[nextMember[node]] = prevMember[node];
+            if (componentHead[owner] == node) {
+                componentHead[owner] = nextMember[node];
+            }
+        }
+        componentSize[owner]--;
+    }
+
+    private void startFrontier(int seed, int node) {
+        if (seed == 0) {
+            stamp++;
+        }
+        frontierHead[seed] = 0;
+        frontierTail[seed] = 0;
+        seedGroup[seed] = seed;
+        visitStamp[node] = stamp;
+        visitOwner[node] = seed;
+        push(seed, node);
+    }
+
+    private void push(int seed, int node) {
+        int[] frontier = frontiers[seed];
+        if (frontierTail[seed] == frontier.length) {
+            frontiers[seed] = frontier = Arrays.copyOf(frontier, frontier.length * 2);
+        }
+        frontier[frontierTail[seed]++] = node;
+    }
+
+    private int findGroup(int seed) {
+        while (seedGroup[seed] != seed) {
+            seed = seedGroup[seed];
+        }
+        return seed;
+    }
+
+    private int allocateNode(long key, WorldPosition position, EnergyStorage storage) {
+        int node;
+        if (freeNodeCount > 0) {
+            node = freeNodes[--freeNodeCount];
+        } else {
+            if (nodeHighWater == positions.length) {
+                growNodes(positions.length * 2);
+            }
+            node = nodeHighWater++;
+        }
+
+        positions[node] = key;
+        worldPositions[node] = position;
+        storages[node] = storage;
+        visitStamp[node] = 0;
+        nodeIds.put(key, node);
+        return node;
+    }
+
+    private void freeNode(int node) {
+        worldPositions[node] = null;
+        storages[node] = null;
+        component[node] = NONE;
+        freeNodes[freeNodeCount++] = node;
+    }
+
+    private int allocateComponent() {
+        int id;
+        if (freeComponentCount > 0) {
+            id = freeComponents[--freeComponentCount];
+        } else {
+            if (componentHighWater == networks.length) {
+                int length = networks.length * 2;
+                networks = Arrays.copyOf(networks, length);
+                componentSize = Arrays.copyOf(componentSize, length);
+                componentHead = Arrays.copyOf(componentHead, length);
+                freeComponents = Arrays.copyOf(freeComponents, length);
+            }
+            id = componentHighWater++;
+        }
+
+        networks[id] = networkFactory.apply(this);
+        componentSize[id] = 0;
+        componentHead[id] = NONE;
+        if (scheduler != null) {
+            scheduler.register(level, networks[id]);
+        }
+        return id;
+    }
+
+    private void freeComponent(int id) {
+        if (scheduler != null) {
+            scheduler.unregister(level, networks[id]);
+        }
+        networks[id] = null;
+        componentHead[id] = NONE;
+        freeComponents[freeComponentCount++] = id;
+    }
+
+    private void growNodes(int length) {
+        positions = Arrays.copyOf(positions, length);
+        worldPositions = Arrays.copyOf(worldPositions, length);
+        storages = Arrays.copyOf(storages, length);
+        component = Arrays.copyOf(component, length);
+        nextMember = Arrays.copyOf(nextMember, length);
+        prevMember = Arrays.copyOf(prevMember, length);
+        visitStamp = Arrays.copyOf(visitStamp, length);
+        visitOwner = Arrays.copyOf(visitOwner, length);
+        freeNodes = Arrays.copyOf(freeNodes, length);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,555 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyDistributionMode;
+import com.astroframe.galactic.energy.api.EnergyStorage;
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import com.astroframe.galactic.energy.config.EnergyConfig;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saves the energy networks of one dimension in a compact binary layout, so they can be loaded
+ * straight from disk instead of being rediscovered block entity by block entity.
+ * <p>
+ * Each network is written as its type, distribution mode and node count, followed by one array
+ * of packed positions, one array of flags, one array of priorities and one array of node
+ * parameters (capacity, receive and extract rate, energy), four ints per node. The chunks whose
+ * nodes are suspended follow, each with the game time it unloaded at. Converters between
+ * networks of the dimension come last as network indices, their rate, carried remainder and,
+ * where known, the positions they attach at. There are no per-node tags.
+ * <p>
+ * Networks that belong to an {@link EnergyGridTopology} of this data are written after their
+ * topology's cables and whether it routes along them, each with the position of one member.
+ * Loading adds the cables and nodes to a new topology of the same kind, so the networks come back
+ * with the distributor that topology gives them and keep merging and splitting as blocks change.
+ * Networks outside a topology are written and restored on their own. Version 1 data, written
+ * without priorities and suspended chunks, and version 2 data, written without topologies, are
+ * still read.
+ * <p>
+ * Packed nodes come back with their saved state. External storages belong to block entities
+ * that save their own energy, so they come back as inert placeholders that keep the topology and
+ * their place in the priority order until the block entity adds its storage at the same position
+ * again. Suspended chunks stay suspended, and catch up from the time they unloaded, if the
+ * scheduler suspends nodes in unloaded chunks; otherwise they are resumed as they load.
+ * <p>
+ * Loaded nodes are not checked against the world up front. {@link #verify} checks a few of them
+ * per call, and removes the ones whose block is gone once their chunk can be inspected.
+ */
+public class EnergyNetworkSavedData {
+
+    /** Marks the start of the data ("GENW") */
+    public static final int MAGIC = 0x47454E57;
+
+    /** Current layout version */
+    public static final int VERSION = 3;
+
+    /** Loaded nodes checked against the world per {@link #verify} call by default */
+    public static final int DEFAULT_VERIFY_BUDGET = 64;
+
+    private static final byte FLAG_EXTERNAL = 1;
+    private static final int PARAMS_PER_NODE = 4;
+    private static final int STANDALONE = -1;
+    private static final byte CONVERTER_INPUT_POSITION = 1;
+    private static final byte CONVERTER_OUTPUT_POSITION = 2;
+
+    /**
+     * What the world says about a saved node position.
+     */
+    public enum Presence {
+        /** A block that can hold the node is there */
+        PRESENT,
+        /** The block is gone; the node should be dropped */
+        MISSING,
+        /** The position cannot be inspected yet, e.g. because its chunk is not loaded */
+        UNKNOWN
+    }
+
+    /**
+     * Checks saved node positions against the world.
+     */
+    @FunctionalInterface
+    public interface NodeValidator {
+        /**
+         * Check a node position.
+         *
+         * @param packedPosition The position packed with {@link WorldPosition#asLong()}
+         * @return What is at the position
+         */
+        Presence check(long packedPosition);
+    }
+
+    /**
+     * Creates the topology that loaded networks of one energy type are restored into.
+     */
+    @FunctionalInterface
+    public interface TopologyFactory {
+        /**
+         * Create an empty topology.
+         *
+         * @param energyType The energy type of its networks
+         * @param routed Whether its networks route energy along its cables
+         * @param scheduler The scheduler to register its networks with
+         * @return The topology
+         */
+        EnergyGridTopology create(EnergyType energyType, boolean routed, EnergyNetworkScheduler scheduler);
+    }
+
+    private final Level level;
+    private final TopologyFactory topologyFactory;
+    private final Map<EnergyType, EnergyGridTopology> topologies = new EnumMap<>(EnergyType.class);
+
+    // Nodes loaded from disk that have not been checked against the world yet; the topology is
+    // null for networks restored on their own
+    private CachedEnergyNetwork[] pendingNetworks = new CachedEnergyNetwork[0];
+    private EnergyGridTopology[] pendingTopologies = new EnergyGridTopology[0];
+    private long[] pendingPositions = new long[0];
+    private int pendingCount;
+    private int cursor;
+
+    /**
+     * Create the saved data of one dimension.
+     *
+     * @param level The level (dimension)
+     */
+    public EnergyNetworkSavedData(Level level) {
+        this(level, (energyType, routed, scheduler) -> routed
+                ? EnergyGridTopology.routed(energyType, level, new EnergyConfig.NetworkSettings(), scheduler)
+                : new EnergyGridTopology(energyType, level, scheduler));
+    }
+
+    /**
+     * Create the saved data of one dimension.
+     *
+     * @param level The level (dimension)
+     * @param topologyFactory Creates the topologies that saved topologies are loaded into
+     */
+    public EnergyNetworkSavedData(Level level, TopologyFactory topologyFactory) {
+        this.level = level;
+        this.topologyFactory = topologyFactory;
+    }
+
+    /**
+     * Gets the level (dimension) this data belongs to.
+     *
+     * @return The level
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Save the networks of a topology with this data from now on, replacing the topology of the
+     * same energy type.
+     *
+     * @param topology The topology, which must cover this data's level
+     * @throws IllegalArgumentException If the topology covers another level
+     */
+    public void addTopology(EnergyGridTopology topology) {
+        if (!topology.getLevel().equals(level)) {
+            throw new IllegalArgumentException("Topology of " + topology.getLevel().getDimensionId()
+                    + " cannot be saved with " + level.getDimensionId());
+        }
+        topologies.put(topology.getEnergyType(), topology);
+    }
+
+    /**
+     * Gets the topology of an energy type, e.g. the one its saved networks were loaded into.
+     *
+     * @param energyType The energy type
+     * @return The topology, or null if there is none
+     */
+    public EnergyGridTopology getTopology(EnergyType energyType) {
+        return topologies.get(energyType);
+    }
+
+    /**
+     * Gets the topologies whose networks are saved with this data.
+     *
+     * @return The topologies
+     */
+    public Collection<EnergyGridTopology> getTopologies() {
+        return topologies.values();
+    }
+
+    /**
+     * Write the networks of this dimension and the converters between them.
+     * The networks of this data's topologies are always written, together with their cables;
+     * given networks outside them are written on their own.
+     * Converters with an end outside the written networks are skipped.
+     *
+     * @param out The output to write to
+     * @param networks The networks
+     * @param converters The converters
+     * @throws IOException If writing fails
+     */
+    public void write(DataOutput out, List<CachedEnergyNetwork> networks, List<EnergyConverterNode> converters)
+            throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+
+        List<EnergyGridTopology> saved = new ArrayList<>(topologies.values());
+        out.writeInt(saved.size());
+        for (EnergyGridTopology topology : saved) {
+            out.writeUTF(topology.getEnergyType().getId());
+            out.writeBoolean(topology.isRouted());
+            long[] cables = topology.getCablePositions();
+            out.writeInt(cables.length);
+            for (long cable : cables) {
+                out.writeLong(cable);
+            }
+        }
+
+        Map<CachedEnergyNetwork, Integer> indices = new IdentityHashMap<>();
+        List<CachedEnergyNetwork> written = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int i = 0; i < saved.size(); i++) {
+            for (CachedEnergyNetwork network : saved.get(i).getNetworks()) {
+                indices.put(network, written.size());
+                written.add(network);
+                owners.add(i);
+            }
+        }
+        for (CachedEnergyNetwork network : networks) {
+            if (!indices.containsKey(network)) {
+                indices.put(network, written.size());
+                written.add(network);
+                owners.add(STANDALONE);
+            }
+        }
+
+        out.writeInt(written.size());
+        for (int i = 0; i < written.size(); i++) {
+            CachedEnergyNetwork network = written.get(i);
+            int owner = owners.get(i);
+            out.writeInt(owner);
+            if (owner != STANDALONE) {
+                out.writeLong(saved.get(owner).getMemberPosition(network));
+            }
+            writeNetwork(out, network);
+        }
+
+        List<EnergyConverterNode> links = new ArrayList<>();
+        for (EnergyConverterNode converter : converters) {
+            if (indices.containsKey(converter.getInput()) && indices.containsKey(converter.getOutput())) {
+                links.add(converter);
+            }
+        }
+        out.writeInt(links.size());
+        for (EnergyConverterNode converter : links) {
+            out.writeInt(indices.get(converter.getInput()));
+            out.writeInt(indices.get(converter.getOutput()));
+            out.writeInt(converter.getMaxInput());
+            out.writeLong(converter.getConverter().getRemainder());
+            WorldPosition inputPosition = converter.getInputPosition();
+            WorldPosition outputPosition = converter.getOutputPosition();
+            out.writeByte((inputPosition != null ? CONVERTER_INPUT_POSITION : 0)
+                    | (outputPosition != null ? CONVERTER_OUTPUT_POSITION : 0));
+            if (inputPosition != null) {
+                out.writeLong(inputPosition.asLong());
+            }
+            if (outputPosition != null) {
+                out.writeLong(outputPosition.asLong());
+            }
+        }
+    }
+
+    /**
+     * Read the networks of this dimension and schedule them, together with their converters.
+     * Saved topologies are rebuilt with this data's topology factory and replace the topologies of
+     * the same energy type. Every loaded storage node is queued for {@link #verify}.
+     *
+     * @param in The input to read from
+     * @param scheduler The scheduler to register the networks and converters with
+     * @return The loaded networks
+     * @throws IOException If reading fails or the data is not in a supported layout
+     */
+    public List<CachedEnergyNetwork> read(DataInput in, EnergyNetworkScheduler scheduler) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not energy network data");
+        }
+        int version = in.readShort();
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unsupported energy network data version " + version);
+        }
+
+        List<EnergyGridTopology> loaded = new ArrayList<>();
+        int topologyCount = version >= 3 ? in.readInt() : 0;
+        for (int i = 0; i < topologyCount; i++) {
+            EnergyType type = EnergyType.byId(in.readUTF());
+            EnergyGridTopology topology = topologyFactory.create(type, in.readBoolean(), scheduler);
+            int cableCount = in.readInt();
+            if (cableCount < 0) {
+                throw new IOException("Negative cable count");
+            }
+            for (int j = 0; j < cableCount; j++) {
+                topology.addCable(WorldPosition.fromLong(in.readLong(), level));
+            }
+            topologies.put(type, topology);
+            loaded.add(topology);
+        }
+
+        int networkCount = in.readInt();
+        boolean suspendUnloaded = scheduler.isOptimizeForUnloadedChunks();
+        List<SavedNetwork> saved = new ArrayList<>(networkCount);
+        for (int i = 0; i < networkCount; i++) {
+            int owner = version >= 3 ? in.readInt() : STANDALONE;
+            if (owner != STANDALONE && (owner < 0 || owner >= loaded.size())) {
+                throw new IOException("Network refers to unknown topology " + owner);
+            }
+            EnergyGridTopology topology = owner != STANDALONE ? loaded.get(owner) : null;
+            long member = topology != null ? in.readLong() : 0L;
+            SavedNetwork network = readNetwork(in, version, topology, member);
+            saved.add(network);
+            if (topology == null) {
+                scheduler.register(level, network.network);
+            }
+        }
+
+        // Nodes of one topology may join up in any order, so its networks are only final once all are added
+        List<CachedEnergyNetwork> networks = new ArrayList<>(networkCount);
+        for (SavedNetwork network : saved) {
+            if (network.topology != null) {
+                network.network = network.topology.getNetwork(network.member);
+                if (network.network == null) {
+                    throw new IOException("Saved network has no nodes in its topology");
+                }
+            }
+            if (suspendUnloaded) {
+                for (int i = 0; i < network.unloadedChunks.length; i++) {
+                    network.network.onChunkUnloaded(network.unloadedChunks[i], network.unloadedSince[i]);
+                }
+            }
+            networks.add(network.network);
+        }
+
+        int converterCount = in.readInt();
+        for (int i = 0; i < converterCount; i++) {
+            CachedEnergyNetwork input = network(networks, in.readInt());
+            CachedEnergyNetwork output = network(networks, in.readInt());
+            int maxInput = in.readInt();
+            long remainder = in.readLong();
+            int positions = version >= 3 ? in.readByte() : 0;
+            WorldPosition inputPosition = (positions & CONVERTER_INPUT_POSITION) != 0
+                    ? WorldPosition.fromLong(in.readLong(), level) : null;
+            WorldPosition outputPosition = (positions & CONVERTER_OUTPUT_POSITION) != 0
+                    ? WorldPosition.fromLong(in.readLong(), level) : null;
+            EnergyConverterNode converter = new EnergyConverterNode(input, inputPosition, output, outputPosition, maxInput);
+            converter.getConverter().setRemainder(remainder);
+            scheduler.addConverter(converter);
+        }
+        return networks;
+    }
+
+    /**
+     * Check up to {@code budget} loaded nodes against the world. Nodes whose block is gone are
+     * removed from their network; nodes that cannot be inspected yet are checked again later.
+     *
+     * @param validator The check against the world
+     * @param budget The most nodes to check
+     * @return The number of nodes removed
+     */
+    public int verify(NodeValidator validator, int budget) {
+        int removed = 0;
+        int checks = Math.min(budget, pendingCount);
+        for (int i = 0; i < checks && pendingCount > 0; i++) {
+            if (cursor >= pendingCount) {
+                cursor = 0;
+            }
+
+            CachedEnergyNetwork network = pendingNetworks[cursor];
+            EnergyGridTopology topology = pendingTopologies[cursor];
+            long position = pendingPositions[cursor];
+            Presence presence = validator.check(position);
+            if (presence == Presence.UNKNOWN) {
+                cursor++;
+                continue;
+            }
+
+            if (presence == Presence.MISSING) {
+                if (topology != null) {
+                    // The node may have changed networks since loading; the topology knows where it is
+                    if (topology.hasNode(position)) {
+                        topology.removeNode(WorldPosition.fromLong(position, level));
+                        removed++;
+                    }
+                } else if (network.hasStorage(level, position)) {
+                    network.removeStorage(WorldPosition.fromLong(position, level));
+                    removed++;
+                }
+            }
+
+            // Swap the last pending node into this slot
+            pendingCount--;
+            pendingNetworks[cursor] = pendingNetworks[pendingCount];
+            pendingTopologies[cursor] = pendingTopologies[pendingCount];
+            pendingPositions[cursor] = pendingPositions[pendingCount];
+            pendingNetworks[pendingCount] = null;
+            pendingTopologies[pendingCount] = null;
+        }
+        return removed;
+    }
+
+    /**
+     * Gets the number of loaded nodes that have not been checked against the world yet.
+     *
+     * @return The pending node count
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    private void writeNetwork(DataOutput out, CachedEnergyNetwork network) throws IOException {
+        EnergyNodeStore store = network.getStore();
+        int count = store.size();
+
+        out.writeUTF(network.getEnergyType().getId());
+        EnergyDistributionMode mode = network.getDistributor() instanceof FlowEnergyDistributor flow
+                ? flow.getMode() : EnergyDistributionMode.PROPORTIONAL;
+        out.writeByte(mode.ordinal());
+        out.writeInt(count);
+
+        for (int i = 0; i < count; i++) {
+            out.writeLong(store.positions[store.order[i]]);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeByte(store.external[store.order[i]] != null ? FLAG_EXTERNAL : 0);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeInt(store.priority[store.order[i]]);
+        }
+        for (int i = 0; i < count; i++) {
+            int slot = store.order[i];
+            EnergyStorage external = store.external[slot];
+            if (external == null) {
+                out.writeInt(store.capacity[slot]);
+                out.writeInt(store.maxReceive[slot]);
+                out.writeInt(store.maxExtract[slot]);
+                out.writeInt(store.energy[slot]);
+            } else {
+                // The block entity saves its own energy; only the size of the placeholder is kept
+                out.writeInt(external.getMaxEnergy());
+                out.writeInt(0);
+                out.writeInt(0);
+                out.writeInt(0);
+            }
+        }
+
+        Map<Long, Long> unloadedSince = network.getUnloadedSince();
+        out.writeInt(unloadedSince.size());
+        for (Map.Entry<Long, Long> chunk : unloadedSince.entrySet()) {
+            out.writeLong(chunk.getKey());
+            out.writeLong(chunk.getValue());
+        }
+    }
+
+    private SavedNetwork readNetwork(DataInput in, int version, EnergyGridTopology topology, long member)
+            throws IOException {
+        EnergyType type = EnergyType.byId(in.readUTF());
+        EnergyDistributionMode[] modes = EnergyDistributionMode.values();
+        int modeIndex = in.readByte();
+        EnergyDistributionMode mode = modeIndex >= 0 && modeIndex < modes.length
+                ? modes[modeIndex] : EnergyDistributionMode.PROPORTIONAL;
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("Negative node count");
+        }
+
+        long[] positions = new long[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = in.readLong();
+        }
+        byte[] flags = new byte[count];
+        in.readFully(flags);
+        int[] priorities = new int[count];
+        if (version >= 2) {
+            for (int i = 0; i < count; i++) {
+                priorities[i] = in.readInt();
+            }
+        }
+        int[] params = new int[count * PARAMS_PER_NODE];
+        for (int i = 0; i < params.length; i++) {
+            params[i] = in.readInt();
+        }
+
+        SavedNetwork saved = new SavedNetwork(topology, member);
+        if (topology == null) {
+            saved.network = new CachedEnergyNetwork(type, level, new FlowEnergyDistributor(mode));
+        } else if (type != topology.getEnergyType()) {
+            throw new IOException("Network of " + type.getId() + " saved in a topology of "
+                    + topology.getEnergyType().getId());
+        }
+        ensurePending(pendingCount + count);
+        for (int i = 0; i < count; i++) {
+            int p = i * PARAMS_PER_NODE;
+            WorldPosition position = WorldPosition.fromLong(positions[i], level);
+            boolean external = (flags[i] & FLAG_EXTERNAL) != 0;
+            int maxReceive = external ? 0 : params[p + 1];
+            int maxExtract = external ? 0 : params[p + 2];
+            int energy = external ? 0 : params[p + 3];
+            if (topology != null) {
+                topology.addPackedNode(position, params[p], maxReceive, maxExtract, energy, priorities[i]);
+            } else {
+                saved.network.createStorage(position, params[p], maxReceive, maxExtract, energy, priorities[i]);
+            }
+            pendingNetworks[pendingCount] = saved.network;
+            pendingTopologies[pendingCount] = topology;
+            pendingPositions[pendingCount] = positions[i];
+            pendingCount++;
+        }
+
+        int unloadedCount = version >= 2 ? in.readInt() : 0;
+        if (unloadedCount < 0) {
+            throw new IOException("Negative chunk count");
+        }
+        saved.unloadedChunks = new long[unloadedCount];
+        saved.unloadedSince = new long[unloadedCount];
+        for (int i = 0; i < unloadedCount; i++) {
+            saved.unloadedChunks[i] = in.readLong();
+            saved.unloadedSince[i] = in.readLong();
+        }
+        return saved;
+    }
+
+    private static CachedEnergyNetwork network(List<CachedEnergyNetwork> networks, int index) throws IOException {
+        if (index < 0 || index >= networks.size()) {
+            throw new IOException("Converter refers to unknown network " + index);
+        }
+        return networks.get(index);
+    }
+
+    private void ensurePending(int required) {
+        if (pendingPositions.length < required) {
+            int capacity = Math.max(required, pendingPositions.length * 2);
+            pendingNetworks = Arrays.copyOf(pendingNetworks, capacity);
+            pendingTopologies = Arrays.copyOf(pendingTopologies, capacity);
+            pendingPositions = Arrays.copyOf(pendingPositions, capacity);
+        }
+    }
+
+    /**
+     * A network as read from disk, until the network of a topology node is known.
+     */
+    private static final class SavedNetwork {
+        private final EnergyGridTopology topology;
+        private final long member;
+        private CachedEnergyNetwork network;
+        private long[] unloadedChunks;
+        private long[] unloadedSince;
+
+        private SavedNetwork(EnergyGridTopology topology, long member) {
+            this.topology = topology;
+            this.member = member;
+        }
+    }
+}
@@ -0,0 +1,567 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.energynetwork.ChunkTracker;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
+
+/**
+ * Ticks every registered {@link CachedEnergyNetwork} once per server tick.
+ * <p>
+ * Networks are partitioned by dimension and then by network. Once membership is fixed for the
+ * tick they share no state, so the prepare phase (gather and settle) runs on a fork-join pool.
+ * Networks whose gather calls external storages or demand sources still gather on the calling
+ * thread first, as those belong to block entities; only packed nodes are read on the pool.
+ * The commit phase then applies every settled transfer on the calling thread, in registration
+ * order, before {@link #tick()} returns. Block entities therefore only ever observe committed
+ * results, and never see a network half way through its tick.
+ * <p>
+ * Without a pool the scheduler runs both phases on the calling thread in the same order. Because
+ * each network only reads its own members while preparing, both modes produce identical results;
+ * the single-threaded mode exists for debugging and for servers that want a predictable profile.
+ * <p>
+ * Registered with the {@link ChunkTracker}, the scheduler also forwards chunk loads and unloads
+ * to the networks of the affected dimension, so nodes in unloaded chunks stop costing ticks.
+ * <p>
+ * When {@link EnergyConverterNode}s link networks, the prepare phase is split in two: every
+ * network gathers, the converters are planned and balanced on the calling thread, and then every
+ * network settles with the converters' amounts included. Converters are balanced in the
+ * topological order of the networks they link, so converters feeding a network come before those
+ * it feeds; a converter that closes a loop is balanced after the others leaving its input network.
+ */
+public class EnergyNetworkScheduler implements ChunkTracker.Listener {
+
+    /** Networks prepared by one fork-join task before it stops splitting */
+    public static final int DEFAULT_BATCH_SIZE = 8;
+
+    private final Map<Level, List<CachedEnergyNetwork>> dimensions = new LinkedHashMap<>();
+    private final List<EnergyConverterNode> converters = new ArrayList<>();
+    private final ForkJoinPool pool;
+    private final int batchSize;
+    private boolean parallel;
+    private boolean optimizeForUnloadedChunks = true;
+    private int idleTicksBeforeSleep = CachedEnergyNetwork.DEFAULT_IDLE_TICKS_BEFORE_SLEEP;
+
+    // Snapshot of the registered networks, rebuilt only after registrations change
+    private CachedEnergyNetwork[] snapshot = new CachedEnergyNetwork[0];
+    private boolean[] pending = new boolean[0];
+    private boolean[] local = new boolean[0];
+    private boolean dirty;
+
+    // Converters in balance order, rebuilt only after converters change
+    private EnergyConverterNode[] balanceOrder = new EnergyConverterNode[0];
+    private boolean convertersDirty;
+
+    /**
+     * Create a scheduler that prepares networks on the common fork-join pool.
+     */
+    public EnergyNetworkScheduler() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Create a scheduler that prepares networks on the given pool.
+     *
+     * @param pool The pool to prepare networks on, or null to always tick on the calling thread
+     * @param batchSize The number of networks one task prepares before it stops splitting
+     */
+    public EnergyNetworkScheduler(ForkJoinPool pool, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.pool = pool;
+        this.batchSize = batchSize;
+        this.parallel = pool != null;
+    }
+
+    /**
+     * Create a scheduler that always ticks on the calling thread.
+     *
+     * @return The scheduler
+     */
+    public static EnergyNetworkScheduler singleThreaded() {
+        return new EnergyNetworkScheduler(null, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Add a network to the tick schedule. The network takes on the scheduler's
+     * {@link #getIdleTicksBeforeSleep() idle ticks before sleep}.
+     *
+     * @param level The level (dimension) the network belongs to
+     * @param network The network
+     */
+    public void register(Level level, CachedEnergyNetwork network) {
+        Objects.requireNonNull(network, "network");
+        List<CachedEnergyNetwork> networks = dimensions.computeIfAbsent(level, key -> new ArrayList<>());
+        if (!networks.contains(network)) {
+            network.setIdleTicksBeforeSleep(idleTicksBeforeSleep);
+            networks.add(network);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Remove a network from the tick schedule.
+     *
+     * @param level The level (dimension) the network belongs to
+     * @param network The network
+     */
+    public void unregister(Level level, CachedEnergyNetwork network) {
+        List<CachedEnergyNetwork> networks = dimensions.get(level);
+        if (networks != null && networks.remove(network)) {
+            removeConvertersOf(network);
+            if (networks.isEmpty()) {
+                dimensions.remove(level);
+            }
+            dirty = true;
+        }
+    }
+
+    /**
+     * Remove every network of a dimension, e.g. when the dimension unloads.
+     *
+     * @param level The level (dimension)
+     */
+    public void unregisterAll(Level level) {
+        List<CachedEnergyNetwork> networks = dimensions.remove(level);
+        if (networks != null) {
+            for (CachedEnergyNetwork network : networks) {
+                removeConvertersOf(network);
+            }
+            dirty = true;
+        }
+    }
+
+    /**
+     * Link two networks with a converter. Both networks are registered if they are not already.
+     *
+     * @param converter The converter
+     */
+    public void addConverter(EnergyConverterNode converter) {
+        Objects.requireNonNull(converter, "converter");
+        if (converters.contains(converter)) {
+            return;
+        }
+        register(converter.getInput().getLevel(), converter.getInput());
+        register(converter.getOutput().getLevel(), converter.getOutput());
+        converter.getInput().attachConverter(converter);
+        converter.getOutput().attachConverter(converter);
+        converters.add(converter);
+        convertersDirty = true;
+    }
+
+    /**
+     * Remove a converter, unlinking its networks.
+     *
+     * @param converter The converter
+     */
+    public void removeConverter(EnergyConverterNode converter) {
+        if (converters.remove(converter)) {
+            converter.getInput().detachConverter(converter);
+            converter.getOutput().detachConverter(converter);
+            convertersDirty = true;
+        }
+    }
+
+    /**
+     * Move converters from one network to another of the same energy type, e.g. when cables merge
+     * the network into another or split part of it off. The target network is registered if it is
+     * not already. A converter that would end up linking a network to itself is removed.
+     *
+     * @param from The network the converters link now
+     * @param to The network to link instead
+     * @param filter Selects the converters to move
+     */
+    void rebindConverters(CachedEnergyNetwork from, CachedEnergyNetwork to, Predicate<EnergyConverterNode> filter) {
+        for (EnergyConverterNode converter : new ArrayList<>(from.getConverters())) {
+            if (!filter.test(converter)) {
+                continue;
+            }
+            from.detachConverter(converter);
+            converter.rebind(from, to);
+            if (converter.getInput() == converter.getOutput()) {
+                converters.remove(converter);
+                to.detachConverter(converter);
+            } else {
+                register(to.getLevel(), to);
+                to.attachConverter(converter);
+            }
+            convertersDirty = true;
+        }
+    }
+
+    /**
+     * Get the converters, in the order they were added.
+     *
+     * @return An unmodifiable view of the converters
+     */
+    public List<EnergyConverterNode> getConverters() {
+        return Collections.unmodifiableList(converters);
+    }
+
+    /**
+     * Get the networks scheduled for a dimension, in tick order.
+     *
+     * @param level The level (dimension)
+     * @return An unmodifiable view of the networks
+     */
+    public List<CachedEnergyNetwork> getNetworks(Level level) {
+        List<CachedEnergyNetwork> networks = dimensions.get(level);
+        return networks != null ? Collections.unmodifiableList(networks) : Collections.emptyList();
+    }
+
+    /**
+     * Get the number of scheduled networks across all dimensions.
+     *
+     * @return The network count
+     */
+    public int getNetworkCount() {
+        int count = 0;
+        for (List<CachedEnergyNetwork> networks : dimensions.values()) {
+            count += networks.size();
+        }
+        return count;
+    }
+
+    /**
+     * Get the networks that spent the most time ticking over their telemetry window.
+     *
+     * @param limit The maximum number of networks to return
+     * @return A new list, most expensive first
+     */
+    public List<CachedEnergyNetwork> getMostExpensiveNetworks(int limit) {
+        List<CachedEnergyNetwork> all = new ArrayList<>();
+        for (List<CachedEnergyNetwork> networks : dimensions.values()) {
+            all.addAll(networks);
+        }
+
+        // Sum every telemetry window once, not on each comparison
+        int count = all.size();
+        long[] totals = new long[count];
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            totals[i] = all.get(i).getTelemetry().getTotalNanos();
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(totals[b], totals[a]));
+
+        int size = Math.min(count, Math.max(0, limit));
+        List<CachedEnergyNetwork> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(all.get(order[i]));
+        }
+        return result;
+    }
+
+    /**
+     * Check whether networks are prepared on the fork-join pool.
+     *
+     * @return True if ticking in parallel
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Switch between parallel and single-threaded ticking.
+     * Parallel ticking can only be enabled if the scheduler was created with a pool.
+     *
+     * @param parallel True to prepare networks on the pool
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel && pool != null;
+    }
+
+    /**
+     * Check whether nodes in unloaded chunks are suspended.
+     *
+     * @return True if chunk events are forwarded to the networks
+     */
+    public boolean isOptimizeForUnloadedChunks() {
+        return optimizeForUnloadedChunks;
+    }
+
+    /**
+     * Set whether nodes in unloaded chunks are suspended.
+     * Switching this off resumes every suspended node.
+     *
+     * @param optimizeForUnloadedChunks True to forward chunk events to the networks
+     */
+    public void setOptimizeForUnloadedChunks(boolean optimizeForUnloadedChunks) {
+        if (this.optimizeForUnloadedChunks && !optimizeForUnloadedChunks) {
+            for (List<CachedEnergyNetwork> networks : dimensions.values()) {
+                for (CachedEnergyNetwork network : networks) {
+                    network.resumeAllChunks();
+                }
+            }
+        }
+        this.optimizeForUnloadedChunks = optimizeForUnloadedChunks;
+    }
+
+    /**
+     * Get the number of idle ticks after which registered networks go to sleep.
+     *
+     * @return The idle ticks before sleep, or 0 if networks never sleep
+     */
+    public int getIdleTicksBeforeSleep() {
+        return idleTicksBeforeSleep;
+    }
+
+    /**
+     * Set the number of idle ticks after which networks go to sleep, for every registered
+     * network and every network registered later.
+     *
+     * @param idleTicksBeforeSleep The idle ticks before sleep, or 0 to never sleep
+     */
+    public void setIdleTicksBeforeSleep(int idleTicksBeforeSleep) {
+        this.idleTicksBeforeSleep = Math.max(0, idleTicksBeforeSleep);
+        for (List<CachedEnergyNetwork> networks : dimensions.values()) {
+            for (CachedEnergyNetwork network : networks) {
+                network.setIdleTicksBeforeSleep(this.idleTicksBeforeSleep);
+            }
+        }
+    }
+
+    @Override
+    public void onChunkLoaded(Level level, long chunkKey, long gameTime) {
+        if (optimizeForUnloadedChunks) {
+            for (CachedEnergyNetwork network : getNetworks(level)) {
+                network.onChunkLoaded(chunkKey, gameTime);
+            }
+        }
+    }
+
+    @Override
+    public void onChunkUnloaded(Level level, long chunkKey, long gameTime) {
+        if (optimizeForUnloadedChunks) {
+            for (CachedEnergyNetwork network : getNetworks(level)) {
+                network.onChunkUnloaded(chunkKey, gameTime);
+            }
+        }
+    }
+
+    /**
+     * Tick every scheduled network. Returns once all transfers have been committed.
+     */
+    public void tick() {
+        if (dirty) {
+            rebuildSnapshot();
+        }
+        if (convertersDirty) {
+            rebuildBalanceOrder();
+        }
+
+        CachedEnergyNetwork[] networks = snapshot;
+        int count = networks.length;
+        if (count == 0) {
+            return;
+        }
+
+        if (converters.isEmpty()) {
+            runPhase(Phase.PREPARE, networks);
+        } else {
+            runPhase(Phase.GATHER, networks);
+            EnergyConverterNode[] order = balanceOrder;
+            for (int i = order.length - 1; i >= 0; i--) {
+                order[i].plan();
+            }
+            for (EnergyConverterNode converter : order) {
+                converter.balance();
+            }
+            runPhase(Phase.SETTLE, networks);
+        }
+
+        // Barrier: every network is prepared before the first one commits
+        for (int i = 0; i < count; i++) {
+            if (pending[i]) {
+                pending[i] = false;
+                networks[i].commitTick();
+            }
+        }
+
+        for (EnergyConverterNode converter : converters) {
+            converter.finish();
+        }
+    }
+
+    private void runPhase(Phase phase, CachedEnergyNetwork[] networks) {
+        int count = networks.length;
+        if (parallel && count > batchSize) {
+            boolean[] skip = null;
+            if (phase != Phase.SETTLE) {
+                // Block entities are only asked on this thread; the pool gets the rest
+                for (int i = 0; i < count; i++) {
+                    local[i] = networks[i].gathersOutside();
+                    if (local[i]) {
+                        pending[i] = phase.run(networks[i]);
+                    }
+                }
+                skip = local;
+            }
+            pool.invoke(new PrepareTask(phase, networks, pending, skip, 0, count, batchSize));
+        } else {
+            for (int i = 0; i < count; i++) {
+                pending[i] = phase.run(networks[i]);
+            }
+        }
+    }
+
+    private void removeConvertersOf(CachedEnergyNetwork network) {
+        for (EnergyConverterNode converter : new ArrayList<>(network.getConverters())) {
+            removeConverter(converter);
+        }
+    }
+
+    /**
+     * Order the converters so that every converter feeding a network comes before the converters fed
+     * by it. A depth-first walk over the networks, starting from the networks no converter feeds and
+     * then from the other input networks, each in the order their converters were added, marks the converters that lead back into a network still on the
+     * walk as closing a loop; those come last among the converters leaving their input network.
+     */
+    private void rebuildBalanceOrder() {
+        Map<CachedEnergyNetwork, List<EnergyConverterNode>> outgoing = new IdentityHashMap<>();
+        for (EnergyConverterNode converter : converters) {
+            outgoing.computeIfAbsent(converter.getInput(), network -> new ArrayList<>()).add(converter);
+        }
+
+        Map<CachedEnergyNetwork, Boolean> onWalk = new IdentityHashMap<>();
+        List<CachedEnergyNetwork> finished = new ArrayList<>();
+        for (boolean fed : new boolean[]{false, true}) {
+            for (EnergyConverterNode converter : converters) {
+                CachedEnergyNetwork input = converter.getInput();
+                if (!onWalk.containsKey(input) && (fed || !isFed(input))) {
+                    walk(input, outgoing, onWalk, finished);
+                }
+            }
+        }
+
+        List<EnergyConverterNode> order = new ArrayList<>(converters.size());
+        for (int i = finished.size() - 1; i >= 0; i--) {
+            List<EnergyConverterNode> leaving = outgoing.get(finished.get(i));
+            if (leaving == null) {
+                continue;
+            }
+            for (EnergyConverterNode converter : leaving) {
+                if (converter.isForward()) {
+                    order.add(converter);
+                }
+            }
+            for (EnergyConverterNode converter : leaving) {
+                if (!converter.isForward()) {
+                    order.add(converter);
+                }
+            }
+        }
+        balanceOrder = order.toArray(new EnergyConverterNode[0]);
+        convertersDirty = false;
+    }
+
+    private boolean isFed(CachedEnergyNetwork network) {
+        for (EnergyConverterNode converter : network.getConverters()) {
+            if (converter.getOutput() == network) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void walk(CachedEnergyNetwork network, Map<CachedEnergyNetwork, List<EnergyConverterNode>> outgoing,
+                             Map<CachedEnergyNetwork, Boolean> onWalk, List<CachedEnergyNetwork> finished) {
+        onWalk.put(network, Boolean.TRUE);
+        List<EnergyConverterNode> leaving = outgoing.get(network);
+        if (leaving != null) {
+            for (EnergyConverterNode converter : leaving) {
+                Boolean state = onWalk.get(converter.getOutput());
+                converter.setForward(state != Boolean.TRUE);
+                if (state == null) {
+                    walk(converter.getOutput(), outgoing, onWalk, finished);
+                }
+            }
+        }
+        onWalk.put(network, Boolean.FALSE);
+        finished.add(network);
+    }
+
+    private void rebuildSnapshot() {
+        List<CachedEnergyNetwork> all = new ArrayList<>();
+        for (List<CachedEnergyNetwork> networks : dimensions.values()) {
+            all.addAll(networks);
+        }
+        snapshot = all.toArray(new CachedEnergyNetwork[0]);
+        pending = new boolean[snapshot.length];
+        local = new boolean[snapshot.length];
+        dirty = false;
+    }
+
+    /**
+     * The parts of a network tick that may run on the pool.
+     */
+    private enum Phase {
+        PREPARE,
+        GATHER,
+        SETTLE;
+
+        boolean run(CachedEnergyNetwork network) {
+            switch (this) {
+                case GATHER:
+                    return network.gatherTick();
+                case SETTLE:
+                    return network.settleTick();
+                default:
+                    return network.prepareTick();
+            }
+        }
+    }
+
+    /**
+     * Runs one phase on a contiguous range of networks, splitting in half until the range fits in one batch.
+     */
+    @SuppressWarnings("serial") // Never serialised; fork-join tasks only inherit Serializable
+    private static class PrepareTask extends RecursiveAction {
+
+        private final Phase phase;
+        private final CachedEnergyNetwork[] networks;
+        private final boolean[] pending;
+        private final boolean[] skip;
+        private final int from;
+        private final int to;
+        private final int batchSize;
+
+        PrepareTask(Phase phase, CachedEnergyNetwork[] networks, boolean[] pending, boolean[] skip,
+                    int from, int to, int batchSize) {
+            this.phase = phase;
+            this.networks = networks;
+            this.pending = pending;
+            this.skip = skip;
+            this.from = from;
+            this.to = to;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= batchSize) {
+                for (int i = from; i < to; i++) {
+                    if (skip == null || !skip[i]) {
+                        pending[i] = phase.run(networks[i]);
+                    }
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new PrepareTask(phase, networks, pending, skip, from, middle, batchSize),
+                    new PrepareTask(phase, networks, pending, skip, middle, to, batchSize));
+        }
+    }
+}
\ No newline at end of file
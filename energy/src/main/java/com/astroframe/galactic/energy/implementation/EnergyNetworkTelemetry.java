@@ -0,0 +1,242 @@
+package com.astroframe.galactic.energy.implementation;
+
+/**
+ * Per-network tick statistics kept in fixed-size primitive ring buffers.
+ * <p>
+ * One sample is recorded per tick: the energy moved, how many consumers asked for energy
+ * (attempted) and how many got everything they asked for (satisfied), the nanoseconds the tick
+ * took and the node count. Recording writes five array slots and never allocates, so telemetry
+ * can stay enabled in production. Aggregates are computed on demand over the whole window.
+ */
+public class EnergyNetworkTelemetry {
+
+    /** Default number of ticks kept (ten seconds) */
+    public static final int DEFAULT_WINDOW = 200;
+
+    private final long[] energyMoved;
+    private final int[] attempted;
+    private final int[] satisfied;
+    private final long[] nanos;
+    private final int[] nodes;
+
+    private int head;
+    private int count;
+    private long totalTicks;
+    private boolean enabled = true;
+
+    /**
+     * Create telemetry that keeps the default window.
+     */
+    public EnergyNetworkTelemetry() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * Create telemetry that keeps the given number of ticks.
+     *
+     * @param window The number of samples to keep
+     */
+    public EnergyNetworkTelemetry(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Telemetry window must be positive");
+        }
+        energyMoved = new long[window];
+        attempted = new int[window];
+        satisfied = new int[window];
+        nanos = new long[window];
+        nodes = new int[window];
+    }
+
+    /**
+     * Record one tick. Ignored while telemetry is disabled.
+     *
+     * @param moved The energy moved
+     * @param attemptedTransfers The number of consumers that asked for energy
+     * @param satisfiedTransfers The number of consumers that got all they asked for
+     * @param tickNanos The time the tick took
+     * @param nodeCount The number of nodes in the network
+     */
+    public void record(long moved, int attemptedTransfers, int satisfiedTransfers, long tickNanos, int nodeCount) {
+        if (!enabled) {
+            return;
+        }
+
+        energyMoved[head] = moved;
+        attempted[head] = attemptedTransfers;
+        satisfied[head] = satisfiedTransfers;
+        nanos[head] = tickNanos;
+        nodes[head] = nodeCount;
+
+        head = head + 1 == energyMoved.length ? 0 : head + 1;
+        if (count < energyMoved.length) {
+            count++;
+        }
+        totalTicks++;
+    }
+
+    /**
+     * Check whether samples are being recorded.
+     *
+     * @return True if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable recording. Existing samples are kept.
+     *
+     * @param enabled True to record samples
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Drop every sample.
+     */
+    public void clear() {
+        head = 0;
+        count = 0;
+        totalTicks = 0;
+    }
+
+    /**
+     * Get the number of samples the window holds at most.
+     *
+     * @return The window size
+     */
+    public int getWindow() {
+        return energyMoved.length;
+    }
+
+    /**
+     * Get the number of samples currently held.
+     *
+     * @return The sample count
+     */
+    public int getSampleCount() {
+        return count;
+    }
+
+    /**
+     * Get the number of ticks recorded since creation or the last {@link #clear()}.
+     *
+     * @return The recorded tick count
+     */
+    public long getTotalTicks() {
+        return totalTicks;
+    }
+
+    /**
+     * Get the energy moved by a recent tick.
+     *
+     * @param ticksAgo 0 for the latest sample
+     * @return The energy moved
+     */
+    public long getEnergyMoved(int ticksAgo) {
+        return energyMoved[index(ticksAgo)];
+    }
+
+    /**
+     * Get the time spent in a recent tick.
+     *
+     * @param ticksAgo 0 for the latest sample
+     * @return The tick duration in nanoseconds
+     */
+    public long getNanos(int ticksAgo) {
+        return nanos[index(ticksAgo)];
+    }
+
+    /**
+     * Get the node count during a recent tick.
+     *
+     * @param ticksAgo 0 for the latest sample
+     * @return The node count
+     */
+    public int getNodeCount(int ticksAgo) {
+        return nodes[index(ticksAgo)];
+    }
+
+    /**
+     * Get the energy moved over the window.
+     *
+     * @return The total energy moved
+     */
+    public long getTotalEnergyMoved() {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += energyMoved[i];
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of consumers that asked for energy over the window, summed per tick.
+     *
+     * @return The attempted transfer count
+     */
+    public long getTotalAttempted() {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += attempted[i];
+        }
+        return total;
+    }
+
+    /**
+     * Get the number of consumers that got everything they asked for over the window, summed per tick.
+     *
+     * @return The satisfied transfer count
+     */
+    public long getTotalSatisfied() {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += satisfied[i];
+        }
+        return total;
+    }
+
+    /**
+     * Get the time spent ticking over the window.
+     *
+     * @return The total time in nanoseconds
+     */
+    public long getTotalNanos() {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += nanos[i];
+        }
+        return total;
+    }
+
+    /**
+     * Get the average tick duration over the window.
+     *
+     * @return The average in nanoseconds, or 0 without samples
+     */
+    public long getAverageNanos() {
+        return count > 0 ? getTotalNanos() / count : 0;
+    }
+
+    /**
+     * Get the longest tick in the window.
+     *
+     * @return The maximum in nanoseconds
+     */
+    public long getMaxNanos() {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, nanos[i]);
+        }
+        return max;
+    }
+
+    private int index(int ticksAgo) {
+        if (ticksAgo < 0 || ticksAgo >= count) {
+            throw new IndexOutOfBoundsException("No sample " + ticksAgo + " ticks ago");
+        }
+        int index = head - 1 - ticksAgo;
+        return index < 0 ? index + energyMoved.length : index;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,480 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyStorage;
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.ObservableEnergyStorage;
+import com.astroframe.galactic.energy.api.energynetwork.WorldChunk;
+
+import java.util.Arrays;
+import java.util.function.IntSupplier;
+
+/**
+ * Struct-of-arrays node table owned by an energy network.
+ * <p>
+ * Every node gets a slot. Nodes created by the network itself ("packed" nodes) keep their
+ * energy, capacity and rates directly in the parallel arrays below and are exposed through
+ * {@link PackedEnergyStorage} views. Storages owned by someone else ("external" nodes) keep
+ * their own state and are only referenced from {@link #external}.
+ * <p>
+ * Slots are stable for the lifetime of a node and are recycled after release. Tick order is
+ * kept separately in {@link #order}, sorted by descending priority and then insertion order.
+ * <p>
+ * Nodes that can report their own changes get the store's change listener; nodes that cannot
+ * are counted so the owning network knows whether it is safe to stop polling.
+ */
+public class EnergyNodeStore {
+
+    /** Flag set in {@link #io} when an external node was registered as a provider */
+    static final byte CAN_EXTRACT = 1;
+
+    /** Flag set in {@link #io} when an external node was registered as a consumer */
+    static final byte CAN_RECEIVE = 2;
+
+    /** Flag set in {@link #io} while a node sits in an unloaded chunk and takes no part in ticks */
+    static final byte SUSPENDED = 4;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    // Packed node state, indexed by slot
+    int[] energy;
+    int[] capacity;
+    int[] maxReceive;
+    int[] maxExtract;
+
+    // Per-slot bookkeeping shared by packed and external nodes
+    int[] priority;
+    byte[] io;
+    EnergyStorage[] external;
+    EnergyStorage[] handles;
+    long[] positions;
+    int[] catchUp;
+    IntSupplier[] demandSources;
+
+    // Live slots in tick order
+    int[] order;
+    private int size;
+
+    // Slots below highWater that are free for reuse
+    private int[] freeSlots;
+    private int freeCount;
+    private int highWater;
+    private int externalCount;
+    private int unobservableCount;
+    private int demandSourceCount;
+
+    private Runnable changeListener;
+
+    /**
+     * Creates an empty node store.
+     */
+    public EnergyNodeStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty node store sized for the given number of nodes.
+     *
+     * @param initialCapacity The number of slots to allocate up front
+     */
+    public EnergyNodeStore(int initialCapacity) {
+        int slots = Math.max(1, initialCapacity);
+        energy = new int[slots];
+        capacity = new int[slots];
+        maxReceive = new int[slots];
+        maxExtract = new int[slots];
+        priority = new int[slots];
+        io = new byte[slots];
+        external = new EnergyStorage[slots];
+        handles = new EnergyStorage[slots];
+        positions = new long[slots];
+        catchUp = new int[slots];
+        demandSources = new IntSupplier[slots];
+        order = new int[slots];
+        freeSlots = new int[slots];
+    }
+
+    /**
+     * Allocate a packed node and return a view that writes through to this store.
+     *
+     * @param capacity The maximum capacity
+     * @param maxReceive The maximum receive rate
+     * @param maxExtract The maximum extract rate
+     * @param energy The initial energy
+     * @param energyType The energy type reported by the view
+     * @param nodePriority The priority the node is ordered by
+     * @return The view for the new node
+     */
+    PackedEnergyStorage allocatePacked(int capacity, int maxReceive, int maxExtract, int energy,
+                                       EnergyType energyType, int nodePriority) {
+        int slot = allocateSlot(nodePriority);
+        this.capacity[slot] = capacity;
+        this.maxReceive[slot] = maxReceive;
+        this.maxExtract[slot] = maxExtract;
+        this.energy[slot] = Math.max(0, Math.min(capacity, energy));
+
+        PackedEnergyStorage view = new PackedEnergyStorage(this, slot, energyType);
+        view.setChangeListener(changeListener);
+        handles[slot] = view;
+        return view;
+    }
+
+    /**
+     * Move a detached view back into packed storage, e.g. after its node changed networks.
+     * The view keeps its identity, so block entities holding it are unaffected.
+     *
+     * @param view The detached view
+     * @return The slot
+     */
+    int adoptPacked(PackedEnergyStorage view) {
+        int slot = allocateSlot(0);
+        capacity[slot] = view.getMaxEnergy();
+        maxReceive[slot] = view.maxReceive;
+        maxExtract[slot] = view.maxExtract;
+        energy[slot] = view.getEnergy();
+        handles[slot] = view;
+        view.attach(this, slot);
+        view.setChangeListener(changeListener);
+        return slot;
+    }
+
+    /**
+     * Allocate a slot for a storage owned outside of this store.
+     * Its provider/consumer role is captured now, like the network always has.
+     *
+     * @param storage The storage
+     * @return The slot
+     */
+    int allocateExternal(EnergyStorage storage) {
+        int slot = allocateSlot(storage.getPriority());
+        byte flags = 0;
+        if (storage.canExtract()) {
+            flags |= CAN_EXTRACT;
+        }
+        if (storage.canReceive()) {
+            flags |= CAN_RECEIVE;
+        }
+        io[slot] = flags;
+        external[slot] = storage;
+        handles[slot] = storage;
+        externalCount++;
+        if (storage instanceof ObservableEnergyStorage observable) {
+            observable.setChangeListener(changeListener);
+        } else {
+            unobservableCount++;
+        }
+        return slot;
+    }
+
+    /**
+     * Release a slot. Packed views are detached and keep working as standalone storages.
+     *
+     * @param slot The slot to release
+     */
+    void release(int slot) {
+        EnergyStorage handle = handles[slot];
+        if (external[slot] == null) {
+            ((PackedEnergyStorage) handle).detach(energy[slot], capacity[slot], maxReceive[slot], maxExtract[slot]);
+        } else {
+            externalCount--;
+        }
+
+        if (handle instanceof ObservableEnergyStorage observable) {
+            observable.setChangeListener(null);
+        } else {
+            unobservableCount--;
+        }
+
+        if (demandSources[slot] != null) {
+            demandSourceCount--;
+        }
+        external[slot] = null;
+        handles[slot] = null;
+        demandSources[slot] = null;
+        io[slot] = 0;
+        catchUp[slot] = 0;
+        energy[slot] = 0;
+        capacity[slot] = 0;
+        maxReceive[slot] = 0;
+        maxExtract[slot] = 0;
+
+        for (int i = 0; i < size; i++) {
+            if (order[i] == slot) {
+                System.arraycopy(order, i + 1, order, i, size - i - 1);
+                break;
+            }
+        }
+        size--;
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Record the position of a node, used to suspend it when its chunk unloads.
+     *
+     * @param slot The slot
+     * @param packedPosition The position packed with {@code WorldPosition#asLong()}
+     */
+    void setPosition(int slot, long packedPosition) {
+        positions[slot] = packedPosition;
+    }
+
+    /**
+     * Set where a node's next-tick demand comes from. While set, the node is offered that
+     * much instead of everything it has room for.
+     *
+     * @param slot The slot
+     * @param source The demand source, or null to fill by capacity
+     */
+    void setDemandSource(int slot, IntSupplier source) {
+        if (demandSources[slot] != null) {
+            demandSourceCount--;
+        }
+        if (source != null) {
+            demandSourceCount++;
+        }
+        demandSources[slot] = source;
+    }
+
+    /**
+     * Suspend or resume every node in a chunk.
+     * Resumed packed nodes get their rates scaled by {@code catchUpTicks} for their next tick,
+     * a one-shot summary of the ticks they missed.
+     *
+     * @param chunkKey The chunk packed with {@code WorldChunk#asLong()}
+     * @param suspended True to suspend, false to resume
+     * @param catchUpTicks The ticks to catch up on when resuming
+     * @return The number of nodes whose state changed
+     */
+    int setChunkSuspended(long chunkKey, boolean suspended, int catchUpTicks) {
+        int changed = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = order[i];
+            if (WorldChunk.fromPosition(positions[slot]) != chunkKey || ((io[slot] & SUSPENDED) != 0) == suspended) {
+                continue;
+            }
+
+            if (suspended) {
+                io[slot] |= SUSPENDED;
+                catchUp[slot] = 0;
+            } else {
+                io[slot] &= ~SUSPENDED;
+                catchUp[slot] = catchUpTicks;
+            }
+            changed++;
+        }
+        return changed;
+    }
+
+    /**
+     * Resume every suspended node without any catch-up.
+     *
+     * @return The number of nodes resumed
+     */
+    int resumeAll() {
+        int resumed = 0;
+        for (int i = 0; i < size; i++) {
+            int slot = order[i];
+            if ((io[slot] & SUSPENDED) != 0) {
+                io[slot] &= ~SUSPENDED;
+                resumed++;
+            }
+        }
+        return resumed;
+    }
+
+    /**
+     * Record what every live node can supply and accept this tick, in tick order.
+     * Packed nodes are read straight from the arrays; external nodes are simulated once each.
+     * Suspended nodes neither supply nor accept anything. Nodes with a registered demand source
+     * accept no more than it asks for.
+     *
+     * @param supply Output: the energy each node can give
+     * @param demand Output: the energy each node can accept
+     */
+    void gather(int[] supply, int[] demand) {
+        int[] order = this.order;
+        int[] energy = this.energy;
+        int[] capacity = this.capacity;
+        int[] maxReceive = this.maxReceive;
+        int[] maxExtract = this.maxExtract;
+
+        for (int i = 0; i < size; i++) {
+            int slot = order[i];
+            byte flags = io[slot];
+            if ((flags & SUSPENDED) != 0) {
+                supply[i] = 0;
+                demand[i] = 0;
+                continue;
+            }
+
+            EnergyStorage storage = external[slot];
+            if (storage == null) {
+                int stored = energy[slot];
+                long ticks = 1;
+                if (catchUp[slot] > 0) {
+                    ticks = catchUp[slot];
+                    catchUp[slot] = 0;
+                }
+                supply[i] = (int) Math.max(0, Math.min(stored, maxExtract[slot] * ticks));
+                demand[i] = (int) Math.max(0, Math.min(capacity[slot] - stored, maxReceive[slot] * ticks));
+            } else {
+                supply[i] = (flags & CAN_EXTRACT) != 0 ? storage.extractEnergy(Integer.MAX_VALUE, true) : 0;
+                demand[i] = (flags & CAN_RECEIVE) != 0 ? storage.receiveEnergy(Integer.MAX_VALUE, true) : 0;
+            }
+
+            IntSupplier source = demandSources[slot];
+            if (source != null && demand[i] > 0) {
+                demand[i] = Math.max(0, Math.min(demand[i], source.getAsInt()));
+            }
+        }
+    }
+
+    /**
+     * Extract the settled amounts, in tick order.
+     *
+     * @param amounts The energy to take from each node
+     * @return The energy actually extracted
+     */
+    long extract(int[] amounts) {
+        long extracted = 0;
+        for (int i = 0; i < size; i++) {
+            int amount = amounts[i];
+            if (amount <= 0) {
+                continue;
+            }
+
+            int slot = order[i];
+            EnergyStorage storage = external[slot];
+            if (storage == null) {
+                energy[slot] -= amount;
+                extracted += amount;
+            } else {
+                extracted += storage.extractEnergy(amount, false);
+            }
+        }
+        return extracted;
+    }
+
+    /**
+     * Insert the settled amounts, in tick order, without handing out more than the pool holds.
+     *
+     * @param amounts The energy to give each node
+     * @param pool The energy available to hand out
+     * @return The energy left in the pool
+     */
+    long insert(int[] amounts, long pool) {
+        for (int i = 0; i < size && pool > 0; i++) {
+            int amount = (int) Math.min(amounts[i], pool);
+            if (amount <= 0) {
+                continue;
+            }
+
+            int slot = order[i];
+            EnergyStorage storage = external[slot];
+            if (storage == null) {
+                int accepted = Math.min(amount, capacity[slot] - energy[slot]);
+                energy[slot] += accepted;
+                pool -= accepted;
+            } else {
+                pool -= storage.receiveEnergy(amount, false);
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Get the storage handle registered for a slot.
+     *
+     * @param slot The slot
+     * @return The packed view or external storage
+     */
+    public EnergyStorage getHandle(int slot) {
+        return handles[slot];
+    }
+
+    /**
+     * Get the number of live nodes.
+     *
+     * @return The node count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the number of live nodes that are not packed into this store.
+     *
+     * @return The external node count
+     */
+    public int externalCount() {
+        return externalCount;
+    }
+
+    /**
+     * Get the number of live nodes whose demand comes from a demand source.
+     *
+     * @return The demand source count
+     */
+    public int demandSourceCount() {
+        return demandSourceCount;
+    }
+
+    /**
+     * Get the number of live nodes that cannot report their own changes.
+     * While this is non-zero, the owner has to keep polling to notice outside changes.
+     *
+     * @return The unobservable node count
+     */
+    public int unobservableCount() {
+        return unobservableCount;
+    }
+
+    /**
+     * Set the listener handed to every node that can report its own changes.
+     * Only nodes added after this call are affected.
+     *
+     * @param listener The listener, or null
+     */
+    void setChangeListener(Runnable listener) {
+        this.changeListener = listener;
+    }
+
+    private int allocateSlot(int nodePriority) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (highWater == energy.length) {
+                grow(energy.length * 2);
+            }
+            slot = highWater++;
+        }
+
+        priority[slot] = nodePriority;
+
+        // Insert after every live node with the same or a higher priority
+        int index = size;
+        while (index > 0 && priority[order[index - 1]] < nodePriority) {
+            index--;
+        }
+        System.arraycopy(order, index, order, index + 1, size - index);
+        order[index] = slot;
+        size++;
+        return slot;
+    }
+
+    private void grow(int slots) {
+        energy = Arrays.copyOf(energy, slots);
+        capacity = Arrays.copyOf(capacity, slots);
+        maxReceive = Arrays.copyOf(maxReceive, slots);
+        maxExtract = Arrays.copyOf(maxExtract, slots);
+        priority = Arrays.copyOf(priority, slots);
+        io = Arrays.copyOf(io, slots);
+        positions = Arrays.copyOf(positions, slots);
+        catchUp = Arrays.copyOf(catchUp, slots);
+        demandSources = Arrays.copyOf(demandSources, slots);
+        external = Arrays.copyOf(external, slots);
+        handles = Arrays.copyOf(handles, slots);
+        order = Arrays.copyOf(order, slots);
+        freeSlots = Arrays.copyOf(freeSlots, slots);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,373 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyDistributionMode;
+import com.astroframe.galactic.energy.api.EnergyDistributor;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import com.astroframe.galactic.energy.config.EnergyConfig;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Distributor that routes energy along the cables of an {@link EnergyGridTopology}.
+ * <p>
+ * For each provider a single breadth-first search through cable nodes, bounded by the configured
+ * {@code maxTransportDistance}, finds every storage in reach together with the cables on the
+ * shortest path to it. Storages end a route, so energy never passes through a battery or machine
+ * on its way to another. The result is cached per provider until it is older than
+ * {@code pathCacheExpirySeconds} or the topology changes, so long cable runs are not re-pathed
+ * every tick. With {@code usePathCaching} disabled routes are searched again on every tick.
+ * Expiry counts the ticks this distributor settles, so routes do not age while a network sleeps.
+ * <p>
+ * Every network of a routed topology (see {@link EnergyGridTopology#routed}) gets its own path
+ * cache as its distributor; the network gathers and commits as usual. While settling, every cable
+ * hop carries at most {@code cableTransferRate} per tick, shared by all routes through it, and
+ * each provider serves the consumers it reaches nearest first. Converter slots have no position:
+ * they trade with whatever the routed transfers leave over, without cable limits.
+ */
+public class EnergyPathCache implements EnergyDistributor {
+
+    /** Server ticks per second, used to convert the configured expiry */
+    public static final int TICKS_PER_SECOND = 20;
+
+    private static final int NONE = -1;
+    private static final int[][] NEIGHBOURS = {
+            {1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}
+    };
+
+    private final EnergyGridTopology topology;
+    private final EnergyConfig.NetworkSettings settings;
+
+    // Cached routes per provider; the index maps a provider position to its entry
+    private final LongIntHashMap entryIndex = new LongIntHashMap(NONE);
+    private final List<Entry> entries = new ArrayList<>();
+    private int cachedVersion;
+    private long ticks;
+
+    // Positions of the network's nodes in tick order, set by bind() before each settle
+    private final LongIntHashMap slotIndex = new LongIntHashMap(NONE);
+    private long[] slotPositions = new long[0];
+    private int positionCount;
+
+    // Settle scratch: demand still open per slot, and energy already routed through each cable
+    private int[] demandLeft = new int[0];
+    private final LongIntHashMap hopLoad = new LongIntHashMap(0);
+
+    // Search scratch, reused between searches
+    private final LongIntHashMap visited = new LongIntHashMap(NONE);
+    private long[] queue = new long[64];
+    private int[] parent = new int[64];
+    private int[] depth = new int[64];
+
+    /**
+     * Create a path cache for one network of a topology.
+     *
+     * @param topology The topology to route through
+     * @param settings The network settings to honour; read on every tick so changes apply immediately
+     */
+    public EnergyPathCache(EnergyGridTopology topology, EnergyConfig.NetworkSettings settings) {
+        this.topology = topology;
+        this.settings = settings;
+        this.cachedVersion = topology.getVersion();
+    }
+
+    /**
+     * Providers are served in network order, and each serves its consumers nearest first.
+     *
+     * @return {@link EnergyDistributionMode#PRIORITY}
+     */
+    @Override
+    public EnergyDistributionMode getMode() {
+        return EnergyDistributionMode.PRIORITY;
+    }
+
+    /**
+     * Get the routes from a provider to every storage in reach, nearest first.
+     *
+     * @param provider The packed provider position
+     * @param tick The tick to check expiry against, as counted by {@link #getTicks()}
+     * @return The routes, empty if nothing is in reach
+     */
+    public Route[] getRoutes(long provider, long tick) {
+        validate();
+
+        int index = entryIndex.get(provider);
+        Entry entry = index != NONE ? entries.get(index) : null;
+        if (entry != null && entry.expiresAt > tick) {
+            return entry.routes;
+        }
+
+        Route[] routes = search(provider);
+        long expiresAt = settings.isUsePathCaching()
+                ? tick + (long) settings.getPathCacheExpirySeconds() * TICKS_PER_SECOND
+                : tick;
+        if (entry == null) {
+            entryIndex.put(provider, entries.size());
+            entries.add(new Entry(routes, expiresAt));
+        } else {
+            entry.routes = routes;
+            entry.expiresAt = expiresAt;
+        }
+        return routes;
+    }
+
+    /**
+     * Get the number of ticks this distributor has settled.
+     *
+     * @return The tick count
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Record where the network's nodes are, in the order their entries will be settled.
+     *
+     * @param store The node store of the network
+     */
+    void bind(EnergyNodeStore store) {
+        int count = store.size();
+        if (slotPositions.length < count) {
+            slotPositions = new long[count];
+        }
+        slotIndex.clear();
+        for (int i = 0; i < count; i++) {
+            long position = store.positions[store.order[i]];
+            slotPositions[i] = position;
+            slotIndex.put(position, i);
+        }
+        positionCount = count;
+    }
+
+    @Override
+    public long settle(int[] supply, int providerCount, int[] demand, int consumerCount,
+                       int[] extracted, int[] received) {
+        validate();
+        ticks++;
+        hopLoad.clear();
+        if (demandLeft.length < consumerCount) {
+            demandLeft = new int[consumerCount];
+        }
+        System.arraycopy(demand, 0, demandLeft, 0, consumerCount);
+        Arrays.fill(extracted, 0, providerCount, 0);
+        Arrays.fill(received, 0, consumerCount, 0);
+
+        long moved = 0;
+        int routedProviders = Math.min(providerCount, positionCount);
+        for (int i = 0; i < routedProviders; i++) {
+            int available = supply[i];
+            if (available <= 0) {
+                continue;
+            }
+
+            for (Route route : getRoutes(slotPositions[i], ticks)) {
+                int j = slotIndex.get(route.consumer);
+                if (j == NONE || j >= consumerCount || demandLeft[j] <= 0) {
+                    continue;
+                }
+
+                int amount = Math.min(Math.min(available, demandLeft[j]), remainingCapacity(route));
+                if (amount <= 0) {
+                    continue;
+                }
+                charge(route, amount);
+                extracted[i] += amount;
+                received[j] += amount;
+                demandLeft[j] -= amount;
+                available -= amount;
+                moved += amount;
+                if (available <= 0) {
+                    break;
+                }
+            }
+        }
+
+        // Converter slots sit after the nodes; they trade with what is left in slot order
+        for (int c = positionCount; c < Math.max(providerCount, consumerCount); c++) {
+            if (c < providerCount) {
+                for (int j = 0; j < consumerCount && extracted[c] < supply[c]; j++) {
+                    if (j != c) {
+                        moved += trade(c, j, supply, extracted, received);
+                    }
+                }
+            }
+            if (c < consumerCount) {
+                for (int i = 0; i < providerCount && demandLeft[c] > 0; i++) {
+                    if (i != c) {
+                        moved += trade(i, c, supply, extracted, received);
+                    }
+                }
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Drop every cached route.
+     */
+    public void invalidate() {
+        entryIndex.clear();
+        entries.clear();
+        cachedVersion = topology.getVersion();
+    }
+
+    /**
+     * Get the number of providers with cached routes.
+     *
+     * @return The cache size
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void validate() {
+        if (cachedVersion != topology.getVersion()) {
+            invalidate();
+        }
+    }
+
+    private int trade(int provider, int consumer, int[] supply, int[] extracted, int[] received) {
+        int amount = Math.min(supply[provider] - extracted[provider], demandLeft[consumer]);
+        if (amount <= 0) {
+            return 0;
+        }
+        extracted[provider] += amount;
+        received[consumer] += amount;
+        demandLeft[consumer] -= amount;
+        return amount;
+    }
+
+    private int remainingCapacity(Route route) {
+        int rate = settings.getCableTransferRate();
+        int remaining = Integer.MAX_VALUE;
+        for (long hop : route.hops) {
+            remaining = Math.min(remaining, rate - hopLoad.get(hop));
+        }
+        return remaining;
+    }
+
+    private void charge(Route route, int amount) {
+        for (long hop : route.hops) {
+            hopLoad.put(hop, hopLoad.get(hop) + amount);
+        }
+    }
+
+    /**
+     * Breadth-first search from a provider through cables, bounded by the maximum transport distance.
+     */
+    private Route[] search(long provider) {
+        int maxDistance = settings.getMaxTransportDistance();
+        List<Route> routes = new ArrayList<>();
+
+        visited.clear();
+        queue[0] = provider;
+        parent[0] = NONE;
+        depth[0] = 0;
+        visited.put(provider, 0);
+        int head = 0;
+        int tail = 1;
+
+        while (head < tail) {
+            int current = head++;
+            long position = queue[current];
+
+            // Every storage in reach gets a route and ends it; whether it accepts energy is checked per tick
+            if (current > 0 && topology.getStorage(position) != null) {
+                routes.add(new Route(position, depth[current], collectHops(current)));
+                continue;
+            }
+
+            if (depth[current] >= maxDistance) {
+                continue;
+            }
+
+            for (int[] offset : NEIGHBOURS) {
+                long neighbour = WorldPosition.offset(position, offset[0], offset[1], offset[2]);
+                if (!topology.hasNode(neighbour) || visited.containsKey(neighbour)) {
+                    continue;
+                }
+
+                if (tail == queue.length) {
+                    int length = queue.length * 2;
+                    queue = Arrays.copyOf(queue, length);
+                    parent = Arrays.copyOf(parent, length);
+                    depth = Arrays.copyOf(depth, length);
+                }
+                queue[tail] = neighbour;
+                parent[tail] = current;
+                depth[tail] = depth[current] + 1;
+                visited.put(neighbour, tail);
+                tail++;
+            }
+        }
+
+        return routes.toArray(new Route[0]);
+    }
+
+    /**
+     * Collect the cables between the provider and the node at a queue index.
+     */
+    private long[] collectHops(int index) {
+        // Only cables are expanded, so every node between the two ends is one
+        long[] hops = new long[depth[index] - 1];
+        int count = 0;
+        for (int node = parent[index]; node > 0; node = parent[node]) {
+            hops[count++] = queue[node];
+        }
+        return hops;
+    }
+
+    private static class Entry {
+        Route[] routes;
+        long expiresAt;
+
+        Entry(Route[] routes, long expiresAt) {
+            this.routes = routes;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A cached shortest route from a provider to one consumer.
+     */
+    public static final class Route {
+
+        private final long consumer;
+        private final int distance;
+        private final long[] hops;
+
+        Route(long consumer, int distance, long[] hops) {
+            this.consumer = consumer;
+            this.distance = distance;
+            this.hops = hops;
+        }
+
+        /**
+         * Get the consumer this route leads to.
+         *
+         * @return The packed consumer position
+         */
+        public long getConsumer() {
+            return consumer;
+        }
+
+        /**
+         * Get the length of the route in blocks.
+         *
+         * @return The number of steps from provider to consumer
+         */
+        public int getDistance() {
+            return distance;
+        }
+
+        /**
+         * Get the number of cables along the route.
+         *
+         * @return The cable hop count
+         */
+        public int getCableCount() {
+            return hops.length;
+        }
+    }
+}
\ No newline at end of file
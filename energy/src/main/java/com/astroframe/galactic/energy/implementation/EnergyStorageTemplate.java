@@ -0,0 +1,137 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A named, shared configuration for {@link SimpleEnergyStorage}s: capacity, rates and energy type.
+ * <p>
+ * Storages created from a registered template save the template id instead of their
+ * configuration, plus only the values that differ from it, so a battery block that was never
+ * reconfigured saves its energy and a short id.
+ */
+public final class EnergyStorageTemplate {
+
+    private static final Map<String, EnergyStorageTemplate> TEMPLATES = new HashMap<>();
+
+    private final String id;
+    private final int capacity;
+    private final int maxReceive;
+    private final int maxExtract;
+    private final EnergyType energyType;
+
+    /**
+     * Create a template. It must be {@link #register registered} before storages saved with it
+     * can be loaded again.
+     *
+     * @param id The unique template id, e.g. "galacticexpansion:basic_battery"
+     * @param capacity The maximum capacity
+     * @param maxReceive The maximum receive rate
+     * @param maxExtract The maximum extract rate
+     * @param energyType The energy type
+     */
+    public EnergyStorageTemplate(String id, int capacity, int maxReceive, int maxExtract, EnergyType energyType) {
+        this.id = Objects.requireNonNull(id, "id");
+        this.capacity = capacity;
+        this.maxReceive = maxReceive;
+        this.maxExtract = maxExtract;
+        this.energyType = Objects.requireNonNull(energyType, "energyType");
+    }
+
+    /**
+     * Register a template so that saved storages can refer to it by id.
+     * Registering an equal template twice is allowed.
+     *
+     * @param template The template
+     * @return The template
+     * @throws IllegalArgumentException If a different template is registered under the same id
+     */
+    public static EnergyStorageTemplate register(EnergyStorageTemplate template) {
+        EnergyStorageTemplate existing = TEMPLATES.putIfAbsent(template.id, template);
+        if (existing != null && !existing.equals(template)) {
+            throw new IllegalArgumentException("Energy storage template already registered: " + template.id);
+        }
+        return existing != null ? existing : template;
+    }
+
+    /**
+     * Get a registered template.
+     *
+     * @param id The template id
+     * @return The template, or null if none is registered under the id
+     */
+    public static EnergyStorageTemplate get(String id) {
+        return TEMPLATES.get(id);
+    }
+
+    /**
+     * Create an empty storage configured by this template.
+     *
+     * @return The new storage
+     */
+    public SimpleEnergyStorage create() {
+        return new SimpleEnergyStorage(this);
+    }
+
+    /**
+     * Gets the template id.
+     *
+     * @return The id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the maximum capacity.
+     *
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Gets the maximum receive rate.
+     *
+     * @return The maximum receive rate
+     */
+    public int getMaxReceive() {
+        return maxReceive;
+    }
+
+    /**
+     * Gets the maximum extract rate.
+     *
+     * @return The maximum extract rate
+     */
+    public int getMaxExtract() {
+        return maxExtract;
+    }
+
+    /**
+     * Gets the energy type.
+     *
+     * @return The energy type
+     */
+    public EnergyType getEnergyType() {
+        return energyType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof EnergyStorageTemplate)) return false;
+        EnergyStorageTemplate other = (EnergyStorageTemplate) o;
+        return id.equals(other.id) && capacity == other.capacity && maxReceive == other.maxReceive
+                && maxExtract == other.maxExtract && energyType == other.energyType;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, capacity, maxReceive, maxExtract, energyType);
+    }
+}
\ No newline at end of file
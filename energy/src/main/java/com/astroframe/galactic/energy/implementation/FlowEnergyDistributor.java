@@ -0,0 +1,104 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyDistributionMode;
+import com.astroframe.galactic.energy.api.EnergyDistributor;
+
+/**
+ * Flow-solver implementation of EnergyDistributor.
+ * The flow for a tick is {@code min(total supply, total demand)}; it is then split across
+ * providers and consumers independently, so settling costs O(providers + consumers).
+ */
+public class FlowEnergyDistributor implements EnergyDistributor {
+
+    private final EnergyDistributionMode mode;
+
+    /**
+     * Creates a new flow distributor.
+     *
+     * @param mode How the flow is shared between nodes
+     */
+    public FlowEnergyDistributor(EnergyDistributionMode mode) {
+        this.mode = mode;
+    }
+
+    @Override
+    public EnergyDistributionMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public long settle(int[] supply, int providerCount, int[] demand, int consumerCount,
+                       int[] extracted, int[] received) {
+        long totalSupply = sum(supply, providerCount);
+        long totalDemand = sum(demand, consumerCount);
+        long flow = Math.min(totalSupply, totalDemand);
+
+        if (mode == EnergyDistributionMode.PRIORITY) {
+            fillInOrder(supply, providerCount, flow, extracted);
+            fillInOrder(demand, consumerCount, flow, received);
+        } else {
+            shareProportionally(supply, providerCount, totalSupply, flow, extracted);
+            shareProportionally(demand, consumerCount, totalDemand, flow, received);
+        }
+
+        return flow;
+    }
+
+    private static long sum(int[] amounts, int count) {
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            total += amounts[i];
+        }
+        return total;
+    }
+
+    /**
+     * Serve entries greedily in array order until the flow is used up.
+     */
+    private static void fillInOrder(int[] amounts, int count, long flow, int[] out) {
+        long remaining = flow;
+        for (int i = 0; i < count; i++) {
+            int share = (int) Math.min(amounts[i], remaining);
+            out[i] = share;
+            remaining -= share;
+        }
+    }
+
+    /**
+     * Give every entry {@code amount * flow / total}, then hand the rounding remainder to
+     * the earliest entries with room left so the shares always add up to exactly {@code flow}.
+     */
+    private static void shareProportionally(int[] amounts, int count, long total, long flow, int[] out) {
+        if (flow >= total) {
+            System.arraycopy(amounts, 0, out, 0, count);
+            return;
+        }
+
+        // Keep flow * amount inside a long; the fix-up pass below absorbs the precision loss
+        long scaledFlow = flow;
+        long scaledTotal = total;
+        while (scaledFlow > Integer.MAX_VALUE) {
+            scaledFlow >>= 1;
+            scaledTotal >>= 1;
+        }
+
+        long assigned = 0;
+        for (int i = 0; i < count; i++) {
+            int share = (int) Math.min(amounts[i], amounts[i] * scaledFlow / scaledTotal);
+            out[i] = share;
+            assigned += share;
+        }
+
+        long remainder = flow - assigned;
+        for (int i = 0; i < count && remainder > 0; i++) {
+            int slack = (int) Math.min(amounts[i] - out[i], remainder);
+            out[i] += slack;
+            remainder -= slack;
+        }
+        for (int i = 0; i < count && remainder < 0; i++) {
+            int excess = (int) Math.min(out[i], -remainder);
+            out[i] -= excess;
+            remainder += excess;
+        }
+    }
+}
\ No newline at end of file
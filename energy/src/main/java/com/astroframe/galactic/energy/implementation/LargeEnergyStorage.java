@@ -0,0 +1,202 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.LongEnergyStorage;
+import com.astroframe.galactic.energy.api.ObservableEnergyStorage;
+import com.astroframe.galactic.energy.nbt.CompoundTag;
+
+/**
+ * A 64-bit counterpart of {@link SimpleEnergyStorage} for banks that outgrow the int range.
+ * Int callers see saturated values; 64-bit callers can move any amount in one call.
+ */
+public class LargeEnergyStorage implements LongEnergyStorage, ObservableEnergyStorage {
+
+    protected long energy;
+    protected long capacity;
+    protected long maxReceive;
+    protected long maxExtract;
+    protected EnergyType energyType;
+    private Runnable changeListener;
+
+    /**
+     * Creates a new LargeEnergyStorage with the given parameters.
+     *
+     * @param capacity The maximum capacity
+     * @param maxReceive The maximum receive rate
+     * @param maxExtract The maximum extract rate
+     * @param energy The initial energy
+     * @param energyType The energy type
+     */
+    public LargeEnergyStorage(long capacity, long maxReceive, long maxExtract, long energy, EnergyType energyType) {
+        this.capacity = capacity;
+        this.maxReceive = maxReceive;
+        this.maxExtract = maxExtract;
+        this.energy = Math.max(0, Math.min(capacity, energy));
+        this.energyType = energyType;
+    }
+
+    /**
+     * Creates a new LargeEnergyStorage whose rates equal its capacity.
+     *
+     * @param capacity The maximum capacity
+     * @param energyType The energy type
+     */
+    public LargeEnergyStorage(long capacity, EnergyType energyType) {
+        this(capacity, capacity, capacity, 0, energyType);
+    }
+
+    @Override
+    public long receiveEnergyLong(long amount, boolean simulate) {
+        if (!canReceive() || amount <= 0) {
+            return 0;
+        }
+
+        long energyReceived = Math.min(capacity - energy, Math.min(maxReceive, amount));
+
+        if (!simulate && energyReceived > 0) {
+            energy += energyReceived;
+            onChanged();
+        }
+
+        return energyReceived;
+    }
+
+    @Override
+    public long extractEnergyLong(long amount, boolean simulate) {
+        if (!canExtract() || amount <= 0) {
+            return 0;
+        }
+
+        long energyExtracted = Math.min(energy, Math.min(maxExtract, amount));
+
+        if (!simulate && energyExtracted > 0) {
+            energy -= energyExtracted;
+            onChanged();
+        }
+
+        return energyExtracted;
+    }
+
+    @Override
+    public long getEnergyLong() {
+        return energy;
+    }
+
+    @Override
+    public long getMaxEnergyLong() {
+        return capacity;
+    }
+
+    @Override
+    public boolean canExtract() {
+        return maxExtract > 0;
+    }
+
+    @Override
+    public boolean canReceive() {
+        return maxReceive > 0;
+    }
+
+    @Override
+    public EnergyType getEnergyType() {
+        return energyType;
+    }
+
+    @Override
+    public void setChangeListener(Runnable listener) {
+        this.changeListener = listener;
+    }
+
+    /**
+     * Sets the current energy stored.
+     *
+     * @param energy The energy to set
+     */
+    public void setEnergy(long energy) {
+        this.energy = Math.max(0, Math.min(capacity, energy));
+        onChanged();
+    }
+
+    /**
+     * Sets the maximum capacity.
+     *
+     * @param capacity The capacity to set
+     */
+    public void setCapacity(long capacity) {
+        this.capacity = capacity;
+
+        if (energy > capacity) {
+            energy = capacity;
+        }
+        onChanged();
+    }
+
+    /**
+     * Sets the maximum receive rate.
+     *
+     * @param maxReceive The maximum receive rate
+     */
+    public void setMaxReceive(long maxReceive) {
+        this.maxReceive = maxReceive;
+        onChanged();
+    }
+
+    /**
+     * Sets the maximum extract rate.
+     *
+     * @param maxExtract The maximum extract rate
+     */
+    public void setMaxExtract(long maxExtract) {
+        this.maxExtract = maxExtract;
+        onChanged();
+    }
+
+    /**
+     * Saves this energy storage to an NBT tag.
+     * Uses the same keys as {@link SimpleEnergyStorage}, stored as longs.
+     *
+     * @param tag The tag to save to
+     * @return The tag
+     */
+    public CompoundTag serializeNBT(CompoundTag tag) {
+        tag.putLong("Energy", energy);
+        tag.putLong("Capacity", capacity);
+        tag.putLong("MaxReceive", maxReceive);
+        tag.putLong("MaxExtract", maxExtract);
+        tag.putString("EnergyType", energyType.getId());
+        return tag;
+    }
+
+    /**
+     * Loads this energy storage from an NBT tag.
+     * Tags written by {@link SimpleEnergyStorage} are read as well, including ones that refer to
+     * an {@link EnergyStorageTemplate} and energy-only changes, which apply on top of the current state.
+     *
+     * @param tag The tag to load from
+     */
+    public void deserializeNBT(CompoundTag tag) {
+        if (tag.getInt("Delta") != 0) {
+            energy = Math.max(0, Math.min(capacity, tag.getLong("Energy")));
+            onChanged();
+            return;
+        }
+        EnergyStorageTemplate template = tag.contains("Template") ? EnergyStorageTemplate.get(tag.getString("Template")) : null;
+        energy = tag.getLong("Energy");
+        capacity = tag.contains("Capacity") || template == null ? tag.getLong("Capacity") : template.getCapacity();
+        maxReceive = tag.contains("MaxReceive") || template == null ? tag.getLong("MaxReceive") : template.getMaxReceive();
+        maxExtract = tag.contains("MaxExtract") || template == null ? tag.getLong("MaxExtract") : template.getMaxExtract();
+        energyType = tag.contains("EnergyType") || template == null
+                ? EnergyType.byId(tag.getString("EnergyType")) : template.getEnergyType();
+        onChanged();
+    }
+
+    /**
+     * Notify the change listener, if any, that the state of this storage changed.
+     */
+    protected void onChanged() {
+        Runnable listener = changeListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+}
\ No newline at end of file
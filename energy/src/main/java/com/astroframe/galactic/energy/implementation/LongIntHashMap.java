@@ -0,0 +1,242 @@
+package com.astroframe.galactic.energy.implementation;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to primitive int values.
+ * Uses linear probing with backward-shift deletion, so lookups, inserts and removals never
+ * allocate and never leave tombstones behind.
+ */
+public class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    // Long.MIN_VALUE marks an empty bucket; a real key with that value is stored on the side
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final int missingValue;
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    private boolean hasEmptyKey;
+    private int emptyKeyValue;
+
+    /**
+     * Creates an empty map.
+     *
+     * @param missingValue The value returned for keys that are not present
+     */
+    public LongIntHashMap(int missingValue) {
+        this(16, missingValue);
+    }
+
+    /**
+     * Creates an empty map sized for the given number of entries.
+     *
+     * @param expectedSize The number of entries expected
+     * @param missingValue The value returned for keys that are not present
+     */
+    public LongIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        int buckets = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(buckets);
+    }
+
+    /**
+     * Get the value for a key.
+     *
+     * @param key The key
+     * @return The value, or the missing value if the key is not present
+     */
+    public int get(long key) {
+        if (key == EMPTY) {
+            return hasEmptyKey ? emptyKeyValue : missingValue;
+        }
+
+        int index = bucket(key);
+        long current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Check whether a key is present.
+     *
+     * @param key The key
+     * @return True if the key is present
+     */
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return hasEmptyKey;
+        }
+
+        int index = bucket(key);
+        long current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Associate a value with a key.
+     *
+     * @param key The key
+     * @param value The value
+     * @return The previous value, or the missing value if the key was not present
+     */
+    public int put(long key, int value) {
+        if (key == EMPTY) {
+            int previous = hasEmptyKey ? emptyKeyValue : missingValue;
+            if (!hasEmptyKey) {
+                hasEmptyKey = true;
+                size++;
+            }
+            emptyKeyValue = value;
+            return previous;
+        }
+
+        int index = bucket(key);
+        long current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key) {
+                int previous = values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return missingValue;
+    }
+
+    /**
+     * Remove a key.
+     *
+     * @param key The key
+     * @return The removed value, or the missing value if the key was not present
+     */
+    public int remove(long key) {
+        if (key == EMPTY) {
+            if (!hasEmptyKey) {
+                return missingValue;
+            }
+            hasEmptyKey = false;
+            size--;
+            return emptyKeyValue;
+        }
+
+        int index = bucket(key);
+        long current;
+        while ((current = keys[index]) != EMPTY) {
+            if (current == key) {
+                int previous = values[index];
+                shiftBack(index);
+                size--;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    /**
+     * Get the number of entries.
+     *
+     * @return The size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Check whether the map is empty.
+     *
+     * @return True if there are no entries
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Remove every entry, keeping the allocated buckets.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        hasEmptyKey = false;
+        size = 0;
+    }
+
+    /**
+     * Close the gap left at {@code index} by moving later entries of the same probe run back.
+     */
+    private void shiftBack(int index) {
+        int gap = index;
+        int next = (gap + 1) & mask;
+        long key;
+        while ((key = keys[next]) != EMPTY) {
+            int home = bucket(key);
+            // Move the entry if its home bucket is not inside the (gap, next] range
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = key;
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = EMPTY;
+    }
+
+    private int bucket(long key) {
+        // Murmur3 finaliser; packed positions keep most entropy in the high and low bits
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h & mask;
+    }
+
+    private void allocate(int buckets) {
+        keys = new long[buckets];
+        values = new int[buckets];
+        Arrays.fill(keys, EMPTY);
+        mask = buckets - 1;
+        resizeThreshold = (int) (buckets * LOAD_FACTOR);
+    }
+
+    private void rehash(int buckets) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(buckets);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int index = bucket(key);
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
\ No newline at end of file
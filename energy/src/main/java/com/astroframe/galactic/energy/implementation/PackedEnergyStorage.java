@@ -0,0 +1,228 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.nbt.CompoundTag;
+
+/**
+ * SimpleEnergyStorage view of a packed node in an {@link EnergyNodeStore}.
+ * All reads and writes go straight to the store's arrays, so block entities can keep using
+ * the familiar SimpleEnergyStorage API while the network ticks over primitive arrays.
+ * <p>
+ * When the node is removed from its network the view is detached: the last known values are
+ * copied into the inherited fields and the view carries on as a plain SimpleEnergyStorage.
+ */
+public class PackedEnergyStorage extends SimpleEnergyStorage {
+    
+    private EnergyNodeStore store;
+    private int slot;
+    
+    /**
+     * Creates a view of a packed slot.
+     * 
+     * @param store The store that owns the slot
+     * @param slot The slot index
+     * @param energyType The energy type
+     */
+    PackedEnergyStorage(EnergyNodeStore store, int slot, EnergyType energyType) {
+        super(0, 0, 0, 0, energyType);
+        this.store = store;
+        this.slot = slot;
+    }
+    
+    /**
+     * Check whether this view still writes through to a network store.
+     * 
+     * @return True while the node is part of a network
+     */
+    public boolean isAttached() {
+        return store != null;
+    }
+    
+    /**
+     * Check whether this view belongs to the given store.
+     * 
+     * @param store The store
+     * @return True if the view writes through to that store
+     */
+    boolean isOwnedBy(EnergyNodeStore store) {
+        return this.store == store;
+    }
+    
+    /**
+     * Get the slot this view reads from.
+     * 
+     * @return The slot index
+     */
+    int getSlot() {
+        return slot;
+    }
+    
+    /**
+     * Point this detached view at a new slot, after its values were copied there.
+     */
+    void attach(EnergyNodeStore store, int slot) {
+        this.store = store;
+        this.slot = slot;
+    }
+    
+    /**
+     * Copy the node's final state into this view and stop writing through.
+     */
+    void detach(int energy, int capacity, int maxReceive, int maxExtract) {
+        this.energy = energy;
+        this.capacity = capacity;
+        this.maxReceive = maxReceive;
+        this.maxExtract = maxExtract;
+        this.store = null;
+    }
+    
+    @Override
+    public int receiveEnergy(int maxReceive, boolean simulate) {
+        if (store == null) {
+            return super.receiveEnergy(maxReceive, simulate);
+        }
+        
+        if (!canReceive()) {
+            return 0;
+        }
+        
+        int stored = store.energy[slot];
+        int energyReceived = Math.min(store.capacity[slot] - stored, Math.min(store.maxReceive[slot], maxReceive));
+        
+        if (!simulate && energyReceived > 0) {
+            store.energy[slot] = stored + energyReceived;
+            onChanged();
+        }
+        
+        return energyReceived;
+    }
+    
+    @Override
+    public int extractEnergy(int maxExtract, boolean simulate) {
+        if (store == null) {
+            return super.extractEnergy(maxExtract, simulate);
+        }
+        
+        if (!canExtract()) {
+            return 0;
+        }
+        
+        int stored = store.energy[slot];
+        int energyExtracted = Math.min(stored, Math.min(store.maxExtract[slot], maxExtract));
+        
+        if (!simulate && energyExtracted > 0) {
+            store.energy[slot] = stored - energyExtracted;
+            onChanged();
+        }
+        
+        return energyExtracted;
+    }
+    
+    @Override
+    public int getEnergy() {
+        return store == null ? energy : store.energy[slot];
+    }
+    
+    @Override
+    public int getMaxEnergy() {
+        return store == null ? capacity : store.capacity[slot];
+    }
+    
+    @Override
+    public int getMaxReceive() {
+        return store == null ? maxReceive : store.maxReceive[slot];
+    }
+    
+    @Override
+    public int getMaxExtract() {
+        return store == null ? maxExtract : store.maxExtract[slot];
+    }
+    
+    @Override
+    public boolean canExtract() {
+        return (store == null ? maxExtract : store.maxExtract[slot]) > 0;
+    }
+    
+    @Override
+    public boolean canReceive() {
+        return (store == null ? maxReceive : store.maxReceive[slot]) > 0;
+    }
+    
+    @Override
+    public void setEnergy(int energy) {
+        if (store == null) {
+            super.setEnergy(energy);
+            return;
+        }
+        
+        store.energy[slot] = Math.max(0, Math.min(store.capacity[slot], energy));
+        onChanged();
+    }
+    
+    @Override
+    public void setCapacity(int capacity) {
+        if (store == null) {
+            super.setCapacity(capacity);
+            return;
+        }
+        
+        store.capacity[slot] = capacity;
+        
+        if (store.energy[slot] > capacity) {
+            store.energy[slot] = capacity;
+        }
+        onChanged();
+    }
+    
+    @Override
+    public void setMaxReceive(int maxReceive) {
+        if (store == null) {
+            super.setMaxReceive(maxReceive);
+            return;
+        }
+        
+        store.maxReceive[slot] = maxReceive;
+        onChanged();
+    }
+    
+    @Override
+    public void setMaxExtract(int maxExtract) {
+        if (store == null) {
+            super.setMaxExtract(maxExtract);
+            return;
+        }
+        
+        store.maxExtract[slot] = maxExtract;
+        onChanged();
+    }
+    
+    @Override
+    public CompoundTag serializeNBT(CompoundTag tag) {
+        pullFromStore();
+        return super.serializeNBT(tag);
+    }
+    
+    @Override
+    public void deserializeNBT(CompoundTag tag) {
+        // Values the tag leaves out, e.g. under an unknown template, must keep the node's current ones
+        pullFromStore();
+        super.deserializeNBT(tag);
+        
+        if (store != null) {
+            store.energy[slot] = energy;
+            store.capacity[slot] = capacity;
+            store.maxReceive[slot] = maxReceive;
+            store.maxExtract[slot] = maxExtract;
+            markSaved();
+        }
+    }
+    
+    private void pullFromStore() {
+        if (store != null) {
+            energy = store.energy[slot];
+            capacity = store.capacity[slot];
+            maxReceive = store.maxReceive[slot];
+            maxExtract = store.maxExtract[slot];
+        }
+    }
+}
\ No newline at end of file
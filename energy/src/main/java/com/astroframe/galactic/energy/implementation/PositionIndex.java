@@ -0,0 +1,131 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps world positions to int slots, sharded by dimension.
+ * Each dimension gets its own {@link LongIntHashMap} keyed by {@link WorldPosition#asLong()},
+ * and the most recently used shard is cached so that lookups within one dimension cost a
+ * reference check and a primitive probe.
+ */
+public class PositionIndex {
+
+    /** Returned when a position has no slot */
+    public static final int MISSING = -1;
+
+    private final Map<Level, LongIntHashMap> shards = new HashMap<>();
+    private Level lastLevel;
+    private LongIntHashMap lastShard;
+    private int size;
+
+    /**
+     * Get the slot for a position.
+     *
+     * @param position The position
+     * @return The slot, or {@link #MISSING}
+     */
+    public int get(WorldPosition position) {
+        return get(position.getLevel(), position.asLong());
+    }
+
+    /**
+     * Get the slot for a packed position.
+     *
+     * @param level The level (dimension)
+     * @param packedPosition The packed position
+     * @return The slot, or {@link #MISSING}
+     */
+    public int get(Level level, long packedPosition) {
+        LongIntHashMap shard = shard(level, false);
+        return shard != null ? shard.get(packedPosition) : MISSING;
+    }
+
+    /**
+     * Check whether a packed position has a slot.
+     *
+     * @param level The level (dimension)
+     * @param packedPosition The packed position
+     * @return True if the position has a slot
+     */
+    public boolean contains(Level level, long packedPosition) {
+        LongIntHashMap shard = shard(level, false);
+        return shard != null && shard.containsKey(packedPosition);
+    }
+
+    /**
+     * Assign a slot to a position.
+     *
+     * @param position The position
+     * @param slot The slot
+     * @return The previous slot, or {@link #MISSING}
+     */
+    public int put(WorldPosition position, int slot) {
+        int previous = shard(position.getLevel(), true).put(position.asLong(), slot);
+        if (previous == MISSING) {
+            size++;
+        }
+        return previous;
+    }
+
+    /**
+     * Remove a position.
+     *
+     * @param position The position
+     * @return The removed slot, or {@link #MISSING}
+     */
+    public int remove(WorldPosition position) {
+        return remove(position.getLevel(), position.asLong());
+    }
+
+    /**
+     * Remove a packed position.
+     *
+     * @param level The level (dimension)
+     * @param packedPosition The packed position
+     * @return The removed slot, or {@link #MISSING}
+     */
+    public int remove(Level level, long packedPosition) {
+        LongIntHashMap shard = shard(level, false);
+        if (shard == null) {
+            return MISSING;
+        }
+
+        int removed = shard.remove(packedPosition);
+        if (removed != MISSING) {
+            size--;
+        }
+        return removed;
+    }
+
+    /**
+     * Get the number of indexed positions across all dimensions.
+     *
+     * @return The size
+     */
+    public int size() {
+        return size;
+    }
+
+    private LongIntHashMap shard(Level level, boolean create) {
+        if (level == lastLevel) {
+            return lastShard;
+        }
+
+        LongIntHashMap shard = shards.get(level);
+        if (shard == null) {
+            if (!create) {
+                return null;
+            }
+            shard = new LongIntHashMap(MISSING);
+            shards.put(level, shard);
+        }
+
+        lastLevel = level;
+        lastShard = shard;
+        return shard;
+    }
+}
\ No newline at end of file
@@ -1,21 +1,41 @@
 package com.astroframe.galactic.energy.implementation;
 
-import com.astroframe.galactic.energy.api.EnergyStorage;
 import com.astroframe.galactic.energy.api.EnergyType;
 import com.astroframe.galactic.energy.api.EnergyUnit;
+import com.astroframe.galactic.energy.api.ObservableEnergyStorage;
 import com.astroframe.galactic.energy.nbt.CompoundTag;
 
 /**
  * A simple implementation of the EnergyStorage interface.
  * Provides basic energy storage functionality.
+ * <p>
+ * Saved tags are versioned ({@value #NBT_VERSION}) and sparse: a storage created from an
+ * {@link EnergyStorageTemplate} writes the template id and only the values that differ from it,
+ * and a storage without one omits the default energy type. The storage remembers what it last
+ * saved or loaded, so {@link #isDirty()} tells a block entity whether it needs saving at all and
+ * {@link #serializeChanges(CompoundTag)} writes just the energy when nothing else changed.
+ * Tags written before versioning are still read.
  */
-public class SimpleEnergyStorage implements EnergyStorage {
+public class SimpleEnergyStorage implements ObservableEnergyStorage {
+    
+    /** Version of the saved tag layout */
+    public static final int NBT_VERSION = 2;
     
     protected int energy;
     protected int capacity;
     protected int maxReceive;
     protected int maxExtract;
     protected EnergyType energyType;
+    protected EnergyStorageTemplate template;
+    private Runnable changeListener;
+    
+    // Values last written or read, for dirty checks
+    private boolean saved;
+    private int savedEnergy;
+    private int savedCapacity;
+    private int savedMaxReceive;
+    private int savedMaxExtract;
+    private EnergyType savedEnergyType;
     
     /**
      * Creates a new SimpleEnergyStorage with the given parameters.
@@ -34,6 +54,16 @@ public class SimpleEnergyStorage implements EnergyStorage {
         this.energyType = energyType;
     }
     
+    /**
+     * Creates a new empty SimpleEnergyStorage configured by a template.
+     * 
+     * @param template The template
+     */
+    public SimpleEnergyStorage(EnergyStorageTemplate template) {
+        this(template.getCapacity(), template.getMaxReceive(), template.getMaxExtract(), 0, template.getEnergyType());
+        this.template = template;
+    }
+    
     /**
      * Creates a new SimpleEnergyStorage with default parameters.
      * 
@@ -61,8 +91,9 @@ public class SimpleEnergyStorage implements EnergyStorage {
         
         int energyReceived = Math.min(capacity - energy, Math.min(this.maxReceive, maxReceive));
         
-        if (!simulate) {
+        if (!simulate && energyReceived > 0) {
             energy += energyReceived;
+            onChanged();
         }
         
         return energyReceived;
@@ -76,8 +107,9 @@ public class SimpleEnergyStorage implements EnergyStorage {
         
         int energyExtracted = Math.min(energy, Math.min(this.maxExtract, maxExtract));
         
-        if (!simulate) {
+        if (!simulate && energyExtracted > 0) {
             energy -= energyExtracted;
+            onChanged();
         }
         
         return energyExtracted;
@@ -93,6 +125,24 @@ public class SimpleEnergyStorage implements EnergyStorage {
         return capacity;
     }
     
+    /**
+     * Gets the maximum receive rate.
+     * 
+     * @return The maximum receive rate
+     */
+    public int getMaxReceive() {
+        return maxReceive;
+    }
+    
+    /**
+     * Gets the maximum extract rate.
+     * 
+     * @return The maximum extract rate
+     */
+    public int getMaxExtract() {
+        return maxExtract;
+    }
+    
     @Override
     public boolean canExtract() {
         return maxExtract > 0;
@@ -115,6 +165,7 @@ public class SimpleEnergyStorage implements EnergyStorage {
      */
     public void setEnergy(int energy) {
         this.energy = Math.max(0, Math.min(capacity, energy));
+        onChanged();
     }
     
     /**
@@ -128,6 +179,7 @@ public class SimpleEnergyStorage implements EnergyStorage {
         if (energy > capacity) {
             energy = capacity;
         }
+        onChanged();
     }
     
     /**
@@ -137,6 +189,7 @@ public class SimpleEnergyStorage implements EnergyStorage {
      */
     public void setMaxReceive(int maxReceive) {
         this.maxReceive = maxReceive;
+        onChanged();
     }
     
     /**
@@ -146,6 +199,7 @@ public class SimpleEnergyStorage implements EnergyStorage {
      */
     public void setMaxExtract(int maxExtract) {
         this.maxExtract = maxExtract;
+        onChanged();
     }
     
     /**
@@ -155,33 +209,183 @@ public class SimpleEnergyStorage implements EnergyStorage {
      */
     public void setEnergyType(EnergyType energyType) {
         this.energyType = energyType;
+        onChanged();
+    }
+    
+    /**
+     * Gets the template this storage was created from.
+     * 
+     * @return The template, or null
+     */
+    public EnergyStorageTemplate getTemplate() {
+        return template;
+    }
+    
+    /**
+     * Sets the template saved tags refer to. The storage's own values are left unchanged.
+     * 
+     * @param template The template, or null to save the full configuration
+     */
+    public void setTemplate(EnergyStorageTemplate template) {
+        this.template = template;
+        saved = false;
+    }
+    
+    @Override
+    public void setChangeListener(Runnable listener) {
+        this.changeListener = listener;
+    }
+    
+    /**
+     * Notify the change listener, if any, that the state of this storage changed.
+     */
+    protected void onChanged() {
+        Runnable listener = changeListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+    
+    /**
+     * Check whether anything changed since the storage was last saved or loaded.
+     * 
+     * @return True if the storage needs saving
+     */
+    public boolean isDirty() {
+        return isConfigDirty() || getEnergy() != savedEnergy;
+    }
+    
+    /**
+     * Check whether the capacity, rates or type changed since the storage was last saved or loaded.
+     * 
+     * @return True if the configuration needs saving
+     */
+    public boolean isConfigDirty() {
+        return !saved || getMaxEnergy() != savedCapacity || getMaxReceive() != savedMaxReceive
+                || getMaxExtract() != savedMaxExtract || getEnergyType() != savedEnergyType;
     }
     
     /**
      * Saves this energy storage to an NBT tag.
+     * Configuration equal to the template, or the default energy type without one, is omitted.
      * 
      * @param tag The tag to save to
      * @return The tag
      */
     public CompoundTag serializeNBT(CompoundTag tag) {
+        int energy = getEnergy();
+        int capacity = getMaxEnergy();
+        int maxReceive = getMaxReceive();
+        int maxExtract = getMaxExtract();
+        EnergyType energyType = getEnergyType();
+        
+        tag.putInt("Version", NBT_VERSION);
         tag.putInt("Energy", energy);
-        tag.putInt("Capacity", capacity);
-        tag.putInt("MaxReceive", maxReceive);
-        tag.putInt("MaxExtract", maxExtract);
-        tag.putString("EnergyType", energyType.getId());
+        if (template != null) {
+            tag.putString("Template", template.getId());
+        }
+        if (template == null || capacity != template.getCapacity()) {
+            tag.putInt("Capacity", capacity);
+        }
+        if (template == null || maxReceive != template.getMaxReceive()) {
+            tag.putInt("MaxReceive", maxReceive);
+        }
+        if (template == null || maxExtract != template.getMaxExtract()) {
+            tag.putInt("MaxExtract", maxExtract);
+        }
+        if (energyType != (template != null ? template.getEnergyType() : EnergyType.ELECTRICAL)) {
+            tag.putString("EnergyType", energyType.getId());
+        }
+        markSaved();
         return tag;
     }
     
     /**
-     * Loads this energy storage from an NBT tag.
+     * Saves only what changed since the storage was last saved or loaded.
+     * Writes nothing if the storage is clean, just the energy if only the energy changed,
+     * and a full tag otherwise. Apply the result on top of the last full tag with
+     * {@link #deserializeNBT(CompoundTag)}.
+     * 
+     * @param tag The tag to save to
+     * @return True if anything was written
+     */
+    public boolean serializeChanges(CompoundTag tag) {
+        if (isConfigDirty()) {
+            serializeNBT(tag);
+            return true;
+        }
+        
+        int energy = getEnergy();
+        if (energy == savedEnergy) {
+            return false;
+        }
+        tag.putInt("Version", NBT_VERSION);
+        tag.putInt("Delta", 1);
+        tag.putInt("Energy", energy);
+        savedEnergy = energy;
+        return true;
+    }
+    
+    /**
+     * Loads this energy storage from an NBT tag written by any version of
+     * {@link #serializeNBT(CompoundTag)} or by {@link #serializeChanges(CompoundTag)}.
      * 
      * @param tag The tag to load from
      */
     public void deserializeNBT(CompoundTag tag) {
-        energy = tag.getInt("Energy");
-        capacity = tag.getInt("Capacity");
-        maxReceive = tag.getInt("MaxReceive");
-        maxExtract = tag.getInt("MaxExtract");
-        energyType = EnergyType.byId(tag.getString("EnergyType"));
+        if (!tag.contains("Version")) {
+            // Unversioned tags always hold all five values
+            energy = tag.getInt("Energy");
+            capacity = tag.getInt("Capacity");
+            maxReceive = tag.getInt("MaxReceive");
+            maxExtract = tag.getInt("MaxExtract");
+            energyType = EnergyType.byId(tag.getString("EnergyType"));
+            markSaved();
+            onChanged();
+            return;
+        }
+        
+        if (tag.getInt("Delta") == 0) {
+            // Full tag: missing values come from the template, or the defaults without one
+            EnergyStorageTemplate base = tag.contains("Template") ? EnergyStorageTemplate.get(tag.getString("Template")) : null;
+            template = base;
+            if (base != null) {
+                capacity = base.getCapacity();
+                maxReceive = base.getMaxReceive();
+                maxExtract = base.getMaxExtract();
+                energyType = base.getEnergyType();
+            } else if (!tag.contains("Template")) {
+                energyType = EnergyType.ELECTRICAL;
+            }
+        }
+        
+        // An unknown template keeps the current configuration
+        if (tag.contains("Capacity")) {
+            capacity = tag.getInt("Capacity");
+        }
+        if (tag.contains("MaxReceive")) {
+            maxReceive = tag.getInt("MaxReceive");
+        }
+        if (tag.contains("MaxExtract")) {
+            maxExtract = tag.getInt("MaxExtract");
+        }
+        if (tag.contains("EnergyType")) {
+            energyType = EnergyType.byId(tag.getString("EnergyType"));
+        }
+        energy = Math.max(0, Math.min(capacity, tag.getInt("Energy")));
+        markSaved();
+        onChanged();
+    }
+    
+    /**
+     * Remember the current values as the last saved state.
+     */
+    protected void markSaved() {
+        saved = true;
+        savedEnergy = getEnergy();
+        savedCapacity = getMaxEnergy();
+        savedMaxReceive = getMaxReceive();
+        savedMaxExtract = getMaxExtract();
+        savedEnergyType = getEnergyType();
     }
 }
\ No newline at end of file
@@ -20,6 +20,16 @@ public class CompoundTag {
         data.put(key, value);
     }
     
+    /**
+     * Stores a long value.
+     * 
+     * @param key The key
+     * @param value The value
+     */
+    public void putLong(String key, long value) {
+        data.put(key, value);
+    }
+    
     /**
      * Stores a string value.
      * 
@@ -44,6 +54,23 @@ public class CompoundTag {
         return 0;
     }
     
+    /**
+     * Gets a long value. Integer values are widened.
+     * 
+     * @param key The key
+     * @return The value, or 0 if not found
+     */
+    public long getLong(String key) {
+        Object value = data.get(key);
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        if (value instanceof Integer) {
+            return (Integer) value;
+        }
+        return 0L;
+    }
+    
     /**
      * Gets a string value.
      * 
@@ -0,0 +1,139 @@
+package com.astroframe.galactic.energy.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for exact unit conversion factors and for converters that carry their remainder.
+ */
+public class EnergyUnitTest {
+
+    /**
+     * Factors are reduced fractions, each pair's factors are reciprocal, and stateless conversion truncates and clamps
+     */
+    @Test
+    void testExactFactors() {
+        assertFactor(EnergyUnit.STEAM_UNIT, EnergyUnit.THERMAL_UNIT, 2, 5);
+        assertFactor(EnergyUnit.KINETIC_UNIT, EnergyUnit.STEAM_UNIT, 10, 1);
+        assertFactor(EnergyUnit.THERMAL_UNIT, EnergyUnit.KINETIC_UNIT, 1, 4);
+        assertFactor(EnergyUnit.FORGE_ENERGY, EnergyUnit.GALACTIC_ENERGY_UNIT, 1, 1);
+        for (EnergyUnit from : EnergyUnit.values()) {
+            for (EnergyUnit to : EnergyUnit.values()) {
+                assertEquals(from.getNumerator(to), to.getDenominator(from));
+            }
+        }
+
+        assertEquals(2, EnergyUnit.STEAM_UNIT.convertTo(7, EnergyUnit.THERMAL_UNIT));
+        assertEquals(0, EnergyUnit.STEAM_UNIT.convertTo(1, EnergyUnit.THERMAL_UNIT));
+        assertEquals(Integer.MAX_VALUE, EnergyUnit.KINETIC_UNIT.convertTo(Integer.MAX_VALUE, EnergyUnit.STEAM_UNIT));
+    }
+
+    /**
+     * Many small conversions deliver the exact converted total, rounded down once
+     */
+    @Test
+    void testRemainderCarriesAcrossCalls() {
+        EnergyUnitConverter converter = EnergyUnit.STEAM_UNIT.converterTo(EnergyUnit.THERMAL_UNIT);
+        int delivered = 0;
+        for (int i = 0; i < 5; i++) {
+            delivered += converter.convert(1);
+        }
+        assertEquals(2, delivered);
+        assertEquals(0, converter.getRemainder());
+
+        long calls = 1_000_003;
+        long total = 0;
+        for (long i = 0; i < calls; i++) {
+            total += converter.convert(1);
+        }
+        assertEquals(calls * 2 / 5, total);
+        assertEquals(calls * 2 % 5, converter.getRemainder());
+
+        EnergyUnitConverter quarter = EnergyUnit.THERMAL_UNIT.converterTo(EnergyUnit.KINETIC_UNIT);
+        total = 0;
+        for (int i = 0; i < 1000; i++) {
+            total += quarter.convert(3);
+        }
+        assertEquals(750, total);
+
+        assertThrows(IllegalArgumentException.class, () -> converter.setRemainder(5));
+        converter.reset();
+        assertEquals(0, converter.getRemainder());
+    }
+
+    /**
+     * maxInputFor gives the largest input that converts to at most the requested output, whatever the remainder
+     */
+    @Test
+    void testMaxInputFor() {
+        EnergyUnitConverter converter = EnergyUnit.STEAM_UNIT.converterTo(EnergyUnit.THERMAL_UNIT);
+        for (long remainder = 0; remainder < converter.getDenominator(); remainder++) {
+            converter.setRemainder(remainder);
+            for (int output = 0; output <= 20; output++) {
+                int input = converter.maxInputFor(output);
+                assertTrue(converter.preview(input) <= output, "remainder " + remainder + ", output " + output);
+                assertTrue(converter.preview(input + 1) > output, "remainder " + remainder + ", output " + output);
+            }
+        }
+        assertEquals(0, converter.maxInputFor(-1));
+    }
+
+    /**
+     * preview returns what convert then delivers, without touching the remainder
+     */
+    @Test
+    void testPreviewMatchesConvert() {
+        EnergyUnitConverter converter = EnergyUnit.THERMAL_UNIT.converterTo(EnergyUnit.KINETIC_UNIT);
+        for (int amount = 0; amount < 50; amount++) {
+            long remainder = converter.getRemainder();
+            int preview = converter.preview(amount);
+            assertEquals(remainder, converter.getRemainder());
+            assertEquals(preview, converter.convert(amount));
+        }
+    }
+
+    /**
+     * Converting a batch gives the same amounts and remainder as converting its entries one by one
+     */
+    @Test
+    void testConvertAll() {
+        int[] in = {1, 3, 0, 7, 2, 9, 4, 1, 1, 1};
+        EnergyUnitConverter batch = EnergyUnit.STEAM_UNIT.converterTo(EnergyUnit.THERMAL_UNIT);
+        EnergyUnitConverter single = EnergyUnit.STEAM_UNIT.converterTo(EnergyUnit.THERMAL_UNIT);
+        int[] out = new int[in.length];
+        int[] tail = new int[4];
+
+        batch.convertAll(in, out, 6);
+        batch.convertAll(Arrays.copyOfRange(in, 6, in.length), tail);
+        System.arraycopy(tail, 0, out, 6, tail.length);
+        int[] expected = new int[in.length];
+        for (int i = 0; i < in.length; i++) {
+            expected[i] = single.convert(in[i]);
+        }
+        assertArrayEquals(expected, out);
+        assertEquals(single.getRemainder(), batch.getRemainder());
+
+        int[] stateless = new int[in.length];
+        EnergyUnit.STEAM_UNIT.convertAll(in, stateless, EnergyUnit.THERMAL_UNIT);
+        for (int i = 0; i < in.length; i++) {
+            assertEquals(EnergyUnit.STEAM_UNIT.convertTo(in[i], EnergyUnit.THERMAL_UNIT), stateless[i]);
+        }
+
+        EnergyUnitConverter identity = EnergyUnit.FORGE_ENERGY.converterTo(EnergyUnit.GALACTIC_ENERGY_UNIT);
+        identity.convertAll(in, out);
+        assertArrayEquals(in, out);
+        assertThrows(IllegalArgumentException.class, () -> batch.convertAll(in, new int[2], 3));
+    }
+
+    private static void assertFactor(EnergyUnit from, EnergyUnit to, long numerator, long denominator) {
+        assertEquals(numerator, from.getNumerator(to));
+        assertEquals(denominator, from.getDenominator(to));
+        EnergyUnitConverter converter = from.converterTo(to);
+        assertEquals(numerator, converter.getNumerator());
+        assertEquals(denominator, converter.getDenominator());
+        assertEquals(numerator == denominator, converter.isIdentity());
+    }
+}
@@ -0,0 +1,167 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyTransferBatch;
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the tick cycle of cached energy networks.
+ */
+public class CachedEnergyNetworkTest {
+
+    private static final Level LEVEL = new Level("minecraft:overworld");
+
+    /**
+     * Two batteries that would only trade energy with each other change nothing, so the network sleeps
+     */
+    @Test
+    void testBalancedBatteriesSleep() {
+        CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        SimpleEnergyStorage first = new SimpleEnergyStorage(1000, 100, 100, 500, EnergyType.ELECTRICAL);
+        SimpleEnergyStorage second = new SimpleEnergyStorage(1000, 100, 100, 500, EnergyType.ELECTRICAL);
+        network.addStorage(at(0), first);
+        network.addStorage(at(1), second);
+
+        for (int tick = 0; tick < CachedEnergyNetwork.DEFAULT_IDLE_TICKS_BEFORE_SLEEP; tick++) {
+            network.tick();
+        }
+
+        assertTrue(network.isSleeping());
+        assertEquals(500, first.getEnergy());
+        assertEquals(500, second.getEnergy());
+    }
+
+    /**
+     * A battery next to a generator and a consumer still passes the generator's energy on, and the network stays awake
+     */
+    @Test
+    void testTransferKeepsNetworkAwake() {
+        CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        SimpleEnergyStorage generator = new SimpleEnergyStorage(100000, 0, 50, 100000, EnergyType.ELECTRICAL);
+        SimpleEnergyStorage battery = new SimpleEnergyStorage(1000, 100, 100, 500, EnergyType.ELECTRICAL);
+        SimpleEnergyStorage consumer = new SimpleEnergyStorage(100000, 50, 0, 0, EnergyType.ELECTRICAL);
+        network.addStorage(at(0), generator);
+        network.addStorage(at(1), battery);
+        network.addStorage(at(2), consumer);
+
+        int ticks = CachedEnergyNetwork.DEFAULT_IDLE_TICKS_BEFORE_SLEEP * 2;
+        for (int tick = 0; tick < ticks; tick++) {
+            network.tick();
+        }
+
+        assertFalse(network.isSleeping());
+        assertEquals(100500, generator.getEnergy() + battery.getEnergy() + consumer.getEnergy());
+        assertTrue(consumer.getEnergy() > 0);
+    }
+
+    /**
+     * Networks take on the scheduler's idle ticks before sleep when registered and when it changes
+     */
+    @Test
+    void testSchedulerAppliesIdleTicks() {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        CachedEnergyNetwork early = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        scheduler.register(LEVEL, early);
+        scheduler.setIdleTicksBeforeSleep(5);
+        CachedEnergyNetwork late = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        scheduler.register(LEVEL, late);
+
+        assertEquals(5, early.getIdleTicksBeforeSleep());
+        assertEquals(5, late.getIdleTicksBeforeSleep());
+    }
+
+    /**
+     * A batch transfer from a generator, which cannot take energy back, never loses energy
+     * when the destination takes less than it simulated
+     */
+    @Test
+    void testTransferBatchConservesEnergy() {
+        CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        SimpleEnergyStorage generator = new SimpleEnergyStorage(1000, 0, 100, 1000, EnergyType.ELECTRICAL);
+        SimpleEnergyStorage destination = new SimpleEnergyStorage(1000, 100, 0, 0, EnergyType.ELECTRICAL) {
+            @Override
+            public int receiveEnergy(int maxReceive, boolean simulate) {
+                return super.receiveEnergy(simulate ? maxReceive : maxReceive / 2, simulate);
+            }
+        };
+        network.addStorage(at(0), generator);
+        network.addStorage(at(1), destination);
+        EnergyTransferBatch results = new EnergyTransferBatch();
+
+        long moved = network.transferBatch(LEVEL, new long[] {at(0).asLong()}, new long[] {at(1).asLong()},
+                new int[] {100}, 1, results);
+
+        assertEquals(50, moved);
+        assertEquals(50, destination.getEnergy());
+        assertEquals(950, generator.getEnergy());
+    }
+
+    /**
+     * With plenty of supply, every node with a registered demand receives exactly that much each tick,
+     * a node without one still fills by its rate, and a demand that counts what is stored stops at its target
+     */
+    @Test
+    void testRegisteredDemandIsFilledExactly() {
+        CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        SimpleEnergyStorage generator = new SimpleEnergyStorage(100000, 0, 1000, 100000, EnergyType.ELECTRICAL);
+        SimpleEnergyStorage external = new SimpleEnergyStorage(10000, 1000, 0, 0, EnergyType.ELECTRICAL);
+        SimpleEnergyStorage unregistered = new SimpleEnergyStorage(10000, 50, 0, 0, EnergyType.ELECTRICAL);
+        network.addStorage(at(0), generator);
+        network.addStorage(at(1), external);
+        PackedEnergyStorage packed = network.createStorage(at(2), 10000, 1000, 0, 0);
+        PackedEnergyStorage buffered = network.createStorage(at(3), 10000, 1000, 0, 0);
+        network.addStorage(at(4), unregistered);
+        assertTrue(network.registerDemand(at(1), () -> 5));
+        assertTrue(network.registerDemand(at(2), () -> 20));
+        assertTrue(network.registerDemand(at(3), () -> Math.max(0, 30 - buffered.getEnergy())));
+        assertFalse(network.registerDemand(at(9), () -> 1));
+
+        for (int tick = 1; tick <= 10; tick++) {
+            network.tick();
+            assertEquals(5 * tick, external.getEnergy());
+            assertEquals(20 * tick, packed.getEnergy());
+            assertEquals(30, buffered.getEnergy());
+            assertEquals(50 * tick, unregistered.getEnergy());
+        }
+        assertEquals(100000 - 10 * (5 + 20 + 50) - 30, generator.getEnergy());
+    }
+
+    /**
+     * When supply is short, all of it is handed out and no node receives more than its registered demand
+     */
+    @Test
+    void testScarceSupplyNeverExceedsRegisteredDemand() {
+        CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        network.createStorage(at(0), 100000, 0, 12, 100000);
+        int[] demands = {5, 20, 9};
+        PackedEnergyStorage[] consumers = new PackedEnergyStorage[demands.length];
+        for (int i = 0; i < demands.length; i++) {
+            int demand = demands[i];
+            consumers[i] = network.createStorage(at(i + 1), 10000, 1000, 0, 0);
+            network.registerDemand(at(i + 1), () -> demand);
+        }
+
+        int[] before = new int[consumers.length];
+        for (int tick = 0; tick < 10; tick++) {
+            int delivered = 0;
+            for (int i = 0; i < consumers.length; i++) {
+                before[i] = consumers[i].getEnergy();
+            }
+            network.tick();
+            for (int i = 0; i < consumers.length; i++) {
+                int received = consumers[i].getEnergy() - before[i];
+                assertTrue(received >= 0 && received <= demands[i], "node " + i + " received " + received);
+                delivered += received;
+            }
+            assertEquals(12, delivered);
+        }
+    }
+
+    private static WorldPosition at(int x) {
+        return new WorldPosition(x, 64, 0, LEVEL);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,133 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for converting energy between networks of different types.
+ */
+public class EnergyConverterNodeTest {
+
+    private static final Level LEVEL = new Level("minecraft:overworld");
+
+    private final EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+    private final CachedEnergyNetwork steam = new CachedEnergyNetwork(EnergyType.STEAM, LEVEL);
+    private final CachedEnergyNetwork electrical = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+    private final SimpleEnergyStorage boiler = new SimpleEnergyStorage(100000, 0, 7, 100000, EnergyType.STEAM);
+    private final SimpleEnergyStorage machine = new SimpleEnergyStorage(100000, 100, 0, 0, EnergyType.ELECTRICAL);
+    private final EnergyConverterNode converter = new EnergyConverterNode(steam, electrical, 7);
+
+    EnergyConverterNodeTest() {
+        steam.addStorage(at(0), boiler);
+        electrical.addStorage(at(1), machine);
+        scheduler.addConverter(converter);
+    }
+
+    /**
+     * Fractions of a unit are carried between ticks, so a run of ticks converts the exact total
+     */
+    @Test
+    void testRemainderCarriedAcrossTicks() {
+        for (int tick = 0; tick < 5; tick++) {
+            scheduler.tick();
+        }
+
+        assertEquals(100000 - 35, boiler.getEnergy());
+        assertEquals(7, machine.getEnergy());
+        assertEquals(0, converter.getConverter().getRemainder());
+    }
+
+    /**
+     * A tick dropped because membership changed after balancing moves nothing and carries no remainder
+     */
+    @Test
+    void testSkippedCommitCarriesNothing() {
+        assertTrue(steam.gatherTick());
+        assertTrue(electrical.gatherTick());
+        converter.plan();
+        converter.balance();
+        assertTrue(steam.settleTick());
+        assertTrue(electrical.settleTick());
+
+        steam.addStorage(at(2), new SimpleEnergyStorage(1000, 0, 0, 0, EnergyType.STEAM));
+        electrical.addStorage(at(3), new SimpleEnergyStorage(1000, 0, 0, 0, EnergyType.ELECTRICAL));
+        steam.commitTick();
+        electrical.commitTick();
+        converter.finish();
+
+        assertEquals(100000, boiler.getEnergy());
+        assertEquals(0, machine.getEnergy());
+        assertEquals(0, converter.getLastInput());
+        assertEquals(0, converter.getConverter().getRemainder());
+
+        scheduler.tick();
+
+        assertEquals(100000 - 7, boiler.getEnergy());
+        assertEquals(1, machine.getEnergy());
+        assertEquals(7, converter.getLastInput());
+        assertEquals(2, converter.getConverter().getRemainder());
+    }
+
+    /**
+     * A chain moves energy from source to sink in one tick and loses none, whatever order its links were added in
+     */
+    @Test
+    void testChainConservesEnergyInAnyOrder() {
+        for (boolean sinkFirst : new boolean[]{false, true}) {
+            EnergyNetworkScheduler chain = EnergyNetworkScheduler.singleThreaded();
+            CachedEnergyNetwork a = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+            CachedEnergyNetwork b = new CachedEnergyNetwork(EnergyType.QUANTUM, LEVEL);
+            CachedEnergyNetwork c = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+            SimpleEnergyStorage source = new SimpleEnergyStorage(1000, 0, 100, 1000, EnergyType.ELECTRICAL);
+            SimpleEnergyStorage sink = new SimpleEnergyStorage(1000, 100, 0, 0, EnergyType.ELECTRICAL);
+            a.addStorage(at(0), source);
+            c.addStorage(at(1), sink);
+            EnergyConverterNode first = new EnergyConverterNode(a, b, 100);
+            EnergyConverterNode second = new EnergyConverterNode(b, c, 100);
+            chain.addConverter(sinkFirst ? second : first);
+            chain.addConverter(sinkFirst ? first : second);
+
+            for (int tick = 1; tick <= 3; tick++) {
+                chain.tick();
+                assertEquals(100 * tick, sink.getEnergy(), "sink first: " + sinkFirst);
+                assertEquals(1000, source.getEnergy() + sink.getEnergy(), "sink first: " + sinkFirst);
+            }
+        }
+    }
+
+    /**
+     * Converters sharing a network, feeding it side by side or in a loop, never deliver more than it takes.
+     * Walking from the source along the converters in the order they were added, d to b is the one closing the loop.
+     */
+    @Test
+    void testSharedAndLoopedConvertersConserveEnergy() {
+        EnergyNetworkScheduler grid = EnergyNetworkScheduler.singleThreaded();
+        CachedEnergyNetwork a = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        CachedEnergyNetwork b = new CachedEnergyNetwork(EnergyType.QUANTUM, LEVEL);
+        CachedEnergyNetwork c = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        CachedEnergyNetwork d = new CachedEnergyNetwork(EnergyType.QUANTUM, LEVEL);
+        SimpleEnergyStorage source = new SimpleEnergyStorage(1000, 0, 100, 1000, EnergyType.ELECTRICAL);
+        SimpleEnergyStorage sink = new SimpleEnergyStorage(1000, 60, 0, 0, EnergyType.ELECTRICAL);
+        a.addStorage(at(0), source);
+        c.addStorage(at(1), sink);
+        grid.addConverter(new EnergyConverterNode(d, b, 100));
+        grid.addConverter(new EnergyConverterNode(b, c, 50));
+        grid.addConverter(new EnergyConverterNode(c, d, 100));
+        grid.addConverter(new EnergyConverterNode(a, b, 100));
+        grid.addConverter(new EnergyConverterNode(a, c, 40));
+
+        for (int tick = 1; tick <= 5; tick++) {
+            grid.tick();
+            assertEquals(60 * tick, sink.getEnergy());
+            assertEquals(1000, source.getEnergy() + sink.getEnergy());
+        }
+    }
+
+    private static WorldPosition at(int x) {
+        return new WorldPosition(x, 64, 0, LEVEL);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.EnergyUnit;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for incremental grid connectivity and for keeping the tick scheduler in step with it.
+ */
+public class EnergyGridTopologyTest {
+
+    private static final Level LEVEL = new Level("minecraft:overworld");
+
+    /**
+     * Bridging two networks merges them into the larger one, which stays scheduled while the other is retired
+     */
+    @Test
+    void testMergeRetiresAbsorbedNetwork() {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        EnergyGridTopology topology = new EnergyGridTopology(EnergyType.ELECTRICAL, LEVEL, scheduler);
+        SimpleEnergyStorage left = new SimpleEnergyStorage(1000);
+        SimpleEnergyStorage right = new SimpleEnergyStorage(1000);
+
+        topology.addNode(at(0), left);
+        line(topology, 1, 3);
+        line(topology, 5, 9);
+        topology.addNode(at(10), right);
+        CachedEnergyNetwork small = topology.getNetwork(at(0));
+        CachedEnergyNetwork large = topology.getNetwork(at(10));
+        assertNotSame(small, large);
+        assertEquals(2, scheduler.getNetworkCount());
+
+        CachedEnergyNetwork merged = topology.addCable(at(4));
+        assertSame(large, merged);
+        assertEquals(1, scheduler.getNetworkCount());
+        assertTrue(scheduler.getNetworks(LEVEL).contains(merged));
+        assertSame(left, merged.getStorage(at(0)));
+        assertSame(right, merged.getStorage(at(10)));
+        assertEquals(0, small.getNodeCount());
+        assertTrue(topology.isConnected(at(0).asLong(), at(10).asLong()));
+    }
+
+    /**
+     * Removing a bridge splits the network, and the split-off side gets a scheduled network of its own
+     */
+    @Test
+    void testSplitSchedulesNewNetwork() {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        EnergyGridTopology topology = new EnergyGridTopology(EnergyType.ELECTRICAL, LEVEL, scheduler);
+        SimpleEnergyStorage left = new SimpleEnergyStorage(1000);
+        SimpleEnergyStorage right = new SimpleEnergyStorage(1000);
+        topology.addNode(at(0), left);
+        line(topology, 1, 9);
+        topology.addNode(at(10), right);
+        CachedEnergyNetwork original = topology.getNetwork(at(0));
+
+        topology.removeNode(at(3));
+
+        CachedEnergyNetwork first = topology.getNetwork(at(0));
+        CachedEnergyNetwork second = topology.getNetwork(at(10));
+        assertNotSame(first, second);
+        assertTrue(first == original || second == original);
+        assertFalse(topology.isConnected(at(0).asLong(), at(10).asLong()));
+        assertEquals(3, topology.getNetworkSize(at(0).asLong()));
+        assertEquals(7, topology.getNetworkSize(at(10).asLong()));
+        assertSame(left, first.getStorage(at(0)));
+        assertSame(right, second.getStorage(at(10)));
+        assertNull(first.getStorage(at(10)));
+        assertEquals(2, scheduler.getNetworkCount());
+        assertTrue(scheduler.getNetworks(LEVEL).contains(first));
+        assertTrue(scheduler.getNetworks(LEVEL).contains(second));
+    }
+
+    /**
+     * Removing a node from a loop leaves it connected: the lock-step frontiers meet
+     */
+    @Test
+    void testLoopDoesNotSplit() {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        EnergyGridTopology topology = new EnergyGridTopology(EnergyType.ELECTRICAL, LEVEL, scheduler);
+        for (int x = 0; x < 5; x++) {
+            topology.addCable(new WorldPosition(x, 64, 0, LEVEL));
+            topology.addCable(new WorldPosition(x, 64, 4, LEVEL));
+        }
+        for (int z = 1; z < 4; z++) {
+            topology.addCable(new WorldPosition(0, 64, z, LEVEL));
+            topology.addCable(new WorldPosition(4, 64, z, LEVEL));
+        }
+        CachedEnergyNetwork network = topology.getNetwork(new WorldPosition(0, 64, 0, LEVEL));
+
+        topology.removeNode(new WorldPosition(2, 64, 0, LEVEL));
+
+        assertSame(network, topology.getNetwork(new WorldPosition(1, 64, 0, LEVEL)));
+        assertSame(network, topology.getNetwork(new WorldPosition(3, 64, 0, LEVEL)));
+        assertEquals(15, topology.getNetworkSize(new WorldPosition(1, 64, 0, LEVEL).asLong()));
+        assertEquals(1, scheduler.getNetworkCount());
+    }
+
+    /**
+     * A split too large to search during the update is finished by resolvePendingSplits()
+     */
+    @Test
+    void testDeferredSplit() {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        EnergyGridTopology topology = new EnergyGridTopology(EnergyType.ELECTRICAL, LEVEL,
+                () -> new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL), 2, scheduler);
+        line(topology, 0, 40);
+
+        topology.removeNode(at(20));
+        assertTrue(topology.isConnected(at(0).asLong(), at(40).asLong()), "split should be deferred");
+
+        topology.resolvePendingSplits();
+        assertFalse(topology.isConnected(at(0).asLong(), at(40).asLong()));
+        assertEquals(20, topology.getNetworkSize(at(0).asLong()));
+        assertEquals(20, topology.getNetworkSize(at(40).asLong()));
+        assertEquals(2, scheduler.getNetworkCount());
+    }
+
+    /**
+     * Removing the last node of a network unschedules it
+     */
+    @Test
+    void testEmptyNetworkIsUnscheduled() {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        EnergyGridTopology topology = new EnergyGridTopology(EnergyType.ELECTRICAL, LEVEL, scheduler);
+        topology.addNode(at(0), new SimpleEnergyStorage(1000));
+        topology.addCable(at(1));
+
+        topology.removeNode(at(1));
+        assertEquals(1, scheduler.getNetworkCount());
+        topology.removeNode(at(0));
+        assertEquals(0, scheduler.getNetworkCount());
+        assertTrue(topology.getNetworks().isEmpty());
+    }
+
+    /**
+     * A converter linked to a merged network moves to the network that absorbed it, and follows its node when it splits off
+     */
+    @Test
+    void testConvertersFollowMergeAndSplit() {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        EnergyGridTopology topology = new EnergyGridTopology(EnergyType.ELECTRICAL, LEVEL, scheduler);
+        CachedEnergyNetwork steam = new CachedEnergyNetwork(EnergyType.STEAM, LEVEL);
+        steam.addStorage(new WorldPosition(0, 70, 0, LEVEL), new SimpleEnergyStorage(1000, 0, 10, 1000, EnergyType.STEAM));
+        SimpleEnergyStorage left = new SimpleEnergyStorage(1000, 100, 0, 0, EnergyType.ELECTRICAL);
+        topology.addNode(at(0), left);
+        line(topology, 1, 3);
+        line(topology, 5, 9);
+        topology.addNode(at(10), new SimpleEnergyStorage(1000));
+        EnergyConverterNode converter = new EnergyConverterNode(steam, null, topology.getNetwork(at(0)), at(0), 10);
+        scheduler.addConverter(converter);
+
+        CachedEnergyNetwork merged = topology.addCable(at(4));
+        assertEquals(1, scheduler.getConverters().size());
+        assertSame(merged, converter.getOutput());
+        assertTrue(merged.getConverters().contains(converter));
+
+        topology.removeNode(at(4));
+        CachedEnergyNetwork split = topology.getNetwork(at(0));
+        assertNotSame(merged, split);
+        assertSame(split, converter.getOutput());
+        assertTrue(split.getConverters().contains(converter));
+        assertFalse(merged.getConverters().contains(converter));
+        assertTrue(scheduler.getNetworks(LEVEL).contains(split));
+
+        scheduler.tick();
+        assertEquals(EnergyUnit.STEAM_UNIT.convertTo(10, EnergyUnit.GALACTIC_ENERGY_UNIT), left.getEnergy());
+    }
+
+    private static void line(EnergyGridTopology topology, int from, int to) {
+        for (int x = from; x <= to; x++) {
+            topology.addCable(at(x));
+        }
+    }
+
+    private static WorldPosition at(int x) {
+        return new WorldPosition(x, 64, 0, LEVEL);
+    }
+}
@@ -0,0 +1,211 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyDistributionMode;
+import com.astroframe.galactic.energy.api.EnergyStorage;
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldChunk;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import com.astroframe.galactic.energy.config.EnergyConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for saving and loading the energy networks of a dimension.
+ */
+public class EnergyNetworkSavedDataTest {
+
+    private static final Level LEVEL = new Level("minecraft:overworld");
+
+    /**
+     * Writing loaded data again gives the same bytes, including priorities, suspended chunks and converters
+     */
+    @Test
+    void testRoundTripIsLossless() throws IOException {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        CachedEnergyNetwork electrical = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL,
+                new FlowEnergyDistributor(EnergyDistributionMode.PRIORITY));
+        electrical.createStorage(at(0), 1000, 100, 100, 400, 3);
+        electrical.createStorage(at(1), 5000, 0, 50, 5000);
+        electrical.createStorage(at(100), 2000, 80, 0, 10, -1);
+        electrical.onChunkUnloaded(WorldChunk.fromPosition(at(100).asLong()), 1234);
+        CachedEnergyNetwork steam = new CachedEnergyNetwork(EnergyType.STEAM, LEVEL);
+        steam.createStorage(at(2), 8000, 0, 7, 8000);
+        EnergyConverterNode converter = new EnergyConverterNode(steam, electrical, 7);
+        converter.getConverter().setRemainder(2);
+        scheduler.register(LEVEL, electrical);
+        scheduler.addConverter(converter);
+        byte[] saved = write(scheduler);
+
+        EnergyNetworkScheduler loaded = EnergyNetworkScheduler.singleThreaded();
+        EnergyNetworkSavedData data = new EnergyNetworkSavedData(LEVEL);
+        List<CachedEnergyNetwork> networks = data.read(input(saved), loaded);
+
+        assertArrayEquals(saved, write(loaded));
+        assertEquals(2, networks.size());
+        assertEquals(4, data.getPendingCount());
+        assertEquals(1, networks.get(0).getSuspendedCount());
+        assertEquals(400, networks.get(0).getStorage(at(0)).getEnergy());
+        assertEquals(2, loaded.getConverters().get(0).getConverter().getRemainder());
+    }
+
+    /**
+     * External storages come back as placeholders that keep their capacity and their place in the priority order
+     */
+    @Test
+    void testExternalPlaceholderKeepsPriority() throws IOException {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        network.createStorage(at(0), 1000, 100, 100, 500);
+        network.addStorage(at(1), new SimpleEnergyStorage(3000, 100, 100, 700, EnergyType.ELECTRICAL) {
+            @Override
+            public int getPriority() {
+                return 5;
+            }
+        });
+        scheduler.register(LEVEL, network);
+
+        CachedEnergyNetwork loaded = new EnergyNetworkSavedData(LEVEL)
+                .read(input(write(scheduler)), EnergyNetworkScheduler.singleThreaded()).get(0);
+
+        EnergyNodeStore store = loaded.getStore();
+        assertEquals(at(1).asLong(), store.positions[store.order[0]]);
+        assertEquals(5, store.priority[store.order[0]]);
+        EnergyStorage placeholder = loaded.getStorage(at(1));
+        assertEquals(3000, placeholder.getMaxEnergy());
+        assertEquals(0, placeholder.getEnergy());
+    }
+
+    /**
+     * Suspended chunks are resumed as they load when the scheduler does not suspend unloaded chunks
+     */
+    @Test
+    void testSuspensionNeedsChunkOptimisation() throws IOException {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        network.createStorage(at(100), 1000, 100, 100, 500);
+        network.onChunkUnloaded(WorldChunk.fromPosition(at(100).asLong()), 10);
+        scheduler.register(LEVEL, network);
+
+        EnergyNetworkScheduler loaded = EnergyNetworkScheduler.singleThreaded();
+        loaded.setOptimizeForUnloadedChunks(false);
+        assertEquals(0, new EnergyNetworkSavedData(LEVEL).read(input(write(scheduler)), loaded).get(0).getSuspendedCount());
+    }
+
+    /**
+     * Data written before priorities and suspended chunks were saved still loads
+     */
+    @Test
+    void testReadsVersionOne() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(EnergyNetworkSavedData.MAGIC);
+        out.writeShort(1);
+        out.writeInt(1);
+        out.writeUTF(EnergyType.ELECTRICAL.getId());
+        out.writeByte(EnergyDistributionMode.PROPORTIONAL.ordinal());
+        out.writeInt(1);
+        out.writeLong(at(0).asLong());
+        out.writeByte(0);
+        out.writeInt(1000);
+        out.writeInt(100);
+        out.writeInt(100);
+        out.writeInt(250);
+        out.writeInt(0);
+
+        List<CachedEnergyNetwork> networks = new EnergyNetworkSavedData(LEVEL)
+                .read(input(bytes.toByteArray()), EnergyNetworkScheduler.singleThreaded());
+
+        assertEquals(250, networks.get(0).getStorage(at(0)).getEnergy());
+    }
+
+    /**
+     * A routed topology comes back with its cables, and its networks route along them again
+     */
+    @Test
+    void testTopologyComesBackRouted() throws IOException {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        EnergyGridTopology topology = EnergyGridTopology.routed(EnergyType.ELECTRICAL, LEVEL,
+                new EnergyConfig.NetworkSettings(), scheduler);
+        topology.addPackedNode(at(0), 1000, 100, 100, 600, 0);
+        for (int x = 1; x <= 3; x++) {
+            topology.addCable(at(x));
+        }
+        topology.addPackedNode(at(4), 1000, 100, 100, 0, 0);
+        topology.addPackedNode(at(10), 500, 50, 50, 200, 0);
+        EnergyNetworkSavedData data = new EnergyNetworkSavedData(LEVEL);
+        data.addTopology(topology);
+
+        EnergyNetworkScheduler loaded = EnergyNetworkScheduler.singleThreaded();
+        EnergyNetworkSavedData reloaded = new EnergyNetworkSavedData(LEVEL);
+        List<CachedEnergyNetwork> networks = reloaded.read(input(write(data, scheduler)), loaded);
+
+        EnergyGridTopology restored = reloaded.getTopology(EnergyType.ELECTRICAL);
+        assertTrue(restored.isRouted());
+        assertEquals(3, restored.getCablePositions().length);
+        assertEquals(2, networks.size());
+        assertEquals(2, loaded.getNetworks(LEVEL).size());
+        CachedEnergyNetwork network = restored.getNetwork(at(0).asLong());
+        assertTrue(networks.contains(network));
+        assertSame(network, restored.getNetwork(at(4).asLong()));
+        assertTrue(network.getDistributor() instanceof EnergyPathCache);
+        assertEquals(600, network.getStorage(at(0)).getEnergy());
+        assertEquals(200, restored.getStorage(at(10).asLong()).getEnergy());
+        assertEquals(3, reloaded.getPendingCount());
+    }
+
+    /**
+     * Loaded topology networks keep merging as cables are placed, and drop missing nodes through the topology
+     */
+    @Test
+    void testLoadedTopologyKeepsMerging() throws IOException {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        EnergyGridTopology topology = new EnergyGridTopology(EnergyType.ELECTRICAL, LEVEL, scheduler);
+        topology.addPackedNode(at(0), 1000, 100, 100, 600, 0);
+        topology.addCable(at(1));
+        topology.addPackedNode(at(3), 1000, 100, 100, 0, 0);
+        EnergyNetworkSavedData data = new EnergyNetworkSavedData(LEVEL);
+        data.addTopology(topology);
+
+        EnergyNetworkScheduler loaded = EnergyNetworkScheduler.singleThreaded();
+        EnergyNetworkSavedData reloaded = new EnergyNetworkSavedData(LEVEL);
+        reloaded.read(input(write(data, scheduler)), loaded);
+        EnergyGridTopology restored = reloaded.getTopology(EnergyType.ELECTRICAL);
+        restored.addCable(at(2));
+
+        assertEquals(1, loaded.getNetworks(LEVEL).size());
+        assertTrue(restored.isConnected(at(0).asLong(), at(3).asLong()));
+
+        long missing = at(0).asLong();
+        assertEquals(1, reloaded.verify(position -> position == missing
+                ? EnergyNetworkSavedData.Presence.MISSING : EnergyNetworkSavedData.Presence.PRESENT, 10));
+        assertFalse(restored.hasNode(missing));
+        assertNull(restored.getNetwork(at(3).asLong()).getStorage(at(0)));
+    }
+
+    private static byte[] write(EnergyNetworkSavedData data, EnergyNetworkScheduler scheduler) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        data.write(new DataOutputStream(bytes), scheduler.getNetworks(LEVEL), scheduler.getConverters());
+        return bytes.toByteArray();
+    }
+
+    private static byte[] write(EnergyNetworkScheduler scheduler) throws IOException {
+        return write(new EnergyNetworkSavedData(LEVEL), scheduler);
+    }
+
+    private static DataInputStream input(byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+    private static WorldPosition at(int x) {
+        return new WorldPosition(x, 64, 0, LEVEL);
+    }
+}
\ No newline at end of file
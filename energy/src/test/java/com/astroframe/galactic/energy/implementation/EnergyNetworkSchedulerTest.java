@@ -0,0 +1,114 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for ticking networks with the scheduler.
+ */
+public class EnergyNetworkSchedulerTest {
+
+    private static final Level LEVEL = new Level("minecraft:overworld");
+
+    /**
+     * With a pool, external storages and demand sources are still only asked on the ticking thread
+     */
+    @Test
+    void testParallelGatherStaysOnCallingThread() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            EnergyNetworkScheduler scheduler = new EnergyNetworkScheduler(pool, 1);
+            List<Thread> callers = Collections.synchronizedList(new ArrayList<>());
+            List<PackedEnergyStorage> packed = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+                WorldPosition provider = new WorldPosition(0, 64, i * 4, LEVEL);
+                WorldPosition consumer = new WorldPosition(1, 64, i * 4, LEVEL);
+                if (i % 2 == 0) {
+                    network.addStorage(provider, new RecordingStorage(100000, 0, 10, 100000, callers));
+                    network.addStorage(consumer, new RecordingStorage(100000, 10, 0, 0, callers));
+                    network.registerDemand(consumer, () -> {
+                        callers.add(Thread.currentThread());
+                        return 5;
+                    });
+                } else {
+                    network.createStorage(provider, 100000, 0, 10, 100000);
+                    packed.add(network.createStorage(consumer, 100000, 10, 0, 0));
+                }
+                scheduler.register(LEVEL, network);
+            }
+            assertTrue(scheduler.isParallel());
+
+            for (int tick = 0; tick < 10; tick++) {
+                scheduler.tick();
+            }
+
+            assertFalse(callers.isEmpty());
+            for (Thread caller : callers) {
+                assertSame(Thread.currentThread(), caller);
+            }
+            for (PackedEnergyStorage consumer : packed) {
+                assertEquals(100, consumer.getEnergy());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The most expensive networks come first, ties keep registration order, and the limit is honoured
+     */
+    @Test
+    void testMostExpensiveNetworks() {
+        EnergyNetworkScheduler scheduler = EnergyNetworkScheduler.singleThreaded();
+        long[] nanos = {300, 100, 500, 300};
+        List<CachedEnergyNetwork> networks = new ArrayList<>();
+        for (long tickNanos : nanos) {
+            CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+            network.getTelemetry().setEnabled(true);
+            network.getTelemetry().record(0, 0, 0, tickNanos, 0);
+            scheduler.register(LEVEL, network);
+            networks.add(network);
+        }
+
+        List<CachedEnergyNetwork> expensive = scheduler.getMostExpensiveNetworks(3);
+
+        assertEquals(List.of(networks.get(2), networks.get(0), networks.get(3)), expensive);
+        assertEquals(4, scheduler.getMostExpensiveNetworks(10).size());
+        assertTrue(scheduler.getMostExpensiveNetworks(0).isEmpty());
+    }
+
+    /**
+     * An external storage that records every thread it is called from
+     */
+    private static class RecordingStorage extends SimpleEnergyStorage {
+
+        private final List<Thread> callers;
+
+        RecordingStorage(int capacity, int maxReceive, int maxExtract, int energy, List<Thread> callers) {
+            super(capacity, maxReceive, maxExtract, energy, EnergyType.ELECTRICAL);
+            this.callers = callers;
+        }
+
+        @Override
+        public int receiveEnergy(int maxReceive, boolean simulate) {
+            callers.add(Thread.currentThread());
+            return super.receiveEnergy(maxReceive, simulate);
+        }
+
+        @Override
+        public int extractEnergy(int maxExtract, boolean simulate) {
+            callers.add(Thread.currentThread());
+            return super.extractEnergy(maxExtract, simulate);
+        }
+    }
+}
\ No newline at end of file
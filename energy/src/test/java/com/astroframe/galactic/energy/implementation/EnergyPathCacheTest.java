@@ -0,0 +1,122 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import com.astroframe.galactic.energy.config.EnergyConfig;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for routing energy along the cables of a topology.
+ */
+public class EnergyPathCacheTest {
+
+    private static final Level LEVEL = new Level("minecraft:overworld");
+
+    /**
+     * Routes end at storages, so a machine behind a full battery gets nothing through it
+     */
+    @Test
+    void testRoutesStopAtStorages() {
+        EnergyGridTopology topology = EnergyGridTopology.routed(EnergyType.ELECTRICAL, LEVEL,
+                new EnergyConfig.NetworkSettings(), null);
+        SimpleEnergyStorage generator = generator();
+        SimpleEnergyStorage battery = new SimpleEnergyStorage(1000, 100, 0, 1000, EnergyType.ELECTRICAL);
+        SimpleEnergyStorage machine = consumer(100);
+        topology.addNode(at(0, 0), generator);
+        topology.addCable(at(1, 0));
+        topology.addNode(at(2, 0), battery);
+        topology.addCable(at(3, 0));
+        topology.addNode(at(4, 0), machine);
+
+        CachedEnergyNetwork network = topology.getNetwork(at(0, 0));
+        network.tick();
+
+        EnergyPathCache cache = (EnergyPathCache) network.getDistributor();
+        assertEquals(1, cache.getRoutes(at(0, 0).asLong(), cache.getTicks()).length);
+        assertEquals(0, machine.getEnergy());
+        assertEquals(1000, battery.getEnergy());
+    }
+
+    /**
+     * Cables shared by several routes carry the cable rate once, and the nearest consumer is served first
+     */
+    @Test
+    void testCableRateIsShared() {
+        EnergyConfig.NetworkSettings settings = new EnergyConfig.NetworkSettings();
+        settings.setCableTransferRate(100);
+        EnergyGridTopology topology = EnergyGridTopology.routed(EnergyType.ELECTRICAL, LEVEL, settings, null);
+        SimpleEnergyStorage generator = generator();
+        SimpleEnergyStorage near = consumer(80);
+        SimpleEnergyStorage far = consumer(80);
+        topology.addNode(at(0, 0), generator);
+        for (int x = 1; x <= 3; x++) {
+            topology.addCable(at(x, 0));
+        }
+        topology.addNode(at(2, 1), near);
+        topology.addNode(at(4, 0), far);
+
+        topology.getNetwork(at(0, 0)).tick();
+
+        assertEquals(80, near.getEnergy());
+        assertEquals(20, far.getEnergy());
+        assertEquals(100000 - 100, generator.getEnergy());
+    }
+
+    /**
+     * Storages further away than the maximum transport distance are out of reach
+     */
+    @Test
+    void testMaxTransportDistance() {
+        EnergyConfig.NetworkSettings settings = new EnergyConfig.NetworkSettings();
+        settings.setMaxTransportDistance(3);
+        EnergyGridTopology topology = EnergyGridTopology.routed(EnergyType.ELECTRICAL, LEVEL, settings, null);
+        SimpleEnergyStorage near = consumer(50);
+        SimpleEnergyStorage far = consumer(50);
+        topology.addNode(at(0, 0), generator());
+        for (int x = 1; x <= 3; x++) {
+            topology.addCable(at(x, 0));
+        }
+        topology.addNode(at(1, 1), near);
+        topology.addNode(at(4, 0), far);
+
+        topology.getNetwork(at(0, 0)).tick();
+
+        assertEquals(50, near.getEnergy());
+        assertEquals(0, far.getEnergy());
+    }
+
+    /**
+     * Routes are reused until the topology changes
+     */
+    @Test
+    void testRoutesCachedUntilTopologyChanges() {
+        EnergyGridTopology topology = EnergyGridTopology.routed(EnergyType.ELECTRICAL, LEVEL,
+                new EnergyConfig.NetworkSettings(), null);
+        topology.addNode(at(0, 0), generator());
+        topology.addCable(at(1, 0));
+        topology.addNode(at(2, 0), consumer(50));
+        EnergyPathCache cache = (EnergyPathCache) topology.getNetwork(at(0, 0)).getDistributor();
+        long provider = at(0, 0).asLong();
+
+        EnergyPathCache.Route[] routes = cache.getRoutes(provider, 0);
+        assertSame(routes, cache.getRoutes(provider, 1));
+
+        topology.addCable(at(1, 1));
+        assertNotSame(routes, cache.getRoutes(provider, 1));
+    }
+
+    private static SimpleEnergyStorage generator() {
+        return new SimpleEnergyStorage(100000, 0, 1000, 100000, EnergyType.ELECTRICAL);
+    }
+
+    private static SimpleEnergyStorage consumer(int maxReceive) {
+        return new SimpleEnergyStorage(100000, maxReceive, 0, 0, EnergyType.ELECTRICAL);
+    }
+
+    private static WorldPosition at(int x, int y) {
+        return new WorldPosition(x, 64 + y, 0, LEVEL);
+    }
+}
\ No newline at end of file
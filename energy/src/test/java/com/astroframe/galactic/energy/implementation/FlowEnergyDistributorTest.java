@@ -0,0 +1,204 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyDistributionMode;
+import com.astroframe.galactic.energy.api.EnergyStorage;
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test corpus comparing the flow-solver network tick with the original provider-by-consumer loop.
+ */
+public class FlowEnergyDistributorTest {
+
+    private static final Level LEVEL = new Level("minecraft:overworld");
+
+    /**
+     * One provider feeding consumers that are limited by their receive rate
+     */
+    @Test
+    void testMatchesLegacyWhenDemandLimited() {
+        for (EnergyDistributionMode mode : EnergyDistributionMode.values()) {
+            int[][] layout = {
+                    {10000, 0, 1000, 10000},
+                    {1000, 100, 0, 0},
+                    {1000, 50, 0, 0},
+                    {1000, 75, 0, 200}
+            };
+            assertMatchesLegacy(layout, mode);
+        }
+    }
+
+    /**
+     * One provider whose output divides evenly across identical consumers
+     */
+    @Test
+    void testMatchesLegacyEvenSplit() {
+        int[][] layout = {
+                {10000, 0, 300, 10000},
+                {1000, 1000, 0, 0},
+                {1000, 1000, 0, 0},
+                {1000, 1000, 0, 0}
+        };
+        assertMatchesLegacy(layout, EnergyDistributionMode.PROPORTIONAL);
+    }
+
+    /**
+     * Several providers topping up a single consumer that is limited by its capacity
+     */
+    @Test
+    void testMatchesLegacyProviderOrder() {
+        int[][] layout = {
+                {5000, 0, 400, 5000},
+                {5000, 0, 400, 5000},
+                {5000, 0, 400, 5000},
+                {1000, 10000, 0, 300}
+        };
+        assertMatchesLegacy(layout, EnergyDistributionMode.PRIORITY);
+    }
+
+    /**
+     * Energy must never be created or destroyed, and no node may exceed its rates
+     */
+    @Test
+    void testConservesEnergy() {
+        Random random = new Random(42L);
+        for (EnergyDistributionMode mode : EnergyDistributionMode.values()) {
+            for (int run = 0; run < 50; run++) {
+                int nodes = 2 + random.nextInt(40);
+                int[][] layout = new int[nodes][];
+                for (int i = 0; i < nodes; i++) {
+                    int capacity = 1 + random.nextInt(100000);
+                    layout[i] = new int[] {capacity, random.nextInt(5000), random.nextInt(5000), random.nextInt(capacity + 1)};
+                }
+
+                List<SimpleEnergyStorage> storages = createStorages(layout);
+                CachedEnergyNetwork network = createNetwork(storages, mode);
+                long before = totalEnergy(storages);
+                network.tick();
+                assertEquals(before, totalEnergy(storages));
+
+                for (int i = 0; i < nodes; i++) {
+                    int delta = storages.get(i).getEnergy() - layout[i][3];
+                    assertTrue(delta <= layout[i][1], "node " + i + " received above its rate");
+                    assertTrue(-delta <= layout[i][2], "node " + i + " extracted above its rate");
+                }
+            }
+        }
+    }
+
+    /**
+     * Higher priority consumers are filled before lower priority ones
+     */
+    @Test
+    void testPriorityServesHighestFirst() {
+        SimpleEnergyStorage provider = new SimpleEnergyStorage(1000, 0, 150, 1000, EnergyType.ELECTRICAL);
+        SimpleEnergyStorage low = prioritised(0);
+        SimpleEnergyStorage high = prioritised(10);
+
+        CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL,
+                new FlowEnergyDistributor(EnergyDistributionMode.PRIORITY));
+        network.addStorage(new WorldPosition(0, 0, 0, LEVEL), provider);
+        network.addStorage(new WorldPosition(1, 0, 0, LEVEL), low);
+        network.addStorage(new WorldPosition(2, 0, 0, LEVEL), high);
+        network.tick();
+
+        assertEquals(100, high.getEnergy());
+        assertEquals(50, low.getEnergy());
+        assertEquals(850, provider.getEnergy());
+    }
+
+    private static SimpleEnergyStorage prioritised(int priority) {
+        return new SimpleEnergyStorage(1000, 100, 0, 0, EnergyType.ELECTRICAL) {
+            @Override
+            public int getPriority() {
+                return priority;
+            }
+        };
+    }
+
+    /**
+     * Layout rows are {capacity, maxReceive, maxExtract, energy}.
+     */
+    private static void assertMatchesLegacy(int[][] layout, EnergyDistributionMode mode) {
+        List<SimpleEnergyStorage> expected = createStorages(layout);
+        legacyTick(expected);
+
+        List<SimpleEnergyStorage> actual = createStorages(layout);
+        createNetwork(actual, mode).tick();
+
+        for (int i = 0; i < layout.length; i++) {
+            assertEquals(expected.get(i).getEnergy(), actual.get(i).getEnergy(), mode + " node " + i);
+        }
+    }
+
+    private static List<SimpleEnergyStorage> createStorages(int[][] layout) {
+        List<SimpleEnergyStorage> storages = new ArrayList<>();
+        for (int[] row : layout) {
+            storages.add(new SimpleEnergyStorage(row[0], row[1], row[2], row[3], EnergyType.ELECTRICAL));
+        }
+        return storages;
+    }
+
+    private static CachedEnergyNetwork createNetwork(List<SimpleEnergyStorage> storages, EnergyDistributionMode mode) {
+        CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL, new FlowEnergyDistributor(mode));
+        for (int i = 0; i < storages.size(); i++) {
+            network.addStorage(new WorldPosition(i, 64, 0, LEVEL), storages.get(i));
+        }
+        return network;
+    }
+
+    private static long totalEnergy(List<SimpleEnergyStorage> storages) {
+        long total = 0;
+        for (SimpleEnergyStorage storage : storages) {
+            total += storage.getEnergy();
+        }
+        return total;
+    }
+
+    /**
+     * The original CachedEnergyNetwork.tick() loop, kept as the reference implementation.
+     */
+    private static void legacyTick(List<SimpleEnergyStorage> storages) {
+        List<EnergyStorage> providers = new ArrayList<>();
+        List<EnergyStorage> consumers = new ArrayList<>();
+        for (EnergyStorage storage : storages) {
+            if (storage.canExtract()) {
+                providers.add(storage);
+            }
+            if (storage.canReceive()) {
+                consumers.add(storage);
+            }
+        }
+
+        for (EnergyStorage provider : providers) {
+            int available = provider.extractEnergy(Integer.MAX_VALUE, true);
+            if (available <= 0) {
+                continue;
+            }
+
+            int totalDistributed = 0;
+            int perConsumer = Math.max(1, available / consumers.size());
+            for (EnergyStorage consumer : consumers) {
+                if (totalDistributed >= available) {
+                    break;
+                }
+
+                int toTransfer = Math.min(perConsumer, available - totalDistributed);
+                int accepted = consumer.receiveEnergy(toTransfer, true);
+                if (accepted > 0) {
+                    int extracted = provider.extractEnergy(accepted, false);
+                    consumer.receiveEnergy(extracted, false);
+                    totalDistributed += extracted;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
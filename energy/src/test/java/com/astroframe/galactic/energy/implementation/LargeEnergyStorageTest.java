@@ -0,0 +1,121 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.LongEnergyStorage;
+import com.astroframe.galactic.energy.nbt.CompoundTag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for 64-bit energy storage: its int views, its limits and the tags it reads.
+ */
+public class LargeEnergyStorageTest {
+
+    private static final long TEN_BILLION = 10_000_000_000L;
+    private static final EnergyStorageTemplate CELL = EnergyStorageTemplate.register(
+            new EnergyStorageTemplate("test:large_cell", 2000, 200, 200, EnergyType.ELECTRICAL));
+
+    /**
+     * Int callers see energy and capacity beyond the int range as Integer.MAX_VALUE, and can still move energy
+     */
+    @Test
+    void testIntViewsSaturate() {
+        LargeEnergyStorage storage = new LargeEnergyStorage(TEN_BILLION, TEN_BILLION, TEN_BILLION, 5_000_000_000L,
+                EnergyType.ELECTRICAL);
+
+        assertEquals(Integer.MAX_VALUE, storage.getEnergy());
+        assertEquals(Integer.MAX_VALUE, storage.getMaxEnergy());
+        assertEquals(5_000_000_000L, storage.getEnergyLong());
+
+        assertEquals(1000, storage.receiveEnergy(1000, false));
+        assertEquals(Integer.MAX_VALUE, storage.extractEnergy(Integer.MAX_VALUE, false));
+        assertEquals(5_000_001_000L - Integer.MAX_VALUE, storage.getEnergyLong());
+
+        assertEquals(Integer.MAX_VALUE, LongEnergyStorage.saturate(TEN_BILLION));
+        assertEquals(Integer.MIN_VALUE, LongEnergyStorage.saturate(-TEN_BILLION));
+        assertEquals(42, LongEnergyStorage.saturate(42));
+    }
+
+    /**
+     * 64-bit transfers are limited by the rates, the free space and the stored energy, and simulating changes nothing
+     */
+    @Test
+    void testLongTransferLimits() {
+        LargeEnergyStorage storage = new LargeEnergyStorage(TEN_BILLION, 3_000_000_000L, 4_000_000_000L, 0,
+                EnergyType.ELECTRICAL);
+
+        assertEquals(3_000_000_000L, storage.receiveEnergyLong(5_000_000_000L, true));
+        assertEquals(0, storage.getEnergyLong());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(3_000_000_000L, storage.receiveEnergyLong(5_000_000_000L, false));
+        }
+        assertEquals(1_000_000_000L, storage.receiveEnergyLong(5_000_000_000L, false));
+        assertEquals(TEN_BILLION, storage.getEnergyLong());
+
+        assertEquals(4_000_000_000L, storage.extractEnergyLong(TEN_BILLION, false));
+        assertEquals(0, storage.extractEnergyLong(-1, false));
+        assertEquals(0, storage.receiveEnergyLong(0, false));
+        assertEquals(6_000_000_000L, storage.getEnergyLong());
+
+        LargeEnergyStorage target = new LargeEnergyStorage(TEN_BILLION, EnergyType.ELECTRICAL);
+        assertEquals(4_000_000_000L, LongEnergyStorage.transfer(storage, target, TEN_BILLION));
+        assertEquals(2_000_000_000L, storage.getEnergyLong());
+        assertEquals(4_000_000_000L, target.getEnergyLong());
+
+        // An int storage behind the adapter keeps its int limits
+        SimpleEnergyStorage small = new SimpleEnergyStorage(1000);
+        assertEquals(1000, LongEnergyStorage.transfer(target, small, TEN_BILLION));
+        assertEquals(1000, small.getEnergy());
+        assertEquals(3_999_999_000L, target.getEnergyLong());
+    }
+
+    /**
+     * Full, template, energy-only and unversioned tags written for SimpleEnergyStorage load into a large storage
+     */
+    @Test
+    void testReadsSimpleEnergyStorageTags() {
+        CompoundTag full = new SimpleEnergyStorage(5000, 200, 50, 1234, EnergyType.THERMAL).serializeNBT(new CompoundTag());
+        assertState(load(full), 1234, 5000, 200, 50, EnergyType.THERMAL);
+
+        SimpleEnergyStorage cell = CELL.create();
+        cell.setMaxExtract(20);
+        cell.receiveEnergy(150, false);
+        assertState(load(cell.serializeNBT(new CompoundTag())), 150, 2000, 200, 20, EnergyType.ELECTRICAL);
+        cell.receiveEnergy(50, false);
+        CompoundTag delta = new CompoundTag();
+        assertTrue(cell.serializeChanges(delta));
+        LargeEnergyStorage updated = load(cell.serializeNBT(new CompoundTag()));
+        updated.extractEnergy(200, false);
+        updated.deserializeNBT(delta);
+        assertState(updated, 200, 2000, 200, 20, EnergyType.ELECTRICAL);
+
+        CompoundTag unversioned = new CompoundTag();
+        unversioned.putInt("Energy", 70);
+        unversioned.putInt("Capacity", 300);
+        unversioned.putInt("MaxReceive", 30);
+        unversioned.putInt("MaxExtract", 10);
+        unversioned.putString("EnergyType", EnergyType.KINETIC.getId());
+        assertState(load(unversioned), 70, 300, 30, 10, EnergyType.KINETIC);
+
+        LargeEnergyStorage large = new LargeEnergyStorage(TEN_BILLION, 3_000_000_000L, 4_000_000_000L, 5_000_000_000L,
+                EnergyType.KINETIC);
+        assertState(load(large.serializeNBT(new CompoundTag())), 5_000_000_000L, TEN_BILLION, 3_000_000_000L,
+                4_000_000_000L, EnergyType.KINETIC);
+    }
+
+    private static LargeEnergyStorage load(CompoundTag tag) {
+        LargeEnergyStorage storage = new LargeEnergyStorage(1, EnergyType.ELECTRICAL);
+        storage.deserializeNBT(tag);
+        return storage;
+    }
+
+    private static void assertState(LargeEnergyStorage storage, long energy, long capacity, long maxReceive,
+                                    long maxExtract, EnergyType energyType) {
+        assertEquals(energy, storage.getEnergyLong());
+        assertEquals(capacity, storage.getMaxEnergyLong());
+        assertEquals(maxReceive, storage.maxReceive);
+        assertEquals(maxExtract, storage.maxExtract);
+        assertEquals(energyType, storage.getEnergyType());
+    }
+}
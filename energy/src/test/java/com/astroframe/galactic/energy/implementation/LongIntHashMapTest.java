@@ -0,0 +1,91 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the open-addressing map behind network membership, in particular backward-shift deletion.
+ */
+public class LongIntHashMapTest {
+
+    private static final int MISSING = -1;
+
+    /**
+     * Removing entries from the middle of probe runs keeps every other entry reachable
+     */
+    @Test
+    void testRemoveKeepsProbeRunsIntact() {
+        // A small, fixed table with many keys makes long probe runs that wrap around
+        LongIntHashMap map = new LongIntHashMap(4, MISSING);
+        List<Long> keys = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            long key = WorldPosition.asLong(i, 64, -i);
+            keys.add(key);
+            map.put(key, i);
+        }
+
+        for (int removed = 0; removed < keys.size(); removed += 2) {
+            assertEquals(removed, map.remove(keys.get(removed)));
+            assertEquals(MISSING, map.get(keys.get(removed)));
+            for (int i = 0; i < keys.size(); i++) {
+                if (i % 2 == 1 || i > removed) {
+                    assertEquals(i, map.get(keys.get(i)), "key " + i + " lost after removing " + removed);
+                }
+            }
+        }
+        assertEquals(4, map.size());
+    }
+
+    /**
+     * Random puts and removes over a small key space agree with a HashMap
+     */
+    @Test
+    void testMatchesHashMap() {
+        Random random = new Random(42);
+        LongIntHashMap map = new LongIntHashMap(MISSING);
+        Map<Long, Integer> expected = new HashMap<>();
+
+        for (int step = 0; step < 20000; step++) {
+            long key = random.nextInt(300) * 0x9E3779B97F4A7C15L;
+            if (random.nextInt(3) == 0) {
+                Integer previous = expected.remove(key);
+                assertEquals(previous != null ? previous : MISSING, map.remove(key));
+            } else {
+                int value = random.nextInt(1000);
+                Integer previous = expected.put(key, value);
+                assertEquals(previous != null ? previous : MISSING, map.put(key, value));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+
+        for (int i = 0; i < 300; i++) {
+            long key = i * 0x9E3779B97F4A7C15L;
+            Integer value = expected.get(key);
+            assertEquals(value != null ? value : MISSING, map.get(key));
+            assertEquals(value != null, map.containsKey(key));
+        }
+    }
+
+    /**
+     * Long.MIN_VALUE marks empty buckets internally but is still a valid key
+     */
+    @Test
+    void testEmptyMarkerIsAValidKey() {
+        LongIntHashMap map = new LongIntHashMap(MISSING);
+        assertEquals(MISSING, map.put(Long.MIN_VALUE, 7));
+        map.put(0L, 3);
+        assertEquals(7, map.get(Long.MIN_VALUE));
+        assertEquals(2, map.size());
+        assertEquals(7, map.remove(Long.MIN_VALUE));
+        assertFalse(map.containsKey(Long.MIN_VALUE));
+        assertEquals(3, map.get(0L));
+    }
+}
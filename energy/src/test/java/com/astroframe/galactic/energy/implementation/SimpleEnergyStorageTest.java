@@ -0,0 +1,153 @@
+package com.astroframe.galactic.energy.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.Level;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import com.astroframe.galactic.energy.nbt.CompoundTag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for saving and loading energy storages, standalone and packed into a network.
+ */
+public class SimpleEnergyStorageTest {
+
+    private static final Level LEVEL = new Level("minecraft:overworld");
+    private static final EnergyStorageTemplate BATTERY = EnergyStorageTemplate.register(
+            new EnergyStorageTemplate("test:battery", 1000, 100, 100, EnergyType.ELECTRICAL));
+
+    /**
+     * A storage without a template saves its whole configuration, leaving out only the default type
+     */
+    @Test
+    void testFullTagRoundTrip() {
+        SimpleEnergyStorage original = new SimpleEnergyStorage(5000, 200, 50, 1234, EnergyType.THERMAL);
+        CompoundTag tag = original.serializeNBT(new CompoundTag());
+
+        assertState(load(new SimpleEnergyStorage(1), tag), 1234, 5000, 200, 50, EnergyType.THERMAL);
+        assertState(load(packed(), tag), 1234, 5000, 200, 50, EnergyType.THERMAL);
+        assertFalse(new SimpleEnergyStorage(10).serializeNBT(new CompoundTag()).contains("EnergyType"));
+    }
+
+    /**
+     * A storage made from a template saves only its energy and the values that differ from the template
+     */
+    @Test
+    void testTemplateTagRoundTrip() {
+        SimpleEnergyStorage original = BATTERY.create();
+        original.setMaxExtract(20);
+        original.receiveEnergy(100, false);
+        CompoundTag tag = original.serializeNBT(new CompoundTag());
+
+        assertFalse(tag.contains("Capacity"));
+        assertFalse(tag.contains("MaxReceive"));
+        assertTrue(tag.contains("MaxExtract"));
+        SimpleEnergyStorage loaded = load(new SimpleEnergyStorage(1), tag);
+        assertState(loaded, 100, 1000, 100, 20, EnergyType.ELECTRICAL);
+        assertSame(BATTERY, loaded.getTemplate());
+        assertState(load(packed(), tag), 100, 1000, 100, 20, EnergyType.ELECTRICAL);
+    }
+
+    /**
+     * Values a tag leaves out because its template is unknown keep the packed node's current values
+     */
+    @Test
+    void testUnknownTemplateKeepsPackedNodeConfiguration() {
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("Version", SimpleEnergyStorage.NBT_VERSION);
+        tag.putString("Template", "test:missing");
+        tag.putInt("Energy", 600);
+
+        PackedEnergyStorage node = packed();
+        node.deserializeNBT(tag);
+
+        assertState(node, 600, 1000, 100, 100, EnergyType.ELECTRICAL);
+    }
+
+    /**
+     * Tags written before versioning hold every value and still load
+     */
+    @Test
+    void testUnversionedTag() {
+        CompoundTag tag = new CompoundTag();
+        tag.putInt("Energy", 70);
+        tag.putInt("Capacity", 300);
+        tag.putInt("MaxReceive", 30);
+        tag.putInt("MaxExtract", 10);
+        tag.putString("EnergyType", EnergyType.KINETIC.getId());
+
+        assertState(load(new SimpleEnergyStorage(1), tag), 70, 300, 30, 10, EnergyType.KINETIC);
+        assertState(load(packed(), tag), 70, 300, 30, 10, EnergyType.KINETIC);
+    }
+
+    /**
+     * A saved or loaded storage is clean; afterwards only the energy is written while the configuration is unchanged
+     */
+    @Test
+    void testChangesWriteOnlyWhatMoved() {
+        SimpleEnergyStorage storage = BATTERY.create();
+        assertTrue(storage.isDirty());
+        CompoundTag full = storage.serializeNBT(new CompoundTag());
+        assertFalse(storage.isDirty());
+        assertFalse(storage.serializeChanges(new CompoundTag()));
+
+        storage.receiveEnergy(80, false);
+        assertTrue(storage.isDirty());
+        assertFalse(storage.isConfigDirty());
+        CompoundTag delta = new CompoundTag();
+        assertTrue(storage.serializeChanges(delta));
+        assertEquals(1, delta.getInt("Delta"));
+        assertEquals(80, delta.getInt("Energy"));
+        assertFalse(delta.contains("Template"));
+        assertFalse(storage.isDirty());
+
+        SimpleEnergyStorage loaded = load(load(new SimpleEnergyStorage(1), full), delta);
+        assertState(loaded, 80, 1000, 100, 100, EnergyType.ELECTRICAL);
+        assertFalse(loaded.isDirty());
+        assertState(load(load(packed(), full), delta), 80, 1000, 100, 100, EnergyType.ELECTRICAL);
+
+        storage.setMaxExtract(20);
+        assertTrue(storage.isConfigDirty());
+        CompoundTag changed = new CompoundTag();
+        assertTrue(storage.serializeChanges(changed));
+        assertEquals(0, changed.getInt("Delta"));
+        assertState(load(new SimpleEnergyStorage(1), changed), 80, 1000, 100, 20, EnergyType.ELECTRICAL);
+        assertFalse(storage.isDirty());
+    }
+
+    /**
+     * A packed node is clean once loaded, and the energy the network moves afterwards makes it dirty
+     */
+    @Test
+    void testPackedNodeIsCleanAfterLoading() {
+        PackedEnergyStorage node = load(packed(), BATTERY.create().serializeNBT(new CompoundTag()));
+        assertFalse(node.isDirty());
+
+        node.receiveEnergy(30, false);
+        assertTrue(node.isDirty());
+        assertFalse(node.isConfigDirty());
+    }
+
+    /**
+     * A packed node at 400 / 1000 with rates 100 / 100 inside a network
+     */
+    private static PackedEnergyStorage packed() {
+        CachedEnergyNetwork network = new CachedEnergyNetwork(EnergyType.ELECTRICAL, LEVEL);
+        return network.createStorage(new WorldPosition(0, 64, 0, LEVEL), 1000, 100, 100, 400);
+    }
+
+    private static <T extends SimpleEnergyStorage> T load(T storage, CompoundTag tag) {
+        storage.deserializeNBT(tag);
+        return storage;
+    }
+
+    private static void assertState(SimpleEnergyStorage storage, int energy, int capacity, int maxReceive,
+                                    int maxExtract, EnergyType energyType) {
+        assertEquals(energy, storage.getEnergy());
+        assertEquals(capacity, storage.getMaxEnergy());
+        assertEquals(maxReceive, storage.getMaxReceive());
+        assertEquals(maxExtract, storage.getMaxExtract());
+        assertEquals(energyType, storage.getEnergyType());
+    }
+}
\ No newline at end of file
@@ -46,6 +46,9 @@ public class GalacticMachinery {
         // Initialize registries
         MachineryRegistry.register(modEventBus);
         
+        // Machines tick through a per-dimension wake-up scheduler rather than every block entity ticker
+        MachineSchedulers.register();
+        
         LOGGER.info("Galactic Machinery module initialized");
     }
     
@@ -0,0 +1,91 @@
+package com.astroframe.galactic.machinery;
+
+import com.astroframe.galactic.machinery.implementation.MachineScheduler;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps one {@link MachineScheduler} per server dimension and runs it after every level tick.
+ * Machine block entities that return a machine from
+ * {@link com.astroframe.galactic.machinery.api.MachineBlockEntity#getScheduledMachine()} add it
+ * to the scheduler of their level when loaded and remove it when unloaded or removed; blocks of
+ * such entities return no ticker, so a machine is never both polled and scheduled.
+ * <p>
+ * Schedulers cluster adjacent identical machines unless clustering is turned off with
+ * {@link #setClustering(boolean)}.
+ */
+public final class MachineSchedulers {
+
+    private static final Map<Level, MachineScheduler> SCHEDULERS = new HashMap<>();
+
+    private static boolean clustering = true;
+
+    private MachineSchedulers() {
+    }
+
+    /**
+     * Register the level event listeners on the NeoForge event bus.
+     */
+    public static void register() {
+        NeoForge.EVENT_BUS.addListener(MachineSchedulers::onLevelTickPost);
+        NeoForge.EVENT_BUS.addListener(MachineSchedulers::onLevelUnload);
+    }
+
+    /**
+     * Get the machine scheduler of a server dimension, creating it if needed.
+     *
+     * @param level The level
+     * @return The scheduler
+     */
+    public static MachineScheduler get(ServerLevel level) {
+        return SCHEDULERS.computeIfAbsent(level, key -> {
+            MachineScheduler scheduler = new MachineScheduler();
+            scheduler.setClustering(clustering);
+            return scheduler;
+        });
+    }
+
+    /**
+     * Check whether the schedulers cluster adjacent identical machines.
+     *
+     * @return True if clustering is enabled
+     */
+    public static boolean isClustering() {
+        return clustering;
+    }
+
+    /**
+     * Enable or disable clustering in every current and future scheduler.
+     *
+     * @param enabled True to merge adjacent identical machines
+     */
+    public static void setClustering(boolean enabled) {
+        clustering = enabled;
+        for (MachineScheduler scheduler : SCHEDULERS.values()) {
+            scheduler.setClustering(enabled);
+        }
+    }
+
+    private static void onLevelTickPost(LevelTickEvent.Post event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) {
+            return;
+        }
+
+        MachineScheduler scheduler = SCHEDULERS.get(level);
+        if (scheduler != null) {
+            scheduler.tick(level.getGameTime());
+        }
+    }
+
+    private static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof ServerLevel level) {
+            SCHEDULERS.remove(level);
+        }
+    }
+}
\ No newline at end of file
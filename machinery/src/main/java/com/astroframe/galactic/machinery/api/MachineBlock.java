@@ -41,24 +41,35 @@ public abstract class MachineBlock extends net.minecraft.world.level.block.Block
         this.blockEntityTypeSupplier = () -> null;
     }
     
+    /**
+     * Checks whether this block's entities run on the level's machine scheduler, as their
+     * {@link MachineBlockEntity#getScheduledMachine()} returns a machine. Such blocks get no ticker.
+     *
+     * @return True if the block entities are scheduled rather than ticked
+     */
+    protected boolean isScheduled() {
+        return false;
+    }
+    
     /**
      * Helper method to create a ticker for machine block entities.
-     * This handles the casting required.
+     * This handles the casting required. Scheduled machines get no ticker, and a block entity
+     * with a scheduled machine is skipped even if its block asked for one.
      *
      * @param <T> The BlockEntity type
      * @param level The level
      * @param state The block state
      * @param blockEntityType The block entity type
-     * @return The ticker or null if the types don't match
+     * @return The ticker, or null on the client or for scheduled machines
      */
     @Nullable
     protected <T extends BlockEntity> BlockEntityTicker<T> createMachineTicker(Level level, BlockState state, BlockEntityType<T> blockEntityType) {
-        if (level.isClientSide()) {
+        if (level.isClientSide() || isScheduled()) {
             return null;
         }
         
         return (world, pos, blockState, blockEntity) -> {
-            if (blockEntity instanceof MachineBlockEntity machineEntity) {
+            if (blockEntity instanceof MachineBlockEntity machineEntity && machineEntity.getScheduledMachine() == null) {
                 machineEntity.serverTick(world, pos, blockState);
             }
         };
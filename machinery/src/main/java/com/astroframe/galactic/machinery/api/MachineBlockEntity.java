@@ -1,6 +1,10 @@
 package com.astroframe.galactic.machinery.api;
 
+import com.astroframe.galactic.machinery.MachineSchedulers;
+import com.astroframe.galactic.machinery.implementation.BaseMachine;
+import com.astroframe.galactic.machinery.implementation.MachineScheduler;
 import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemStack;
@@ -10,9 +14,17 @@ import net.minecraft.world.level.block.entity.BlockEntityType;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.BlockHitResult;
 
+import javax.annotation.Nullable;
+
 /**
  * Base interface for all machine block entities in the mod.
  * This provides a common API for machine functionality.
+ * <p>
+ * A block entity whose work is done by a {@link BaseMachine} can hand it to the level's
+ * {@link MachineScheduler} by returning it from {@link #getScheduledMachine()}. The machine is
+ * then added to the scheduler when the block entity loads and removed when it unloads or is
+ * removed, and {@link #serverTick} is never called; its block should return true from
+ * {@link MachineBlock#isScheduled()} so it gets no ticker at all.
  */
 public abstract class MachineBlockEntity extends BlockEntity {
     
@@ -46,8 +58,47 @@ public abstract class MachineBlockEntity extends BlockEntity {
     public abstract InteractionResult onBlockActivated(BlockState state, Level level, BlockPos pos, 
             Player player, net.minecraft.world.InteractionHand hand, BlockHitResult hit);
             
+    /**
+     * Gets the machine the level's {@link MachineScheduler} runs for this block entity.
+     * 
+     * @return The machine, or null if this block entity is ticked with {@link #serverTick}
+     */
+    @Nullable
+    protected BaseMachine getScheduledMachine() {
+        return null;
+    }
+    
+    @Override
+    public void onLoad() {
+        super.onLoad();
+        BaseMachine machine = getScheduledMachine();
+        if (machine != null && level instanceof ServerLevel serverLevel) {
+            MachineSchedulers.get(serverLevel).add(machine, serverLevel, worldPosition);
+        }
+    }
+    
+    @Override
+    public void onChunkUnloaded() {
+        super.onChunkUnloaded();
+        unschedule();
+    }
+    
+    @Override
+    public void setRemoved() {
+        super.setRemoved();
+        unschedule();
+    }
+    
+    private void unschedule() {
+        BaseMachine machine = getScheduledMachine();
+        if (machine != null && machine.getScheduler() != null) {
+            machine.getScheduler().remove(machine);
+        }
+    }
+    
     /**
      * Updates the block entity every tick on the server side.
+     * Not called for block entities with a {@link #getScheduledMachine() scheduled machine}.
      * 
      * @param level The level
      * @param pos The position  
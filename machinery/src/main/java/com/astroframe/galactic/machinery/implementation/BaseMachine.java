@@ -1,8 +1,12 @@
 package com.astroframe.galactic.machinery.implementation;
 
 import com.astroframe.galactic.core.api.energy.IEnergyHandler;
+import com.astroframe.galactic.energy.api.EnergyNetwork;
 import com.astroframe.galactic.energy.api.EnergyStorage;
 import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.api.energynetwork.WorldPosition;
+import com.astroframe.galactic.energy.implementation.SimpleEnergyStorage;
+import com.astroframe.galactic.energy.nbt.CompoundTag;
 import com.astroframe.galactic.machinery.api.Machine;
 import com.astroframe.galactic.machinery.api.MachineType;
 import net.minecraft.core.BlockPos;
@@ -16,9 +20,36 @@ import java.util.Optional;
 /**
  * Base implementation of the Machine interface.
  * This provides common functionality for all machines.
+ * <p>
+ * A machine can be ticked every game tick with {@link #tick(Level, BlockPos)}, or handed to a
+ * {@link MachineScheduler}, which calls {@link #advance} only when the machine is due to finish
+ * an operation or has been woken by an event with {@link #requestWake()}. While scheduled,
+ * {@link #tick(Level, BlockPos)} does nothing, so the machine never runs twice in a tick.
+ * <p>
+ * Progress is counted in integer units: an operation is {@code processingTime} ticks of
+ * {@link #PROGRESS_PER_TICK} units each, and a tick adds that many units scaled by efficiency.
+ * The per-tick energy cost and progress step are worked out once, whenever processing time or
+ * energy use change, so a tick only adds and compares integers, completion always lands on the
+ * same tick, and a saved machine resumes exactly where it stopped.
+ * <p>
+ * A machine on an energy network can register its next-tick demand with
+ * {@link #registerDemand(EnergyNetwork, WorldPosition)}, so the network delivers what the
+ * machine will actually draw instead of topping its storage up to capacity.
  */
 public abstract class BaseMachine implements Machine {
     
+    /** Returned by {@link #advance} when the machine has nothing to do until an event wakes it */
+    public static final int WAIT_FOR_EVENT = Integer.MAX_VALUE;
+    
+    /** Ticks a scheduled machine that is short of energy waits before it checks its storage again */
+    public static final int ENERGY_RETRY_TICKS = 20;
+    
+    /** Progress units one tick of processing adds at full efficiency */
+    public static final int PROGRESS_PER_TICK = 1000;
+    
+    /** Longest operation whose length in progress units still fits an int */
+    public static final int MAX_PROCESSING_TIME = (Integer.MAX_VALUE - PROGRESS_PER_TICK) / PROGRESS_PER_TICK;
+    
     protected final String name;
     protected final MachineType type;
     protected final EnergyStorage energyStorage;
@@ -26,10 +57,32 @@ public abstract class BaseMachine implements Machine {
     protected final float efficiency;
     
     protected boolean active;
-    protected float progress;
+    // Progress in units, not the 0..1 fraction: read it with getProgress() or getProgressUnits()
+    int progressUnits;
     protected int processingTime;
     protected int energyPerTick;
     
+    // Derived from efficiency, processingTime and energyPerTick by updateTickCosts()
+    private int progressStep;
+    private int operationLength;
+    private int energyCost;
+    
+    private Runnable wakeListener;
+    
+    // Last full tag of a SimpleEnergyStorage, refreshed from its changes on each save; null until the first save
+    private CompoundTag energyTag;
+    
+    // True while the last advance() left the machine progressing, so elapsed ticks count as work
+    boolean running;
+    // True while the last advance() left the machine short of energy, mid-operation or unable to
+    // start; elapsed ticks then count as work as far as its storage can pay for them
+    boolean energyStalled;
+    // Set while a MachineScheduler runs this machine; progress is as of tick advancedAt
+    MachineScheduler scheduler;
+    long advancedAt;
+    // Ticks slept through before the machine was saved, credited on its next advance()
+    int owedTicks;
+    
     /**
      * Construct a new base machine.
      * 
@@ -47,9 +100,10 @@ public abstract class BaseMachine implements Machine {
         this.energyStorage = energyStorage;
         this.efficiency = Math.max(0.1f, Math.min(1.0f, efficiency)); // Clamp between 0.1 and 1.0
         this.active = false;
-        this.progress = 0.0f;
-        this.processingTime = Math.max(1, processingTime);
+        this.progressUnits = 0;
+        this.processingTime = Math.max(1, Math.min(MAX_PROCESSING_TIME, processingTime));
         this.energyPerTick = Math.max(0, energyPerTick);
+        updateTickCosts();
         
         // Initialize acceptable energy types based on the provided energy storage
         this.acceptableEnergyTypes = new ArrayList<>();
@@ -103,35 +157,427 @@ public abstract class BaseMachine implements Machine {
     
     @Override
     public void tick(Level level, BlockPos pos) {
-        if (!active) {
-            return;
+        if (!active || scheduler != null) {
+            return; // A scheduled machine only runs through advance()
         }
         
-        // Check if we need energy and have enough
-        if (energyStorage != null && energyPerTick > 0) {
-            int energyExtracted = energyStorage.extractEnergy(
-                    Math.round(energyPerTick / efficiency), false);
-            
-            if (energyExtracted < Math.round(energyPerTick / efficiency)) {
-                // Not enough energy, pause processing
-                return;
+        tickActive();
+    }
+    
+    /**
+     * Catch up on the ticks that passed since the {@link MachineScheduler} last ran this machine,
+     * and report when it next needs to run. An inactive machine tries to start first.
+     * Elapsed ticks only count as work if the machine was progressing or waiting for energy
+     * when it went to sleep, and only as many as its storage pays for; a machine that was idle
+     * for any other reason, or was woken by {@link #requestWake()} while inactive, is credited
+     * with a single tick.
+     * 
+     * @param level The world
+     * @param pos The machine position
+     * @param elapsedTicks The game ticks since the last call
+     * @return The ticks until the machine next needs to run, or {@link #WAIT_FOR_EVENT}
+     */
+    public int advance(Level level, BlockPos pos, int elapsedTicks) {
+        int ticks = running || energyStalled ? (int) Math.max(1, Math.min(Integer.MAX_VALUE, (long) elapsedTicks + owedTicks)) : 1;
+        owedTicks = 0;
+        running = false;
+        energyStalled = false;
+        if (!active && !start()) {
+            return idleResumeDelay();
+        }
+        
+        // Pay for and add up whole runs of ticks, stopping at each completion
+        while (ticks > 0) {
+            int block = Math.min(ticks, getTicksUntilCompletion());
+            int paid = payForTicks(block);
+            progressUnits += paid * progressStep;
+            ticks -= paid;
+            if (progressUnits >= operationLength) {
+                finishOperation();
+            }
+            if (paid < block || !active) {
+                return resumeDelay(paid < block);
+            }
+        }
+        return resumeDelay(false);
+    }
+    
+    /**
+     * Work out when a scheduled machine next needs to run, after it was advanced.
+     * It never sleeps longer than {@link #getMaxSleepTicks()}.
+     * 
+     * @param stalled True if the machine could not pay for a tick
+     * @return The delay in ticks, or {@link #WAIT_FOR_EVENT}
+     */
+    int resumeDelay(boolean stalled) {
+        running = false;
+        energyStalled = false;
+        if (!active) {
+            return idleResumeDelay();
+        }
+        if (stalled) {
+            energyStalled = true;
+            return Math.min(ENERGY_RETRY_TICKS, getMaxSleepTicks());
+        }
+        running = true;
+        return Math.min(getTicksUntilCompletion(), getMaxSleepTicks());
+    }
+    
+    // A machine that is only short of energy retries before its storage could fill up, and is
+    // credited with the ticks it waited as if it had been polled every tick
+    private int idleResumeDelay() {
+        int delay = getIdleWakeDelay();
+        if (delay != WAIT_FOR_EVENT && energyStorage != null && energyCost > 0 && energyStorage.getEnergy() < energyCost) {
+            energyStalled = true;
+            delay = Math.min(delay, getMaxSleepTicks());
+        }
+        return delay;
+    }
+    
+    /**
+     * Get the most ticks a scheduled machine that is processing may sleep: as many as its storage
+     * pays for when full. A storage filled by a network while the machine sleeps stops filling at
+     * capacity, so a longer sleep would lose energy a per-tick machine would have used.
+     * 
+     * @return The tick limit, or {@link #WAIT_FOR_EVENT} if the machine uses no energy
+     */
+    int getMaxSleepTicks() {
+        if (energyStorage == null || energyCost == 0) {
+            return WAIT_FOR_EVENT;
+        }
+        return Math.max(1, energyStorage.getMaxEnergy() / energyCost);
+    }
+    
+    /**
+     * Get the scheduler running this machine.
+     * 
+     * @return The scheduler, or null if the machine is ticked with {@link #tick(Level, BlockPos)}
+     */
+    public MachineScheduler getScheduler() {
+        return scheduler;
+    }
+    
+    /**
+     * Get what, besides type, tier and tick costs, must match for machines to be ticked together
+     * in a {@link MachineScheduler} cluster, e.g. the recipe being processed.
+     * 
+     * @return The cluster key, or null if nothing else has to match
+     */
+    protected Object getClusterKey() {
+        return null;
+    }
+    
+    /**
+     * Get the number of ticks, including the next one, until the current operation completes.
+     * 
+     * @return The remaining ticks, or {@link #WAIT_FOR_EVENT} if the machine is inactive
+     */
+    public int getTicksUntilCompletion() {
+        if (!active) {
+            return WAIT_FOR_EVENT;
+        }
+        return Math.max(1, (operationLength - progressUnits + progressStep - 1) / progressStep);
+    }
+    
+    /**
+     * Get the current progress in progress units. For a machine asleep in a {@link MachineScheduler},
+     * this includes the ticks since it last ran, as they will be credited when it wakes.
+     * 
+     * @return The progress, from 0 up to {@link #getOperationLength()}
+     */
+    public int getProgressUnits() {
+        if (running) {
+            long behind = getSleptTicks();
+            if (behind > 0) {
+                return (int) Math.min(operationLength - 1, progressUnits + behind * progressStep);
+            }
+        }
+        return progressUnits;
+    }
+    
+    /**
+     * Set the progress of the current operation, e.g. from a subclass restoring its own state.
+     * The operation completes on the next tick at the earliest.
+     * 
+     * @param progress The progress, from 0.0 to 1.0
+     */
+    protected void setProgress(float progress) {
+        progressUnits = Math.max(0, Math.min(operationLength - 1, Math.round(progress * operationLength)));
+        requestWake();
+    }
+    
+    // Ticks this machine has slept through that its next advance() will credit
+    long getSleptTicks() {
+        long slept = owedTicks;
+        if (scheduler != null) {
+            slept += Math.max(0, scheduler.getCurrentTick() - advancedAt);
+        }
+        return slept;
+    }
+    
+    /**
+     * Get the progress units one operation takes.
+     * 
+     * @return The operation length
+     */
+    public int getOperationLength() {
+        return operationLength;
+    }
+    
+    /**
+     * Get the progress units one paid tick adds at this machine's efficiency.
+     * 
+     * @return The progress step
+     */
+    public int getProgressStep() {
+        return progressStep;
+    }
+    
+    /**
+     * Get the energy one tick of processing costs at this machine's efficiency.
+     * 
+     * @return The energy cost per tick
+     */
+    public int getEnergyCostPerTick() {
+        return energyCost;
+    }
+    
+    /**
+     * Get the energy this machine will draw on its next tick. An active machine needs its per-tick
+     * cost; an idle one only what it lacks of one tick's worth, so it can start as soon as it has work.
+     * 
+     * @return The next-tick demand
+     */
+    public int getNextTickDemand() {
+        if (energyStorage == null || energyCost == 0) {
+            return 0;
+        }
+        if (active) {
+            return energyCost;
+        }
+        return Math.max(0, energyCost - energyStorage.getEnergy());
+    }
+    
+    /**
+     * Register this machine's next-tick demand with the network its storage belongs to.
+     * The network then asks {@link #getNextTickDemand()} once per tick and delivers exactly that.
+     * Must be called again if the storage is removed from the network and added back.
+     * 
+     * @param network The energy network
+     * @param position The position the machine's storage was added at
+     * @return True if the network honours the registration
+     */
+    public boolean registerDemand(EnergyNetwork network, WorldPosition position) {
+        return network.registerDemand(position, this::getNextTickDemand);
+    }
+    
+    /**
+     * Get the base time one operation takes.
+     * 
+     * @return The processing time in ticks
+     */
+    public int getProcessingTime() {
+        return processingTime;
+    }
+    
+    /**
+     * Set the base time one operation takes. Progress already made is kept, but capped so the
+     * operation completes on the next tick at the latest.
+     * 
+     * @param processingTime The processing time in ticks
+     */
+    public void setProcessingTime(int processingTime) {
+        this.processingTime = Math.max(1, Math.min(MAX_PROCESSING_TIME, processingTime));
+        updateTickCosts();
+        progressUnits = Math.min(progressUnits, operationLength - 1);
+        requestWake();
+    }
+    
+    /**
+     * Get the energy consumed per tick at full efficiency.
+     * 
+     * @return The base energy per tick
+     */
+    public int getEnergyPerTick() {
+        return energyPerTick;
+    }
+    
+    /**
+     * Set the energy consumed per tick at full efficiency.
+     * 
+     * @param energyPerTick The base energy per tick
+     */
+    public void setEnergyPerTick(int energyPerTick) {
+        this.energyPerTick = Math.max(0, energyPerTick);
+        updateTickCosts();
+        requestWake();
+    }
+    
+    /**
+     * Save the progress state. Saving changes nothing: a scheduled machine that is asleep saves the
+     * progress of its last run and the ticks it has slept through since, which it is credited with,
+     * and pays for, on its next run after loading, exactly as it would have been had it stayed loaded.
+     * <p>
+     * A {@link SimpleEnergyStorage} is saved alongside, under its own keys. The machine keeps the
+     * storage's last full tag and only asks the storage for its changes: nothing when it is clean,
+     * just the energy when only the energy moved, and a new full tag when its configuration changed.
+     * 
+     * @param tag The tag to write to
+     * @return The tag
+     */
+    public CompoundTag serializeNBT(CompoundTag tag) {
+        tag.putInt("Active", active ? 1 : 0);
+        tag.putInt("Progress", progressUnits);
+        long slept = running || energyStalled ? getSleptTicks() : 0;
+        if (slept > 0) {
+            tag.putInt("Slept", (int) Math.min(Integer.MAX_VALUE, slept));
+            tag.putInt("Stalled", energyStalled ? 1 : 0);
+        }
+        if (energyStorage instanceof SimpleEnergyStorage storage) {
+            tag.merge(saveEnergy(storage));
+        }
+        return tag;
+    }
+    
+    /**
+     * Restore the progress state saved by {@link #serializeNBT(CompoundTag)}.
+     * 
+     * @param tag The tag to read from
+     */
+    public void deserializeNBT(CompoundTag tag) {
+        active = tag.getInt("Active") != 0;
+        progressUnits = Math.max(0, Math.min(operationLength - 1, tag.getInt("Progress")));
+        requestWake();
+        owedTicks = Math.max(0, tag.getInt("Slept"));
+        energyStalled = owedTicks > 0 && tag.getInt("Stalled") != 0;
+        running = owedTicks > 0 && !energyStalled;
+        // Tags saved before the storage was saved with the machine leave it as constructed
+        if (energyStorage instanceof SimpleEnergyStorage storage && tag.contains("Energy")) {
+            storage.deserializeNBT(tag);
+            energyTag = null;
+        }
+    }
+    
+    private CompoundTag saveEnergy(SimpleEnergyStorage storage) {
+        if (energyTag == null) {
+            energyTag = storage.serializeNBT(new CompoundTag());
+            return energyTag;
+        }
+        CompoundTag changes = new CompoundTag();
+        if (storage.serializeChanges(changes)) {
+            if (changes.getInt("Delta") != 0) {
+                energyTag.putInt("Energy", changes.getInt("Energy"));
+            } else {
+                energyTag = changes;
             }
         }
+        return energyTag;
+    }
+    
+    /**
+     * Recompute the per-tick energy cost and progress step. Called whenever efficiency,
+     * processing time or energy use change; subclasses that assign those fields directly must call it too.
+     */
+    protected void updateTickCosts() {
+        progressStep = Math.max(1, Math.round(efficiency * PROGRESS_PER_TICK));
+        operationLength = processingTime * PROGRESS_PER_TICK;
+        energyCost = Math.round(energyPerTick / efficiency);
+    }
+    
+    /**
+     * Set a callback run by {@link #requestWake()}, in addition to waking the machine's scheduler.
+     * 
+     * @param wakeListener The callback, or null for none
+     */
+    public void setWakeListener(Runnable wakeListener) {
+        this.wakeListener = wakeListener;
+    }
+    
+    /**
+     * Tell the scheduler, if any, that something this machine depends on changed:
+     * its inputs, its outputs or its energy. The machine runs again on the next tick.
+     */
+    public void requestWake() {
+        if (!active) {
+            energyStalled = false; // The change, not the wait, is what lets an inactive machine start
+        }
+        if (scheduler != null) {
+            scheduler.wake(this);
+        }
+        if (wakeListener != null) {
+            wakeListener.run();
+        }
+    }
+    
+    /**
+     * Get how long a scheduled machine that is not running waits before it checks again by itself.
+     * 
+     * @return The delay in ticks, or {@link #WAIT_FOR_EVENT} to wait for {@link #requestWake()}
+     */
+    protected int getIdleWakeDelay() {
+        // Storage filled by a network raises no event, so a machine waiting for energy checks again later
+        if (energyStorage != null && energyCost > 0 && energyStorage.getEnergy() < energyCost) {
+            return ENERGY_RETRY_TICKS;
+        }
+        return WAIT_FOR_EVENT;
+    }
+    
+    /**
+     * Run one tick of an active machine: pay for the tick, add progress and complete the operation when done.
+     * 
+     * @return False if the tick was skipped because the machine could not pay for it
+     */
+    protected boolean tickActive() {
+        if (payForTicks(1) == 0) {
+            // Not enough energy, pause processing
+            return false;
+        }
         
-        // Update progress
-        float progressPerTick = 1.0f / (processingTime / efficiency);
-        progress += progressPerTick;
+        progressUnits += progressStep;
+        if (progressUnits >= operationLength) {
+            finishOperation();
+        }
+        return true;
+    }
+    
+    /**
+     * Complete the current operation, reset progress and stop if the next one cannot run.
+     */
+    void finishOperation() {
+        completeProcessing();
+        progressUnits = 0;
         
-        // Check if processing is complete
-        if (progress >= 1.0f) {
-            completeProcessing();
-            progress = 0.0f;
-            
-            // Check if we should continue processing
-            if (!canContinueProcessing()) {
-                stop();
-            }
+        // Check if we should continue processing
+        if (!canContinueProcessing()) {
+            stop();
+        }
+    }
+    
+    /**
+     * Pay for up to the given number of ticks of processing. Energy is only taken for whole
+     * ticks, so a machine that is short of energy keeps what it has for the next attempt.
+     * 
+     * @param ticks The number of ticks to pay for
+     * @return The number of ticks paid for
+     */
+    protected int payForTicks(int ticks) {
+        if (energyStorage == null || energyCost == 0) {
+            return ticks;
         }
+        
+        long total = (long) energyCost * ticks;
+        if (total <= Integer.MAX_VALUE && energyStorage.extractEnergy((int) total, true) == total) {
+            energyStorage.extractEnergy((int) total, false);
+            return ticks;
+        }
+        
+        // Not all at once, e.g. because of the storage's transfer limit; pay tick by tick
+        int paid = 0;
+        while (paid < ticks && energyStorage.extractEnergy(energyCost, true) == energyCost) {
+            energyStorage.extractEnergy(energyCost, false);
+            paid++;
+        }
+        return paid;
     }
     
     // Legacy method for backward compatibility with subclasses
@@ -156,7 +602,8 @@ public abstract class BaseMachine implements Machine {
         }
         
         active = true;
-        progress = 0.0f;
+        progressUnits = 0;
+        requestWake();
         return true;
     }
     
@@ -172,7 +619,7 @@ public abstract class BaseMachine implements Machine {
     
     @Override
     public float getProgress() {
-        return progress;
+        return (float) getProgressUnits() / operationLength;
     }
     
     @Override
@@ -188,13 +635,22 @@ public abstract class BaseMachine implements Machine {
     @Override
     public int receiveEnergy(int maxReceive, boolean simulate) {
         if (energyStorage == null) return 0;
-        return energyStorage.receiveEnergy(maxReceive, simulate);
+        int received = energyStorage.receiveEnergy(maxReceive, simulate);
+        if (!simulate && received > 0 && !running) {
+            // A running machine already pays for its sleep when it wakes; waking it would split its cluster
+            requestWake();
+        }
+        return received;
     }
     
     @Override
     public int extractEnergy(int maxExtract, boolean simulate) {
         if (energyStorage == null) return 0;
-        return energyStorage.extractEnergy(maxExtract, simulate);
+        int extracted = energyStorage.extractEnergy(maxExtract, simulate);
+        if (!simulate && extracted > 0) {
+            requestWake();
+        }
+        return extracted;
     }
     
     @Override
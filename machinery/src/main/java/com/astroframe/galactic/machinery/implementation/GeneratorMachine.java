@@ -45,6 +45,9 @@ public class GeneratorMachine extends BaseMachine {
     public int addFuel(int amount) {
         int fuelToAdd = Math.min(amount, maxFuel - currentFuel);
         currentFuel += fuelToAdd;
+        if (fuelToAdd > 0) {
+            requestWake();
+        }
         return fuelToAdd;
     }
     
@@ -127,35 +130,28 @@ public class GeneratorMachine extends BaseMachine {
     
     @Override
     public void tick(Level level, BlockPos pos) {
-        if (!active) {
-            // Auto-start if we have fuel and can generate
-            if (canStartProcessing()) {
-                start();
-            } else {
-                return;
-            }
+        // Auto-start if we have fuel and can generate; a scheduled generator only runs through advance()
+        if (scheduler != null || (!active && !start())) {
+            return;
         }
         
-        // Check if we can still generate
+        super.tick(level, pos);
+    }
+    
+    @Override
+    protected int payForTicks(int ticks) {
+        // Generators pay for ticks with fuel and free storage instead of energy; neither changes mid-operation
         if (!canContinueProcessing()) {
             stop();
-            return;
-        }
-        
-        // Update progress
-        float progressPerTick = 1.0f / (processingTime / efficiency);
-        progress += progressPerTick;
-        
-        // Check if processing is complete
-        if (progress >= 1.0f) {
-            completeProcessing();
-            progress = 0.0f;
-            
-            // Check if we should continue processing
-            if (!canContinueProcessing()) {
-                stop();
-            }
+            return 0;
         }
+        return ticks;
+    }
+    
+    @Override
+    protected int getIdleWakeDelay() {
+        // Fuel but a full storage: nothing reports when the storage drains, so check again later
+        return currentFuel > 0 ? ENERGY_RETRY_TICKS : WAIT_FOR_EVENT;
     }
     
     // For backward compatibility
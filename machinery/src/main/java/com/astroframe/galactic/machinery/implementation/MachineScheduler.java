@@ -0,0 +1,517 @@
+package com.astroframe.galactic.machinery.implementation;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * Runs {@link BaseMachine}s only when they have something to do, instead of ticking every machine every game tick.
+ * <p>
+ * Each machine has a wake-up tick in a priority queue. A running machine sleeps until the tick
+ * its operation completes, or until its storage could have filled up if that is sooner, and then
+ * catches up on the elapsed ticks in one {@link BaseMachine#advance} call. A machine short of
+ * energy retries on the same terms and is credited with the ticks its storage paid for meanwhile,
+ * so a small buffer fed every tick does the same work as a machine ticked every tick. An idle machine sleeps until {@link BaseMachine#requestWake()} reports a change to its
+ * inputs, outputs or energy. The work done per tick is therefore proportional to the number of
+ * machines that finish or change state, not to the number of machines in the world.
+ * <p>
+ * With {@link #setClustering clustering} enabled, adjacent running machines of the same class,
+ * type and tier, with the same tick costs, cluster key and progress, are merged into a cluster.
+ * A cluster is scheduled as one unit: it keeps one progress counter, pays every member's energy
+ * for a run of ticks in one pass, and writes the shared progress back to the members so their
+ * observable state stays exact. A member that cannot pay, stops, changes recipe or is woken by
+ * an event is split out and scheduled on its own again.
+ * <p>
+ * Rescheduling does not remove the old queue entry; stale entries are recognised by their tick
+ * and skipped when they reach the head of the queue.
+ */
+public class MachineScheduler {
+
+    private static final int[][] NEIGHBOURS = {{1, 0, 0}, {-1, 0, 0}, {0, 1, 0}, {0, -1, 0}, {0, 0, 1}, {0, 0, -1}};
+
+    private final Map<BaseMachine, Entry> entries = new IdentityHashMap<>();
+    private final Map<BlockPos, Entry> byPosition = new HashMap<>();
+    private final PriorityQueue<Wakeup> queue = new PriorityQueue<>();
+    private long currentTick = -1;
+    private long sequence;
+    private long runs;
+    private boolean clustering;
+    private int clusterCount;
+    private Cluster runningCluster;
+
+    /**
+     * Add a machine to the schedule. It runs on the next tick, and is credited with the ticks it had
+     * slept through when it was saved, if it was loaded from a save.
+     *
+     * @param machine The machine
+     * @param level The world the machine is in
+     * @param pos The machine position, used to find neighbours to cluster with
+     */
+    public void add(BaseMachine machine, Level level, BlockPos pos) {
+        if (machine == null) {
+            throw new IllegalArgumentException("Machine cannot be null");
+        }
+        if (machine.scheduler != null) {
+            if (machine.scheduler == this) {
+                return;
+            }
+            throw new IllegalArgumentException("Machine is already scheduled elsewhere");
+        }
+
+        Entry entry = new Entry(machine, level, pos);
+        entries.put(machine, entry);
+        if (pos != null) {
+            byPosition.put(pos, entry);
+        }
+        machine.scheduler = this;
+        machine.advancedAt = currentTick;
+        schedule(entry, currentTick + 1);
+    }
+
+    /**
+     * Remove a machine from the schedule, e.g. when its block entity is removed or unloaded.
+     *
+     * @param machine The machine
+     */
+    public void remove(BaseMachine machine) {
+        Entry entry = entries.remove(machine);
+        if (entry == null) {
+            return;
+        }
+
+        if (entry.pos != null) {
+            byPosition.remove(entry.pos, entry);
+        }
+        if (entry.cluster != null) {
+            leaveCluster(entry);
+        }
+        entry.wakeTick = Long.MAX_VALUE;
+        // Keep the ticks slept through, so a machine saved after it was removed loses none of them
+        machine.owedTicks = (int) Math.min(Integer.MAX_VALUE, machine.getSleptTicks());
+        machine.scheduler = null;
+    }
+
+    /**
+     * Run a machine on the next tick, whenever it was due to wake. A clustered machine is split out first.
+     *
+     * @param machine The machine
+     */
+    public void wake(BaseMachine machine) {
+        Entry entry = entries.get(machine);
+        if (entry == null) {
+            return;
+        }
+
+        if (entry.cluster != null) {
+            if (entry.cluster == runningCluster) {
+                entry.wakeRequested = true; // Split out once the cluster run ends
+                return;
+            }
+            catchUp(entry.cluster);
+            if (entry.cluster != null) {
+                leaveCluster(entry);
+            }
+        }
+        schedule(entry, currentTick + 1);
+    }
+
+    /**
+     * Credit a sleeping machine, or its cluster, with the ticks since it last ran.
+     *
+     * @param machine The machine
+     */
+    public void catchUp(BaseMachine machine) {
+        Entry entry = entries.get(machine);
+        if (entry == null) {
+            return;
+        }
+        if (entry.cluster != null) {
+            catchUp(entry.cluster);
+        } else if ((machine.running || machine.energyStalled) && entry.lastRun < currentTick) {
+            runEntry(entry, currentTick, false);
+        }
+    }
+
+    /**
+     * Run every machine and cluster whose wake-up tick has come.
+     *
+     * @param gameTime The current game time
+     */
+    public void tick(long gameTime) {
+        currentTick = gameTime;
+        while (!queue.isEmpty() && queue.peek().tick <= gameTime) {
+            Wakeup wakeup = queue.poll();
+            Unit unit = wakeup.unit;
+            if (unit.wakeTick != wakeup.tick) {
+                continue; // Rescheduled, clustered or removed since this entry was queued
+            }
+            if (unit instanceof Cluster cluster) {
+                runCluster(cluster, gameTime);
+            } else {
+                runEntry((Entry) unit, gameTime, true);
+            }
+        }
+    }
+
+    /**
+     * Check whether adjacent identical machines are merged into clusters.
+     *
+     * @return True if clustering is enabled
+     */
+    public boolean isClustering() {
+        return clustering;
+    }
+
+    /**
+     * Enable or disable clustering. Disabling it leaves existing clusters to split up as their members diverge.
+     *
+     * @param clustering True to merge adjacent identical machines
+     */
+    public void setClustering(boolean clustering) {
+        this.clustering = clustering;
+    }
+
+    /**
+     * Get the game time of the last {@link #tick(long)}.
+     *
+     * @return The current tick
+     */
+    public long getCurrentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Get the number of scheduled machines, awake or asleep.
+     *
+     * @return The machine count
+     */
+    public int getMachineCount() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of clusters.
+     *
+     * @return The cluster count
+     */
+    public int getClusterCount() {
+        return clusterCount;
+    }
+
+    /**
+     * Get the size of the cluster a machine is in.
+     *
+     * @param machine The machine
+     * @return The number of machines in its cluster, 1 if it is not clustered, or 0 if it is not scheduled
+     */
+    public int getClusterSize(BaseMachine machine) {
+        Entry entry = entries.get(machine);
+        if (entry == null) {
+            return 0;
+        }
+        return entry.cluster != null ? entry.cluster.members.size() : 1;
+    }
+
+    /**
+     * Get the tick a machine is next due to run, on its own or as part of its cluster.
+     *
+     * @param machine The machine
+     * @return The wake-up tick, or {@link Long#MAX_VALUE} if it waits for an event or is not scheduled
+     */
+    public long getWakeTick(BaseMachine machine) {
+        Entry entry = entries.get(machine);
+        if (entry == null) {
+            return Long.MAX_VALUE;
+        }
+        return entry.cluster != null ? entry.cluster.wakeTick : entry.wakeTick;
+    }
+
+    /**
+     * Get the number of times a machine or cluster was run since the scheduler was created.
+     *
+     * @return The run count
+     */
+    public long getRunCount() {
+        return runs;
+    }
+
+    private void runEntry(Entry entry, long gameTime, boolean mayCluster) {
+        long elapsed = entry.lastRun < 0 ? 1 : gameTime - entry.lastRun;
+        entry.lastRun = gameTime;
+        entry.wakeTick = Long.MAX_VALUE;
+        runs++;
+
+        BaseMachine machine = entry.machine;
+        int delay = machine.advance(entry.level, entry.pos, toTicks(elapsed));
+        machine.advancedAt = gameTime;
+        if (delay == BaseMachine.WAIT_FOR_EVENT) {
+            return;
+        }
+        if (mayCluster && clustering && machine.running && entry.pos != null && joinNeighbour(entry, gameTime, delay)) {
+            return;
+        }
+        schedule(entry, gameTime + Math.max(1, delay));
+    }
+
+    private boolean joinNeighbour(Entry entry, long gameTime, int delay) {
+        for (int[] offset : NEIGHBOURS) {
+            Entry neighbour = byPosition.get(entry.pos.offset(offset[0], offset[1], offset[2]));
+            if (neighbour == null || neighbour == entry) {
+                continue;
+            }
+
+            Cluster cluster = neighbour.cluster;
+            if (cluster != null) {
+                catchUp(cluster);
+                if (neighbour.cluster == cluster && cluster.progress == entry.machine.progressUnits
+                        && canCluster(cluster.leader(), entry.machine)) {
+                    cluster.add(entry);
+                    schedule(cluster, gameTime + Math.max(1, entry.machine.getMaxSleepTicks()));
+                    return true;
+                }
+            } else if (neighbour.machine.running) {
+                if (neighbour.lastRun < gameTime) {
+                    runEntry(neighbour, gameTime, false);
+                }
+                if (neighbour.cluster == null && neighbour.machine.running
+                        && neighbour.machine.progressUnits == entry.machine.progressUnits
+                        && canCluster(neighbour.machine, entry.machine)) {
+                    Cluster formed = new Cluster(gameTime, entry.machine.progressUnits);
+                    formed.add(neighbour);
+                    formed.add(entry);
+                    clusterCount++;
+                    schedule(formed, gameTime + Math.max(1, Math.min(delay, formed.getMaxSleepTicks())));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean canCluster(BaseMachine a, BaseMachine b) {
+        return a.getClass() == b.getClass()
+                && a.getType() == b.getType()
+                && a.getMachineTier() == b.getMachineTier()
+                && a.getProgressStep() == b.getProgressStep()
+                && a.getOperationLength() == b.getOperationLength()
+                && a.getEnergyCostPerTick() == b.getEnergyCostPerTick()
+                && Objects.equals(a.getClusterKey(), b.getClusterKey());
+    }
+
+    private void catchUp(Cluster cluster) {
+        if (cluster.lastRun < currentTick && cluster != runningCluster) {
+            runCluster(cluster, currentTick);
+        }
+    }
+
+    private void runCluster(Cluster cluster, long gameTime) {
+        int ticks = toTicks(gameTime - cluster.lastRun);
+        cluster.lastRun = gameTime;
+        cluster.wakeTick = Long.MAX_VALUE;
+        runs++;
+        runningCluster = cluster;
+
+        BaseMachine leader = cluster.leader();
+        Object key = leader.getClusterKey();
+        int step = leader.getProgressStep();
+        int length = leader.getOperationLength();
+        List<Entry> members = cluster.members;
+        List<Entry> stalled = new ArrayList<>();
+        List<Entry> diverged = new ArrayList<>();
+
+        int remaining = members.size();
+        while (ticks > 0 && remaining > 0) {
+            int block = Math.min(ticks, Math.max(1, (length - cluster.progress + step - 1) / step));
+            cluster.progress += block * step;
+            ticks -= block;
+
+            // One pass pays for the whole run of ticks and writes the shared progress back
+            for (Entry member : members) {
+                if (member.cluster == null) {
+                    continue;
+                }
+                int paid = member.machine.payForTicks(block);
+                if (paid < block) {
+                    member.machine.progressUnits = cluster.progress - (block - paid) * step;
+                    member.cluster = null;
+                    stalled.add(member);
+                    remaining--;
+                } else {
+                    member.machine.progressUnits = cluster.progress;
+                }
+            }
+
+            if (cluster.progress >= length) {
+                cluster.progress = 0;
+                for (Entry member : members) {
+                    if (member.cluster == null) {
+                        continue;
+                    }
+                    member.machine.finishOperation();
+                    if (!member.machine.active || !Objects.equals(key, member.machine.getClusterKey())) {
+                        member.cluster = null;
+                        diverged.add(member);
+                        remaining--;
+                    }
+                }
+            }
+        }
+
+        runningCluster = null;
+        for (Entry member : members) {
+            member.machine.advancedAt = gameTime;
+            if (member.cluster != null && member.wakeRequested) {
+                member.cluster = null;
+                diverged.add(member);
+            }
+        }
+        members.removeIf(member -> member.cluster == null);
+        for (Entry member : stalled) {
+            release(member, gameTime, true);
+        }
+        for (Entry member : diverged) {
+            release(member, gameTime, false);
+            if (member.wakeRequested) {
+                schedule(member, gameTime + 1);
+            }
+        }
+
+        if (members.size() == 1) {
+            dissolve(cluster, gameTime);
+        } else if (!members.isEmpty()) {
+            schedule(cluster, gameTime + Math.max(1, Math.min(cluster.leader().getTicksUntilCompletion(), cluster.getMaxSleepTicks())));
+        } else {
+            clusterCount--;
+        }
+    }
+
+    private void leaveCluster(Entry entry) {
+        Cluster cluster = entry.cluster;
+        cluster.members.remove(entry);
+        entry.cluster = null;
+        entry.lastRun = cluster.lastRun;
+        entry.machine.advancedAt = cluster.lastRun;
+        if (cluster.members.size() == 1) {
+            dissolve(cluster, currentTick);
+        }
+    }
+
+    private void dissolve(Cluster cluster, long gameTime) {
+        Entry last = cluster.members.remove(0);
+        last.cluster = null;
+        last.lastRun = cluster.lastRun;
+        clusterCount--;
+        if (cluster.wakeTick != Long.MAX_VALUE) {
+            schedule(last, cluster.wakeTick);
+        } else {
+            schedule(last, gameTime + Math.max(1, last.machine.resumeDelay(false)));
+        }
+        cluster.wakeTick = Long.MAX_VALUE;
+    }
+
+    private void release(Entry entry, long gameTime, boolean stalled) {
+        entry.lastRun = gameTime;
+        int delay = entry.machine.resumeDelay(stalled);
+        if (delay != BaseMachine.WAIT_FOR_EVENT) {
+            schedule(entry, gameTime + Math.max(1, delay));
+        }
+    }
+
+    private void schedule(Unit unit, long tick) {
+        // Only ever move a wake-up earlier; the machine reports its own next tick when it runs
+        if (tick < unit.wakeTick) {
+            unit.wakeTick = tick;
+            queue.add(new Wakeup(tick, sequence++, unit));
+        }
+    }
+
+    private static int toTicks(long elapsed) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, elapsed));
+    }
+
+    /**
+     * Something with a place in the wake-up queue.
+     */
+    private abstract static class Unit {
+        long wakeTick = Long.MAX_VALUE;
+        long lastRun = -1;
+    }
+
+    /**
+     * A scheduled machine and where it is.
+     */
+    private static final class Entry extends Unit {
+        private final BaseMachine machine;
+        private final Level level;
+        private final BlockPos pos;
+        private Cluster cluster;
+        private boolean wakeRequested;
+
+        private Entry(BaseMachine machine, Level level, BlockPos pos) {
+            this.machine = machine;
+            this.level = level;
+            this.pos = pos;
+        }
+    }
+
+    /**
+     * Machines in lockstep, scheduled and advanced together.
+     */
+    private static final class Cluster extends Unit {
+        private final List<Entry> members = new ArrayList<>();
+        private int progress;
+
+        private Cluster(long lastRun, int progress) {
+            this.lastRun = lastRun;
+            this.progress = progress;
+        }
+
+        private void add(Entry entry) {
+            entry.cluster = this;
+            entry.wakeTick = Long.MAX_VALUE;
+            entry.wakeRequested = false;
+            members.add(entry);
+        }
+
+        private BaseMachine leader() {
+            return members.get(0).machine;
+        }
+
+        // The cluster wakes before any member's storage could fill up
+        private int getMaxSleepTicks() {
+            int limit = BaseMachine.WAIT_FOR_EVENT;
+            for (Entry member : members) {
+                limit = Math.min(limit, member.machine.getMaxSleepTicks());
+            }
+            return limit;
+        }
+    }
+
+    /**
+     * A queued wake-up. Ties are broken by queue order, so units due on the same tick run in the order they were scheduled.
+     */
+    private static final class Wakeup implements Comparable<Wakeup> {
+        private final long tick;
+        private final long order;
+        private final Unit unit;
+
+        private Wakeup(long tick, long order, Unit unit) {
+            this.tick = tick;
+            this.order = order;
+            this.unit = unit;
+        }
+
+        @Override
+        public int compareTo(Wakeup other) {
+            int byTick = Long.compare(tick, other.tick);
+            return byTick != 0 ? byTick : Long.compare(order, other.order);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,252 @@
+package com.astroframe.galactic.machinery.implementation;
+
+import net.minecraft.world.Container;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.Arrays;
+
+/**
+ * The input or output slots of a {@link ProcessorMachine}.
+ * <p>
+ * Every slot has a change counter, and the inventory keeps a content hash that is updated per
+ * write instead of recomputed, so recipe caches and automation can tell in constant time whether
+ * anything changed since they last looked. Equal contents always give equal hashes.
+ * <p>
+ * Counters and hash only see writes made through this class. Code that modifies a returned stack
+ * in place must call {@link #setChanged()} afterwards, as the {@link Container} contract asks.
+ */
+public class ProcessorInventory implements Container {
+
+    private final ItemStack[] stacks;
+    private final long[] slotHashes;
+    private final int[] changeCounts;
+    private long contentHash;
+    private long modCount;
+    private Runnable changeListener;
+
+    /**
+     * Create an empty inventory.
+     *
+     * @param size The number of slots
+     */
+    public ProcessorInventory(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Inventory size cannot be negative");
+        }
+        stacks = new ItemStack[size];
+        slotHashes = new long[size];
+        changeCounts = new int[size];
+        Arrays.fill(stacks, ItemStack.EMPTY);
+    }
+
+    @Override
+    public int getContainerSize() {
+        return stacks.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (ItemStack stack : stacks) {
+            if (!stack.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public ItemStack getItem(int slot) {
+        return slot >= 0 && slot < stacks.length ? stacks[slot] : ItemStack.EMPTY;
+    }
+
+    @Override
+    public ItemStack removeItem(int slot, int amount) {
+        ItemStack stack = getItem(slot);
+        if (stack.isEmpty() || amount <= 0) {
+            return ItemStack.EMPTY;
+        }
+        ItemStack removed = stack.split(amount);
+        if (stack.isEmpty()) {
+            stacks[slot] = ItemStack.EMPTY;
+        }
+        changed(slot);
+        return removed;
+    }
+
+    @Override
+    public ItemStack removeItemNoUpdate(int slot) {
+        ItemStack stack = getItem(slot);
+        if (stack.isEmpty()) {
+            return ItemStack.EMPTY;
+        }
+        stacks[slot] = ItemStack.EMPTY;
+        changed(slot);
+        return stack;
+    }
+
+    @Override
+    public void setItem(int slot, ItemStack stack) {
+        if (slot < 0 || slot >= stacks.length) {
+            return;
+        }
+        stacks[slot] = stack == null || stack.isEmpty() ? ItemStack.EMPTY : stack;
+        changed(slot);
+    }
+
+    /**
+     * Remove items from a slot in place, without creating a stack for them.
+     *
+     * @param slot The slot
+     * @param amount The maximum number of items to remove
+     * @return The number of items removed
+     */
+    public int extract(int slot, int amount) {
+        ItemStack stack = getItem(slot);
+        int removed = Math.min(amount, stack.getCount());
+        if (removed <= 0) {
+            return 0;
+        }
+        stack.shrink(removed);
+        if (stack.isEmpty()) {
+            stacks[slot] = ItemStack.EMPTY;
+        }
+        changed(slot);
+        return removed;
+    }
+
+    /**
+     * Add items to a slot that is empty or holds the same item with the same components.
+     * The given stack is not modified.
+     *
+     * @param slot The slot
+     * @param stack The items to add
+     * @return The number of items added
+     */
+    public int insert(int slot, ItemStack stack) {
+        if (slot < 0 || slot >= stacks.length || stack.isEmpty()) {
+            return 0;
+        }
+
+        ItemStack current = stacks[slot];
+        if (current.isEmpty()) {
+            int added = Math.min(stack.getCount(), stack.getMaxStackSize());
+            ItemStack placed = stack.copy();
+            placed.setCount(added);
+            stacks[slot] = placed;
+            changed(slot);
+            return added;
+        }
+        if (!ItemStack.isSameItemSameComponents(current, stack)) {
+            return 0;
+        }
+
+        int added = Math.min(stack.getCount(), current.getMaxStackSize() - current.getCount());
+        if (added <= 0) {
+            return 0;
+        }
+        current.grow(added);
+        changed(slot);
+        return added;
+    }
+
+    /**
+     * Re-hash every slot after stacks were modified in place, counting a change for each slot that differs.
+     */
+    @Override
+    public void setChanged() {
+        boolean any = false;
+        for (int slot = 0; slot < stacks.length; slot++) {
+            if (hashSlot(slot) != slotHashes[slot]) {
+                updateSlot(slot);
+                any = true;
+            }
+        }
+        if (any && changeListener != null) {
+            changeListener.run();
+        }
+    }
+
+    @Override
+    public boolean stillValid(Player player) {
+        return true;
+    }
+
+    @Override
+    public void clearContent() {
+        for (int slot = 0; slot < stacks.length; slot++) {
+            if (!stacks[slot].isEmpty()) {
+                stacks[slot] = ItemStack.EMPTY;
+                updateSlot(slot);
+            }
+        }
+        if (changeListener != null) {
+            changeListener.run();
+        }
+    }
+
+    /**
+     * Get the number of times a slot was written since the inventory was created.
+     *
+     * @param slot The slot
+     * @return The change count
+     */
+    public int getChangeCount(int slot) {
+        return changeCounts[slot];
+    }
+
+    /**
+     * Get the number of writes to any slot since the inventory was created.
+     *
+     * @return The modification count
+     */
+    public long getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Get a hash of the item, components and count in every slot.
+     *
+     * @return The content hash
+     */
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Set a callback run after every change.
+     *
+     * @param changeListener The callback, or null for none
+     */
+    public void setChangeListener(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    private void changed(int slot) {
+        updateSlot(slot);
+        if (changeListener != null) {
+            changeListener.run();
+        }
+    }
+
+    private void updateSlot(int slot) {
+        long hash = hashSlot(slot);
+        contentHash += hash - slotHashes[slot];
+        slotHashes[slot] = hash;
+        changeCounts[slot]++;
+        modCount++;
+    }
+
+    private long hashSlot(int slot) {
+        ItemStack stack = stacks[slot];
+        if (stack.isEmpty()) {
+            return 0;
+        }
+
+        // Mixed with the slot index so that swapping two stacks changes the sum
+        long hash = ((long) slot << 32 | (ItemStack.hashItemAndComponents(stack) & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+        hash ^= stack.getCount() * 0xC2B2AE3D27D4EB4FL;
+        hash ^= hash >>> 31;
+        return hash * 0x94D049BB133111EBL;
+    }
+}
\ No newline at end of file
@@ -1,26 +1,52 @@
 package com.astroframe.galactic.machinery.implementation;
 
 import com.astroframe.galactic.core.api.energy.IEnergyHandler.EnergyUnit;
+import com.astroframe.galactic.core.api.machine.IMachineRecipe;
+import com.astroframe.galactic.core.api.machine.MachineRecipeManager;
 import com.astroframe.galactic.energy.api.EnergyStorage;
 import com.astroframe.galactic.energy.api.EnergyType;
 import com.astroframe.galactic.machinery.api.MachineType;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.Level;
 
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 /**
  * A machine that processes items.
  * This is a specialized machine that transforms input items into output items using energy.
+ * <p>
+ * Items live in two {@link ProcessorInventory}s. Recipe checks can be memoised against an input
+ * fingerprint: the result of the last validator or matcher run, and the recipe it found, are
+ * reused for as long as the fingerprint stays the same. Memoisation is opt-in, as only the caller
+ * knows what a check reads. It is on when a fingerprint is set with {@link #setInputFingerprint},
+ * or when the matcher is given as {@link #setInputRecipeMatcher}, which only sees the inputs. The
+ * default fingerprint then combines the content hashes of both inventories with the recipe
+ * snapshot version, so an idle processor costs a few integer operations per check instead of a
+ * recipe search. Changes made to the inventories from outside wake the processor if it is scheduled.
  */
 public class ProcessorMachine extends BaseMachine {
     
     private final int inputSlots;
     private final int outputSlots;
-    private Object[] inputs;  // Placeholder for actual item instances
-    private Object[] outputs; // Placeholder for actual item instances
-    private Supplier<Boolean> recipeValidator;
+    private final ProcessorInventory inputs;
+    private final ProcessorInventory outputs;
+    private BooleanSupplier recipeValidator;
+    private Supplier<? extends IMachineRecipe> recipeMatcher;
     private Runnable recipeProcessor;
+    private LongSupplier inputFingerprint;
+    // True while the matcher was set with setInputRecipeMatcher, so it only reads the inputs
+    private boolean matchesInputsOnly;
+    
+    // Result of the last recipe check, reusable while the input fingerprint is unchanged
+    private boolean recipeCached;
+    private long cachedFingerprint;
+    private boolean cachedValid;
+    private IMachineRecipe cachedRecipe;
+    private int recipeChecks;
+    private boolean completing;
     
     /**
      * Construct a new processor machine.
@@ -39,8 +65,10 @@ public class ProcessorMachine extends BaseMachine {
         super(name, MachineType.PROCESSOR, energyStorage, efficiency, processingTime, energyPerTick);
         this.inputSlots = Math.max(1, inputSlots);
         this.outputSlots = Math.max(1, outputSlots);
-        this.inputs = new Object[inputSlots];
-        this.outputs = new Object[outputSlots];
+        this.inputs = new ProcessorInventory(this.inputSlots);
+        this.outputs = new ProcessorInventory(this.outputSlots);
+        this.inputs.setChangeListener(this::onInventoryChanged);
+        this.outputs.setChangeListener(this::onInventoryChanged);
         
         // Default recipe validator (always fails)
         this.recipeValidator = () -> false;
@@ -74,8 +102,79 @@ public class ProcessorMachine extends BaseMachine {
      * 
      * @param validator A function that returns true if the inputs can be processed
      */
-    public void setRecipeValidator(Supplier<Boolean> validator) {
+    public void setRecipeValidator(BooleanSupplier validator) {
         this.recipeValidator = validator != null ? validator : () -> false;
+        invalidateRecipeCache();
+    }
+    
+    /**
+     * Set a recipe matcher function, used instead of the validator when present.
+     * The processor can run while the matcher finds a recipe, and remembers which one.
+     * 
+     * @param matcher A function that returns the recipe matching the current inputs, or null
+     */
+    public void setRecipeMatcher(Supplier<? extends IMachineRecipe> matcher) {
+        this.recipeMatcher = matcher;
+        this.matchesInputsOnly = false;
+        invalidateRecipeCache();
+    }
+    
+    /**
+     * Set a recipe matcher that only reads this processor's inputs, used instead of the validator.
+     * Its result is memoised against the inventories' contents and the recipe snapshot version,
+     * unless a fingerprint of its own is set with {@link #setInputFingerprint}.
+     * 
+     * @param matcher A function that returns the recipe matching the given inputs, or null
+     */
+    public void setInputRecipeMatcher(Function<ProcessorInventory, ? extends IMachineRecipe> matcher) {
+        this.recipeMatcher = matcher != null ? () -> matcher.apply(inputs) : null;
+        this.matchesInputsOnly = matcher != null;
+        invalidateRecipeCache();
+    }
+    
+    /**
+     * Set a fingerprint of everything the recipe check reads, e.g.
+     * {@link MachineRecipeManager#fingerprint} over an external container.
+     * While the fingerprint does not change, the last recipe check is reused.
+     * 
+     * @param fingerprint A function returning the current fingerprint, or null to memoise only an
+     *        {@link #setInputRecipeMatcher input matcher}, against the inventories' contents
+     */
+    public void setInputFingerprint(LongSupplier fingerprint) {
+        this.inputFingerprint = fingerprint;
+        invalidateRecipeCache();
+    }
+    
+    /**
+     * Forget the memoised recipe check, e.g. after a change the fingerprint does not cover.
+     */
+    public void invalidateRecipeCache() {
+        recipeCached = false;
+        cachedRecipe = null;
+    }
+    
+    /**
+     * Get the recipe found by the last recipe check.
+     * 
+     * @return The recipe, or null if there is no matcher or no recipe matched
+     */
+    public IMachineRecipe getCurrentRecipe() {
+        return cachedRecipe;
+    }
+    
+    @Override
+    protected Object getClusterKey() {
+        // Only processors working on the same recipe are ticked together
+        return cachedRecipe;
+    }
+    
+    /**
+     * Get the number of times the validator or matcher actually ran.
+     * 
+     * @return The recipe check count
+     */
+    public int getRecipeCheckCount() {
+        return recipeChecks;
     }
     
     /**
@@ -107,22 +206,20 @@ public class ProcessorMachine extends BaseMachine {
     }
     
     /**
-     * Get the inputs array.
-     * Note: This is a placeholder; in a real implementation, this would return a collection of items.
+     * Get the input inventory.
      * 
-     * @return The inputs array
+     * @return The inputs
      */
-    public Object[] getInputs() {
+    public ProcessorInventory getInputs() {
         return inputs;
     }
     
     /**
-     * Get the outputs array.
-     * Note: This is a placeholder; in a real implementation, this would return a collection of items.
+     * Get the output inventory.
      * 
-     * @return The outputs array
+     * @return The outputs
      */
-    public Object[] getOutputs() {
+    public ProcessorInventory getOutputs() {
         return outputs;
     }
     
@@ -133,13 +230,21 @@ public class ProcessorMachine extends BaseMachine {
         }
         
         // Use the recipe validator to check if we can process the current inputs
-        return recipeValidator.get();
+        return hasValidRecipe();
     }
     
     @Override
     protected void completeProcessing() {
-        // Process the recipe
-        recipeProcessor.run();
+        // Process the recipe; the processor's own inventory changes are not wake-up events
+        completing = true;
+        try {
+            recipeProcessor.run();
+        } finally {
+            completing = false;
+        }
+        
+        // The processor consumed inputs; don't rely on the fingerprint to notice
+        invalidateRecipeCache();
     }
     
     @Override
@@ -149,7 +254,53 @@ public class ProcessorMachine extends BaseMachine {
         }
         
         // Use the recipe validator to check if we can process the current inputs
-        return recipeValidator.get();
+        return hasValidRecipe();
+    }
+    
+    /**
+     * Check the current inputs against the recipes. When memoisation is on, the last result is
+     * reused while the input fingerprint is unchanged.
+     * 
+     * @return True if the inputs can be processed
+     */
+    private boolean hasValidRecipe() {
+        boolean memoised = inputFingerprint != null || matchesInputsOnly;
+        long fingerprint = 0;
+        if (memoised) {
+            fingerprint = inputFingerprint != null ? inputFingerprint.getAsLong() : getContentFingerprint();
+            if (recipeCached && fingerprint == cachedFingerprint) {
+                return cachedValid;
+            }
+        }
+        
+        recipeChecks++;
+        if (recipeMatcher != null) {
+            cachedRecipe = recipeMatcher.get();
+            cachedValid = cachedRecipe != null;
+        } else {
+            cachedRecipe = null;
+            cachedValid = recipeValidator.getAsBoolean();
+        }
+        cachedFingerprint = fingerprint;
+        recipeCached = memoised;
+        return cachedValid;
+    }
+    
+    /**
+     * Get the default recipe check fingerprint: both inventories' contents and the recipe snapshot version.
+     * 
+     * @return The fingerprint
+     */
+    public long getContentFingerprint() {
+        long hash = inputs.getContentHash();
+        hash = 31 * hash + outputs.getContentHash();
+        return 31 * hash + MachineRecipeManager.getVersion();
+    }
+    
+    private void onInventoryChanged() {
+        if (!completing) {
+            requestWake();
+        }
     }
     
     @Override
@@ -0,0 +1,211 @@
+package com.astroframe.galactic.machinery.implementation;
+
+import com.astroframe.galactic.energy.api.EnergyType;
+import com.astroframe.galactic.energy.implementation.SimpleEnergyStorage;
+import com.astroframe.galactic.energy.nbt.CompoundTag;
+import net.minecraft.core.BlockPos;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for {@link MachineScheduler}, checked against machines ticked every game tick.
+ */
+public class MachineSchedulerTest {
+    
+    private final MachineScheduler scheduler = new MachineScheduler();
+    private long gameTime;
+    
+    /**
+     * A scheduled machine ignores per-tick polling, and is polled again once removed.
+     */
+    @Test
+    void testScheduledMachineIsNeverPolled() {
+        ProcessorMachine machine = processor(new SimpleEnergyStorage(10000, 10000, 10000, 10000, EnergyType.ELECTRICAL));
+        scheduler.add(machine, null, at(0));
+        assertSame(scheduler, machine.getScheduler());
+        
+        run(1);
+        int progress = machine.getProgressUnits();
+        int energy = machine.getEnergy();
+        for (int i = 0; i < 5; i++) {
+            machine.tick(null, at(0));
+        }
+        assertEquals(progress, machine.getProgressUnits());
+        assertEquals(energy, machine.getEnergy());
+        
+        scheduler.remove(machine);
+        assertNull(machine.getScheduler());
+        machine.tick(null, at(0));
+        assertEquals(progress + machine.getProgressStep(), machine.getProgressUnits());
+    }
+    
+    /**
+     * A machine with a buffer smaller than an operation's energy, fed a little every tick, does as much work as a polled one.
+     */
+    @Test
+    void testSmallBufferKeepsUpWithPolling() {
+        for (int supply : new int[] {5, 4, 12, 2}) {
+            SimpleEnergyStorage polledStorage = new SimpleEnergyStorage(50, 1000, 1000, 0, EnergyType.ELECTRICAL);
+            SimpleEnergyStorage scheduledStorage = new SimpleEnergyStorage(50, 1000, 1000, 0, EnergyType.ELECTRICAL);
+            ProcessorMachine polled = processor(polledStorage);
+            ProcessorMachine scheduled = processor(scheduledStorage);
+            int[] completions = new int[2];
+            polled.setRecipeProcessor(() -> completions[0]++);
+            scheduled.setRecipeProcessor(() -> completions[1]++);
+            scheduler.add(scheduled, null, at(1));
+            
+            for (int tick = 0; tick < 1000; tick++) {
+                // The network fills the storages directly, which wakes nothing
+                polledStorage.receiveEnergy(supply, false);
+                scheduledStorage.receiveEnergy(supply, false);
+                poll(polled);
+                run(1);
+            }
+            scheduler.catchUp(scheduled);
+            
+            assertEquals(completions[0], completions[1], "supply " + supply);
+            assertEquals(work(polled, completions[0]), work(scheduled, completions[1]), "supply " + supply);
+            scheduler.remove(scheduled);
+        }
+    }
+    
+    /**
+     * Saving a sleeping machine changes nothing, and a machine loaded from the save continues exactly like the original.
+     */
+    @Test
+    void testSaveAndLoadWhileAsleep() {
+        SimpleEnergyStorage originalStorage = new SimpleEnergyStorage(10000, 10000, 10000, 10000, EnergyType.ELECTRICAL);
+        ProcessorMachine original = processor(originalStorage);
+        int[] completions = new int[2];
+        original.setRecipeProcessor(() -> completions[0]++);
+        scheduler.add(original, null, at(0));
+        run(23);
+        
+        int progress = original.getProgressUnits();
+        int energy = original.getEnergy();
+        CompoundTag tag = original.serializeNBT(new CompoundTag());
+        assertEquals(progress, original.getProgressUnits());
+        assertEquals(energy, original.getEnergy());
+        assertTrue(tag.getInt("Slept") > 0);
+        
+        SimpleEnergyStorage loadedStorage = new SimpleEnergyStorage(10000, 10000, 10000, energy, EnergyType.ELECTRICAL);
+        ProcessorMachine loaded = processor(loadedStorage);
+        loaded.setRecipeProcessor(() -> completions[1]++);
+        completions[1] = completions[0];
+        loaded.deserializeNBT(tag);
+        assertEquals(progress, loaded.getProgressUnits());
+        MachineScheduler reloaded = new MachineScheduler();
+        reloaded.add(loaded, null, at(0));
+        
+        for (int tick = 0; tick < 60; tick++) {
+            run(1);
+            reloaded.tick(gameTime);
+            assertEquals(original.getProgressUnits(), loaded.getProgressUnits(), "tick " + gameTime);
+        }
+        scheduler.catchUp(original);
+        reloaded.catchUp(loaded);
+        assertEquals(completions[0], completions[1]);
+        assertEquals(original.getEnergy(), loaded.getEnergy());
+        assertEquals(original.isActive(), loaded.isActive());
+    }
+    
+    /**
+     * A machine saves its storage with it, rewriting only the energy once the storage's configuration is saved.
+     */
+    @Test
+    void testSavesStorageChanges() {
+        SimpleEnergyStorage storage = new SimpleEnergyStorage(5000, 100, 100, 1000, EnergyType.THERMAL);
+        ProcessorMachine machine = processor(storage);
+        CompoundTag first = machine.serializeNBT(new CompoundTag());
+        assertEquals(1000, first.getInt("Energy"));
+        assertFalse(storage.isDirty());
+        
+        storage.extractEnergy(60, false);
+        CompoundTag second = machine.serializeNBT(new CompoundTag());
+        assertEquals(940, second.getInt("Energy"));
+        assertEquals(EnergyType.THERMAL.getId(), second.getString("EnergyType"));
+        assertFalse(second.contains("Delta"));
+        assertEquals(1000, first.getInt("Energy"));
+        
+        SimpleEnergyStorage loadedStorage = new SimpleEnergyStorage(1);
+        processor(loadedStorage).deserializeNBT(second);
+        assertEquals(940, loadedStorage.getEnergy());
+        assertEquals(5000, loadedStorage.getMaxEnergy());
+        assertEquals(EnergyType.THERMAL, loadedStorage.getEnergyType());
+        
+        SimpleEnergyStorage untouched = new SimpleEnergyStorage(10000, 10000, 10000, 700, EnergyType.ELECTRICAL);
+        CompoundTag old = new CompoundTag();
+        old.putInt("Progress", 0);
+        processor(untouched).deserializeNBT(old);
+        assertEquals(700, untouched.getEnergy());
+        assertEquals(10000, untouched.getMaxEnergy());
+    }
+    
+    /**
+     * A row of 64 clustered processors fed through receiveEnergy stays one cluster and matches 64 polled processors.
+     */
+    @Test
+    void testClusterMatchesPolling() {
+        scheduler.setClustering(true);
+        int count = 64;
+        ProcessorMachine[] polled = new ProcessorMachine[count];
+        ProcessorMachine[] scheduled = new ProcessorMachine[count];
+        int[][] completions = new int[2][count];
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            polled[i] = processor(new SimpleEnergyStorage(1000, 1000, 1000, 0, EnergyType.ELECTRICAL));
+            scheduled[i] = processor(new SimpleEnergyStorage(1000, 1000, 1000, 0, EnergyType.ELECTRICAL));
+            polled[i].setRecipeProcessor(() -> completions[0][index]++);
+            scheduled[i].setRecipeProcessor(() -> completions[1][index]++);
+            scheduler.add(scheduled[i], null, at(i));
+        }
+        
+        for (int tick = 0; tick < 400; tick++) {
+            for (int i = 0; i < count; i++) {
+                polled[i].receiveEnergy(6, false);
+                scheduled[i].receiveEnergy(6, false);
+                poll(polled[i]);
+            }
+            run(1);
+        }
+        
+        assertEquals(1, scheduler.getClusterCount());
+        assertEquals(count, scheduler.getClusterSize(scheduled[0]));
+        assertTrue(scheduler.getRunCount() < 400, "runs " + scheduler.getRunCount());
+        for (int i = 0; i < count; i++) {
+            scheduler.catchUp(scheduled[i]);
+            assertEquals(completions[0][i], completions[1][i], "machine " + i);
+            assertEquals(polled[i].getProgressUnits(), scheduled[i].getProgressUnits(), "machine " + i);
+            assertEquals(polled[i].getEnergy(), scheduled[i].getEnergy(), "machine " + i);
+        }
+    }
+    
+    private static ProcessorMachine processor(SimpleEnergyStorage storage) {
+        ProcessorMachine machine = new ProcessorMachine("Test Processor", storage, 1.0f, 10, 5, 1, 1);
+        machine.setRecipeValidator(() -> true);
+        return machine;
+    }
+    
+    // What a block entity ticking its machine every game tick does
+    private static void poll(ProcessorMachine machine) {
+        if (!machine.isActive()) {
+            machine.start();
+        }
+        machine.tick(null, at(0));
+    }
+    
+    private static long work(ProcessorMachine machine, int completions) {
+        return (long) completions * machine.getOperationLength() + machine.getProgressUnits();
+    }
+    
+    private void run(int ticks) {
+        for (int i = 0; i < ticks; i++) {
+            scheduler.tick(++gameTime);
+        }
+    }
+    
+    private static BlockPos at(int x) {
+        return new BlockPos(x, 64, 0);
+    }
+}
\ No newline at end of file
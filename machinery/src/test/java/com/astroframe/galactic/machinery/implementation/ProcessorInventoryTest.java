@@ -0,0 +1,188 @@
+package com.astroframe.galactic.machinery.implementation;
+
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for the change counters, content hash and slot limits of {@link ProcessorInventory}.
+ * Stacks are mocks that keep track of their count, so the tests run without bootstrapping Minecraft.
+ */
+public class ProcessorInventoryTest {
+
+    private final Item iron = mock(Item.class);
+    private final Item coal = mock(Item.class);
+    private MockedStatic<ItemStack> stackStatics;
+
+    @BeforeEach
+    void mockStackStatics() {
+        stackStatics = mockStatic(ItemStack.class);
+        stackStatics.when(() -> ItemStack.hashItemAndComponents(any()))
+                .thenAnswer(call -> System.identityHashCode(call.<ItemStack>getArgument(0).getItem()));
+        stackStatics.when(() -> ItemStack.isSameItemSameComponents(any(), any()))
+                .thenAnswer(call -> call.<ItemStack>getArgument(0).getItem() == call.<ItemStack>getArgument(1).getItem());
+    }
+
+    @AfterEach
+    void closeStackStatics() {
+        stackStatics.close();
+    }
+
+    /**
+     * Every write counts a change on its own slot only, and writes that change nothing are not counted.
+     */
+    @Test
+    void testChangeCountsPerSlot() {
+        ProcessorInventory inventory = new ProcessorInventory(3);
+        int[] notified = new int[1];
+        inventory.setChangeListener(() -> notified[0]++);
+
+        inventory.setItem(0, stack(iron, 4));
+        inventory.insert(1, stack(coal, 2));
+        inventory.extract(0, 1);
+        inventory.removeItem(1, 1);
+
+        assertEquals(2, inventory.getChangeCount(0));
+        assertEquals(2, inventory.getChangeCount(1));
+        assertEquals(0, inventory.getChangeCount(2));
+        assertEquals(4, inventory.getModCount());
+        assertEquals(4, notified[0]);
+
+        assertEquals(0, inventory.insert(0, stack(coal, 1)));
+        assertEquals(0, inventory.extract(2, 1));
+        assertEquals(ItemStack.EMPTY, inventory.removeItem(2, 1));
+        assertEquals(4, inventory.getModCount());
+        assertEquals(4, notified[0]);
+    }
+
+    /**
+     * Equal contents give equal hashes however they were written, and emptying an inventory brings its hash back.
+     */
+    @Test
+    void testEqualContentsHashEqually() {
+        ProcessorInventory written = new ProcessorInventory(2);
+        written.setItem(0, stack(iron, 3));
+        written.setItem(1, stack(coal, 1));
+
+        ProcessorInventory built = new ProcessorInventory(2);
+        built.insert(1, stack(coal, 5));
+        built.insert(0, stack(iron, 1));
+        built.insert(0, stack(iron, 2));
+        built.extract(1, 4);
+
+        assertEquals(written.getContentHash(), built.getContentHash());
+        assertNotEquals(written.getModCount(), built.getModCount());
+
+        written.clearContent();
+        assertEquals(new ProcessorInventory(2).getContentHash(), written.getContentHash());
+        assertTrue(written.isEmpty());
+    }
+
+    /**
+     * The hash tells apart swapped slots and different counts of the same items.
+     */
+    @Test
+    void testHashDependsOnSlotAndCount() {
+        ProcessorInventory inventory = new ProcessorInventory(2);
+        inventory.setItem(0, stack(iron, 1));
+        inventory.setItem(1, stack(coal, 1));
+
+        ProcessorInventory swapped = new ProcessorInventory(2);
+        swapped.setItem(0, stack(coal, 1));
+        swapped.setItem(1, stack(iron, 1));
+
+        ProcessorInventory larger = new ProcessorInventory(2);
+        larger.setItem(0, stack(iron, 2));
+        larger.setItem(1, stack(coal, 1));
+
+        assertNotEquals(inventory.getContentHash(), swapped.getContentHash());
+        assertNotEquals(inventory.getContentHash(), larger.getContentHash());
+    }
+
+    /**
+     * Stacks edited in place are only seen after setChanged, which re-hashes and counts only the slots that differ.
+     */
+    @Test
+    void testSetChangedRehashesInPlaceEdits() {
+        ProcessorInventory inventory = new ProcessorInventory(2);
+        inventory.setItem(0, stack(iron, 1));
+        inventory.setItem(1, stack(coal, 1));
+        long hash = inventory.getContentHash();
+        int[] notified = new int[1];
+        inventory.setChangeListener(() -> notified[0]++);
+
+        inventory.getItem(0).grow(1);
+        assertEquals(hash, inventory.getContentHash());
+
+        inventory.setChanged();
+        ProcessorInventory expected = new ProcessorInventory(2);
+        expected.setItem(0, stack(iron, 2));
+        expected.setItem(1, stack(coal, 1));
+        assertEquals(expected.getContentHash(), inventory.getContentHash());
+        assertEquals(2, inventory.getChangeCount(0));
+        assertEquals(1, inventory.getChangeCount(1));
+        assertEquals(1, notified[0]);
+
+        inventory.setChanged();
+        assertEquals(3, inventory.getModCount());
+        assertEquals(1, notified[0]);
+    }
+
+    /**
+     * Inserting stops at the stack limit and at other items, extracting at the items present,
+     * and neither touches the stack it was given or slots out of range.
+     */
+    @Test
+    void testInsertAndExtractLimits() {
+        ProcessorInventory inventory = new ProcessorInventory(2);
+        ItemStack many = stack(iron, 100);
+
+        assertEquals(64, inventory.insert(0, many));
+        assertEquals(100, many.getCount());
+        assertEquals(64, inventory.getItem(0).getCount());
+        assertEquals(0, inventory.insert(0, stack(iron, 1)));
+
+        inventory.extract(0, 4);
+        assertEquals(4, inventory.insert(0, stack(iron, 10)));
+        assertEquals(0, inventory.insert(0, stack(coal, 1)));
+
+        inventory.insert(1, stack(coal, 5));
+        assertEquals(5, inventory.extract(1, 10));
+        assertTrue(inventory.getItem(1).isEmpty());
+        assertEquals(0, inventory.extract(1, 1));
+
+        assertEquals(0, inventory.insert(2, stack(iron, 1)));
+        assertEquals(0, inventory.extract(-1, 1));
+        assertEquals(ItemStack.EMPTY, inventory.getItem(2));
+    }
+
+    private static ItemStack stack(Item item, int count) {
+        int[] size = {count};
+        ItemStack stack = mock(ItemStack.class);
+        when(stack.getItem()).thenReturn(item);
+        when(stack.getCount()).thenAnswer(call -> size[0]);
+        when(stack.isEmpty()).thenAnswer(call -> size[0] <= 0);
+        when(stack.getMaxStackSize()).thenReturn(64);
+        doAnswer(call -> size[0] = call.getArgument(0)).when(stack).setCount(anyInt());
+        doAnswer(call -> size[0] -= call.<Integer>getArgument(0)).when(stack).shrink(anyInt());
+        doAnswer(call -> size[0] += call.<Integer>getArgument(0)).when(stack).grow(anyInt());
+        when(stack.copy()).thenAnswer(call -> stack(item, size[0]));
+        when(stack.split(anyInt())).thenAnswer(call -> {
+            int taken = Math.min(call.<Integer>getArgument(0), size[0]);
+            size[0] -= taken;
+            return stack(item, taken);
+        });
+        return stack;
+    }
+}
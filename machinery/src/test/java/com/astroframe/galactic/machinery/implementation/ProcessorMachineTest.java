@@ -0,0 +1,65 @@
+package com.astroframe.galactic.machinery.implementation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for when {@link ProcessorMachine} memoises its recipe checks.
+ */
+public class ProcessorMachineTest {
+    
+    private final ProcessorMachine machine = new ProcessorMachine("Test Processor", null, 1.0f, 10, 0, 1, 1);
+    
+    /**
+     * A validator may read anything, so without a fingerprint it runs on every check.
+     */
+    @Test
+    void testValidatorIsNotMemoisedByDefault() {
+        boolean[] ready = new boolean[1];
+        machine.setRecipeValidator(() -> ready[0]);
+        
+        assertFalse(machine.start());
+        assertFalse(machine.start());
+        assertEquals(2, machine.getRecipeCheckCount());
+        
+        ready[0] = true;
+        assertTrue(machine.start());
+    }
+    
+    /**
+     * A matcher that only sees the inputs is checked once while the inventories do not change.
+     */
+    @Test
+    void testInputMatcherIsMemoised() {
+        machine.setInputRecipeMatcher(inputs -> null);
+        
+        for (int i = 0; i < 5; i++) {
+            assertFalse(machine.start());
+        }
+        assertEquals(1, machine.getRecipeCheckCount());
+        
+        machine.setRecipeMatcher(() -> null);
+        assertFalse(machine.start());
+        assertFalse(machine.start());
+        assertEquals(3, machine.getRecipeCheckCount());
+    }
+    
+    /**
+     * A fingerprint of its own memoises any check until the fingerprint changes.
+     */
+    @Test
+    void testFingerprintMemoisesValidator() {
+        long[] fingerprint = new long[1];
+        machine.setRecipeValidator(() -> false);
+        machine.setInputFingerprint(() -> fingerprint[0]);
+        
+        assertFalse(machine.start());
+        assertFalse(machine.start());
+        assertEquals(1, machine.getRecipeCheckCount());
+        
+        fingerprint[0]++;
+        assertFalse(machine.start());
+        assertEquals(2, machine.getRecipeCheckCount());
+    }
+}
\ No newline at end of file